@@ -3,8 +3,26 @@ function getBaseUrl() {
 }
 
 var baseurl = getBaseUrl();
+
+//the bot session shown by this page, empty for the default session
+var session = getSessionParam();
+var refreshSessionsInterval = 5 * 1000;
+
+function getSessionParam() {
+    var match = /[?&]session=([^&]*)/.exec(location.search);
+    return match ? decodeURIComponent(match[1]) : "";
+}
+
+//direct every request to the session shown by this page
+$.ajaxPrefilter(function(options) {
+    if (session != "") {
+        options.url += (options.url.indexOf("?") < 0 ? "?" : "&") + "session=" + encodeURIComponent(session);
+    }
+});
 var orderEndPoint = "orders";
 var balanceEndPoint = "balances";
+var priceStatsEndPoint = "pricestats";
+var feedHealthEndPoint = "feedhealth";
 
 var hook = true; //flag that prevents/allow the alert on page change to show up
 
@@ -376,6 +394,76 @@ function updateOrders() {
     setTimeout(updateOrders, refreshOrders);
 }
 
+function updatePriceStats() {
+    if (isBotActive()) {
+        $.ajax({
+                type: "GET",
+                dataType: "json",
+                url: baseurl + "/" + priceStatsEndPoint
+            })
+            .done(function(data) {
+                $("#pricestatstable").find("tbody").empty();
+                if (data.hasOwnProperty("windows")) {
+                    $("#pricelast").html(data["last"]);
+                    $("#priceewma").html(data["ewma"]);
+                    var windows = data["windows"];
+                    for (var i = 0; i < windows.length; i++) {
+                        var w = windows[i];
+                        var rowhtml = '<tr><td>' + w["window"] + ' (' + w["count"] + ')</td>' +
+                            '<td align=\'right\'>' + w["mean"] + '</td>' +
+                            '<td align=\'right\'>' + w["stddev"] + '</td>' +
+                            '<td align=\'right\'>' + w["min"] + '</td>' +
+                            '<td align=\'right\'>' + w["max"] + '</td></tr>';
+                        $("#pricestatstable").find("tbody").append(rowhtml);
+                    }
+                }
+            });
+    }
+    setTimeout(updatePriceStats, refreshBalances);
+}
+
+function updateFeedHealth() {
+    if (isBotActive()) {
+        $.ajax({
+                type: "GET",
+                dataType: "json",
+                url: baseurl + "/" + feedHealthEndPoint
+            })
+            .done(function(data) {
+                $("#feedhealthtable").find("tbody").empty();
+                for (var i = 0; i < data.length; i++) {
+                    var f = data[i];
+                    var status = f["excluded"] ? "excluded" : f["score"];
+                    var rowhtml = '<tr><td>' + f["name"] + '</td>' +
+                        '<td align=\'right\'>' + status + '</td>' +
+                        '<td align=\'right\'>' + f["latency50"] + ' / ' + f["latency95"] + '</td>' +
+                        '<td align=\'right\'>' + f["errorrate"] + '</td>' +
+                        '<td align=\'right\'>' + f["deviation"] + '</td></tr>';
+                    $("#feedhealthtable").find("tbody").append(rowhtml);
+                }
+            });
+    }
+    setTimeout(updateFeedHealth, refreshBalances);
+}
+
+function updateSessions() {
+    $.ajax({
+            type: "GET",
+            dataType: "json",
+            url: baseurl + "/sessions"
+        })
+        .done(function(data) {
+            $("#sessiontable").find("tbody").empty();
+            for (var i = 0; i < data.length; i++) {
+                var s = data[i];
+                var link = '<a href="/?session=' + encodeURIComponent(s["name"]) + '">' + s["name"] + '</a>';
+                var rowhtml = '<tr><td>' + link + '</td><td>' + s["exchange"] + '</td><td>' + s["pair"] + '</td><td>' + s["status"] + '</td></tr>';
+                $("#sessiontable").find("tbody").append(rowhtml);
+            }
+        });
+    setTimeout(updateSessions, refreshSessionsInterval);
+}
+
 function updateStatus(pageName) {
     $.ajax({
             type: "GET",
@@ -690,10 +778,13 @@ function startupPage(page_name) {
             laddaToggleBtn = $('#togglebot').ladda();
 
             updateStatus("operation");
+            updateSessions();
             updateLog();
 
             updateBalances();
             updateOrders();
+            updatePriceStats();
+            updateFeedHealth();
             break;
         case "config":
             updateNavbar("config");
@@ -730,6 +821,9 @@ function changePage(page_name) {
             newUrl = '/disclaimer';
             break;
     }
+    if (session != "") {
+        newUrl += "?session=" + encodeURIComponent(session);
+    }
     document.location.href = baseurl + newUrl;
 }
 
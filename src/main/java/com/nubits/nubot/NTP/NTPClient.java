@@ -33,6 +33,9 @@ public final class NTPClient {
     private static final Logger LOG = LoggerFactory.getLogger(NTPClient.class.getName());
     private ArrayList<String> hostnames;
 
+    private static long clockOffset = 0;
+    private static long lastOffsetUpdate = -1;
+
     public NTPClient() {
     }
 
@@ -56,8 +59,18 @@ public final class NTPClient {
     }
 
     public Date getTime() {
+        Date remoteDate = queryTime();
+        if (remoteDate == null) {
+            return new Date();
+        }
+        return remoteDate;
+    }
+
+    /**
+     * @return the time of the first timeserver which answers, null if none does
+     */
+    private Date queryTime() {
         initHosts();
-        boolean found = false;
         for (int i = 0; i < hostnames.size(); i++) {
             try {
                 return getTimeImpl(hostnames.get(i));
@@ -69,12 +82,33 @@ public final class NTPClient {
                 }
             }
         }
-        if (!found) {
-            LOG.error("Cannot update time after querying " + hostnames.size() + " timeservers. ");
-        }
-        return new Date(); //statement is never reached
+        LOG.error("Cannot update time after querying " + hostnames.size() + " timeservers. ");
+        return null;
+    }
 
+    /**
+     * Offset between the remote time and the local clock [ms].
+     * Timeservers are only queried when the cached offset is older than Settings.NTP_OFFSET_REFRESH
+     */
+    public static synchronized long getClockOffset() {
+        long now = System.currentTimeMillis();
+        if (lastOffsetUpdate < 0 || now - lastOffsetUpdate > Settings.NTP_OFFSET_REFRESH) {
+            Date remoteDate = new NTPClient().queryTime();
+            if (remoteDate != null) {
+                //the time protocol has a resolution of one second
+                clockOffset = remoteDate.getTime() + 500 - System.currentTimeMillis();
+                LOG.debug("clock offset from remote time : " + clockOffset + " ms");
+            }
+            lastOffsetUpdate = now;
+        }
+        return clockOffset;
+    }
 
+    /**
+     * @return the remote time in milliseconds, using the cached clock offset
+     */
+    public static long currentTimeMillis() {
+        return System.currentTimeMillis() + getClockOffset();
     }
 
     private Date getTimeImpl(String host) throws IOException {
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.nubits.nubot.NTP;
+
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.options.NuBotOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Deterministic time slots for custodians sharing a market.
+ * Every window of RESET_EVERY_MINUTES is split into RESET_SLOTS slots, and each custodian owns the slot
+ * picked by the hash of its address. Times are read from the remote clock (NTPClient), so that bots on
+ * different machines agree on where a window starts.
+ */
+public class SlotScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlotScheduler.class.getName());
+
+    private final long windowMillis;
+    private final long slotMillis;
+    private final int slot;
+
+    public SlotScheduler(String custodianAddress) {
+        this(custodianAddress, Settings.RESET_EVERY_MINUTES * 60, Settings.RESET_SLOTS);
+    }
+
+    public SlotScheduler(String custodianAddress, int windowSeconds, int slots) {
+        this.windowMillis = windowSeconds * 1000L;
+        this.slotMillis = windowMillis / slots;
+        this.slot = slotOf(custodianAddress, slots);
+        LOG.debug("custodian " + custodianAddress + " owns slot " + slot + "/" + slots);
+    }
+
+    /**
+     * @return the scheduler of the custodian running with these options : identified by its
+     * nubit address, or by its api key when no address is configured
+     */
+    public static SlotScheduler forCustodian(NuBotOptions options) {
+        String id = options.getNubitAddress();
+        if (id == null || id.isEmpty()) {
+            id = options.getApiKey();
+        }
+        return new SlotScheduler(id);
+    }
+
+    /**
+     * @return a slot in [0, slots) derived from the address
+     */
+    public static int slotOf(String custodianAddress, int slots) {
+        int hash;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(custodianAddress.getBytes(StandardCharsets.UTF_8));
+            hash = ((digest[0] & 0xff) << 24) | ((digest[1] & 0xff) << 16) | ((digest[2] & 0xff) << 8) | (digest[3] & 0xff);
+        } catch (NoSuchAlgorithmException e) {
+            hash = custodianAddress.hashCode();
+        }
+        return Math.floorMod(hash, slots);
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public long getSlotMillis() {
+        return slotMillis;
+    }
+
+    /**
+     * @param remoteTime remote time in milliseconds
+     * @return milliseconds until the start of the next slot owned by this custodian
+     */
+    public long millisToNextSlot(long remoteTime) {
+        long slotStart = slot * slotMillis;
+        long positionInWindow = Math.floorMod(remoteTime, windowMillis);
+        long wait = slotStart - positionInWindow;
+        if (wait < 0) {
+            wait += windowMillis;
+        }
+        return wait;
+    }
+
+    public long millisToNextSlot() {
+        return millisToNextSlot(NTPClient.currentTimeMillis());
+    }
+
+    public int getSecondsToNextSlot() {
+        return (int) Math.ceil(millisToNextSlot() / 1000.0);
+    }
+
+    /**
+     * @return true if the current remote time is inside the slot owned by this custodian
+     */
+    public boolean isInSlot(long remoteTime) {
+        long positionInSlot = Math.floorMod(remoteTime, windowMillis) - slot * slotMillis;
+        return positionInSlot >= 0 && positionInSlot < slotMillis;
+    }
+
+    public boolean isInSlot() {
+        return isInSlot(NTPClient.currentTimeMillis());
+    }
+
+    /**
+     * Sleep until the next slot of this custodian starts, unless it's already running
+     *
+     * @return false if interrupted
+     */
+    public boolean waitForSlot() {
+        if (isInSlot()) {
+            return true;
+        }
+        try {
+            Thread.sleep(millisToNextSlot());
+            return true;
+        } catch (InterruptedException e) {
+            LOG.error(e.toString());
+            return false;
+        }
+    }
+}
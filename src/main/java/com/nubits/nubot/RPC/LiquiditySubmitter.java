@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.RPC;
+
+import com.nubits.nubot.bot.BotSession;
+import com.nubits.nubot.bot.Global;
+import com.nubits.nubot.global.Settings;
+import org.json.simple.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends liquidity info to nud from a thread of its own, so that a slow nud never holds up exchange polling.
+ * Reports are queued per tier and a newer report replaces the queued one : when nud is slow only the latest
+ * liquidity gets through. Failed submissions are retried with a growing delay, unless a newer report arrived meanwhile.
+ */
+public class LiquiditySubmitter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LiquiditySubmitter.class.getName());
+
+    private final NuRPCClient rpcClient;
+    private final BotSession session;
+
+    //tier -> report waiting to be sent, at most one per tier
+    private final LinkedHashMap<Integer, NuRPCClient.LiquidityReport> pending = new LinkedHashMap<>();
+    //tier -> failed attempts of the pending report
+    private final HashMap<Integer, Integer> attempts = new HashMap<>();
+    //tier -> last report nud accepted
+    private final HashMap<Integer, NuRPCClient.LiquidityReport> lastSubmitted = new HashMap<>();
+    //tier -> when nud accepted it
+    private final HashMap<Integer, Long> lastSubmittedAt = new HashMap<>();
+
+    private Thread worker;
+    private boolean stopped; //for good, see stop
+    private boolean inFlight;
+    private long retryAt;
+
+    private int submitted;
+    private int coalesced;
+    private int failed;
+
+    public LiquiditySubmitter(NuRPCClient rpcClient) {
+        this.rpcClient = rpcClient;
+        this.session = Global.session();
+    }
+
+    /**
+     * queue reports for submission, replacing the reports of the same tiers still waiting. Never blocks on nud.
+     * Ignored once stopped
+     */
+    public synchronized void offer(List<NuRPCClient.LiquidityReport> reports) {
+        if (stopped) {
+            LOG.debug("Liquidity submitter stopped, dropping " + reports);
+            return;
+        }
+        for (NuRPCClient.LiquidityReport report : reports) {
+            if (pending.put(report.getTier(), report) != null) {
+                coalesced++;
+            }
+            attempts.remove(report.getTier());
+        }
+        retryAt = 0; //fresh values go out right away
+        if (worker == null) {
+            start();
+        }
+        notifyAll();
+    }
+
+    private void start() {
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Global.bindSession(session);
+                try {
+                    work();
+                } finally {
+                    Global.unbindSession();
+                }
+            }
+        }, session.name + "-liquiditySubmitter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * stop the worker for good and drop the reports not sent yet : the reports offered later are ignored, they must not
+     * land after the liquidity reset of a stopping bot. A batch already sent to nud is given time to complete
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+        pending.clear();
+        attempts.clear();
+        notifyAll();
+
+        long deadline = System.currentTimeMillis() + Settings.NUD_RPC_READ_TIMEOUT;
+        while (inFlight && System.currentTimeMillis() < deadline) {
+            try {
+                wait(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * wait until every queued report was sent or given up
+     *
+     * @return false if timeoutMS elapsed first
+     */
+    public synchronized boolean flush(long timeoutMS) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMS;
+        while (!pending.isEmpty() || inFlight) {
+            long wait = deadline - System.currentTimeMillis();
+            if (wait <= 0) {
+                return false;
+            }
+            wait(wait);
+        }
+        return true;
+    }
+
+    private void work() {
+        Thread self = Thread.currentThread();
+        while (true) {
+            List<NuRPCClient.LiquidityReport> batch;
+            synchronized (this) {
+                try {
+                    while (worker == self && (pending.isEmpty() || System.currentTimeMillis() < retryAt)) {
+                        if (pending.isEmpty()) {
+                            wait();
+                        } else {
+                            wait(Math.max(1, retryAt - System.currentTimeMillis()));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (worker != self) {
+                    return;
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+                inFlight = true;
+            }
+
+            Map<Integer, JSONObject> responses = null;
+            try {
+                //while nud looks unreachable a getinfo rides along, so that submissions resume as soon as it answers again
+                responses = rpcClient.submitLiquidityInfo(NuRPCClient.USDchar, batch, !rpcClient.isConnected());
+            } catch (Exception e) {
+                LOG.error("Liquidity info submission failed : " + e.toString());
+            }
+
+            boolean accepted = false;
+            synchronized (this) {
+                inFlight = false;
+                for (NuRPCClient.LiquidityReport report : batch) {
+                    JSONObject response = responses == null ? null : responses.get(report.getTier());
+                    if (response != null && Boolean.TRUE.equals(response.get("submitted"))) {
+                        submitted++;
+                        lastSubmitted.put(report.getTier(), report);
+                        lastSubmittedAt.put(report.getTier(), System.currentTimeMillis());
+                        attempts.remove(report.getTier());
+                        accepted = true;
+                        LOG.info("Liquidity info submitted : " + report.toString()
+                                + " identifier=" + rpcClient.generateIdentifier(report.getTier()));
+                    } else {
+                        retry(report, response);
+                    }
+                }
+                notifyAll();
+            }
+            if (accepted && session.options != null && session.options.verbose) {
+                LOG.info("getliquidityinfo result : " + rpcClient.getLiquidityInfo(NuRPCClient.USDchar).toJSONString());
+            }
+        }
+    }
+
+    private void retry(NuRPCClient.LiquidityReport report, JSONObject response) {
+        failed++;
+        if (pending.containsKey(report.getTier())) {
+            return; //a newer report of this tier replaces the failed one
+        }
+        Integer attempt = attempts.get(report.getTier());
+        attempt = attempt == null ? 1 : attempt + 1;
+        String error = response == null ? "nud unreachable" : response.toJSONString();
+        if (attempt > Settings.LIQUIDITY_SUBMIT_RETRIES) {
+            attempts.remove(report.getTier());
+            LOG.error("Giving up liquidity info " + report.toString() + " after " + attempt + " attempts : " + error);
+            return;
+        }
+        LOG.warn("Liquidity info " + report.toString() + " not accepted (" + error + "), retry " + attempt);
+        attempts.put(report.getTier(), attempt);
+        pending.put(report.getTier(), report);
+        retryAt = System.currentTimeMillis() + (Settings.LIQUIDITY_RETRY_DELAY << (attempt - 1));
+    }
+
+    /**
+     * @return the last report of this tier nud accepted, null if none yet
+     */
+    public synchronized NuRPCClient.LiquidityReport getLastSubmitted(int tier) {
+        return lastSubmitted.get(tier);
+    }
+
+    /**
+     * @return when nud accepted the last report of this tier, 0 if none yet
+     */
+    public synchronized long getLastSubmittedAt(int tier) {
+        Long at = lastSubmittedAt.get(tier);
+        return at == null ? 0 : at;
+    }
+
+    public synchronized int getSubmitted() {
+        return submitted;
+    }
+
+    public synchronized int getCoalesced() {
+        return coalesced;
+    }
+
+    public synchronized int getFailed() {
+        return failed;
+    }
+}
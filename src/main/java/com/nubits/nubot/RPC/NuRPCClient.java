@@ -21,15 +21,27 @@ package com.nubits.nubot.RPC;
 import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.bot.SessionManager;
 import com.nubits.nubot.global.Constant;
+import com.nubits.nubot.global.Settings;
 import com.nubits.nubot.models.CurrencyPair;
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
+import org.apache.http.HttpHost;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.AuthCache;
 import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -39,13 +51,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 
 /**
- * RPC Client for Nu Wallet
+ * RPC Client for Nu Wallet.
+ * Requests go through one pooled HTTP client kept for the lifetime of the object, with connect and read deadlines,
+ * and several calls can be sent to nud in one round trip as a JSON-RPC 2.0 batch.
  */
 public class NuRPCClient {
 
@@ -64,6 +83,12 @@ public class NuRPCClient {
     private String exchangeName;
     private CurrencyPair pair;
 
+    private CloseableHttpClient httpClient; //built on first use, dropped when the endpoint or credentials change
+    private PoolingHttpClientConnectionManager pool;
+    private HttpHost host;
+    private CredentialsProvider credentials;
+    private AuthCache authCache;
+
 
     public NuRPCClient(String ip, int port, String rpcUser, String rpcPass, boolean useIdentifier, String custodianPublicAddress, CurrencyPair pair, String exchangeName) {
         this.ip = ip;
@@ -79,34 +104,70 @@ public class NuRPCClient {
 
     //Public Methods
     public JSONObject submitLiquidityInfo(String currencyChar, double buyamount, double sellamount, int tier) {
+        List params = liquidityParams(currencyChar, buyamount, sellamount, tier);
+
+        LOG.debug("RPC parameters " + params.toString());
+
+        JSONObject json = invokeRPC(UUID.randomUUID().toString(), COMMAND_LIQUIDITYINFO, params);
+        return liquidityAnswer(json);
+    }
+
+    /**
+     * submit the liquidity of several tiers in a single JSON-RPC batch.
+     * when checkInfo is set a getinfo call travels in the same batch and the connection status is refreshed from it
+     *
+     * @return the answer for each tier, in the format of submitLiquidityInfo
+     */
+    public Map<Integer, JSONObject> submitLiquidityInfo(String currencyChar, List<LiquidityReport> reports, boolean checkInfo) {
+        List<JSONObject> calls = new ArrayList<>();
+        for (LiquidityReport report : reports) {
+            calls.add(buildRequest(UUID.randomUUID().toString(), COMMAND_LIQUIDITYINFO,
+                    liquidityParams(currencyChar, report.getBuy(), report.getSell(), report.getTier())));
+        }
+        JSONObject infoCall = null;
+        if (checkInfo) {
+            infoCall = buildRequest(UUID.randomUUID().toString(), COMMAND_GET_INFO, null);
+            calls.add(infoCall);
+        }
+
+        LOG.debug("RPC batch " + calls.toString());
+
+        Map<String, JSONObject> answers = invokeBatch(calls);
 
+        Map<Integer, JSONObject> toReturn = new LinkedHashMap<>();
+        for (int i = 0; i < reports.size(); i++) {
+            JSONObject json = answers == null ? null : answers.get(calls.get(i).get("id"));
+            toReturn.put(reports.get(i).getTier(), liquidityAnswer(json));
+        }
+        if (infoCall != null) {
+            JSONObject json = answers == null ? null : answers.get(infoCall.get("id"));
+            JSONObject info = json == null ? null : (JSONObject) json.get("result");
+            updateConnection(info == null ? new JSONObject() : info);
+        }
+        return toReturn;
+    }
+
+    private List liquidityParams(String currencyChar, double buyamount, double sellamount, int tier) {
         /*
          * String[] params = { USDchar,buyamount,sellamount,custodianPublicAddress, identifier* };
          * identifier default empty string
          */
-
-
-        List params;
         if (useIdentifier) {
-            params = Arrays.asList(currencyChar, buyamount, sellamount, custodianPublicAddress, generateIdentifier(tier));
+            return Arrays.asList(currencyChar, buyamount, sellamount, custodianPublicAddress, generateIdentifier(tier));
         } else {
-            params = Arrays.asList(currencyChar, buyamount, sellamount, custodianPublicAddress);
+            return Arrays.asList(currencyChar, buyamount, sellamount, custodianPublicAddress);
         }
+    }
 
-
-        LOG.debug("RPC parameters " + params.toString());
-
-        JSONObject json = invokeRPC(UUID.randomUUID().toString(), COMMAND_LIQUIDITYINFO, params);
+    private JSONObject liquidityAnswer(JSONObject json) {
         if (json != null) {
 
-            if (json.get("null") == null) {
+            if (json.get("error") == null) {
                 //Correct answer, try to getliquidityinfo
                 LOG.debug("RPC : Liquidity info submitted correctly.");
                 JSONObject jo = new JSONObject();
                 jo.put("submitted", true);
                 return jo;
-            } else if ((JSONObject) json.get("result") != null) {
-                return (JSONObject) json.get("result"); //Correct answer
             } else {
                 return (JSONObject) json.get("error");
             }
@@ -192,8 +253,11 @@ public class NuRPCClient {
     }
 
     public void checkConnection() {
+        updateConnection(this.getInfo());
+    }
+
+    private void updateConnection(JSONObject responseObject) {
         boolean conn = false;
-        JSONObject responseObject = this.getInfo();
         if (responseObject.get("blocks") != null) {
             conn = true;
         }
@@ -223,7 +287,7 @@ public class NuRPCClient {
 
     public void setIp(String ip) {
         this.ip = ip;
-
+        close();
     }
 
     public int getPort() {
@@ -232,7 +296,7 @@ public class NuRPCClient {
 
     public void setPort(int port) {
         this.port = port;
-
+        close();
     }
 
     public String getRpcUsername() {
@@ -241,7 +305,7 @@ public class NuRPCClient {
 
     public void setRpcUsername(String rpcUsername) {
         this.rpcUsername = rpcUsername;
-
+        close();
     }
 
     public String getRpcPassword() {
@@ -250,47 +314,141 @@ public class NuRPCClient {
 
     public void setRpcPassword(String rpcPassword) {
         this.rpcPassword = rpcPassword;
+        close();
+    }
 
+    /**
+     * release the pooled connections to nud. The client is built again on the next call
+     */
+    public synchronized void close() {
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                LOG.error("Nud RPC error closing the connection pool:" + e.toString());
+            }
+            httpClient = null;
+            pool = null;
+        }
     }
 
-    private JSONObject invokeRPC(String id, String method, List params) {
-        DefaultHttpClient httpclient = new DefaultHttpClient();
+    /**
+     * @return the client, its pool cleared of the connections nud may have closed meanwhile
+     */
+    private synchronized CloseableHttpClient httpClient() {
+        if (httpClient != null) {
+            pool.closeExpiredConnections();
+            pool.closeIdleConnections(Settings.NUD_RPC_IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+        } else {
+            pool = new PoolingHttpClientConnectionManager();
+            pool.setMaxTotal(Settings.NUD_RPC_MAX_CONNECTIONS);
+            pool.setDefaultMaxPerRoute(Settings.NUD_RPC_MAX_CONNECTIONS);
+
+            RequestConfig deadlines = RequestConfig.custom()
+                    .setConnectTimeout(Settings.NUD_RPC_CONNECT_TIMEOUT)
+                    .setConnectionRequestTimeout(Settings.NUD_RPC_CONNECT_TIMEOUT)
+                    .setSocketTimeout(Settings.NUD_RPC_READ_TIMEOUT)
+                    //nud may close a pooled connection at any time (keep-alive, restart) : check before reusing it
+                    .setStaleConnectionCheckEnabled(true)
+                    .build();
+
+            host = new HttpHost(this.ip, this.port);
+            credentials = new BasicCredentialsProvider();
+            credentials.setCredentials(new AuthScope(this.ip, this.port),
+                    new UsernamePasswordCredentials(this.rpcUsername, this.rpcPassword));
+            //nud only knows basic auth : send it with every request instead of waiting for the 401 challenge
+            authCache = new BasicAuthCache();
+            authCache.put(host, new BasicScheme());
+
+            httpClient = HttpClients.custom()
+                    .setConnectionManager(pool)
+                    .setDefaultRequestConfig(deadlines)
+                    .build();
+        }
+        return httpClient;
+    }
 
+    private JSONObject buildRequest(String id, String method, List params) {
         JSONObject json = new JSONObject();
+        json.put("jsonrpc", "2.0");
         json.put("id", id);
         json.put("method", method);
         if (null != params) {
             JSONArray array = new JSONArray();
             array.addAll(params);
-            json.put("params", params);
+            json.put("params", array);
+        }
+        return json;
+    }
+
+    private JSONObject invokeRPC(String id, String method, List params) {
+        Object response = post(buildRequest(id, method, params).toJSONString());
+        if (response instanceof JSONObject) {
+            return (JSONObject) response;
+        }
+        if (response != null) {
+            LOG.error("Nud RPC unexpected answer to " + method + " : " + response.toString());
+        }
+        return null;
+    }
+
+    /**
+     * send a JSON-RPC 2.0 batch in one request
+     *
+     * @return the answers keyed by request id, null if the batch did not go through
+     */
+    private Map<String, JSONObject> invokeBatch(List<JSONObject> calls) {
+        JSONArray batch = new JSONArray();
+        batch.addAll(calls);
+        Object response = post(batch.toJSONString());
+        if (response == null) {
+            return null;
         }
-        JSONObject responseJsonObj = null;
+        Map<String, JSONObject> answers = new HashMap<>();
+        if (response instanceof JSONArray) {
+            for (Object o : (JSONArray) response) {
+                JSONObject answer = (JSONObject) o;
+                answers.put(String.valueOf(answer.get("id")), answer);
+            }
+        } else {
+            //a server refusing the whole batch answers with a single error object
+            LOG.error("Nud RPC batch refused : " + response.toString());
+        }
+        return answers;
+    }
+
+    private Object post(String body) {
+        CloseableHttpClient client = httpClient();
+        Object parsed = null;
         try {
-            httpclient.getCredentialsProvider().setCredentials(new AuthScope(this.ip, this.port),
-                    new UsernamePasswordCredentials(this.rpcUsername, this.rpcPassword));
-            StringEntity myEntity = new StringEntity(json.toJSONString());
-            if (Global.options.verbose) {
-                LOG.info("RPC : " + json.toString());
+            if (verbose()) {
+                LOG.info("RPC : " + body);
             }
             HttpPost httppost = new HttpPost("http://" + this.ip + ":" + this.port);
-            httppost.setEntity(myEntity);
+            httppost.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
 
-            if (Global.options.verbose) {
+            if (verbose()) {
                 LOG.info("RPC executing request :" + httppost.getRequestLine());
             }
-            HttpResponse response = httpclient.execute(httppost);
-            HttpEntity entity = response.getEntity();
+            HttpClientContext context = HttpClientContext.create();
+            context.setCredentialsProvider(credentials);
+            context.setAuthCache(authCache);
 
-            if (Global.options.verbose) {
-                LOG.info("RPC----------------------------------------");
-                LOG.info("" + response.getStatusLine());
+            String entityString;
+            try (CloseableHttpResponse response = client.execute(host, httppost, context)) {
+                HttpEntity entity = response.getEntity();
 
-                if (entity != null) {
-                    LOG.info("RPC : Response content length: " + entity.getContentLength());
+                if (verbose()) {
+                    LOG.info("RPC----------------------------------------");
+                    LOG.info("" + response.getStatusLine());
+
+                    if (entity != null) {
+                        LOG.info("RPC : Response content length: " + entity.getContentLength());
+                    }
                 }
+                //reading the entity to the end hands the connection back to the pool
+                entityString = entity == null ? "" : EntityUtils.toString(entity);
             }
-            JSONParser parser = new JSONParser();
-            String entityString = EntityUtils.toString(entity);
             LOG.debug("Entity = " + entityString);
             /* TODO In case of wrong username/pass the response would be the following .Consider parsing it.
             Entity = <!DOCTYPE HTML PUBLIC "-//W3C//DTD HTML 4.01 Transitional//EN"
@@ -303,7 +461,7 @@ public class NuRPCClient {
                         <BODY><H1>401 Unauthorized.</H1></BODY>
                         </HTML>
              */
-            responseJsonObj = (JSONObject) parser.parse(entityString);
+            parsed = new JSONParser().parse(entityString);
         } catch (ClientProtocolException e) {
             LOG.error("Nud RPC Connection problem:" + e.toString());
             this.connected = false;
@@ -313,13 +471,12 @@ public class NuRPCClient {
         } catch (ParseException ex) {
             LOG.error("Nud RPC Connection problem:" + ex.toString());
             this.connected = false;
-        } finally {
-            // When HttpClient instance is no longer needed,
-            // shut down the connection manager to ensure
-            // immediate deallocation of all system resources
-            httpclient.getConnectionManager().shutdown();
         }
-        return responseJsonObj;
+        return parsed;
+    }
+
+    private boolean verbose() {
+        return Global.session().options != null && Global.session().options.verbose;
     }
 
     public String generateIdentifier(int tier) {
@@ -330,10 +487,43 @@ public class NuRPCClient {
         String identifier = tier + separator
                 + pair.toString().toUpperCase() + separator
                 + exchangeName + separator
-                + SessionManager.sessionId;
+                + Global.session().sessionId;
         LOG.debug("liquidity identifier = " + identifier);
         //TODO limit identifier to 250bytes
         //TODO limit to this charset https://en.wikipedia.org/wiki/ASCII#ASCII_printable_characters
         return identifier;
     }
+
+    /**
+     * liquidity of one tier, as sent with liquidityinfo
+     */
+    public static class LiquidityReport {
+
+        private final int tier;
+        private final double buy;
+        private final double sell;
+
+        public LiquidityReport(int tier, double buy, double sell) {
+            this.tier = tier;
+            this.buy = buy;
+            this.sell = sell;
+        }
+
+        public int getTier() {
+            return tier;
+        }
+
+        public double getBuy() {
+            return buy;
+        }
+
+        public double getSell() {
+            return sell;
+        }
+
+        @Override
+        public String toString() {
+            return "tier=" + tier + " buy=" + buy + " sell=" + sell;
+        }
+    }
 }
@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.RPC;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the JSON-RPC interface of nud : getinfo, liquidityinfo and getliquidityinfo,
+ * single calls and batches, behind basic auth.
+ * Latency and faults (error answers, dropped connections, locked wallet) can be set to exercise NuRPCClient
+ * without a wallet
+ */
+public class NudStandIn {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NudStandIn.class.getName());
+
+    //nud error codes
+    public static final long ERROR_INVALID_PARAMETER = -8;
+    public static final long ERROR_WALLET_LOCKED = -13;
+    public static final long ERROR_METHOD_NOT_FOUND = -32601;
+    public static final long ERROR_INTERNAL = -32603;
+
+    private final String rpcUser;
+    private final String rpcPass;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private int threads;
+
+    private volatile long latency; //[ms] added to every request
+    private volatile long jitter; //[ms] random extra latency, up to
+    private volatile double errorRate; //share of calls answered with an error
+    private volatile double dropRate; //share of requests whose connection is closed without answer
+    private volatile boolean locked;
+    private final Random random;
+
+    //currency:address:identifier -> {buy, sell}
+    private final ConcurrentHashMap<String, double[]> liquidity = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong faults = new AtomicLong();
+
+    public NudStandIn(String rpcUser, String rpcPass, long seed) {
+        this.rpcUser = rpcUser;
+        this.rpcPass = rpcPass;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @param port    0 to pick a free port
+     * @param threads requests served concurrently
+     */
+    public void start(int port, int threads) throws IOException {
+        this.threads = threads;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                serve(exchange);
+            }
+        });
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.start();
+        LOG.info("nud stand-in listening on 127.0.0.1:" + getPort());
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    /**
+     * close every open connection, as nud does with the ones left idle past its keep-alive, and listen again on the same port
+     */
+    public void dropConnections() throws IOException {
+        int port = getPort();
+        stop();
+        start(port, threads);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            if (!authorized(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"jsonrpc\"");
+                send(exchange, 401, "<HTML><BODY><H1>401 Unauthorized.</H1></BODY></HTML>");
+                return;
+            }
+
+            Object request;
+            try {
+                request = new JSONParser().parse(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+            } catch (ParseException e) {
+                send(exchange, 500, answer(null, null, error(-32700, "Parse error")).toJSONString());
+                return;
+            }
+
+            pause();
+            if (draw(dropRate)) {
+                faults.incrementAndGet();
+                exchange.close(); //no answer at all
+                return;
+            }
+
+            if (request instanceof JSONArray) {
+                JSONArray answers = new JSONArray();
+                for (Object call : (JSONArray) request) {
+                    answers.add(call((JSONObject) call));
+                }
+                send(exchange, 200, answers.toJSONString());
+            } else {
+                JSONObject answer = call((JSONObject) request);
+                //as nud, a single call failing is answered with a server error status
+                send(exchange, answer.get("error") == null ? 200 : 500, answer.toJSONString());
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private JSONObject call(JSONObject request) {
+        calls.incrementAndGet();
+        Object id = request.get("id");
+        String method = (String) request.get("method");
+        JSONArray params = (JSONArray) request.get("params");
+        if (params == null) {
+            params = new JSONArray();
+        }
+
+        if (draw(errorRate)) {
+            faults.incrementAndGet();
+            return answer(id, null, error(ERROR_INTERNAL, "Injected fault"));
+        }
+
+        switch (method == null ? "" : method) {
+            case "getinfo":
+                return answer(id, getInfo(), null);
+            case "liquidityinfo":
+                return liquidityInfo(id, params);
+            case "getliquidityinfo":
+                return answer(id, getLiquidityInfo(params.isEmpty() ? "B" : String.valueOf(params.get(0))), null);
+            default:
+                return answer(id, null, error(ERROR_METHOD_NOT_FOUND, "Method not found"));
+        }
+    }
+
+    private JSONObject getInfo() {
+        JSONObject info = new JSONObject();
+        info.put("version", "v2.1.0-standin");
+        info.put("blocks", 100000L + requests.get());
+        info.put("connections", 8L);
+        info.put("unlocked_until", locked ? 0L : 9999999L);
+        return info;
+    }
+
+    private JSONObject liquidityInfo(Object id, JSONArray params) {
+        if (locked) {
+            return answer(id, null, error(ERROR_WALLET_LOCKED, "Error: Please enter the wallet passphrase with walletpassphrase first."));
+        }
+        if (params.size() < 4 || params.size() > 5
+                || !(params.get(1) instanceof Number) || !(params.get(2) instanceof Number)) {
+            return answer(id, null, error(ERROR_INVALID_PARAMETER, "Invalid parameters"));
+        }
+        double buy = ((Number) params.get(1)).doubleValue();
+        double sell = ((Number) params.get(2)).doubleValue();
+        if (buy < 0 || sell < 0) {
+            return answer(id, null, error(ERROR_INVALID_PARAMETER, "Invalid amount"));
+        }
+        String identifier = params.size() == 5 ? String.valueOf(params.get(4)) : "";
+        liquidity.put(params.get(0) + ":" + params.get(3) + ":" + identifier, new double[]{buy, sell});
+        return answer(id, null, null);
+    }
+
+    private JSONObject getLiquidityInfo(String currency) {
+        JSONObject result = new JSONObject();
+        double totalBuy = 0;
+        double totalSell = 0;
+        for (Map.Entry<String, double[]> entry : liquidity.entrySet()) {
+            String[] key = entry.getKey().split(":", 3);
+            if (!key[0].equals(currency)) {
+                continue;
+            }
+            JSONObject address = (JSONObject) result.get(key[1]);
+            if (address == null) {
+                address = new JSONObject();
+                address.put("buy", 0.0);
+                address.put("sell", 0.0);
+                result.put(key[1], address);
+            }
+            address.put("buy", (double) address.get("buy") + entry.getValue()[0]);
+            address.put("sell", (double) address.get("sell") + entry.getValue()[1]);
+            totalBuy += entry.getValue()[0];
+            totalSell += entry.getValue()[1];
+        }
+        JSONObject total = new JSONObject();
+        total.put("buy", totalBuy);
+        total.put("sell", totalSell);
+        result.put("total", total);
+        return result;
+    }
+
+    private JSONObject answer(Object id, Object result, JSONObject error) {
+        JSONObject answer = new JSONObject();
+        answer.put("result", result);
+        answer.put("error", error);
+        answer.put("id", id);
+        return answer;
+    }
+
+    private JSONObject error(long code, String message) {
+        JSONObject error = new JSONObject();
+        error.put("code", code);
+        error.put("message", message);
+        return error;
+    }
+
+    private boolean authorized(String header) {
+        String expected = "Basic " + Base64.getEncoder().encodeToString(
+                (rpcUser + ":" + rpcPass).getBytes(StandardCharsets.UTF_8));
+        return expected.equals(header);
+    }
+
+    private void pause() {
+        long wait = latency;
+        if (jitter > 0) {
+            synchronized (random) {
+                wait += (long) (random.nextDouble() * jitter);
+            }
+        }
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean draw(double rate) {
+        if (rate <= 0) {
+            return false;
+        }
+        synchronized (random) {
+            return random.nextDouble() < rate;
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * @param latency [ms] added to every request
+     * @param jitter  [ms] random extra latency, up to
+     */
+    public void setLatency(long latency, long jitter) {
+        this.latency = latency;
+        this.jitter = jitter;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public void setDropRate(double dropRate) {
+        this.dropRate = dropRate;
+    }
+
+    public void setLocked(boolean locked) {
+        this.locked = locked;
+    }
+
+    /**
+     * @return the liquidity last submitted with this address and identifier, null if none
+     */
+    public double[] getLiquidity(String currency, String address, String identifier) {
+        return liquidity.get(currency + ":" + address + ":" + (identifier == null ? "" : identifier));
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getFaults() {
+        return faults.get();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.RPC;
+
+import org.json.simple.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drive liquidity submissions of simulated custodians through NuRPCClient, and measure throughput and latency.
+ * Every custodian has a client of its own and sends tier 1 and tier 2 in one batch, as SubmitLiquidityinfoTask does
+ */
+public class RPCLoadHarness {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RPCLoadHarness.class.getName());
+
+    /**
+     * @param custodians  clients submitting concurrently
+     * @param submissions batches sent by each custodian
+     */
+    public static Result run(String ip, int port, String rpcUser, String rpcPass,
+                             int custodians, int submissions) throws Exception {
+        return run(ip, port, rpcUser, rpcPass, custodians, submissions, null);
+    }
+
+    /**
+     * @param custodians  clients submitting concurrently
+     * @param submissions batches sent by each custodian
+     * @param halfway     run once every custodian sent half of its batches, the others wait for it.
+     *                    Used to drop the connections the clients keep in their pools. null for none
+     */
+    public static Result run(final String ip, final int port, final String rpcUser, final String rpcPass,
+                             int custodians, final int submissions, Runnable halfway) throws Exception {
+        final CyclicBarrier barrier = halfway == null ? null : new CyclicBarrier(custodians, halfway);
+        ExecutorService pool = Executors.newFixedThreadPool(custodians);
+        List<Future<long[]>> runs = new ArrayList<>();
+        final long started = System.nanoTime();
+        for (int c = 0; c < custodians; c++) {
+            final String address = "custodian" + c;
+            final Random random = new Random(c);
+            runs.add(pool.submit(() -> {
+                NuRPCClient client = new NuRPCClient(ip, port, rpcUser, rpcPass, false, address, null, "loadtest");
+                //latency in ns of every batch, negative when a tier was not accepted
+                long[] latencies = new long[submissions];
+                try {
+                    for (int i = 0; i < submissions; i++) {
+                        if (barrier != null && i == submissions / 2) {
+                            barrier.await();
+                        }
+                        List<NuRPCClient.LiquidityReport> reports = Arrays.asList(
+                                new NuRPCClient.LiquidityReport(1, random.nextInt(10000), random.nextInt(10000)),
+                                new NuRPCClient.LiquidityReport(2, random.nextInt(10000), random.nextInt(10000)));
+                        long t0 = System.nanoTime();
+                        Map<Integer, JSONObject> responses = client.submitLiquidityInfo(NuRPCClient.USDchar, reports, false);
+                        long latency = System.nanoTime() - t0;
+                        boolean accepted = true;
+                        for (JSONObject response : responses.values()) {
+                            accepted &= Boolean.TRUE.equals(response.get("submitted"));
+                        }
+                        latencies[i] = accepted ? latency : -latency;
+                    }
+                } finally {
+                    client.close();
+                }
+                return latencies;
+            }));
+        }
+
+        long[] all = new long[custodians * submissions];
+        int n = 0;
+        for (Future<long[]> run : runs) {
+            for (long latency : run.get()) {
+                all[n++] = latency;
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        pool.shutdown();
+
+        Result result = new Result(all, elapsed);
+        LOG.info(result.toString());
+        return result;
+    }
+
+    /**
+     * latencies of a load run
+     */
+    public static class Result {
+
+        private final int batches;
+        private final int failures;
+        private final double seconds;
+        private final double[] sortedMillis; //accepted batches only
+
+        public Result(long[] latencies, long elapsedNanos) {
+            this.batches = latencies.length;
+            this.seconds = elapsedNanos / 1e9;
+            int failed = 0;
+            double[] ok = new double[latencies.length];
+            int n = 0;
+            for (long latency : latencies) {
+                if (latency < 0) {
+                    failed++;
+                } else {
+                    ok[n++] = latency / 1e6;
+                }
+            }
+            this.failures = failed;
+            this.sortedMillis = Arrays.copyOf(ok, n);
+            Arrays.sort(sortedMillis);
+        }
+
+        public int getBatches() {
+            return batches;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return accepted batches per second
+         */
+        public double getThroughput() {
+            return seconds > 0 ? (batches - failures) / seconds : 0;
+        }
+
+        /**
+         * @param p from 0 to 1
+         * @return [ms] latency below which a share p of the accepted batches stayed
+         */
+        public double percentile(double p) {
+            if (sortedMillis.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sortedMillis.length) - 1;
+            return sortedMillis[Math.max(0, Math.min(index, sortedMillis.length - 1))];
+        }
+
+        public JSONObject toJSON() {
+            JSONObject json = new JSONObject();
+            json.put("batches", batches);
+            json.put("failures", failures);
+            json.put("seconds", seconds);
+            json.put("throughput", getThroughput());
+            json.put("p50_ms", percentile(0.5));
+            json.put("p90_ms", percentile(0.9));
+            json.put("p99_ms", percentile(0.99));
+            json.put("max_ms", percentile(1));
+            return json;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d batches (%d failed) in %.2fs : %.1f/s, latency p50 %.1fms p90 %.1fms p99 %.1fms max %.1fms",
+                    batches, failures, seconds, getThroughput(), percentile(0.5), percentile(0.9), percentile(0.99), percentile(1));
+        }
+    }
+}
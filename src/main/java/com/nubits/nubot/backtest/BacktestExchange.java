@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.nubits.nubot.backtest;
+
+import com.nubits.nubot.global.Constant;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * A simulated exchange running on a virtual clock.
+ * Orders are filled by arbitrageurs as soon as they are mispriced against the peg :
+ * a sell wall is taken when it is cheaper than 1 USD, a buy wall when it pays more than 1 USD.
+ */
+public class BacktestExchange {
+
+    private long clock; //virtual time in milliseconds
+    private double apiLatency; //seconds
+
+    private double availableNBT;
+    private double availablePEG;
+    private ArrayList<Wall> walls = new ArrayList<>();
+
+    private int apiCalls = 0;
+    private int fills = 0;
+    private double pnl = 0; //USD
+
+    public BacktestExchange(long startTime, double apiLatency, double balanceNBT, double balancePEG) {
+        this.clock = startTime;
+        this.apiLatency = apiLatency;
+        this.availableNBT = balanceNBT;
+        this.availablePEG = balancePEG;
+    }
+
+    /**
+     * a blocking api call : counted and takes apiLatency virtual seconds
+     */
+    private void call() {
+        apiCalls++;
+        advance(apiLatency);
+    }
+
+    /**
+     * api calls issued by other threads of the bot, which do not block the strategy
+     */
+    public void countBackgroundCalls(int count) {
+        apiCalls += count;
+    }
+
+    public void advance(double seconds) {
+        clock += (long) (seconds * 1000);
+    }
+
+    public void advanceTo(long time) {
+        if (time > clock) {
+            clock = time;
+        }
+    }
+
+    public long now() {
+        return clock;
+    }
+
+    public double getAvailableBalance(String type) {
+        call();
+        return type.equals(Constant.SELL) ? availableNBT : availablePEG;
+    }
+
+    public double getTxFee() {
+        call();
+        return 0;
+    }
+
+    public boolean placeOrder(String type, double size, double price) {
+        call();
+        if (size <= 0) {
+            return false;
+        }
+        if (type.equals(Constant.SELL)) {
+            if (size > availableNBT) {
+                return false;
+            }
+            availableNBT -= size;
+        } else {
+            if (size * price > availablePEG) {
+                return false;
+            }
+            availablePEG -= size * price;
+        }
+        walls.add(new Wall(type, size, price));
+        return true;
+    }
+
+    public void clearOrders() {
+        call();
+        for (Wall wall : walls) {
+            unlock(wall);
+        }
+        walls.clear();
+    }
+
+    private void unlock(Wall wall) {
+        if (wall.type.equals(Constant.SELL)) {
+            availableNBT += wall.size;
+        } else {
+            availablePEG += wall.size * wall.price;
+        }
+    }
+
+    /**
+     * fill every order which is mispriced at the current peg price
+     *
+     * @param pegPrice price of one unit of the peg currency in USD
+     */
+    public void settle(double pegPrice) {
+        for (Iterator<Wall> it = walls.iterator(); it.hasNext(); ) {
+            Wall wall = it.next();
+            double priceUSD = wall.price * pegPrice;
+            if (wall.type.equals(Constant.SELL) && priceUSD < 1) {
+                availablePEG += wall.size * wall.price;
+                pnl += wall.size * (priceUSD - 1);
+            } else if (wall.type.equals(Constant.BUY) && priceUSD > 1) {
+                availableNBT += wall.size;
+                pnl += wall.size * (1 - priceUSD);
+            } else {
+                continue;
+            }
+            fills++;
+            it.remove();
+        }
+    }
+
+    /**
+     * @return total funds, including the ones on order, valued in USD
+     */
+    public double valueUSD(double pegPrice) {
+        double nbt = availableNBT;
+        double peg = availablePEG;
+        for (Wall wall : walls) {
+            if (wall.type.equals(Constant.SELL)) {
+                nbt += wall.size;
+            } else {
+                peg += wall.size * wall.price;
+            }
+        }
+        return nbt + peg * pegPrice;
+    }
+
+    public int getApiCalls() {
+        return apiCalls;
+    }
+
+    public int getFills() {
+        return fills;
+    }
+
+    public double getPnl() {
+        return pnl;
+    }
+
+    private static class Wall {
+        private String type;
+        private double size;
+        private double price;
+
+        private Wall(String type, double size, double price) {
+            this.type = type;
+            this.size = size;
+            this.price = price;
+        }
+    }
+}
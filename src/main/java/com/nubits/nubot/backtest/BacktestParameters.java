@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.nubits.nubot.backtest;
+
+import com.nubits.nubot.global.Settings;
+
+/**
+ * Settings of one backtest run. Defaults mirror the live bot
+ */
+public class BacktestParameters {
+
+    //strategy
+    private double wallchangeThreshold = 0.5;
+    private double spread = 0;
+    private double txFee = 0.2;
+    private boolean dualSide = true;
+    private double priceIncrement = 0.0003;
+    private double maxSellVolume = 0;
+    private double maxBuyVolume = 0;
+
+    //moving average filter of PriceMonitorTriggerTask
+    private boolean useMovingAverage = true;
+    private int movingAverageSize = 30;
+    private double movingAveragePercentage = 10;
+
+    //timing [seconds]
+    private int checkPriceInterval = Settings.CHECK_PRICE_INTERVAL;
+    private int executeStrategyInterval = Settings.EXECUTE_STRATEGY_INTERVAL;
+    private double apiLatency = 0.5;
+    private double orderWait = 5;
+    private double shortWait = 6;
+
+    //initial funds
+    private double balanceNBT = 1000;
+    private double balancePEG = 0;
+
+    public BacktestParameters() {
+    }
+
+    public BacktestParameters(BacktestParameters other) {
+        this.wallchangeThreshold = other.wallchangeThreshold;
+        this.spread = other.spread;
+        this.txFee = other.txFee;
+        this.dualSide = other.dualSide;
+        this.priceIncrement = other.priceIncrement;
+        this.maxSellVolume = other.maxSellVolume;
+        this.maxBuyVolume = other.maxBuyVolume;
+        this.useMovingAverage = other.useMovingAverage;
+        this.movingAverageSize = other.movingAverageSize;
+        this.movingAveragePercentage = other.movingAveragePercentage;
+        this.checkPriceInterval = other.checkPriceInterval;
+        this.executeStrategyInterval = other.executeStrategyInterval;
+        this.apiLatency = other.apiLatency;
+        this.orderWait = other.orderWait;
+        this.shortWait = other.shortWait;
+        this.balanceNBT = other.balanceNBT;
+        this.balancePEG = other.balancePEG;
+    }
+
+    public double getWallchangeThreshold() {
+        return wallchangeThreshold;
+    }
+
+    public void setWallchangeThreshold(double wallchangeThreshold) {
+        this.wallchangeThreshold = wallchangeThreshold;
+    }
+
+    public double getSpread() {
+        return spread;
+    }
+
+    public void setSpread(double spread) {
+        this.spread = spread;
+    }
+
+    public double getTxFee() {
+        return txFee;
+    }
+
+    public void setTxFee(double txFee) {
+        this.txFee = txFee;
+    }
+
+    public boolean isDualSide() {
+        return dualSide;
+    }
+
+    public void setDualSide(boolean dualSide) {
+        this.dualSide = dualSide;
+    }
+
+    public double getPriceIncrement() {
+        return priceIncrement;
+    }
+
+    public void setPriceIncrement(double priceIncrement) {
+        this.priceIncrement = priceIncrement;
+    }
+
+    public double getMaxSellVolume() {
+        return maxSellVolume;
+    }
+
+    public void setMaxSellVolume(double maxSellVolume) {
+        this.maxSellVolume = maxSellVolume;
+    }
+
+    public double getMaxBuyVolume() {
+        return maxBuyVolume;
+    }
+
+    public void setMaxBuyVolume(double maxBuyVolume) {
+        this.maxBuyVolume = maxBuyVolume;
+    }
+
+    public boolean isUseMovingAverage() {
+        return useMovingAverage;
+    }
+
+    public void setUseMovingAverage(boolean useMovingAverage) {
+        this.useMovingAverage = useMovingAverage;
+    }
+
+    public int getMovingAverageSize() {
+        return movingAverageSize;
+    }
+
+    public void setMovingAverageSize(int movingAverageSize) {
+        this.movingAverageSize = movingAverageSize;
+    }
+
+    public double getMovingAveragePercentage() {
+        return movingAveragePercentage;
+    }
+
+    public void setMovingAveragePercentage(double movingAveragePercentage) {
+        this.movingAveragePercentage = movingAveragePercentage;
+    }
+
+    public int getCheckPriceInterval() {
+        return checkPriceInterval;
+    }
+
+    public void setCheckPriceInterval(int checkPriceInterval) {
+        this.checkPriceInterval = checkPriceInterval;
+    }
+
+    public int getExecuteStrategyInterval() {
+        return executeStrategyInterval;
+    }
+
+    public void setExecuteStrategyInterval(int executeStrategyInterval) {
+        this.executeStrategyInterval = executeStrategyInterval;
+    }
+
+    public double getApiLatency() {
+        return apiLatency;
+    }
+
+    public void setApiLatency(double apiLatency) {
+        this.apiLatency = apiLatency;
+    }
+
+    public double getOrderWait() {
+        return orderWait;
+    }
+
+    public void setOrderWait(double orderWait) {
+        this.orderWait = orderWait;
+    }
+
+    public double getShortWait() {
+        return shortWait;
+    }
+
+    public void setShortWait(double shortWait) {
+        this.shortWait = shortWait;
+    }
+
+    public double getBalanceNBT() {
+        return balanceNBT;
+    }
+
+    public void setBalanceNBT(double balanceNBT) {
+        this.balanceNBT = balanceNBT;
+    }
+
+    public double getBalancePEG() {
+        return balancePEG;
+    }
+
+    public void setBalancePEG(double balancePEG) {
+        this.balancePEG = balancePEG;
+    }
+
+    @Override
+    public String toString() {
+        return "wallchangeThreshold=" + wallchangeThreshold + " spread=" + spread + " txFee=" + txFee
+                + " dualSide=" + dualSide + " movingAverage=" + (useMovingAverage ? movingAverageSize + "/" + movingAveragePercentage + "%" : "off");
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.nubits.nubot.backtest;
+
+/**
+ * a recorded price quote : price of one unit of the peg currency in USD at a point in time
+ */
+public class BacktestQuote implements Comparable<BacktestQuote> {
+
+    private long timestamp;
+    private String source;
+    private double price;
+
+    public BacktestQuote(long timestamp, String source, double price) {
+        this.timestamp = timestamp;
+        this.source = source;
+        this.price = price;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    @Override
+    public int compareTo(BacktestQuote o) {
+        return Long.compare(timestamp, o.timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return "BacktestQuote{" + timestamp + ", " + source + ", " + price + "}";
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.nubits.nubot.backtest;
+
+import com.nubits.nubot.utils.Utils;
+import org.json.simple.JSONObject;
+
+/**
+ * Outcome of a backtest run
+ */
+public class BacktestResult {
+
+    private BacktestParameters parameters;
+    private int quotes;
+    private int priceChecks;
+    private int rejectedPrices;
+    private int shifts;
+    private int apiCalls;
+    private int fills;
+    private double liquidityGapSeconds;
+    private double simulatedSeconds;
+    private double pnl;
+    private double startValueUSD;
+    private double endValueUSD;
+    private String error;
+
+    public BacktestResult(BacktestParameters parameters) {
+        this.parameters = parameters;
+    }
+
+    public BacktestParameters getParameters() {
+        return parameters;
+    }
+
+    public int getQuotes() {
+        return quotes;
+    }
+
+    public void setQuotes(int quotes) {
+        this.quotes = quotes;
+    }
+
+    public int getPriceChecks() {
+        return priceChecks;
+    }
+
+    public void setPriceChecks(int priceChecks) {
+        this.priceChecks = priceChecks;
+    }
+
+    public int getRejectedPrices() {
+        return rejectedPrices;
+    }
+
+    public void setRejectedPrices(int rejectedPrices) {
+        this.rejectedPrices = rejectedPrices;
+    }
+
+    public int getShifts() {
+        return shifts;
+    }
+
+    public void setShifts(int shifts) {
+        this.shifts = shifts;
+    }
+
+    public int getApiCalls() {
+        return apiCalls;
+    }
+
+    public void setApiCalls(int apiCalls) {
+        this.apiCalls = apiCalls;
+    }
+
+    public int getFills() {
+        return fills;
+    }
+
+    public void setFills(int fills) {
+        this.fills = fills;
+    }
+
+    /**
+     * @return the time spent without orders on the book while shifting walls [seconds]
+     */
+    public double getLiquidityGapSeconds() {
+        return liquidityGapSeconds;
+    }
+
+    public void setLiquidityGapSeconds(double liquidityGapSeconds) {
+        this.liquidityGapSeconds = liquidityGapSeconds;
+    }
+
+    public double getSimulatedSeconds() {
+        return simulatedSeconds;
+    }
+
+    public void setSimulatedSeconds(double simulatedSeconds) {
+        this.simulatedSeconds = simulatedSeconds;
+    }
+
+    /**
+     * @return the profit (or, most often, the loss) in USD made on orders filled away from the peg
+     */
+    public double getPnl() {
+        return pnl;
+    }
+
+    public void setPnl(double pnl) {
+        this.pnl = pnl;
+    }
+
+    public double getStartValueUSD() {
+        return startValueUSD;
+    }
+
+    public void setStartValueUSD(double startValueUSD) {
+        this.startValueUSD = startValueUSD;
+    }
+
+    public double getEndValueUSD() {
+        return endValueUSD;
+    }
+
+    public void setEndValueUSD(double endValueUSD) {
+        this.endValueUSD = endValueUSD;
+    }
+
+    /**
+     * @return why the run failed, null if it completed
+     */
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    public JSONObject toJSON() {
+        JSONObject toRet = new JSONObject();
+        toRet.put("parameters", parameters.toString());
+        if (isFailed()) {
+            toRet.put("error", error);
+            return toRet;
+        }
+        toRet.put("quotes", quotes);
+        toRet.put("price_checks", priceChecks);
+        toRet.put("rejected_prices", rejectedPrices);
+        toRet.put("shifts", shifts);
+        toRet.put("api_calls", apiCalls);
+        toRet.put("fills", fills);
+        toRet.put("liquidity_gap_seconds", Utils.round(liquidityGapSeconds, 2));
+        toRet.put("simulated_seconds", Utils.round(simulatedSeconds, 2));
+        toRet.put("pnl_usd", Utils.round(pnl, 4));
+        toRet.put("start_value_usd", Utils.round(startValueUSD, 4));
+        toRet.put("end_value_usd", Utils.round(endValueUSD, 4));
+        return toRet;
+    }
+
+    @Override
+    public String toString() {
+        if (isFailed()) {
+            return "[" + parameters + "] failed : " + error;
+        }
+        return "[" + parameters + "] shifts=" + shifts + " apiCalls=" + apiCalls
+                + " gap=" + Utils.round(liquidityGapSeconds, 2) + "s fills=" + fills
+                + " pnl=" + Utils.round(pnl, 4) + " USD";
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.nubits.nubot.backtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Run a grid of backtests in parallel, one run per core
+ */
+public class BacktestSweep {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BacktestSweep.class.getName());
+
+    /**
+     * @return one set of parameters for each combination of threshold and spread
+     */
+    public static ArrayList<BacktestParameters> grid(BacktestParameters base, double[] wallchangeThresholds, double[] spreads) {
+        ArrayList<BacktestParameters> toRet = new ArrayList<>();
+        for (double threshold : wallchangeThresholds) {
+            for (double spread : spreads) {
+                BacktestParameters params = new BacktestParameters(base);
+                params.setWallchangeThreshold(threshold);
+                params.setSpread(spread);
+                toRet.add(params);
+            }
+        }
+        return toRet;
+    }
+
+    public static ArrayList<BacktestResult> run(final List<BacktestQuote> quotes, List<BacktestParameters> paramsList) {
+        return run(quotes, paramsList, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static ArrayList<BacktestResult> run(final List<BacktestQuote> quotes, List<BacktestParameters> paramsList, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        ArrayList<Callable<BacktestResult>> runs = new ArrayList<>();
+        for (final BacktestParameters params : paramsList) {
+            runs.add(new Callable<BacktestResult>() {
+                @Override
+                public BacktestResult call() {
+                    return new PegBacktest(quotes, params).run();
+                }
+            });
+        }
+
+        ArrayList<BacktestResult> results = new ArrayList<>();
+        try {
+            List<Future<BacktestResult>> futures = executor.invokeAll(runs);
+            //one result per set of parameters, in order : a failed run does not drop the others
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    LOG.error("Backtest " + paramsList.get(i) + " failed : " + e.getCause().toString());
+                    results.add(failed(paramsList.get(i), e.getCause().toString()));
+                }
+            }
+        } catch (InterruptedException e) {
+            LOG.error("Backtest sweep interrupted : " + e.toString());
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            for (int i = results.size(); i < paramsList.size(); i++) {
+                results.add(failed(paramsList.get(i), "interrupted"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return results;
+    }
+
+    private static BacktestResult failed(BacktestParameters params, String error) {
+        BacktestResult result = new BacktestResult(params);
+        result.setError(error);
+        return result;
+    }
+}
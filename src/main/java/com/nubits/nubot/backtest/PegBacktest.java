@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.nubits.nubot.backtest;
+
+import com.nubits.nubot.global.Constant;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.BidAskPair;
+import com.nubits.nubot.strategy.Secondary.SecondaryPegPricing;
+import com.nubits.nubot.utils.RollingStats;
+import com.nubits.nubot.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Replay a price history through the secondary peg strategy against a BacktestExchange, in virtual time.
+ * Prices are checked every checkPriceInterval seconds, like PriceMonitorTriggerTask does, and walls are
+ * shifted with the same sequence of calls used by StrategySecondaryPegUtils.shiftWalls.
+ * A run holds no global state, so several runs can be executed concurrently.
+ */
+public class PegBacktest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PegBacktest.class.getName());
+
+    private final List<BacktestQuote> quotes;
+    private final BacktestParameters params;
+
+    private BacktestExchange exchange;
+    private RollingStats priceStats;
+    private BidAskPair usdPrices;
+    private double liquidityGapSeconds = 0;
+
+    public PegBacktest(List<BacktestQuote> quotes, BacktestParameters params) {
+        this.quotes = quotes;
+        this.params = params;
+    }
+
+    public BacktestResult run() {
+        BacktestResult result = new BacktestResult(params);
+        result.setQuotes(quotes.size());
+        if (quotes.isEmpty()) {
+            LOG.warn("No quotes to replay");
+            return result;
+        }
+
+        long start = quotes.get(0).getTimestamp();
+        long end = quotes.get(quotes.size() - 1).getTimestamp();
+        exchange = new BacktestExchange(start, params.getApiLatency(), params.getBalanceNBT(), params.getBalancePEG());
+        result.setStartValueUSD(exchange.valueUSD(quotes.get(0).getPrice()));
+
+        usdPrices = SecondaryPegPricing.computeUSDPrices(params.getTxFee(), params.getSpread(),
+                params.isDualSide(), params.getPriceIncrement());
+
+        long checkInterval = params.getCheckPriceInterval() * 1000L;
+        long strategyInterval = params.getExecuteStrategyInterval() * 1000L;
+        long nextStrategyRun = start;
+        int index = 0;
+        double price = quotes.get(0).getPrice();
+        double wallPrice = -1;
+        int priceChecks = 0, rejected = 0, shifts = 0;
+
+        for (long time = start; time <= end; time += checkInterval) {
+            while (index < quotes.size() && quotes.get(index).getTimestamp() <= time) {
+                price = quotes.get(index).getPrice();
+                index++;
+            }
+            exchange.advanceTo(time);
+            exchange.settle(price);
+
+            //recount of orders and balances run by StrategySecondaryPegTask on its own timer
+            while (nextStrategyRun <= time) {
+                exchange.countBackgroundCalls(2);
+                nextStrategyRun += strategyInterval;
+            }
+
+            priceChecks++;
+            if (params.isUseMovingAverage() && !acceptPrice(price)) {
+                rejected++;
+                continue;
+            }
+
+            if (wallPrice < 0) {
+                placeWalls(price);
+                wallPrice = price;
+            } else if (SecondaryPegPricing.needToMoveWalls(wallPrice, price, params.getWallchangeThreshold())) {
+                shiftWalls(price);
+                wallPrice = price;
+                shifts++;
+            }
+        }
+
+        result.setPriceChecks(priceChecks);
+        result.setRejectedPrices(rejected);
+        result.setShifts(shifts);
+        result.setApiCalls(exchange.getApiCalls());
+        result.setFills(exchange.getFills());
+        result.setLiquidityGapSeconds(liquidityGapSeconds);
+        result.setSimulatedSeconds((end - start) / 1000.0);
+        result.setPnl(exchange.getPnl());
+        result.setEndValueUSD(exchange.valueUSD(price));
+        return result;
+    }
+
+    /**
+     * moving average filter : reject prices too far from the average, but keep them in the average
+     * so that a persistent change is eventually accepted
+     */
+    private boolean acceptPrice(double price) {
+        int window = params.getMovingAverageSize();
+        if (priceStats == null) {
+            priceStats = new RollingStats(Settings.PRICE_STATS_EWMA_ALPHA, window);
+        }
+        if (priceStats.size(window) < window) {
+            priceStats.fill(price);
+        }
+        double percentageDiff = SecondaryPegPricing.movingAverageDeviation(priceStats.mean(window), price);
+        if (price != 0) {
+            priceStats.add(price);
+        }
+        return Math.abs(percentageDiff) <= params.getMovingAveragePercentage();
+    }
+
+    private void shiftWalls(double price) {
+        long gapStart = exchange.now();
+        exchange.clearOrders();
+        placeWalls(price);
+        liquidityGapSeconds += (exchange.now() - gapStart) / 1000.0;
+        //wait until the orders are displayed
+        exchange.advance(params.getShortWait());
+    }
+
+    private void placeWalls(double price) {
+        BidAskPair pegPrices = SecondaryPegPricing.convertToPEG(usdPrices, price, false);
+        boolean sellsOk = initOrders(Constant.SELL, pegPrices.getAsk(), price);
+        if (sellsOk && params.isDualSide()) {
+            initOrders(Constant.BUY, pegPrices.getBid(), price);
+        }
+    }
+
+    /**
+     * Same sizing as StrategySecondaryPegUtils.initOrders : two orders, each with half of the balance
+     */
+    private boolean initOrders(String type, double orderPrice, double pegPrice) {
+        double balance = exchange.getAvailableBalance(type);
+        double oneNBT = type.equals(Constant.SELL) ? 1 : Utils.round(1 / pegPrice, 8);
+        if (balance < oneNBT * 2) {
+            return true;
+        }
+        exchange.getTxFee();
+
+        double maxSell = params.getMaxSellVolume();
+        double maxBuy = params.getMaxBuyVolume();
+
+        double amount1 = balance / 2;
+        if (type.equals(Constant.SELL) && maxSell > 0 && amount1 > maxSell / 2) {
+            amount1 = maxSell / 2;
+        }
+        if (type.equals(Constant.BUY)) {
+            amount1 = amount1 / orderPrice;
+            if (maxBuy > 0 && amount1 > maxBuy / 2) {
+                amount1 = maxBuy / 2;
+            }
+        }
+        if (!exchange.placeOrder(type, amount1, orderPrice)) {
+            return false;
+        }
+        exchange.advance(params.getOrderWait());
+
+        double amount2 = exchange.getAvailableBalance(type);
+        if (type.equals(Constant.SELL) && maxSell > 0 && amount2 > maxSell / 2) {
+            amount2 = maxSell / 2;
+        }
+        if (type.equals(Constant.BUY)) {
+            amount2 = (amount2 - oneNBT * 0.9) / orderPrice;
+            if (maxBuy > 0 && amount2 > maxBuy / 2) {
+                amount2 = maxBuy / 2;
+            }
+        }
+        return exchange.placeOrder(type, amount2, orderPrice);
+    }
+}
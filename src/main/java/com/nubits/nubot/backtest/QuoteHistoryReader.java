@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.nubits.nubot.backtest;
+
+import com.nubits.nubot.pricefeeds.history.PriceTick;
+import com.nubits.nubot.pricefeeds.history.TickStore;
+import com.nubits.nubot.utils.FilesystemUtils;
+import com.nubits.nubot.utils.HistoryJournal;
+import com.nubits.nubot.utils.SegmentedFile;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Locale;
+
+/**
+ * Read price history to be replayed by the backtester.
+ * Supported formats :
+ * - wall_shifts json exported from the session history
+ * - wall_shifts journal (.jsonl) written by PriceMonitorTriggerTask
+ * - wall_shifts csv written by PriceMonitorTriggerTask
+ * - plain csv : timestamp,price[,source] with timestamp in milliseconds or seconds
+ * - price tick store (.ticks) written by PriceMonitorTriggerTask
+ */
+public class QuoteHistoryReader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QuoteHistoryReader.class.getName());
+
+    //format of java.util.Date.toString(), used in the wall_shifts csv
+    private static final String WALLSHIFTS_DATE_FORMAT = "EEE MMM dd HH:mm:ss zzz yyyy";
+
+    public static ArrayList<BacktestQuote> read(String path) {
+        String name = path.toLowerCase();
+        if (name.endsWith(SegmentedFile.COMPRESSED)) {
+            name = name.substring(0, name.length() - SegmentedFile.COMPRESSED.length()); //a single rotated segment
+        }
+        if (name.endsWith(".json")) {
+            return readWallShiftsJSON(path);
+        } else if (name.endsWith(HistoryJournal.EXTENSION)) {
+            return readWallShiftsJournal(path);
+        } else if (name.endsWith(".ticks")) {
+            return readTicks(path, null);
+        } else {
+            return readCSV(path);
+        }
+    }
+
+    public static ArrayList<BacktestQuote> readWallShiftsJSON(String path) {
+        ArrayList<BacktestQuote> quotes = new ArrayList<>();
+        JSONParser parser = new JSONParser();
+        try {
+            JSONObject history = (JSONObject) parser.parse(FilesystemUtils.readFromFile(path));
+            JSONArray wallShifts = (JSONArray) history.get("wall_shifts");
+            for (Object o : wallShifts) {
+                JSONObject shift = (JSONObject) o;
+                long timestamp = ((Number) shift.get("timestamp")).longValue();
+                double price = ((Number) shift.get("price")).doubleValue();
+                quotes.add(new BacktestQuote(timestamp, (String) shift.get("feed"), price));
+            }
+        } catch (ParseException | ClassCastException | NullPointerException e) {
+            LOG.error("Unable to parse " + path + " : " + e.toString());
+        }
+        Collections.sort(quotes);
+        return quotes;
+    }
+
+    public static ArrayList<BacktestQuote> readWallShiftsJournal(String path) {
+        final ArrayList<BacktestQuote> quotes = new ArrayList<>();
+        new HistoryJournal(path).read(new HistoryJournal.RecordHandler() {
+            @Override
+            public void record(JSONObject shift) {
+                Number timestamp = (Number) shift.get("timestamp");
+                Number price = (Number) shift.get("price");
+                if (timestamp != null && price != null) {
+                    quotes.add(new BacktestQuote(timestamp.longValue(), (String) shift.get("feed"), price.doubleValue()));
+                }
+            }
+        });
+        Collections.sort(quotes);
+        return quotes;
+    }
+
+    /**
+     * read the quotes of one feed from a price tick store
+     *
+     * @param path
+     * @param feed the feed to replay. If null, the feed of the first tick (the main feed) is used
+     * @return
+     */
+    public static ArrayList<BacktestQuote> readTicks(String path, String feed) {
+        ArrayList<BacktestQuote> quotes = new ArrayList<>();
+        TickStore store = new TickStore(path);
+        if (feed == null) {
+            PriceTick first = store.first();
+            if (first == null) {
+                return quotes;
+            }
+            feed = first.getFeed();
+        }
+        for (PriceTick tick : store.range(Long.MIN_VALUE, Long.MAX_VALUE, feed, null)) {
+            quotes.add(new BacktestQuote(tick.getTimestamp(), tick.getFeed(), tick.getPrice()));
+        }
+        return quotes;
+    }
+
+    public static ArrayList<BacktestQuote> readCSV(String path) {
+        ArrayList<BacktestQuote> quotes = new ArrayList<>();
+        ArrayList<String[]> rows = FilesystemUtils.parseCsvFromFile(path);
+        SimpleDateFormat dateFormat = new SimpleDateFormat(WALLSHIFTS_DATE_FORMAT, Locale.ENGLISH);
+        for (String[] row : rows) {
+            if (row.length < 2 || row[0].startsWith("timestamp")) {
+                continue; //header (repeated at every session start) or empty line
+            }
+            try {
+                if (row.length >= 7) {
+                    //wall_shifts csv : timestamp,source,crypto,price,currency,sellprice,buyprice,otherfeeds
+                    long timestamp = dateFormat.parse(row[0]).getTime();
+                    quotes.add(new BacktestQuote(timestamp, row[1], Double.parseDouble(row[3])));
+                } else {
+                    long timestamp = Long.parseLong(row[0].trim());
+                    if (timestamp < 100000000000L) {
+                        timestamp = timestamp * 1000; //seconds
+                    }
+                    String source = row.length > 2 ? row[2].trim() : "csv";
+                    quotes.add(new BacktestQuote(timestamp, source, Double.parseDouble(row[1].trim())));
+                }
+            } catch (java.text.ParseException | NumberFormatException e) {
+                LOG.warn("Skipping malformed row in " + path + " : " + e.toString());
+            }
+        }
+        Collections.sort(quotes);
+        return quotes;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.nubits.nubot.bot;
+
+import com.nubits.nubot.RPC.LiquiditySubmitter;
+import com.nubits.nubot.RPC.NuRPCClient;
+import com.nubits.nubot.exchanges.Exchange;
+import com.nubits.nubot.options.NuBotOptions;
+import com.nubits.nubot.pricefeeds.history.TickStore;
+import com.nubits.nubot.strategy.BalanceManager;
+import com.nubits.nubot.strategy.LadderManager;
+import com.nubits.nubot.strategy.OrderManager;
+import com.nubits.nubot.strategy.StrategyCheckpoint;
+import com.nubits.nubot.tasks.TaskManager;
+import com.nubits.nubot.utils.FrozenBalancesManager;
+import org.joda.time.DateTime;
+
+/**
+ * Context of one bot : options, exchange, managers and session state.
+ * One JVM can host several sessions, see Global.session()
+ */
+public class BotSession {
+
+    /**
+     * key of the session in the registry
+     */
+    public final String name;
+
+    public NuBotOptions options;
+
+    /**
+     * the bot connected to this session
+     */
+    public NuBotBase bot;
+
+    public OrderManager orderManager;
+
+    public BalanceManager balanceManager;
+
+    //used with options.distributeLiquidity
+    public LadderManager ladderManager;
+
+    public Exchange exchange;
+
+    public TaskManager taskManager;
+
+    //path of logs in this session
+    public String sessionLogFolder;
+
+    public NuRPCClient rpcClient;
+
+    //sends liquidity info to rpcClient off the task threads
+    public LiquiditySubmitter liquiditySubmitter;
+
+    //every feed quote of this session
+    public TickStore tickStore;
+
+    public double conversion = 1; //Change this? update SendLiquidityinfoTask
+
+    public FrozenBalancesManager frozenBalancesManager;
+
+    //strategy state left by the previous run, until the strategy adopts its orders
+    public StrategyCheckpoint checkpoint;
+
+    public boolean swappedPair; //true if payment currency is NBT
+
+    public String sessionPath;
+
+    public String currentOptionsFile;
+
+    //session state, managed by SessionManager
+
+    public String sessionMode = SessionManager.MODE_HALTED;
+
+    public DateTime sessionStartDate;
+
+    public long sessionStarted;
+
+    public long sessionStopped;
+
+    /**
+     * time it took from startup to first order
+     */
+    public long startupDuration = -1;
+
+    public String sessionId;
+
+    public boolean runonce = false;
+
+    public BotSession(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return "BotSession{" + name + ", " + sessionMode + "}";
+    }
+}
@@ -18,57 +18,111 @@
 
 package com.nubits.nubot.bot;
 
-import com.nubits.nubot.RPC.NuRPCClient;
-import com.nubits.nubot.exchanges.Exchange;
+import com.nubits.nubot.global.Settings;
 import com.nubits.nubot.launch.ShutDownProcess;
-import com.nubits.nubot.options.NuBotOptions;
-import com.nubits.nubot.strategy.BalanceManager;
-import com.nubits.nubot.strategy.OrderManager;
-import com.nubits.nubot.tasks.TaskManager;
-import com.nubits.nubot.utils.FrozenBalancesManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Global object for NuBot
+ * Global object for NuBot.
+ * Everything related to one bot lives in a BotSession : threads working for a bot are bound to its session,
+ * any other thread sees the default session.
+ * Several sessions run in one process when several config files are given (comma separated, see MainLaunch) :
+ * the UI lists them (/sessions) and its controllers work on the session named by ?session=name, the default one otherwise.
  */
 public class Global {
 
     final static Logger LOG = LoggerFactory.getLogger(Global.class);
 
+    public static final String DEFAULT_SESSION = "default";
+
     public static Thread mainThread;
 
-    public static NuBotOptions options;
+    public static boolean isSimulation = false;
 
     /**
-     * the bot connected to the global thread
+     * times the tasks of all sessions. It only hands the work over to taskWorkers, so a few threads serve any number of tasks
      */
-    public static NuBotBase bot;
+    public static final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(Settings.SCHEDULER_THREADS);
 
-    public static OrderManager orderManager;
-
-    public static BalanceManager balanceManager;
+    /**
+     * run the work of the tasks, which may block on exchange or RPC calls. Idle threads are reused by any task
+     */
+    public static final ExecutorService taskWorkers = Executors.newCachedThreadPool();
 
-    public static Exchange exchange;
+    private static final BotSession defaultSession = new BotSession(DEFAULT_SESSION);
 
-    public static TaskManager taskManager;
+    private static final LinkedHashMap<String, BotSession> sessions = new LinkedHashMap<>();
 
-    //path of logs in this session
-    public static String sessionLogFolder;
+    private static final ThreadLocal<BotSession> currentSession = new ThreadLocal<>();
 
-    public static NuRPCClient rpcClient;
+    static {
+        sessions.put(DEFAULT_SESSION, defaultSession);
+        //let idle threads go, so that the process can end once all tasks are stopped
+        scheduler.setKeepAliveTime(60, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+    }
 
-    public static double conversion = 1; //Change this? update SendLiquidityinfoTask
+    /**
+     * @return the session the current thread works for
+     */
+    public static BotSession session() {
+        BotSession session = currentSession.get();
+        if (session == null) {
+            return defaultSession;
+        }
+        return session;
+    }
 
-    public static FrozenBalancesManager frozenBalancesManager;
+    /**
+     * bind the current thread to a session
+     */
+    public static void bindSession(BotSession session) {
+        currentSession.set(session);
+        if (session.sessionPath != null) {
+            MDC.put("session", session.sessionPath); //log to the session folder
+        }
+    }
 
-    public static boolean swappedPair; //true if payment currency is NBT
+    public static void unbindSession() {
+        currentSession.remove();
+        MDC.remove("session");
+    }
 
-    public static String sessionPath;
+    /**
+     * @return the session registered with this name, created if needed
+     */
+    public static BotSession getOrCreateSession(String name) {
+        synchronized (sessions) {
+            BotSession session = sessions.get(name);
+            if (session == null) {
+                session = new BotSession(name);
+                sessions.put(name, session);
+                LOG.info("registered session " + name);
+            }
+            return session;
+        }
+    }
 
-    public static String currentOptionsFile;
+    public static BotSession getSession(String name) {
+        synchronized (sessions) {
+            return sessions.get(name);
+        }
+    }
 
-    public static boolean isSimulation = false;
+    public static ArrayList<BotSession> getSessions() {
+        synchronized (sessions) {
+            return new ArrayList<>(sessions.values());
+        }
+    }
 
     /**
      * process shutdown mechanics
@@ -20,6 +20,7 @@ package com.nubits.nubot.bot;
 
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.core.joran.util.ConfigurationWatchListUtil;
+import com.nubits.nubot.RPC.NuRPCClient;
 import com.nubits.nubot.exchanges.Exchange;
 import com.nubits.nubot.exchanges.ExchangeFacade;
 import com.nubits.nubot.exchanges.ExchangeLiveData;
@@ -30,11 +31,13 @@ import com.nubits.nubot.models.CurrencyList;
 import com.nubits.nubot.notifications.HipChatNotifications;
 import com.nubits.nubot.options.NuBotConfigException;
 import com.nubits.nubot.options.NuBotOptions;
+import com.nubits.nubot.strategy.StrategyCheckpoint;
 import com.nubits.nubot.tasks.TaskManager;
 import com.nubits.nubot.trading.TradeInterface;
 import com.nubits.nubot.trading.keys.ApiKeys;
 import com.nubits.nubot.trading.wrappers.CcexWrapper;
 import com.nubits.nubot.utils.FrozenBalancesManager;
+import com.nubits.nubot.utils.HistoryJournal;
 import com.nubits.nubot.utils.Utils;
 import com.nubits.nubot.utils.VersionInfo;
 import io.evanwong.oss.hipchat.v2.rooms.MessageColor;
@@ -42,9 +45,14 @@ import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 /**
  * Abstract NuBot. implements all primitives without the strategy itself
@@ -56,6 +64,13 @@ public abstract class NuBotBase {
      */
     abstract public void configureStrategy() throws NuBotConfigException;
 
+    /**
+     * work of the strategy which does not need the exchange (e.g. fetching the first prices),
+     * run during startup concurrently with the other steps, before configureStrategy. Nothing by default
+     */
+    protected void prepareStrategy() throws NuBotConfigException {
+    }
+
     final static Logger LOG = LoggerFactory.getLogger(NuBotBase.class);
 
     protected String mode;
@@ -69,11 +84,11 @@ public abstract class NuBotBase {
     protected void setupAllConfig() {
 
         //Generate Bot Session unique id
-        SessionManager.sessionId = Utils.generateSessionID();
-        LOG.info("Session ID = " + SessionManager.sessionId);
+        Global.session().sessionId = Utils.generateSessionID();
+        LOG.info("Session ID = " + Global.session().sessionId);
 
         this.mode = "sell-side";
-        if (Global.options.isDualSide()) {
+        if (Global.session().options.isDualSide()) {
             this.mode = "dual-side";
         }
 
@@ -81,8 +96,13 @@ public abstract class NuBotBase {
 
         setupSSL();
 
-        setupExchange();
+        if (Global.session().options.getPair().getPaymentCurrency().equals(CurrencyList.NBT)) {
+            Global.session().swappedPair = true;
+        } else {
+            Global.session().swappedPair = false;
+        }
 
+        LOG.info("Swapped pair mode : " + Global.session().swappedPair);
     }
 
 
@@ -111,7 +131,7 @@ public abstract class NuBotBase {
     protected void setupSSL() {
         LOG.info("Set up SSL certificates");
         boolean trustAllCertificates = false;
-        if (Global.options.getExchangeName().equalsIgnoreCase(ExchangeFacade.INTERNAL_EXCHANGE_PEATIO)) {
+        if (Global.session().options.getExchangeName().equalsIgnoreCase(ExchangeFacade.INTERNAL_EXCHANGE_PEATIO)) {
             trustAllCertificates = true;
         }
         Utils.installKeystore(trustAllCertificates);
@@ -123,50 +143,42 @@ public abstract class NuBotBase {
         LOG.debug("setup Exchange object");
 
         LOG.debug("Wrap the keys into a new ApiKeys object");
-        ApiKeys keys = new ApiKeys(Global.options.getApiSecret(), Global.options.getApiKey());
+        ApiKeys keys = new ApiKeys(Global.session().options.getApiSecret(), Global.session().options.getApiKey());
 
-        Global.exchange = new Exchange(Global.options.getExchangeName());
+        Global.session().exchange = new Exchange(Global.session().options.getExchangeName());
 
         LOG.debug("Create e ExchangeLiveData object to accommodate liveData from the exchange");
         ExchangeLiveData liveData = new ExchangeLiveData();
-        Global.exchange.setLiveData(liveData);
+        Global.session().exchange.setLiveData(liveData);
 
         TradeInterface ti = null;
         try {
-            ti = ExchangeFacade.getInterfaceByName(Global.options.getExchangeName(), keys, Global.exchange);
+            ti = ExchangeFacade.getInterfaceByName(Global.session().options.getExchangeName(), keys, Global.session().exchange);
         } catch (Exception e) {
             MainLaunch.exitWithNotice("exchange unknown");
         }
 
 
         //TODO handle on exchange level, not bot level
-        if (Global.options.getExchangeName().equals(ExchangeFacade.CCEX)) {
+        if (Global.session().options.getExchangeName().equals(ExchangeFacade.CCEX)) {
             ((CcexWrapper) (ti)).initBaseUrl();
         }
 
-        if (Global.options.getPair().getPaymentCurrency().equals(CurrencyList.NBT)) {
-            Global.swappedPair = true;
-        } else {
-            Global.swappedPair = false;
-        }
-
-        LOG.info("Swapped pair mode : " + Global.swappedPair);
-
         String apibase = "";
         //TODO handle on exchange level, not bot level
-        if (Global.options.getExchangeName().equalsIgnoreCase(ExchangeFacade.INTERNAL_EXCHANGE_PEATIO)) {
+        if (Global.session().options.getExchangeName().equalsIgnoreCase(ExchangeFacade.INTERNAL_EXCHANGE_PEATIO)) {
             ti.setApiBaseUrl(ExchangeFacade.INTERNAL_EXCHANGE_PEATIO_API_BASE);
         }
 
         //TODO exchange and tradeinterface are circular referenced
-        Global.exchange.setTrade(ti);
-        Global.exchange.getLiveData().setUrlConnectionCheck(Global.exchange.getTrade().getUrlConnectionCheck());
+        Global.session().exchange.setTrade(ti);
+        Global.session().exchange.getLiveData().setUrlConnectionCheck(Global.session().exchange.getTrade().getUrlConnectionCheck());
 
 
     }
 
     protected void checkNuConn() throws NuBotConnectionException {
-        if (Global.rpcClient.isConnected()) {
+        if (Global.session().rpcClient.isConnected()) {
             LOG.info("Nud RPC connection ok.");
         } else {
             //TODO: recover?
@@ -181,7 +193,7 @@ public abstract class NuBotBase {
      */
     public void testExchange() throws NuBotRunException {
 
-        ApiResponse activeOrdersResponse = Global.exchange.getTrade().getActiveOrders(Global.options.getPair());
+        ApiResponse activeOrdersResponse = Global.session().exchange.getTrade().getActiveOrders(Global.session().options.getPair());
         if (activeOrdersResponse.isPositive()) {
         } else {
             throw new NuBotRunException("could not query exchange: [ " + activeOrdersResponse.getError() + " ]");
@@ -203,68 +215,126 @@ public abstract class NuBotBase {
             liveTrading = false;
         }
 
-        Global.options = opt;
+        Global.session().options = opt;
 
         setupAllConfig();
 
         LOG.debug("Create a TaskManager ");
-        Global.taskManager = new TaskManager();
-        Global.taskManager.setTasks();
-
-        if (Global.options.isSubmitliquidity()) {
-            Global.taskManager.setupNuRPCTask();
-            Global.taskManager.startTaskNu();
-        }
-
-        LOG.debug("Starting task : Check connection with exchange");
-
-        Global.taskManager.getCheckConnectionTask().start(Settings.DELAY_CONN);
+        Global.session().taskManager = new TaskManager();
+        Global.session().taskManager.setTasks();
+
+        //the independent steps run concurrently, trading starts once all of them are ready
+        StartupPipeline pipeline = new StartupPipeline(Global.session());
+
+        Future<Void> exchangeReady = pipeline.start("exchange", new Callable<Void>() {
+            @Override
+            public Void call() {
+                setupExchange();
+                //check the connection now rather than waiting for the first run of the connection task
+                LOG.debug("Starting task : Check connection with exchange");
+                Global.session().taskManager.getCheckConnectionTask().getTask().run();
+                if (!Global.session().exchange.getLiveData().isConnected()) {
+                    LOG.warn("No connection to " + Global.session().exchange.getLiveData().getUrlConnectionCheck());
+                }
+                Global.session().taskManager.getCheckConnectionTask().start(Settings.CHECK_CONNECTION_INTERVAL);
+                return null;
+            }
+        });
+
+        Future<Void> txFeeReady = pipeline.after(exchangeReady, "tx fee", new Callable<Void>() {
+            @Override
+            public Void call() {
+                //For a 0 tx fee market, force a price-offset of 0.1%
+                ApiResponse txFeeResponse = Global.session().exchange.getTrade().getTxFee(Global.session().options.getPair());
+                if (txFeeResponse.isPositive()) {
+                    double txfee = (Double) txFeeResponse.getResponseObject();
+                    if (txfee == 0) {
+                        LOG.warn("The bot detected a 0 TX fee : forcing a priceOffset of 0.1% [if required]");
+                        double maxOffset = 0.1;
+                        if (Global.session().options.getSpread() < maxOffset) {
+                            Global.session().options.setSpread(maxOffset);
+                        }
+                    }
+                }
+                return null;
+            }
+        });
 
-        LOG.info("Waiting a for the connectionThreads to detect connection");
-        try {
-            Thread.sleep(Settings.WAIT_CHECK_INTERVAL);
-        } catch (InterruptedException ex) {
-            LOG.error(ex.toString());
+        Future<Void> exchangeTested = pipeline.after(exchangeReady, "exchange test", new Callable<Void>() {
+            @Override
+            public Void call() throws NuBotRunException {
+                testExchange();
+                return null;
+            }
+        });
+
+        Future<Void> nudReady = null;
+        if (Global.session().options.isSubmitliquidity()) {
+            nudReady = pipeline.start("nud", new Callable<Void>() {
+                @Override
+                public Void call() throws NuBotConnectionException {
+                    Global.session().taskManager.setupNuRPCTask();
+                    Global.session().rpcClient.checkConnection();
+                    Global.session().taskManager.startTaskNu();
+                    checkNuConn();
+                    return null;
+                }
+            });
         }
 
+        Future<Void> balancesReady = pipeline.start("frozen balances", new Callable<Void>() {
+            @Override
+            public Void call() {
+                // Set the frozen balance manager in the global variable
+                Global.session().frozenBalancesManager = new FrozenBalancesManager(Global.session().options.getExchangeName(), Global.session().options.getPair());
 
-        //For a 0 tx fee market, force a price-offset of 0.1%
-        ApiResponse txFeeResponse = Global.exchange.getTrade().getTxFee(Global.options.getPair());
-        if (txFeeResponse.isPositive()) {
-            double txfee = (Double) txFeeResponse.getResponseObject();
-            if (txfee == 0) {
-                LOG.warn("The bot detected a 0 TX fee : forcing a priceOffset of 0.1% [if required]");
-                double maxOffset = 0.1;
-                if (Global.options.getSpread() < maxOffset) {
-                    Global.options.setSpread(maxOffset);
+                String checkpointPath = StrategyCheckpoint.path(Global.session().options.getExchangeName(), Global.session().options.getPair());
+                if (Global.session().options.isWarmRestart()) {
+                    //the strategy adopts the orders left by the previous run instead of placing its walls again
+                    Global.session().checkpoint = StrategyCheckpoint.load(checkpointPath, Global.session().options.getPair(), System.currentTimeMillis());
+                }
+                if (Global.session().checkpoint == null && new File(checkpointPath).exists()) {
+                    //expired, unreadable or warm restart disabled : the strategy cancels the orders left on the exchange
+                    LOG.warn("Not adopting the orders of the previous run (" + checkpointPath + ") : they will be cancelled");
+                    StrategyCheckpoint.discard(checkpointPath);
                 }
+                return null;
             }
-        }
+        });
 
-        testExchange();
+        Future<Void> strategyPrepared = pipeline.start("strategy", new Callable<Void>() {
+            @Override
+            public Void call() throws NuBotConfigException {
+                prepareStrategy();
+                return null;
+            }
+        });
+
+        pipeline.await(exchangeReady);
+        pipeline.await(txFeeReady);
+        pipeline.await(exchangeTested);
 
         //Start task to check orders
         try {
-            Global.taskManager.getSendLiquidityTask().start(Settings.DELAY_LIQUIIDITY);
+            Global.session().taskManager.getSendLiquidityTask().start(Settings.DELAY_LIQUIIDITY);
         } catch (Exception e) {
             throw new NuBotRunException("" + e);
         }
 
-        if (Global.options.isSubmitliquidity()) {
+        if (nudReady != null) {
             try {
-                checkNuConn();
-            } catch (NuBotConnectionException e) {
+                pipeline.await(nudReady);
+            } catch (NuBotRunException e) {
                 MainLaunch.exitWithNotice("can't connect to Nu " + e);
             }
         }
 
-        LOG.info("Start trading Strategy specific for " + Global.options.getPair().toString());
-
-        LOG.info("Options loaded : " + Global.options.toString());
+        pipeline.await(balancesReady);
+        pipeline.await(strategyPrepared);
 
-        // Set the frozen balance manager in the global variable
+        LOG.info("Start trading Strategy specific for " + Global.session().options.getPair().toString());
 
-        Global.frozenBalancesManager = new FrozenBalancesManager(Global.options.getExchangeName(), Global.options.getPair());
+        LOG.info("Options loaded : " + Global.session().options.toString());
 
         try {
             configureStrategy();
@@ -277,8 +347,8 @@ public abstract class NuBotBase {
     }
 
     protected void notifyOnline() {
-        String exc = Global.options.getExchangeName();
-        String p = Global.options.getPair().toStringSep();
+        String exc = Global.session().options.getExchangeName();
+        String p = Global.session().options.getPair().toStringSep();
         String msg = "A new <strong>" + mode + "</strong> bot just came online on " + exc + " pair (" + p + ")";
         LOG.debug("notify online " + msg);
         HipChatNotifications.sendMessage(msg, MessageColor.GREEN);
@@ -288,44 +358,57 @@ public abstract class NuBotBase {
 
         LOG.info("session statistics");
         //log closing statistics
-        LOG.info("totalOrdersSubmitted " + Global.orderManager.getTotalOrdersSubmitted());
+        LOG.info("totalOrdersSubmitted " + Global.session().orderManager.getTotalOrdersSubmitted());
 
         String openStrongTaging = "<strong>";
         String closingStrongTaging = "</strong>";
 
         String additionalInfo = "after " + Utils.getBotUptimeDate() + " uptime on "
-                + openStrongTaging + Global.options.getExchangeName() + closingStrongTaging + " ["
-                + Global.options.getPair().toStringSep() + "]";
+                + openStrongTaging + Global.session().options.getExchangeName() + closingStrongTaging + " ["
+                + Global.session().options.getPair().toStringSep() + "]";
 
         LOG.info(additionalInfo.replace(closingStrongTaging, "").replace(openStrongTaging, "")); //Remove html tags
         HipChatNotifications.sendMessageCritical("Bot shut-down " + additionalInfo);
 
-        LOG.debug("startup duration [msec]: " + SessionManager.startupDuration);
+        LOG.debug("startup duration [msec]: " + Global.session().startupDuration);
     }
 
     public void shutdownBot() {
+        shutdownBot(false);
+    }
+
+    /**
+     * @param keepOrders leave the orders on the exchange for the next run to adopt, see options.warmRestart
+     */
+    public void shutdownBot(boolean keepOrders) {
 
         LOG.info("Bot shutting down sequence started.");
 
         //Interrupt all BotTasks
 
-        if (Global.taskManager != null) {
-            if (Global.taskManager.isInitialized()) {
+        if (Global.session().taskManager != null) {
+            if (Global.session().taskManager.isInitialized()) {
                 try {
                     LOG.info("try to shutdown all tasks");
-                    Global.taskManager.stopAll();
+                    Global.session().taskManager.stopAll();
                 } catch (IllegalStateException e) {
                     LOG.error(e.toString());
                 }
             }
         }
 
-        //Try to cancel all orders, if any
-        if (Global.exchange.getTrade() != null && Global.options.getPair() != null) {
+        String checkpointPath = StrategyCheckpoint.path(Global.session().options.getExchangeName(), Global.session().options.getPair());
+        boolean ordersKept = keepOrders && Global.session().orderManager != null && StrategyCheckpoint.refresh();
+        if (ordersKept) {
+            LOG.info("Leaving the active orders on the exchange for the next run, see " + checkpointPath
+                    + ". They are cancelled by a bot started more than " + Settings.WARM_RESTART_MAX_AGE / 60000 + " minutes from now");
+        } else if (Global.session().exchange.getTrade() != null && Global.session().options.getPair() != null) {
+            //Try to cancel all orders, if any
+            StrategyCheckpoint.discard(checkpointPath);
 
             LOG.info("Clearing out active orders ... ");
 
-            ApiResponse deleteOrdersResponse = Global.exchange.getTrade().clearOrders(Global.options.getPair());
+            ApiResponse deleteOrdersResponse = Global.session().exchange.getTrade().clearOrders(Global.session().options.getPair());
             if (deleteOrdersResponse.isPositive()) {
                 boolean deleted = (boolean) deleteOrdersResponse.getResponseObject();
 
@@ -340,33 +423,39 @@ public abstract class NuBotBase {
         }
 
         //reset liquidity info
-        if (Global.options.isSubmitliquidity()) {
-            if (Global.rpcClient.isConnected()) {
-                //tier 1
+        if (Global.session().options.isSubmitliquidity()) {
+            //drop the reports still queued, they must not land after the reset
+            if (Global.session().liquiditySubmitter != null) {
+                Global.session().liquiditySubmitter.stop();
+            }
+            if (ordersKept) {
+                //the orders are still on the book : the liquidity last reported holds
+                LOG.info("Liquidity Info not reset, the orders are left on the exchange");
+            } else if (Global.session().rpcClient.isConnected()) {
+                //both tiers in one batch
                 LOG.info("Resetting Liquidity Info before quit");
 
-                JSONObject responseObject1 = Global.rpcClient.submitLiquidityInfo(Global.rpcClient.USDchar,
-                        0, 0, 1);
-                if (null == responseObject1) {
-                    LOG.error("Something went wrong while sending liquidityinfo");
-                } else {
-                    LOG.debug(responseObject1.toJSONString());
-                }
-
-                JSONObject responseObject2 = Global.rpcClient.submitLiquidityInfo(Global.rpcClient.USDchar,
-                        0, 0, 2);
-                if (null == responseObject2) {
-                    LOG.error("Something went wrong while sending liquidityinfo");
-                } else {
-                    LOG.debug(responseObject2.toJSONString());
+                List<NuRPCClient.LiquidityReport> reset = new ArrayList<>();
+                reset.add(new NuRPCClient.LiquidityReport(1, 0, 0));
+                reset.add(new NuRPCClient.LiquidityReport(2, 0, 0));
+                Map<Integer, JSONObject> responses = Global.session().rpcClient.submitLiquidityInfo(NuRPCClient.USDchar,
+                        reset, false);
+                for (JSONObject responseObject : responses.values()) {
+                    LOG.debug(responseObject.toJSONString());
                 }
             }
+            Global.session().rpcClient.close();
         }
 
 
-        LOG.info("Logs of this session saved in " + Global.sessionPath);
+        //legacy json layout of the session history, for the tools reading it
+        if (Global.session().sessionLogFolder != null) {
+            HistoryJournal.exportSession(Global.session().sessionLogFolder);
+        }
+
+        LOG.info("Logs of this session saved in " + Global.session().sessionPath);
         SessionManager.setModeHalted();
-        SessionManager.sessionStopped = System.currentTimeMillis();
+        Global.session().sessionStopped = System.currentTimeMillis();
         LOG.info("** end of the session **");
 
         logSessionStatistics();
@@ -33,29 +33,12 @@ public class SessionManager {
 
     private static final String MODE_RUNNING = "MODE_RUNNING";
 
-    private static final String MODE_HALTED = "MODE_HALTED";
-
-    //public static String sessionMode = MODE_NOTSTARTED;
-    public static String sessionMode = MODE_HALTED;
-
-    public static DateTime sessionStartDate;
-
-    public static long sessionStarted;
-
-    public static long sessionStopped;
-
-    /**
-     * time it took from startup to first order
-     */
-    public static long startupDuration = -1;
-
-    public static String sessionId;
+    static final String MODE_HALTED = "MODE_HALTED";
 
     private static File sessionFile;
 
     private static String appFolder;
 
-    private static boolean runonce = false;
 
     /**
      * set config in global
@@ -70,8 +53,8 @@ public class SessionManager {
             //Check if NuBot has valid parameters and quit if it doesn't
             NuBotOptions opt = ParseOptions.parseOptionsSingle(configfile, skipValidation);
             LOG.debug("loading opt: " + opt.toString());
-            Global.options = opt;
-            Global.currentOptionsFile = configfile;
+            Global.session().options = opt;
+            Global.session().currentOptionsFile = configfile;
         } catch (NuBotConfigException e) {
             MainLaunch.exitWithNotice("" + e);
         }
@@ -84,8 +67,8 @@ public class SessionManager {
     public static void setConfigDefault() {
 
         NuBotOptions defaultOpt = NuBotOptionsDefault.defaultFactory();
-        Global.options = defaultOpt;
-        Global.currentOptionsFile = Settings.DEFAULT_CONFIG_FILE_PATH;
+        Global.session().options = defaultOpt;
+        Global.session().currentOptionsFile = Settings.DEFAULT_CONFIG_FILE_PATH;
         SaveOptions.saveOptionsPretty(defaultOpt, Settings.DEFAULT_CONFIG_FILE_PATH);
 
     }
@@ -97,15 +80,15 @@ public class SessionManager {
 
         //set up session dir
         String wdir = FilesystemUtils.getBotAbsolutePath();
-        Global.sessionLogFolder = wdir + "/" + Global.sessionPath;
+        Global.session().sessionLogFolder = wdir + "/" + Global.session().sessionPath;
 
     }
 
     public static void sessionStart() {
 
-        runonce = true;
-        sessionStarted = System.currentTimeMillis();
-        sessionStartDate = new DateTime();
+        Global.session().runonce = true;
+        Global.session().sessionStarted = System.currentTimeMillis();
+        Global.session().sessionStartDate = new DateTime();
 
         String timestamp =
                 new java.text.SimpleDateFormat("yyyyMMdd HH:mm:ss").format(new Date());
@@ -115,14 +98,14 @@ public class SessionManager {
     }
 
     public static String startedString() {
-        Date startdate = Date.from(Instant.ofEpochSecond(sessionStarted / 1000));
+        Date startdate = Date.from(Instant.ofEpochSecond(Global.session().sessionStarted / 1000));
         DateFormat df = new SimpleDateFormat("MM/dd/yyyy HH:mm:ss");
         String dstr = df.format(startdate);
         return dstr;
     }
 
     public static boolean wasRunOnce() {
-        return runonce;
+        return Global.session().runonce;
     }
 
     /**
@@ -131,8 +114,8 @@ public class SessionManager {
      * @return
      */
     public static long lastStopped() {
-        if (sessionStopped != -1) {
-            return System.currentTimeMillis() - sessionStopped;
+        if (Global.session().sessionStopped != -1) {
+            return System.currentTimeMillis() - Global.session().sessionStopped;
         } else
             return -1;
     }
@@ -152,15 +135,15 @@ public class SessionManager {
 
         if (opt.requiresSecondaryPegStrategy()) {
             LOG.debug("creating secondary bot object");
-            Global.bot = new NuBotSecondary();
+            Global.session().bot = new NuBotSecondary();
         } else {
             LOG.debug("creating simple bot object");
-            Global.bot = new NuBotSimple();
+            Global.session().bot = new NuBotSimple();
         }
 
         try {
             sessionStart();
-            Global.bot.execute(opt);
+            Global.session().bot.execute(opt);
             SessionManager.setModeRunning();
         } catch (NuBotRunException e) {
             throw e;
@@ -221,42 +204,42 @@ public class SessionManager {
      * @return
      */
     private static boolean startupOrShutdown() {
-        boolean startupOrShutdown = sessionMode.equals(MODE_HALTING) || sessionMode.equals(MODE_STARTING);
+        boolean startupOrShutdown = Global.session().sessionMode.equals(MODE_HALTING) || Global.session().sessionMode.equals(MODE_STARTING);
         return startupOrShutdown;
     }
 
     public static boolean isSessionRunning() {
         //TODO: remove sessionisactive and integrate here
-        boolean r = sessionMode.equals(MODE_RUNNING);
+        boolean r = Global.session().sessionMode.equals(MODE_RUNNING);
         return r;
     }
 
     public static void setModeStarting() {
         LOG.debug("set mode to starting");
-        sessionMode = MODE_STARTING;
+        Global.session().sessionMode = MODE_STARTING;
     }
 
     public static void setModeHalting() {
         LOG.debug("set mode to halting");
-        sessionMode = MODE_HALTING;
+        Global.session().sessionMode = MODE_HALTING;
     }
 
 
     public static void setModeHalted() {
         LOG.debug("set mode to halted");
-        sessionMode = MODE_HALTED;
+        Global.session().sessionMode = MODE_HALTED;
     }
 
     public static void setModeRunning() {
-        sessionMode = MODE_RUNNING;
+        Global.session().sessionMode = MODE_RUNNING;
     }
 
     public static boolean isModeHalting() {
-        return sessionMode == MODE_HALTING;
+        return Global.session().sessionMode == MODE_HALTING;
     }
 
     public static boolean isModeHalted() {
-        return sessionMode == MODE_HALTED;
+        return Global.session().sessionMode == MODE_HALTED;
     }
 
     public static boolean isModeActive() {
@@ -264,12 +247,12 @@ public class SessionManager {
     }
 
     public static String getMode() {
-        return sessionMode;
+        return Global.session().sessionMode;
     }
 
     public static String getReadableMode() {
         String readableMode = "undefined";
-        switch (sessionMode) {
+        switch (Global.session().sessionMode) {
            /* case MODE_NOTSTARTED:
                 readableMode = "not started";
                 break;*/
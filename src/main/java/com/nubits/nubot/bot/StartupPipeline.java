@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.bot;
+
+import com.nubits.nubot.global.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Startup of a bot as independent steps running concurrently, each one exposing a readiness future.
+ * A step may wait for the steps it depends on (see after), the bot waits for all the steps it needs before trading.
+ * Steps run bound to the session of the bot, see Global.bindSession
+ */
+public class StartupPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StartupPipeline.class.getName());
+
+    /**
+     * threads running startup steps, shared by all bots in the process
+     */
+    private static final ExecutorService STARTUP_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "startup-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final BotSession session;
+    private final long started = System.currentTimeMillis();
+
+    public StartupPipeline(BotSession session) {
+        this.session = session;
+    }
+
+    /**
+     * start a step now
+     *
+     * @return the readiness of the step, holding its result
+     */
+    public <T> Future<T> start(final String name, final Callable<T> step) {
+        return STARTUP_EXECUTOR.submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                Global.bindSession(session);
+                try {
+                    T result = step.call();
+                    LOG.info("startup step " + name + " ready after " + (System.currentTimeMillis() - started) + " ms");
+                    return result;
+                } catch (Exception e) {
+                    LOG.error("startup step " + name + " failed : " + e.toString());
+                    throw e;
+                } finally {
+                    Global.unbindSession();
+                }
+            }
+        });
+    }
+
+    /**
+     * start a step once the step it depends on is ready. It fails if its dependency failed
+     */
+    public <T> Future<T> after(final Future<?> dependency, final String name, final Callable<T> step) {
+        return start(name, new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                await(dependency);
+                return step.call();
+            }
+        });
+    }
+
+    /**
+     * wait for a step to be ready, at most Settings.STARTUP_STEP_TIMEOUT
+     *
+     * @return the result of the step
+     * @throws NuBotRunException if the step failed or is not ready in time
+     */
+    public <T> T await(Future<T> step) throws NuBotRunException {
+        try {
+            return step.get(Settings.STARTUP_STEP_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NuBotRunException) {
+                throw (NuBotRunException) cause;
+            }
+            throw new NuBotRunException("" + cause);
+        } catch (TimeoutException e) {
+            step.cancel(true);
+            throw new NuBotRunException("startup step not ready after " + Settings.STARTUP_STEP_TIMEOUT + " ms");
+        } catch (InterruptedException e) {
+            throw new NuBotRunException("interrupted during startup");
+        }
+    }
+}
@@ -120,11 +120,11 @@ public class ExchangeFacade {
      * @return
      */
     public static TradeInterface exchangeInterfaceSetup(NuBotOptions opt) {
-        Global.exchange = new Exchange(Global.options.getExchangeName());
+        Global.session().exchange = new Exchange(Global.session().options.getExchangeName());
         ExchangeLiveData liveData = new ExchangeLiveData();
-        Global.exchange.setLiveData(liveData);
-        ApiKeys keys = new ApiKeys(Global.options.getApiSecret(), Global.options.getApiKey());
-        TradeInterface ti = ExchangeFacade.getInterfaceByName(Global.exchange.getName(), keys, Global.exchange);
+        Global.session().exchange.setLiveData(liveData);
+        ApiKeys keys = new ApiKeys(Global.session().options.getApiSecret(), Global.session().options.getApiKey());
+        TradeInterface ti = ExchangeFacade.getInterfaceByName(Global.session().exchange.getName(), keys, Global.session().exchange);
         return ti;
     }
 
@@ -40,17 +40,86 @@ public class Settings {
      */
     public static final double FORCED_SPREAD = 0.9;
 
-    // ------ Timing ------
+    // ------ Liquidity ladder (options.distributeLiquidity) ------
     /**
-     * [seconds] Submit liquidity info
+     * [0-1] share of the funds of a side the ladder is sized to use : the rest absorbs rounding and fees
      */
-    public static final int SUBMIT_LIQUIDITY_SECONDS = 130;
+    public static final double LADDER_FUNDS_SHARE = 0.95;
+
+    /**
+     * [%] an order within this distance of a ladder level counts as that level
+     */
+    public static final double LADDER_PRICE_TOLERANCE = 0.1;
+
+    /**
+     * [0-1] a level is refilled once more than this share of it has been traded
+     */
+    public static final double LADDER_REFILL_THRESHOLD = 0.5;
+
+    /**
+     * [orders] most orders a ladder side is placed with : adjacent levels are merged to fit
+     */
+    public static final int LADDER_MAX_ORDERS = 8;
+
+    /**
+     * [0-1] how far, as a fraction of the total depth, merging levels may move the depth of a ladder from the model
+     */
+    public static final double LADDER_DEPTH_TOLERANCE = 0.1;
+
+    /**
+     * [ladders] how many computed ladders are cached
+     */
+    public static final int LADDER_SHAPE_CACHE = 16;
+
+    /**
+     * [ms] minimum time between two order API calls of a batch
+     */
+    public static final int ORDER_SUBMIT_INTERVAL = 300;
 
+    /**
+     * [calls] a batch stops after this many consecutive failed calls, the rest is left to the next one
+     */
+    public static final int ORDER_BATCH_MAX_ERRORS = 3;
+
+    // ------ Timing ------
     /**
      * [seconds] Execute StrategyTask
      */
     public static final int EXECUTE_STRATEGY_INTERVAL = 41;
 
+    /**
+     * [seconds] Submit liquidity info at least this often, even when it did not change
+     */
+    public static final int SUBMIT_LIQUIDITY_SECONDS = 130;
+
+    /**
+     * [seconds] Look for a change of the liquidity on order
+     */
+    public static final int LIQUIDITY_CHECK_SECONDS = 10;
+
+    /**
+     * [ms] orders and balances younger than this are used as they are to look for liquidity changes. It spans a
+     * strategy cycle, whose order fetches keep the snapshot fresh : while the strategy runs the checks add no order
+     * fetch, and about one balance fetch a minute. Placing or cancelling an order makes the next check fetch both again
+     */
+    public static final int LIQUIDITY_SNAPSHOT_MAX_AGE = (EXECUTE_STRATEGY_INTERVAL + LIQUIDITY_CHECK_SECONDS) * 1000;
+
+    /**
+     * a change of the NBT on order on either side smaller than this fraction of the last reported amount
+     * (and than 1 NBT) waits for the next periodic submission
+     */
+    public static final double LIQUIDITY_REPORT_DELTA = 0.01;
+
+    /**
+     * attempts to resubmit a liquidity report nud did not accept, before waiting for the next one
+     */
+    public static final int LIQUIDITY_SUBMIT_RETRIES = 3;
+
+    /**
+     * [ms] delay before the first resubmission, doubled at each further attempt
+     */
+    public static final long LIQUIDITY_RETRY_DELAY = 5 * 1000;
+
 
     /**
      * [seconds] Check connection with exchanges API
@@ -62,6 +131,27 @@ public class Settings {
      */
     public static final int CHECK_NUD_INTERVAL = 30;
 
+    /**
+     * [ms] deadline to open a connection to nud, or to lease one from the pool
+     */
+    public static final int NUD_RPC_CONNECT_TIMEOUT = 5 * 1000;
+
+    /**
+     * [ms] deadline for nud to answer an RPC request once sent
+     */
+    public static final int NUD_RPC_READ_TIMEOUT = 20 * 1000;
+
+    /**
+     * connections to nud kept open in the RPC client pool
+     */
+    public static final int NUD_RPC_MAX_CONNECTIONS = 2;
+
+    /**
+     * [ms] pooled connections to nud left idle longer are closed before the next request, shorter than the keep-alive of nud :
+     * a request sent on a connection nud already closed gets no answer
+     */
+    public static final int NUD_RPC_IDLE_TIMEOUT = 10 * 1000;
+
     /**
      * [seconds]
      */
@@ -72,6 +162,92 @@ public class Settings {
      */
     public static final int CHECK_PRICE_INTERVAL_FIAT = 8 * 60 * 59 * 1000;
 
+    /**
+     * [ms] all price feeds are queried concurrently : feeds which did not answer by then are considered in error
+     */
+    public static final int FEED_FETCH_DEADLINE = 10 * 1000;
+
+    /**
+     * [ms] connect and read timeout of a price feed HTTP request
+     */
+    public static final int FEED_HTTP_TIMEOUT = 8 * 1000;
+
+    /**
+     * [urls] how many feed answers are kept with their ETag/Last-Modified to revalidate them
+     */
+    public static final int FEED_HTTP_VALIDATORS = 64;
+
+    /**
+     * [ms] how long past its refresh time a cached feed price may still be served while it is refreshed in background.
+     * Older prices are fetched again before answering
+     */
+    public static final int FEED_CACHE_STALE_GRACE = 5 * 60 * 1000;
+
+    /**
+     * [legs] longest chain of cached quotes of a feed multiplied together to derive a missing cross rate
+     */
+    public static final int FEED_CROSS_RATE_MAX_LEGS = 2;
+
+    /**
+     * [0-0.5) fraction of the lowest and of the highest feed prices left out of the trimmed mean used by the price consensus
+     */
+    public static final double FEED_CONSENSUS_TRIM = 0.2;
+
+    /**
+     * [price checks] windows of the rolling price statistics. The first one is the moving average used to filter anomalies
+     */
+    public static final int[] PRICE_STATS_WINDOWS = {30, 120, 720};
+
+    /**
+     * [0-1] weight of the newest price in the exponentially weighted moving average
+     */
+    public static final double PRICE_STATS_EWMA_ALPHA = 0.1;
+
+    /**
+     * [ms] shortest interval between two polls of a pull-only feed
+     */
+    public static final long FEED_POLL_MIN_INTERVAL = 10 * 1000;
+
+    /**
+     * how many times faster than its refresh time a volatile feed can be polled
+     */
+    public static final int FEED_POLL_MAX_SPEEDUP = 6;
+
+    /**
+     * [quotes] number of quotes the volatility of a polled feed is measured on
+     */
+    public static final int FEED_POLL_VOLATILITY_WINDOW = 10;
+
+    /**
+     * [%] standard deviation of the quotes (relative to their mean) at which a feed is polled at its fastest
+     */
+    public static final double FEED_POLL_HIGH_VOLATILITY = 1.0;
+
+    /**
+     * [ms] minimum interval between two price checks triggered by a quote moving past the wall change threshold
+     */
+    public static final long FEED_QUOTE_TRIGGER_MIN_GAP = 15 * 1000;
+
+    /**
+     * [requests] number of requests the health of a feed is measured on
+     */
+    public static final int FEED_HEALTH_WINDOW = 50;
+
+    /**
+     * [requests] a feed is never excluded before this many requests
+     */
+    public static final int FEED_HEALTH_MIN_SAMPLES = 5;
+
+    /**
+     * [0-1] a feed failing more often than this is excluded
+     */
+    public static final double FEED_HEALTH_MAX_ERROR_RATE = 0.5;
+
+    /**
+     * [%] a feed whose quotes are on average further than this from the consensus price is excluded
+     */
+    public static final double FEED_HEALTH_MAX_DEVIATION = 5;
+
     /**
      * [minutes] Used in multi-custodian mode
      */
@@ -82,6 +258,16 @@ public class Settings {
      */
     public static final int NTP_TIMEOUT = 10 * 1000;
 
+    /**
+     * [ms] how long the offset of the local clock from the remote time is cached
+     */
+    public static final int NTP_OFFSET_REFRESH = 60 * 60 * 1000;
+
+    /**
+     * number of slots each RESET_EVERY_MINUTES window is split into. Each custodian shifts its walls during its own slot
+     */
+    public static final int RESET_SLOTS = 6;
+
     // ------ Paths and filenames
     // Refer to md/FILES-AND-FOLDERS.md for the convention of where to place files and folders
     // In defining folder names, omit the "/" at the end
@@ -120,6 +306,27 @@ public class Settings {
      */
     public final static String FROZEN_FUNDS_PATH = RES_PATH + "/" + "frozen-funds/";
 
+    /**
+     * frozen balance changes appended to their log before it is folded into a new snapshot
+     */
+    public static final int FROZEN_SNAPSHOT_EVENTS = 50;
+
+    /**
+     * folder of the strategy checkpoints, one per exchange and pair
+     */
+    public final static String CHECKPOINT_PATH = RES_PATH + "/" + "checkpoints/";
+
+    /**
+     * [ms] with options.warmRestart, how long the orders of a stopped bot may stay unattended on the exchange :
+     * a bot started later finds the checkpoint expired, it cancels the orders and places its walls again
+     */
+    public static final long WARM_RESTART_MAX_AGE = 10 * 60 * 1000L;
+
+    /**
+     * [%] an order of the checkpoint is adopted if its price is this close to the current price of its side
+     */
+    public static final double WARM_RESTART_PRICE_TOLERANCE = 0.1;
+
     public final static String DEFAULT_CONFIG_FILENAME = "nubot-config.json";//Used by UI in case file not explicitly declared
 
     public final static String CONFIG_DIR = "config";
@@ -136,6 +343,60 @@ public class Settings {
 
     public final static String WALLSHIFTS_FILENAME = "wall_shifts"; //Filename for recording wallshifts
 
+    public final static String PRICE_TICKS_FILENAME = "price_ticks.ticks"; //Filename for recording every feed quote, see TickStore
+
+    /**
+     * [bytes] pending appends written to their files once they reach this size
+     */
+    public static final int FILE_WRITER_FLUSH_BYTES = 64 * 1024;
+
+    /**
+     * [ms] longest time an append waits in memory before being written
+     */
+    public static final int FILE_WRITER_FLUSH_INTERVAL = 200;
+
+    /**
+     * writes queued for the file writer before producers have to wait for the disk
+     */
+    public static final int FILE_WRITER_QUEUE = 10000;
+
+    /**
+     * files kept open by the file writer
+     */
+    public static final int FILE_WRITER_OPEN_FILES = 32;
+
+    /**
+     * if true every write is forced to disk before the writer returns (slower, survives a power loss)
+     */
+    public static final boolean FILE_WRITER_DURABLE = false;
+
+    /**
+     * [bytes] session outputs (logs, csv, journals) move to a new segment once they reach this size.
+     * The logs rotate on the maxFileSize of logback.xml
+     */
+    public static final long SEGMENT_MAX_BYTES = 10 * 1024 * 1024;
+
+    /**
+     * [ms] session outputs move to a new segment once their segment is this old
+     */
+    public static final long SEGMENT_MAX_AGE = 24 * 60 * 60 * 1000L;
+
+    /**
+     * [days] session folders older than this are deleted at launch
+     */
+    public static final int SESSION_RETENTION_DAYS = 30;
+
+    /**
+     * [bytes] the oldest session folders are deleted at launch until the logs folder fits in this size
+     */
+    public static final long SESSION_RETENTION_BYTES = 2L * 1024 * 1024 * 1024;
+
+    /**
+     * [ms] session folders with a file written within this time may belong to another running NuBot : never deleted,
+     * not even to fit in SESSION_RETENTION_BYTES
+     */
+    public static final long SESSION_RETENTION_LIVE = 24 * 60 * 60 * 1000L;
+
     public final static String TESTS_LOG_PREFIX = "tests"; //Prefix used in naming the directory for saving the output of tests
 
     public static final String TESTS_CONFIG_PATH = CONFIG_DIR + "/" + "myconfig"; //Directory containing configuration files used in tests
@@ -147,7 +408,6 @@ public class Settings {
     public final static String SESSION_FILE = APP_NAME + "_session.tmp";
 
     public final static String SESSION_LOGGER_NAME = "SessionLOG";
-    public static final int DELAY_CONN = 1;
     public final static int DELAY_LIQUIIDITY = 40;
 
     public final static long TIMEOUT_QUERY_RETRY = 10 * 1000; // For how long should the wrapper retry the call if the exchange has found busy
@@ -172,9 +432,14 @@ public class Settings {
     public static final int BALANCE_MAX_INTERVAL = 10 * 1000;
 
     /**
-     * at startup - stop and wait for the check connection thread  [ms]
+     * at startup - maximum wait for a step of the startup pipeline to be ready [ms]
+     */
+    public static final int STARTUP_STEP_TIMEOUT = 2 * 60 * 1000;
+
+    /**
+     * threads of the shared task scheduler : they only time the tasks, the work runs on Global.taskWorkers
      */
-    public static final int WAIT_CHECK_INTERVAL = 3000;
+    public static final int SCHEDULER_THREADS = 2;
 
 
 }
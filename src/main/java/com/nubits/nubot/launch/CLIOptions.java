@@ -31,7 +31,7 @@ public class CLIOptions {
     public static final String GUI = "GUI";
     public static final String CFG = "cfg";
 
-    public static final String USAGE_STRING = "java - jar NuBot -" + CFG + "=<path/to/options.json> [-" + GUI + "]";
+    public static final String USAGE_STRING = "java - jar NuBot -" + CFG + "=<path/to/options.json>[,<path/to/other-options.json>...] [-" + GUI + "]";
 
     /**
      * Construct and provide GNU-compatible Options.
@@ -18,12 +18,14 @@
 
 package com.nubits.nubot.launch;
 
+import com.nubits.nubot.bot.BotSession;
 import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.bot.NuBotRunException;
 import com.nubits.nubot.bot.SessionManager;
 import com.nubits.nubot.global.Settings;
 import com.nubits.nubot.options.SaveOptions;
 import com.nubits.nubot.utils.FilesystemUtils;
+import com.nubits.nubot.utils.LogRetention;
 import com.nubits.nubot.webui.UiServer;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Options;
@@ -56,9 +58,10 @@ public class MainLaunch {
      */
     public static void main(String args[]) {
 
-        Global.sessionPath = "logs" + "/" + Settings.SESSION_LOG + System.currentTimeMillis();
-        MDC.put("session", Global.sessionPath);
-        LOG.info("defined session path " + Global.sessionPath);
+        Global.session().sessionPath = "logs" + "/" + Settings.SESSION_LOG + System.currentTimeMillis();
+        MDC.put("session", Global.session().sessionPath);
+        LOG.info("defined session path " + Global.session().sessionPath);
+        LogRetention.pruneInBackground(Settings.LOGS_PATH, Global.session().sessionPath);
 
         CommandLine cli = parseArgs(args);
 
@@ -93,7 +96,12 @@ public class MainLaunch {
             }
 
             if (runGUI) {
+                String[] configFiles = configFile.split(",");
+                configFile = configFiles[0].trim();
                 SessionManager.setConfigGlobal(configFile, true);
+                for (int i = 1; i < configFiles.length; i++) {
+                    registerSession(configFiles[i].trim(), true);
+                }
                 try {
                     UiServer.startUIserver(configFile, defaultCfg);
                     Global.createShutDownHook();
@@ -101,6 +109,10 @@ public class MainLaunch {
                     LOG.error("error setting up UI server " + e);
                 }
 
+            } else if (configFile.contains(",")) {
+                LOG.info("Run several NuBot sessions from CLI");
+                launchSessions(configFile.split(","));
+                Global.createShutDownHook();
             } else {
                 LOG.info("Run NuBot from CLI");
                 //set global config
@@ -108,7 +120,7 @@ public class MainLaunch {
                 sessionLOG.debug("launch bot");
                 try {
                     SessionManager.setModeStarting();
-                    SessionManager.launchBot(Global.options);
+                    SessionManager.launchBot(Global.session().options);
                     Global.createShutDownHook();
                 } catch (NuBotRunException e) {
                     exitWithNotice("could not launch bot " + e);
@@ -122,6 +134,56 @@ public class MainLaunch {
 
     }
 
+    /**
+     * launch one bot per config file, each in its own session, see registerSession
+     *
+     * @param configFiles
+     */
+    private static void launchSessions(String[] configFiles) {
+        for (String file : configFiles) {
+            final BotSession session = registerSession(file.trim(), false);
+
+            Thread launcher = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Global.bindSession(session);
+                    sessionLOG.debug("launch bot " + session.name);
+                    try {
+                        SessionManager.setModeStarting();
+                        SessionManager.launchBot(Global.session().options);
+                    } catch (NuBotRunException e) {
+                        LOG.error("could not launch bot " + session.name + " : " + e);
+                        SessionManager.setModeHalted();
+                    }
+                }
+            }, session.name);
+            launcher.start();
+        }
+    }
+
+    /**
+     * register a session named after the config file, with the options of the file.
+     * Logs of the session go to a sub-folder of the main session path.
+     * With the UI, the first config file is the default session and the others are started from the UI (?session=name)
+     *
+     * @param configFile
+     * @param skipValidation
+     * @return the session
+     */
+    private static BotSession registerSession(String configFile, boolean skipValidation) {
+        String name = new File(configFile).getName().replace(".json", "");
+        BotSession session = Global.getOrCreateSession(name);
+        session.sessionPath = Global.session().sessionPath + "/" + name;
+        Global.bindSession(session);
+        try {
+            SessionManager.setConfigGlobal(configFile, skipValidation);
+        } finally {
+            Global.unbindSession();
+            MDC.put("session", Global.session().sessionPath);
+        }
+        return session;
+    }
+
     public static CommandLine parseArgs(String args[]) {
         CLIOptions argsParser = new CLIOptions();
         Options options = argsParser.constructGnuOptions();
@@ -18,6 +18,7 @@
 
 package com.nubits.nubot.launch;
 
+import com.nubits.nubot.bot.BotSession;
 import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.bot.SessionManager;
 import org.slf4j.Logger;
@@ -32,12 +33,20 @@ public class ShutDownProcess implements Runnable {
     @Override
     public void run() {
         LOG.debug("global shutdownhook called");
-        //shutdown logic of the bot handled in the bot related to the global thread
-        if (SessionManager.isSessionRunning()) {
-            LOG.debug("bot is running. shut it down");
-            Global.bot.shutdownBot();
-            SessionManager.setModeHalting();
-            SessionManager.sessionStopped = System.currentTimeMillis();
+        //shutdown logic of the bot handled in the bot related to each session
+        for (BotSession session : Global.getSessions()) {
+            Global.bindSession(session);
+            try {
+                if (SessionManager.isSessionRunning()) {
+                    LOG.debug("bot of session " + session.name + " is running. shut it down");
+                    //the process is stopped, likely to be restarted : the orders may stay up for the next run
+                    Global.session().bot.shutdownBot(Global.session().options.isWarmRestart());
+                    SessionManager.setModeHalting();
+                    Global.session().sessionStopped = System.currentTimeMillis();
+                }
+            } finally {
+                Global.unbindSession();
+            }
         }
 
         //Interrupt mainThread
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.nubits.nubot.launch.toolkit;
+
+import com.nubits.nubot.backtest.BacktestParameters;
+import com.nubits.nubot.backtest.BacktestQuote;
+import com.nubits.nubot.backtest.BacktestResult;
+import com.nubits.nubot.backtest.BacktestSweep;
+import com.nubits.nubot.backtest.QuoteHistoryReader;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.utils.FilesystemUtils;
+import org.json.simple.JSONArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+
+/**
+ * Replay a recorded price history (wall_shifts jsonl/json/csv, timestamp,price csv or price_ticks.ticks) through the secondary
+ * peg strategy for a grid of wallchangeThreshold and spread values
+ */
+public class NuBacktest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NuBacktest.class.getName());
+    public static final String USAGE_STRING = "java -cp NuBot.jar " + NuBacktest.class.getName()
+            + " <history-file> [wallchangeThresholds, e.g. 0.1,0.5,1] [spreads, e.g. 0,0.5]";
+
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 3) {
+            LOG.error("wrong argument number : call it with \n" + USAGE_STRING);
+            System.exit(0);
+        }
+
+        ArrayList<BacktestQuote> quotes = QuoteHistoryReader.read(args[0]);
+        LOG.info("Loaded " + quotes.size() + " quotes from " + args[0]);
+
+        double[] thresholds = args.length > 1 ? parseList(args[1]) : new double[]{new BacktestParameters().getWallchangeThreshold()};
+        double[] spreads = args.length > 2 ? parseList(args[2]) : new double[]{new BacktestParameters().getSpread()};
+
+        ArrayList<BacktestResult> results = BacktestSweep.run(quotes, BacktestSweep.grid(new BacktestParameters(), thresholds, spreads));
+
+        JSONArray report = new JSONArray();
+        for (BacktestResult result : results) {
+            LOG.info(result.toString());
+            report.add(result.toJSON());
+        }
+
+        FilesystemUtils.mkdir(Settings.LOGS_PATH);
+        String reportPath = Settings.LOGS_PATH + "/backtest_" + System.currentTimeMillis() + ".json";
+        FilesystemUtils.writeToFile(report.toJSONString(), reportPath, false);
+        LOG.info("Report written to " + reportPath);
+        System.exit(0);
+    }
+
+    private static double[] parseList(String list) {
+        String[] values = list.split(",");
+        double[] toRet = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            toRet[i] = Double.parseDouble(values[i].trim());
+        }
+        return toRet;
+    }
+}
@@ -102,7 +102,7 @@ public class NuCMC {
 
             Exchange ccedk = new Exchange("ccedk");
             Exchange bter = new Exchange("bter");
-            //Create e ExchangeLiveData object to accomodate liveData from the Global.exchange
+            //Create e ExchangeLiveData object to accomodate liveData from the Global.session().exchange
             ExchangeLiveData liveDataC = new ExchangeLiveData();
             ExchangeLiveData liveDataB = new ExchangeLiveData();
             ccedk.setLiveData(liveDataC);
@@ -147,7 +147,7 @@ public class NuCMC {
                 LOG.info("Exiting...");
                 mainThread.interrupt();
                 try {
-                    Global.taskManager.stopAll();
+                    Global.session().taskManager.stopAll();
                 } catch (IllegalStateException e) {
 
                 }
@@ -162,8 +162,8 @@ public class NuCMC {
 
         Utils.installKeystore(true);
 
-        Global.taskManager = new TaskManager();
-        Global.taskManager.setTasks();
+        Global.session().taskManager = new TaskManager();
+        Global.session().taskManager.setTasks();
 
         clearAll(ccedk);
         clearAll(bter);
@@ -66,7 +66,7 @@ public class NuCancelOrders {
 
     private void cancelAllOrders(CurrencyPair pair) {
 
-        ApiResponse deleteOrdersResponse = Global.exchange.getTrade().clearOrders(pair);
+        ApiResponse deleteOrdersResponse = Global.session().exchange.getTrade().clearOrders(pair);
         if (deleteOrdersResponse.isPositive()) {
             boolean deleted = (boolean) deleteOrdersResponse.getResponseObject();
 
@@ -89,7 +89,7 @@ public class NuCancelOrders {
         //Wrap the keys into a new ApiKeys object
         keys = new ApiKeys(secret, api);
 
-        Global.exchange = new Exchange(exchangename);
+        Global.session().exchange = new Exchange(exchangename);
 
         //Switch the ip of exchange
         String apibase = "";
@@ -102,19 +102,19 @@ public class NuCancelOrders {
 
         //Create e ExchangeLiveData object to accomodate liveData from the exchange
         ExchangeLiveData liveData = new ExchangeLiveData();
-        Global.exchange.setLiveData(liveData);
+        Global.session().exchange.setLiveData(liveData);
 
         //Create a new TradeInterface object using the PeatioWrapper implementation
         //Assign the TradeInterface to the PeatioExchange
-        Global.exchange.setTrade(new PeatioWrapper(keys, Global.exchange, apibase));
-        Global.exchange.getLiveData().setUrlConnectionCheck(Global.exchange.getTrade().getUrlConnectionCheck());
+        Global.session().exchange.setTrade(new PeatioWrapper(keys, Global.session().exchange, apibase));
+        Global.session().exchange.getLiveData().setUrlConnectionCheck(Global.session().exchange.getTrade().getUrlConnectionCheck());
 
 
         //Create a TaskManager and
-        Global.taskManager = new TaskManager();
-        Global.taskManager.setTasks();
+        Global.session().taskManager = new TaskManager();
+        Global.session().taskManager.setTasks();
         //Start checking for connection
-        Global.taskManager.getCheckConnectionTask().start();
+        Global.session().taskManager.getCheckConnectionTask().start();
 
 
         //Wait a couple of seconds for the connectionThread to get live
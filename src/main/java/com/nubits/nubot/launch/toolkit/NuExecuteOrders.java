@@ -85,7 +85,7 @@ public class NuExecuteOrders {
                 LOG.info("Exiting...");
                 NuExecuteOrders.mainThread.interrupt();
                 try {
-                    Global.taskManager.stopAll();
+                    Global.session().taskManager.stopAll();
                 } catch (IllegalStateException e) {
 
                 }
@@ -115,11 +115,11 @@ public class NuExecuteOrders {
         //Wrap the keys into a new ApiKeys object
         keys = new ApiKeys(secret, api);
 
-        Global.exchange = new Exchange(exchangename);
+        Global.session().exchange = new Exchange(exchangename);
 
         //Create e ExchangeLiveData object to accomodate liveData from the exchange
         ExchangeLiveData liveData = new ExchangeLiveData();
-        Global.exchange.setLiveData(liveData);
+        Global.session().exchange.setLiveData(liveData);
 
 
         //Switch the ip of exchange
@@ -135,14 +135,14 @@ public class NuExecuteOrders {
         //Assign the TradeInterface to the PeatioExchange
 
 
-        Global.exchange.setTrade(new PeatioWrapper(keys, Global.exchange, apibase));
-        Global.exchange.getLiveData().setUrlConnectionCheck(Global.exchange.getTrade().getUrlConnectionCheck());
+        Global.session().exchange.setTrade(new PeatioWrapper(keys, Global.session().exchange, apibase));
+        Global.session().exchange.getLiveData().setUrlConnectionCheck(Global.session().exchange.getTrade().getUrlConnectionCheck());
 
         //Create a TaskManager and
-        Global.taskManager = new TaskManager();
-        Global.taskManager.setTasks();
+        Global.session().taskManager = new TaskManager();
+        Global.session().taskManager.setTasks();
         //Start checking for connection
-        Global.taskManager.getCheckConnectionTask().start();
+        Global.session().taskManager.getCheckConnectionTask().start();
 
 
         //Wait a couple of seconds for the connectionThread to get live
@@ -233,9 +233,9 @@ public class NuExecuteOrders {
 
             switch (this.type) {
                 case "sell":
-                    return Global.exchange.getTrade().sell(CurrencyList.BTC_CNY, amount, price);
+                    return Global.session().exchange.getTrade().sell(CurrencyList.BTC_CNY, amount, price);
                 case "buy":
-                    return Global.exchange.getTrade().buy(CurrencyList.BTC_CNY, amount, price);
+                    return Global.session().exchange.getTrade().buy(CurrencyList.BTC_CNY, amount, price);
                 default:
                     return new ApiResponse(false, null, new ApiError(2311, "Unrecognized order type (" + this.getType() + "). "
                             + "it can either be buy or sell"));
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.launch.toolkit;
+
+import com.nubits.nubot.utils.HistoryJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+
+/**
+ * Export the history journals of a session (orders, balances, wall shifts) to the legacy json files
+ */
+public class NuExportHistory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NuExportHistory.class.getName());
+    public static final String USAGE_STRING = "java -cp NuBot.jar " + NuExportHistory.class.getName()
+            + " <session log folder>";
+
+    public static void main(String[] args) {
+        if (args.length != 1 || !new File(args[0]).isDirectory()) {
+            LOG.error("wrong arguments : call it with \n" + USAGE_STRING);
+            System.exit(0);
+        }
+
+        HistoryJournal.exportSession(args[0]);
+        System.exit(0);
+    }
+}
@@ -82,29 +82,29 @@ public class NuLastTrades {
         //Wrap the keys into a new ApiKeys object
         keys = new ApiKeys(secret, api);
 
-        Global.exchange = new Exchange(exchangename);
+        Global.session().exchange = new Exchange(exchangename);
 
         //Create e ExchangeLiveData object to accomodate liveData from the exchange
         ExchangeLiveData liveData = new ExchangeLiveData();
-        Global.exchange.setLiveData(liveData);
+        Global.session().exchange.setLiveData(liveData);
 
         if (ExchangeFacade.supportedExchange(exchangename)) {
-            Global.exchange.setTrade(ExchangeFacade.getInterfaceByName(exchangename, keys, Global.exchange));
+            Global.session().exchange.setTrade(ExchangeFacade.getInterfaceByName(exchangename, keys, Global.session().exchange));
         } else {
             LOG.error("Exchange " + exchangename + " not supported");
             System.exit(0);
         }
 
 
-        Global.exchange.getLiveData().setUrlConnectionCheck(Global.exchange.getTrade().getUrlConnectionCheck());
+        Global.session().exchange.getLiveData().setUrlConnectionCheck(Global.session().exchange.getTrade().getUrlConnectionCheck());
 
 
         //Create a TaskManager and
-        Global.taskManager = new TaskManager();
+        Global.session().taskManager = new TaskManager();
         //Start checking for connection
-        Global.taskManager.setCheckConnectionTask(new BotTask(
+        Global.session().taskManager.setCheckConnectionTask(new BotTask(
                 new CheckConnectionTask(), Settings.CHECK_CONNECTION_INTERVAL, "checkConnection"));
-        Global.taskManager.getCheckConnectionTask().start();
+        Global.session().taskManager.getCheckConnectionTask().start();
 
         //Wait a couple of seconds for the connectionThread to get live
         LOG.info("Exchange setup complete. Now checking connection ...");
@@ -140,12 +140,12 @@ public class NuLastTrades {
 
     private void execute() {
         //FilesystemUtils.writeToFile(HEADER, output, false); //uncomment for csv outputs
-        ApiResponse activeOrdersResponse = Global.exchange.getTrade().getLastTrades(pair, dateFrom);
+        ApiResponse activeOrdersResponse = Global.session().exchange.getTrade().getLastTrades(pair, dateFrom);
 
         if (pair.getPaymentCurrency().equals(CurrencyList.NBT)) {
-            Global.swappedPair = true;
+            Global.session().swappedPair = true;
         } else {
-            Global.swappedPair = false;
+            Global.session().swappedPair = false;
         }
 
         int count = 0;
@@ -177,7 +177,7 @@ public class NuLastTrades {
 
                 double amountNBT;
 
-                if (Global.swappedPair) {
+                if (Global.session().swappedPair) {
                     amountNBT = tempTrade.getAmount().getQuantity() * tempTrade.getPrice().getQuantity();
                     totalAmountNBT += amountNBT;
                     totalAmountPEG += tempTrade.getAmount().getQuantity();
@@ -206,7 +206,7 @@ public class NuLastTrades {
 
         //Report :
         String currencyCode = "";
-        if (Global.swappedPair) {
+        if (Global.session().swappedPair) {
             currencyCode = pair.getOrderCurrency().getCode();
         } else {
             currencyCode = pair.getPaymentCurrency().getCode();
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.launch.toolkit;
+
+import com.nubits.nubot.RPC.NudStandIn;
+import com.nubits.nubot.RPC.RPCLoadHarness;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.utils.FilesystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load the nud RPC client against an in-process nud stand-in, and report throughput and tail latency
+ */
+public class NuRPCLoad {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NuRPCLoad.class.getName());
+    public static final String USAGE_STRING = "java -cp NuBot.jar " + NuRPCLoad.class.getName()
+            + " [custodians=20] [submissions per custodian=100] [latency ms=5] [jitter ms=20] [error rate=0] [drop rate=0]";
+
+    private static final String USER = "loaduser";
+    private static final String PASS = "loadpass";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 6) {
+            LOG.error("wrong argument number : call it with \n" + USAGE_STRING);
+            System.exit(0);
+        }
+
+        int custodians = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int submissions = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        NudStandIn nud = new NudStandIn(USER, PASS, 1);
+        nud.setLatency(args.length > 2 ? Long.parseLong(args[2]) : 5, args.length > 3 ? Long.parseLong(args[3]) : 20);
+        nud.setErrorRate(args.length > 4 ? Double.parseDouble(args[4]) : 0);
+        nud.setDropRate(args.length > 5 ? Double.parseDouble(args[5]) : 0);
+        nud.start(0, 16);
+
+        RPCLoadHarness.Result result;
+        try {
+            result = RPCLoadHarness.run("127.0.0.1", nud.getPort(), USER, PASS, custodians, submissions);
+        } finally {
+            nud.stop();
+        }
+        LOG.info("nud stand-in served " + nud.getRequests() + " requests, " + nud.getCalls() + " calls, "
+                + nud.getFaults() + " faults injected");
+
+        FilesystemUtils.mkdir(Settings.LOGS_PATH);
+        String reportPath = Settings.LOGS_PATH + "/rpcload_" + System.currentTimeMillis() + ".json";
+        FilesystemUtils.writeToFile(result.toJSON().toJSONString(), reportPath, false);
+        LOG.info("Report written to " + reportPath);
+        System.exit(0);
+    }
+}
@@ -34,13 +34,15 @@ public class Currency {
     private String code; // i.e USD
     private String extendedName; // the extended name where available
 
+    private static volatile ArrayList<String[]> currencyTable; //lookup table, parsed once
+
 
     /**
      *
      */
     public static Currency createCurrency(String code) {
         Currency toRet = null;
-        ArrayList<String[]> currencyList = CSVtools.parseCsvFromFile(Settings.CURRENCY_FILE_PATH);
+        ArrayList<String[]> currencyList = getCurrencyTable();
         boolean found = false;
         for (int j = 1; j < currencyList.size(); j++) {
             String[] tempLine = currencyList.get(j);
@@ -61,6 +63,30 @@ public class Currency {
         return toRet;
     }
 
+    /**
+     * true if the code is listed in the lookup table
+     */
+    public static boolean isKnown(String code) {
+        ArrayList<String[]> currencyList = getCurrencyTable();
+        for (int j = 1; j < currencyList.size(); j++) {
+            if (currencyList.get(j)[0].equalsIgnoreCase(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ArrayList<String[]> getCurrencyTable() {
+        ArrayList<String[]> table = currencyTable;
+        if (table == null) {
+            table = CSVtools.parseCsvFromFile(Settings.CURRENCY_FILE_PATH);
+            if (!table.isEmpty()) {
+                currencyTable = table;
+            }
+        }
+        return table;
+    }
+
     private Currency(boolean fiat, String code, String extendedName) {
         this.fiat = fiat;
         this.code = code;
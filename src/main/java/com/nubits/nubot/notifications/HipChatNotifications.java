@@ -52,15 +52,15 @@ public class HipChatNotifications {
         String publicAddress = "";
 
 
-        publicAddress = Global.options.getNubitsAddress();
-        boolean send = Global.options.isHipchat();
+        publicAddress = Global.session().options.getNubitsAddress();
+        boolean send = Global.session().options.isHipchat();
         if (!send) {
             return;
         }
 
         String sessionId = "";
-        if (SessionManager.sessionId != null) {
-            sessionId = SessionManager.sessionId;
+        if (Global.session().sessionId != null) {
+            sessionId = Global.session().sessionId;
         }
 
         String toSend = message + " <em>[" + sessionId + " - " + publicAddress + "] </em>";
@@ -60,7 +60,7 @@ public class MailNotifications {
         boolean any = true; //Default to severe
 
 
-        any = Global.options.getSendMailsLevel().equals(MAIL_LEVEL_ALL);
+        any = Global.session().options.getSendMailsLevel().equals(MAIL_LEVEL_ALL);
 
         if (any) {
             sendImpl(address, title, message);
@@ -78,8 +78,8 @@ public class MailNotifications {
         boolean isCritical = true;
 
 
-        isCritical = Global.options.getSendMailsLevel().equals(MAIL_LEVEL_ALL)
-                || Global.options.getSendMailsLevel().equals(MAIL_LEVEL_SEVERE);
+        isCritical = Global.session().options.getSendMailsLevel().equals(MAIL_LEVEL_ALL)
+                || Global.session().options.getSendMailsLevel().equals(MAIL_LEVEL_SEVERE);
 
         if (isCritical) {
             sendImpl(address, title, message);
@@ -120,14 +120,14 @@ public class MailNotifications {
         title = "[NuBot] " + title;
         Date now = new Date();
         String sessionId = "";
-        if (SessionManager.sessionId != null) {
-            sessionId = SessionManager.sessionId;
+        if (Global.session().sessionId != null) {
+            sessionId = Global.session().sessionId;
         }
         String footer = "\n --- \n Message generated at " + now;
         footer += " from bot with custodial address "
-                + Global.options.getNubitsAddress() + " , "
+                + Global.session().options.getNubitsAddress() + " , "
                 + "session id = " + sessionId + " "
-                + "on " + Global.options.getExchangeName();
+                + "on " + Global.session().options.getExchangeName();
 
         message = message + footer;
         MailNotifications.Send(recipientEmail, "", title, message);
@@ -158,6 +158,12 @@ public class NuBotOptions {
      */
     public boolean distributeLiquidity;
 
+    /**
+     * if set to true, stopping the process (deploys) leaves the orders on the exchange for the next run to adopt,
+     * see StrategyCheckpoint. Optional, false by default : the orders are cleared on every stop
+     */
+    public boolean warmRestart;
+
     public double wallchangeThreshold;
 
     public double spread;
@@ -336,6 +342,10 @@ public class NuBotOptions {
         return distributeLiquidity;
     }
 
+    public boolean isWarmRestart() {
+        return warmRestart;
+    }
+
     public double getSpread() {
         return this.spread;
     }
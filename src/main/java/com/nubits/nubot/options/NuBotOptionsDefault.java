@@ -39,6 +39,7 @@ public class NuBotOptionsDefault {
         opt.pair = CurrencyList.NBT_BTC.toStringSep();
         opt.dualSide = true;
         opt.multipleCustodians = false;
+        opt.warmRestart = false;
         opt.executeOrders = false;
         opt.verbose = false;
         opt.hipchat = true;
@@ -71,6 +71,8 @@ public class ParseOptions {
     public static String backupfeeds = "backupFeeds";
     public static String wallchangethreshold = "wallchangeThreshold";
     public static String spread = "spread";
+    //optional keys
+    public static String warmrestart = "warmRestart";
     //public static String distributeliquidity = "distributeliquidity";
 
     public static String[] allkeys = {
@@ -216,6 +218,10 @@ public class ParseOptions {
             }
         }
 
+        if (containsIgnoreCase(optionsJSON, warmrestart) && !(getIgnoreCase(optionsJSON, warmrestart) instanceof Boolean)) {
+            throw new NuBotConfigException("can't parse to boolean: " + warmrestart);
+        }
+
         try {
             String lstr = "" + getIgnoreCase(optionsJSON, emergencytimeout);
             int emergencyTimeoutLong = new Integer(lstr).intValue();
@@ -326,6 +332,9 @@ public class ParseOptions {
         options.spread = Utils.getDouble(getIgnoreCase(optionsJSON, spread));
         options.backupFeeds = parseBackupFeeds(optionsJSON);
         options.mailnotifications = parseMails(optionsJSON);
+        if (containsIgnoreCase(optionsJSON, warmrestart)) {
+            options.warmRestart = (boolean) getIgnoreCase(optionsJSON, warmrestart);
+        }
 
         if (options.spread != 0) {
             LOG.warn("You are using the \"spread\" != 0 , which is not reccomented by Nu developers for purposes different from testing.");
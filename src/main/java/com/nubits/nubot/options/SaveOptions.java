@@ -71,8 +71,8 @@ public class SaveOptions {
 
         try {
             NuBotOptions opt = NuBotOptionsDefault.defaultFactory();
-            Global.options = opt;
-            Global.currentOptionsFile = filepath;
+            Global.session().options = opt;
+            Global.session().currentOptionsFile = filepath;
             saveOptions(opt, filepath);
             return true;
 
@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.pricefeeds;
+
+import com.nubits.nubot.bot.BotSession;
+import com.nubits.nubot.bot.Global;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.CurrencyPair;
+import com.nubits.nubot.models.LastPrice;
+import com.nubits.nubot.pricefeeds.feedservices.AbstractPriceFeed;
+import com.nubits.nubot.utils.RollingStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls a pull-only feed and passes every new quote to a listener.
+ * The feed is polled every refreshMinTime when prices are quiet, and up to Settings.FEED_POLL_MAX_SPEEDUP times
+ * faster (never below Settings.FEED_POLL_MIN_INTERVAL) as the volatility of the last quotes grows.
+ * Polls go through PriceFeedCache, so quotes are shared with all the other users of the feed.
+ * The shared scheduler only times the polls : the blocking fetches run on threads of their own, so that slow feeds
+ * never hold up the tasks of the bots.
+ * The listener is called bound to the session which created the poller
+ */
+public class AdaptivePoller {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptivePoller.class.getName());
+
+    /**
+     * threads polling the feeds, shared by all pollers in the process
+     */
+    private static final ExecutorService POLL_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "feed-poller-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final AbstractPriceFeed feed;
+    private final CurrencyPair pair;
+    private final PriceListener listener;
+    private final BotSession session;
+
+    private final RollingStats stats = new RollingStats(Settings.PRICE_STATS_EWMA_ALPHA, Settings.FEED_POLL_VOLATILITY_WINDOW);
+    private volatile boolean running = false;
+    private volatile ScheduledFuture<?> next;
+    private LastPrice lastQuote;
+    private long delay;
+
+    public AdaptivePoller(AbstractPriceFeed feed, CurrencyPair pair, PriceListener listener) {
+        this.feed = feed;
+        this.pair = pair;
+        this.listener = listener;
+        this.session = Global.session();
+        this.delay = feed.getRefreshMinTime();
+    }
+
+    public void start() {
+        running = true;
+        schedule(0);
+    }
+
+    public void stop() {
+        running = false;
+        ScheduledFuture<?> pending = next;
+        if (pending != null) {
+            pending.cancel(false);
+        }
+    }
+
+    private void schedule(long delayMillis) {
+        if (!running) {
+            return;
+        }
+        next = Global.scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (!running) {
+                    return;
+                }
+                POLL_EXECUTOR.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        poll();
+                    }
+                });
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        try {
+            LastPrice quote = PriceFeedCache.getFresh(feed, pair, delay);
+            if (quote != null && !quote.isError() && quote != lastQuote) {
+                lastQuote = quote;
+                stats.add(quote.getPrice().getQuantity());
+                Global.bindSession(session);
+                try {
+                    listener.onQuote(quote);
+                } finally {
+                    Global.unbindSession();
+                }
+            }
+        } catch (Exception e) {
+            LOG.error("Error while polling " + feed.getClass().getSimpleName() + " : " + e.toString());
+        }
+
+        int window = Settings.FEED_POLL_VOLATILITY_WINDOW;
+        double volatility = stats.size(window) < 2 ? 0 : stats.standardDeviation(window) * 100 / stats.mean(window);
+        delay = computeDelay(feed.getRefreshMinTime(), volatility);
+        LOG.trace(feed.getClass().getSimpleName() + " volatility " + volatility + "% : next poll in " + delay + " ms");
+        schedule(delay);
+    }
+
+    /**
+     * @param refreshMinTime [ms] refresh time of the feed, used when prices are quiet
+     * @param volatility     [%] standard deviation of the last quotes relative to their mean
+     * @return [ms] time before the next poll
+     */
+    public static long computeDelay(long refreshMinTime, double volatility) {
+        long fastest = Math.max(Settings.FEED_POLL_MIN_INTERVAL, refreshMinTime / Settings.FEED_POLL_MAX_SPEEDUP);
+        if (fastest >= refreshMinTime) {
+            return refreshMinTime;
+        }
+        double ratio = Math.min(1, volatility / Settings.FEED_POLL_HIGH_VOLATILITY);
+        return (long) (refreshMinTime - (refreshMinTime - fastest) * ratio);
+    }
+
+    public long getDelay() {
+        return delay;
+    }
+
+    public AbstractPriceFeed getFeed() {
+        return feed;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.pricefeeds;
+
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.Amount;
+import com.nubits.nubot.models.CurrencyPair;
+import com.nubits.nubot.models.LastPrice;
+import com.nubits.nubot.utils.Utils;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cross rates derived from known quotes : every quote a_b is an edge a-b of a currency graph (and b-a at the
+ * inverse price), the price of a pair is the product of the prices along the shortest path between its
+ * currencies. i.e. btc_usd = btc_eur * eur_usd
+ */
+public class CrossRates {
+
+    /**
+     * price of the pair from the quotes, keyed by CurrencyPair.toStringSep()
+     *
+     * @param pair
+     * @param quotes
+     * @return the quote of the pair if present, else the price derived through at most
+     * Settings.FEED_CROSS_RATE_MAX_LEGS quotes, or null if the currencies are not connected
+     */
+    public static LastPrice derive(CurrencyPair pair, Map<String, LastPrice> quotes) {
+        LastPrice direct = quotes.get(pair.toStringSep());
+        if (isValid(direct)) {
+            return direct;
+        }
+
+        Map<String, Map<String, Double>> graph = new HashMap<>();
+        String source = null;
+        for (Map.Entry<String, LastPrice> quote : quotes.entrySet()) {
+            LastPrice price = quote.getValue();
+            int sep = quote.getKey().indexOf("_");
+            if (!isValid(price) || sep < 0) {
+                continue;
+            }
+            String from = quote.getKey().substring(0, sep);
+            String to = quote.getKey().substring(sep + 1);
+            double rate = price.getPrice().getQuantity();
+            edges(graph, from).put(to, rate);
+            edges(graph, to).put(from, 1 / rate);
+            if (source == null) {
+                source = price.getSource();
+            }
+        }
+
+        String from = pair.getOrderCurrency().getCode().toLowerCase();
+        String to = pair.getPaymentCurrency().getCode().toLowerCase();
+        if (!graph.containsKey(from) || !graph.containsKey(to)) {
+            return null;
+        }
+
+        //breadth first : price of the order currency in each reached currency, and the legs it took
+        Map<String, Double> rates = new HashMap<>();
+        Map<String, Integer> legs = new HashMap<>();
+        ArrayDeque<String> queue = new ArrayDeque<>();
+        rates.put(from, 1.0);
+        legs.put(from, 0);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            String current = queue.poll();
+            if (current.equals(to)) {
+                double rate = Utils.round(rates.get(to), 8);
+                return new LastPrice(false, source, pair.getOrderCurrency(), new Amount(rate, pair.getPaymentCurrency()));
+            }
+            if (legs.get(current) == Settings.FEED_CROSS_RATE_MAX_LEGS) {
+                continue;
+            }
+            for (Map.Entry<String, Double> edge : graph.get(current).entrySet()) {
+                if (!rates.containsKey(edge.getKey())) {
+                    rates.put(edge.getKey(), rates.get(current) * edge.getValue());
+                    legs.put(edge.getKey(), legs.get(current) + 1);
+                    queue.add(edge.getKey());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Double> edges(Map<String, Map<String, Double>> graph, String currency) {
+        Map<String, Double> edges = graph.get(currency);
+        if (edges == null) {
+            edges = new HashMap<>();
+            graph.put(currency, edges);
+        }
+        return edges;
+    }
+
+    private static boolean isValid(LastPrice price) {
+        return price != null && !price.isError() && price.getPrice() != null && price.getPrice().getQuantity() > 0;
+    }
+}
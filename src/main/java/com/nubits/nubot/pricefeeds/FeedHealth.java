@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.pricefeeds;
+
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.pricefeeds.feedservices.AbstractPriceFeed;
+import com.nubits.nubot.utils.RollingStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Health of a price feed over its last Settings.FEED_HEALTH_WINDOW requests, shared by all the bots of the process :
+ * latency of the requests, error rate and distance of its quotes from the consensus price.
+ * The score (0 to 1) orders the feeds, excluded feeds are still queried but their prices are not used.
+ */
+public class FeedHealth {
+
+    private static final ConcurrentHashMap<String, FeedHealth> registry = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final long[] latencies = new long[Settings.FEED_HEALTH_WINDOW];
+    private final boolean[] errors = new boolean[Settings.FEED_HEALTH_WINDOW];
+    private long requests = 0;
+    private final RollingStats deviations = new RollingStats(Settings.PRICE_STATS_EWMA_ALPHA, Settings.FEED_HEALTH_WINDOW);
+
+    public FeedHealth(String name) {
+        this.name = name;
+    }
+
+    public static FeedHealth of(AbstractPriceFeed feed) {
+        return registry.computeIfAbsent(feed.getClass().getSimpleName(), FeedHealth::new);
+    }
+
+    /**
+     * health of all the feeds queried so far
+     */
+    public static ArrayList<FeedHealth> getAll() {
+        ArrayList<FeedHealth> all = new ArrayList<>(registry.values());
+        all.sort((a, b) -> a.name.compareTo(b.name));
+        return all;
+    }
+
+    /**
+     * @param latency [ms] duration of the request
+     * @param error   true if the request failed
+     */
+    public synchronized void recordRequest(long latency, boolean error) {
+        int slot = (int) (requests % latencies.length);
+        latencies[slot] = latency;
+        errors[slot] = error;
+        requests++;
+    }
+
+    /**
+     * @param deviation [%] distance of a quote from the consensus price
+     */
+    public synchronized void recordDeviation(double deviation) {
+        deviations.add(Math.abs(deviation));
+    }
+
+    public synchronized int getSamples() {
+        return (int) Math.min(requests, latencies.length);
+    }
+
+    /**
+     * @param percentile [0-100]
+     * @return [ms] latency of the last requests at the percentile
+     */
+    public synchronized long getLatencyPercentile(double percentile) {
+        int n = getSamples();
+        if (n == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, n);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * n) - 1;
+        return sorted[Math.max(0, Math.min(n - 1, index))];
+    }
+
+    public synchronized double getErrorRate() {
+        int n = getSamples();
+        if (n == 0) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (errors[i]) {
+                count++;
+            }
+        }
+        return (double) count / n;
+    }
+
+    /**
+     * [%] mean distance of the last quotes from the consensus price
+     */
+    public synchronized double getDeviation() {
+        return deviations.mean(Settings.FEED_HEALTH_WINDOW);
+    }
+
+    /**
+     * 1 for a healthy feed, down to 0 : reliability x accuracy x latency (the latter weighing at most half)
+     */
+    public synchronized double getScore() {
+        if (getSamples() == 0) {
+            return 1;
+        }
+        double reliability = 1 - getErrorRate();
+        double accuracy = 1 - Math.min(1, getDeviation() / Settings.FEED_HEALTH_MAX_DEVIATION);
+        double latency = 1 - 0.5 * Math.min(1, (double) getLatencyPercentile(95) / Settings.FEED_FETCH_DEADLINE);
+        return reliability * accuracy * latency;
+    }
+
+    /**
+     * true if the prices of the feed should not be used : too many errors or too far from the consensus
+     */
+    public synchronized boolean isExcluded() {
+        if (getSamples() < Settings.FEED_HEALTH_MIN_SAMPLES) {
+            return false;
+        }
+        return getErrorRate() > Settings.FEED_HEALTH_MAX_ERROR_RATE
+                || (deviations.size(Settings.FEED_HEALTH_WINDOW) >= Settings.FEED_HEALTH_MIN_SAMPLES
+                && getDeviation() > Settings.FEED_HEALTH_MAX_DEVIATION);
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.pricefeeds;
+
+import com.nubits.nubot.models.LastPrice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Agreement between the prices returned by the feeds, computed in one pass over all of them.
+ * The consensus is reached when a strict majority (and at least two) of the prices lie within
+ * distanceThreshold% of their median, and the trimmed mean agrees with the median as well.
+ * The reference price is the first agreeing price in list order : PriceFeedManager lists the healthiest feeds first,
+ * the main feed first among equally healthy ones
+ */
+public class PriceConsensus {
+
+    private final ArrayList<LastPrice> prices;
+    private final ArrayList<LastPrice> agreeing = new ArrayList<>();
+    private double median;
+    private double trimmedMean;
+    private boolean reached;
+
+    private PriceConsensus(ArrayList<LastPrice> prices) {
+        this.prices = prices;
+    }
+
+    /**
+     * @param prices            valid prices, in configured feed order
+     * @param distanceThreshold [%] maximum distance from the median for a price to agree
+     * @param trim              [0,0.5) fraction of the lowest and of the highest prices discarded by the trimmed mean
+     * @return
+     */
+    public static PriceConsensus compute(ArrayList<LastPrice> prices, double distanceThreshold, double trim) {
+        PriceConsensus consensus = new PriceConsensus(prices);
+        int n = prices.size();
+        if (n == 0) {
+            return consensus;
+        }
+
+        double[] sorted = new double[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = prices.get(i).getPrice().getQuantity();
+        }
+        Arrays.sort(sorted);
+
+        consensus.median = n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+        consensus.trimmedMean = trimmedMean(sorted, trim);
+
+        //with two prices the median is their midpoint : halve the threshold so they must be within distanceThreshold% of each other
+        double maxDistance = n == 2 ? distanceThreshold / 2 : distanceThreshold;
+        for (LastPrice price : prices) {
+            if (percentageDistance(consensus.median, price.getPrice().getQuantity()) <= maxDistance) {
+                consensus.agreeing.add(price);
+            }
+        }
+
+        int countAgreeing = consensus.agreeing.size();
+        consensus.reached = countAgreeing >= 2 && countAgreeing * 2 > n
+                && percentageDistance(consensus.median, consensus.trimmedMean) <= distanceThreshold;
+        return consensus;
+    }
+
+    private static double trimmedMean(double[] sorted, double trim) {
+        int cut = (int) Math.floor(sorted.length * trim);
+        if (sorted.length - 2 * cut <= 0) {
+            cut = (sorted.length - 1) / 2;
+        }
+        double sum = 0;
+        for (int i = cut; i < sorted.length - cut; i++) {
+            sum += sorted[i];
+        }
+        return sum / (sorted.length - 2 * cut);
+    }
+
+    private static double percentageDistance(double reference, double value) {
+        return Math.abs(reference - value) * 100 / reference;
+    }
+
+    public boolean isReached() {
+        return reached;
+    }
+
+    /**
+     * the price to use when the consensus is reached : the first agreeing price in list order
+     */
+    public LastPrice getReferencePrice() {
+        return reached ? agreeing.get(0) : null;
+    }
+
+    public double getMedian() {
+        return median;
+    }
+
+    public double getTrimmedMean() {
+        return trimmedMean;
+    }
+
+    public ArrayList<LastPrice> getAgreeing() {
+        return agreeing;
+    }
+
+    public ArrayList<LastPrice> getPrices() {
+        return prices;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceConsensus{" +
+                "reached=" + reached +
+                ", median=" + median +
+                ", trimmedMean=" + trimmedMean +
+                ", agreeing=" + agreeing.size() + "/" + prices.size() +
+                '}';
+    }
+}
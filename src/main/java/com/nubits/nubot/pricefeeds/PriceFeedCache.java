@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.pricefeeds;
+
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.CurrencyPair;
+import com.nubits.nubot.models.LastPrice;
+import com.nubits.nubot.pricefeeds.feedservices.AbstractPriceFeed;
+import com.nubits.nubot.pricefeeds.history.PriceTick;
+import com.nubits.nubot.pricefeeds.history.TickStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prices fetched from the feeds, keyed by (feed, pair) and shared by all the bots of the process.
+ * A fresh price is returned as is. A stale one is returned immediately while it is refreshed in background,
+ * unless it is older than Settings.FEED_CACHE_STALE_GRACE (scaled by the FeedHealth score) past its refresh time :
+ * then it is derived from the fresh quotes of other pairs of the same feed (see CrossRates) when possible,
+ * else the caller waits for the fetch. A fetch stores every pair quoted in the answer of the feed.
+ * Every request to a feed is recorded in its FeedHealth, and every quote fetched in the TickStores recording its pair,
+ * once, stamped with the time it was fetched at
+ */
+public class PriceFeedCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PriceFeedCache.class.getName());
+
+    //feed -> pair -> entry
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<String, Entry>> feeds = new ConcurrentHashMap<>();
+
+    //pair -> tick stores recording its quotes
+    private static final ConcurrentHashMap<String, CopyOnWriteArrayList<TickStore>> recorders = new ConcurrentHashMap<>();
+
+    private static final ExecutorService REFRESH_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "pricefeed-refresh-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private static class Entry {
+        private final Object fetchLock = new Object();
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+        private volatile LastPrice price;
+        private volatile long fetchedAt;
+        private volatile boolean derived; //cross rate, not quoted by the feed
+    }
+
+    /**
+     * last known price of the pair on the feed
+     *
+     * @param feed
+     * @param pair
+     * @return the cached price, or the outcome of a blocking fetch when there is no usable price
+     */
+    public static LastPrice get(AbstractPriceFeed feed, CurrencyPair pair) {
+        Entry entry = entry(feed, pair);
+
+        LastPrice cached = entry.price;
+        long age = System.currentTimeMillis() - entry.fetchedAt;
+        if (cached != null && age < feed.getRefreshMinTime()) {
+            return cached;
+        }
+
+        //the stale price of an unhealthy feed is trusted for less time
+        long grace = (long) (Settings.FEED_CACHE_STALE_GRACE * FeedHealth.of(feed).getScore());
+        if (cached != null && age < feed.getRefreshMinTime() + grace) {
+            if (entry.refreshing.compareAndSet(false, true)) {
+                LOG.debug("Refreshing " + key(feed, pair) + " in background");
+                REFRESH_EXECUTOR.submit(() -> {
+                    try {
+                        fetch(entry, feed, pair, feed.getRefreshMinTime());
+                    } finally {
+                        entry.refreshing.set(false);
+                    }
+                });
+            }
+            return cached;
+        }
+
+        LastPrice derived = derive(entry, feed, pair);
+        if (derived != null) {
+            return derived;
+        }
+
+        return fetch(entry, feed, pair, feed.getRefreshMinTime());
+    }
+
+    /**
+     * price of the pair on the feed no older than maxAge, fetched now if needed.
+     * Used to poll a feed faster than its refresh time : the fetched price is shared with the other callers
+     *
+     * @param feed
+     * @param pair
+     * @param maxAge [ms]
+     * @return
+     */
+    public static LastPrice getFresh(AbstractPriceFeed feed, CurrencyPair pair, long maxAge) {
+        Entry entry = entry(feed, pair);
+        LastPrice cached = entry.price;
+        if (cached != null && System.currentTimeMillis() - entry.fetchedAt < maxAge) {
+            return cached;
+        }
+        return fetch(entry, feed, pair, maxAge);
+    }
+
+    /**
+     * cross rate of the pair from the fresh quotes of the feed, stored in entry. Null if they don't connect the pair
+     */
+    private static LastPrice derive(Entry entry, AbstractPriceFeed feed, CurrencyPair pair) {
+        long now = System.currentTimeMillis();
+        long oldest = now;
+        Map<String, LastPrice> quotes = new HashMap<>();
+        for (Map.Entry<String, Entry> other : entries(feed).entrySet()) {
+            Entry quote = other.getValue();
+            LastPrice price = quote.price;
+            if (quote != entry && !quote.derived && price != null && now - quote.fetchedAt < feed.getRefreshMinTime()) {
+                quotes.put(other.getKey(), price);
+                oldest = Math.min(oldest, quote.fetchedAt);
+            }
+        }
+        if (quotes.isEmpty()) {
+            return null;
+        }
+
+        LastPrice derived = CrossRates.derive(pair, quotes);
+        if (derived != null) {
+            LOG.debug("Derived " + key(feed, pair) + " from cached cross rates");
+            entry.derived = true;
+            entry.price = derived;
+            entry.fetchedAt = oldest; //expires with its oldest leg
+        }
+        return derived;
+    }
+
+    /**
+     * fetch from the feed and store the prices if valid. Concurrent callers for the same entry share one request
+     */
+    private static LastPrice fetch(Entry entry, AbstractPriceFeed feed, CurrencyPair pair, long maxAge) {
+        synchronized (entry.fetchLock) {
+            long startedAt = System.currentTimeMillis();
+            if (entry.price != null && startedAt - entry.fetchedAt < maxAge) {
+                return entry.price; //fetched by another caller meanwhile
+            }
+            Map<String, LastPrice> fetched;
+            try {
+                fetched = feed.fetchLastPrices(pair);
+            } catch (RuntimeException e) {
+                FeedHealth.of(feed).recordRequest(System.currentTimeMillis() - startedAt, true);
+                throw e;
+            }
+
+            LastPrice price = fetched.get(pair.toStringSep());
+            boolean quoted = isValid(price);
+            if (!quoted) {
+                LastPrice crossRate = CrossRates.derive(pair, fetched);
+                if (crossRate != null) {
+                    price = crossRate;
+                }
+            }
+            long fetchedAt = System.currentTimeMillis();
+            FeedHealth.of(feed).recordRequest(fetchedAt - startedAt, !isValid(price));
+
+            //the other pairs in the answer
+            for (Map.Entry<String, LastPrice> other : fetched.entrySet()) {
+                if (!other.getKey().equals(pair.toStringSep()) && isValid(other.getValue())) {
+                    Entry otherEntry = entries(feed).computeIfAbsent(other.getKey(), k -> new Entry());
+                    store(otherEntry, other.getKey(), other.getValue(), fetchedAt, false);
+                }
+            }
+
+            if (isValid(price)) {
+                store(entry, pair.toStringSep(), price, fetchedAt, !quoted);
+                return price;
+            }
+            LOG.warn("Could not refresh " + key(feed, pair));
+            return price != null ? price : new LastPrice(true, feed.getClass().getSimpleName(), pair.getOrderCurrency(), null);
+        }
+    }
+
+    private static void store(Entry entry, String pair, LastPrice price, long fetchedAt, boolean derived) {
+        boolean recorded = entry.fetchedAt == fetchedAt && entry.price != null; //(feed, pair, fetchedAt) already stored
+        entry.derived = derived;
+        entry.price = price;
+        entry.fetchedAt = fetchedAt;
+        if (recorded) {
+            return;
+        }
+        CopyOnWriteArrayList<TickStore> stores = recorders.get(pair);
+        if (stores != null) {
+            for (TickStore store : stores) {
+                store.append(new PriceTick(fetchedAt, price.getSource(), pair, price.getPrice().getQuantity()));
+            }
+        }
+    }
+
+    /**
+     * record in store every quote of pair fetched from now on
+     */
+    public static void recordTicks(CurrencyPair pair, TickStore store) {
+        recorders.computeIfAbsent(pair.toStringSep(), k -> new CopyOnWriteArrayList<>()).addIfAbsent(store);
+    }
+
+    public static void stopRecording(CurrencyPair pair, TickStore store) {
+        CopyOnWriteArrayList<TickStore> stores = recorders.get(pair.toStringSep());
+        if (stores != null) {
+            stores.remove(store);
+        }
+    }
+
+    private static boolean isValid(LastPrice price) {
+        return price != null && !price.isError();
+    }
+
+    private static ConcurrentHashMap<String, Entry> entries(AbstractPriceFeed feed) {
+        return feeds.computeIfAbsent(feed.getClass().getSimpleName(), k -> new ConcurrentHashMap<>());
+    }
+
+    private static Entry entry(AbstractPriceFeed feed, CurrencyPair pair) {
+        return entries(feed).computeIfAbsent(pair.toStringSep(), k -> new Entry());
+    }
+
+    private static String key(AbstractPriceFeed feed, CurrencyPair pair) {
+        return feed.getClass().getSimpleName() + ":" + pair.toStringSep();
+    }
+
+    /**
+     * drop all the cached prices
+     */
+    public static void clear() {
+        feeds.clear();
+    }
+}
@@ -18,6 +18,7 @@
 
 package com.nubits.nubot.pricefeeds;
 
+import com.nubits.nubot.global.Settings;
 import com.nubits.nubot.models.CurrencyPair;
 import com.nubits.nubot.models.LastPrice;
 import com.nubits.nubot.options.NuBotConfigException;
@@ -26,6 +27,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Manager for a selected list of price feeds
@@ -40,6 +50,25 @@ public class PriceFeedManager {
 
     private LastPriceResponse response;
 
+    //valid quotes of the last fetch, excluded feeds included
+    private ArrayList<AbstractPriceFeed> lastQuotedFeeds;
+    private ArrayList<LastPrice> lastQuotes;
+    private final ArrayList<AdaptivePoller> pollers = new ArrayList<>();
+
+    /**
+     * threads fetching prices, shared by all bots in the process
+     */
+    private static final ExecutorService FETCH_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "pricefeed-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     public PriceFeedManager(String mainFeed, ArrayList<String> backupFeedList, CurrencyPair pair) throws NuBotConfigException {
 
         this.pair = pair;
@@ -53,7 +82,10 @@ public class PriceFeedManager {
     }
 
     /**
-     * trigger fetches from all feeds
+     * trigger fetches from all feeds, concurrently.
+     * Feeds which did not answer within Settings.FEED_FETCH_DEADLINE are considered in error.
+     * Prices are returned healthiest feed first (configured order among equally healthy feeds),
+     * without the prices of excluded feeds unless fewer than two prices would be left
      *
      * @return
      */
@@ -64,15 +96,48 @@ public class PriceFeedManager {
         response = new LastPriceResponse();
         boolean isMainFeedValid = false;
         ArrayList<LastPrice> prices = new ArrayList<>();
-        int i = 0;
         final int main_index = 0;
-        for (AbstractPriceFeed tempFeed : feedList) {
 
-            LastPrice lastPrice = tempFeed.getLastPrice(pair);
+        ArrayList<AbstractPriceFeed> orderedFeeds = orderByHealth();
+        ArrayList<LastPrice> excludedPrices = new ArrayList<>();
+        lastQuotedFeeds = new ArrayList<>();
+        lastQuotes = new ArrayList<>();
+
+        ArrayList<Callable<LastPrice>> fetches = new ArrayList<>();
+        for (final AbstractPriceFeed tempFeed : orderedFeeds) {
+            fetches.add(new Callable<LastPrice>() {
+                @Override
+                public LastPrice call() {
+                    return tempFeed.getLastPrice(pair);
+                }
+            });
+        }
+
+        List<Future<LastPrice>> results;
+        try {
+            //futures are returned in the order of orderedFeeds, cancelled if not done by the deadline
+            results = FETCH_EXECUTOR.invokeAll(fetches, Settings.FEED_FETCH_DEADLINE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            LOG.error("Interrupted while fetching prices : " + e.toString());
+            response.setMainFeedValid(false);
+            response.setPrices(prices);
+            return;
+        }
+
+        for (int i = 0; i < orderedFeeds.size(); i++) {
+            AbstractPriceFeed tempFeed = orderedFeeds.get(i);
+            LastPrice lastPrice = getResult(results.get(i), tempFeed);
             if (lastPrice != null && !lastPrice.isError()) {
                 LOG.debug("Obtained price : " + lastPrice.getPrice().getQuantity() + " from " + tempFeed.getClass().getSimpleName());
-                prices.add(lastPrice);
-                if (i == main_index) {
+                lastQuotedFeeds.add(tempFeed);
+                lastQuotes.add(lastPrice);
+                if (FeedHealth.of(tempFeed).isExcluded()) {
+                    LOG.warn("Not using the price of " + tempFeed.getClass().getSimpleName() + " : feed excluded for poor health");
+                    excludedPrices.add(lastPrice);
+                } else {
+                    prices.add(lastPrice);
+                }
+                if (tempFeed == feedList.get(main_index)) {
                     isMainFeedValid = true;
                 }
             } else {
@@ -80,11 +145,78 @@ public class PriceFeedManager {
                         + " price from " + tempFeed.getClass());
             }
         }
+        if (prices.size() < 2 && !excludedPrices.isEmpty()) {
+            LOG.warn("Too few healthy feeds : using the prices of excluded feeds too");
+            prices.addAll(excludedPrices);
+        }
         response.setMainFeedValid(isMainFeedValid);
         response.setPrices(prices);
 
     }
 
+    /**
+     * feeds sorted by health score (in steps of 0.1 so that small variations do not reorder them), configured order otherwise
+     */
+    private ArrayList<AbstractPriceFeed> orderByHealth() {
+        ArrayList<AbstractPriceFeed> ordered = new ArrayList<>(feedList);
+        ordered.sort((a, b) -> Long.compare(Math.round(FeedHealth.of(b).getScore() * 10), Math.round(FeedHealth.of(a).getScore() * 10)));
+        if (ordered.get(0) != feedList.get(0)) {
+            LOG.debug("Main feed " + feedList.get(0).getClass().getSimpleName() + " ranked after " + ordered.get(0).getClass().getSimpleName());
+        }
+        return ordered;
+    }
+
+    /**
+     * record the distance of the quotes of the last fetch from the consensus price in the health of their feeds
+     *
+     * @param consensusPrice
+     */
+    public void recordDeviations(double consensusPrice) {
+        if (lastQuotes == null || consensusPrice <= 0) {
+            return;
+        }
+        for (int i = 0; i < lastQuotes.size(); i++) {
+            double price = lastQuotes.get(i).getPrice().getQuantity();
+            FeedHealth.of(lastQuotedFeeds.get(i)).recordDeviation((price - consensusPrice) * 100 / consensusPrice);
+        }
+    }
+
+    private LastPrice getResult(Future<LastPrice> result, AbstractPriceFeed feed) {
+        String name = feed.getClass().getSimpleName();
+        if (result.isCancelled()) {
+            LOG.warn(name + " did not answer within " + Settings.FEED_FETCH_DEADLINE + " ms");
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException | ExecutionException e) {
+            LOG.error("Error while fetching price from " + name + " : " + e.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
+        }
+    }
+
+    /**
+     * pass every new quote of the feeds to listener, each feed polled by an AdaptivePoller. Only one subscriber at a time
+     *
+     * @param listener
+     */
+    public synchronized void subscribe(PriceListener listener) {
+        unsubscribe();
+        for (AbstractPriceFeed feed : feedList) {
+            AdaptivePoller poller = new AdaptivePoller(feed, pair, listener);
+            poller.start();
+            pollers.add(poller);
+        }
+        LOG.debug("Subscribed to " + feedList.size() + " feeds");
+    }
+
+    public synchronized void unsubscribe() {
+        for (AdaptivePoller poller : pollers) {
+            poller.stop();
+        }
+        pollers.clear();
+    }
+
     public ArrayList<LastPrice> getLastPrices() {
         return this.response.getPrices();
     }
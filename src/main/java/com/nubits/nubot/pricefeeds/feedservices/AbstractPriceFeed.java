@@ -20,20 +20,54 @@ package com.nubits.nubot.pricefeeds.feedservices;
 
 import com.nubits.nubot.models.CurrencyPair;
 import com.nubits.nubot.models.LastPrice;
+import com.nubits.nubot.pricefeeds.PriceFeedCache;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * A price feed
+ * A price feed. Prices are served through the process-wide PriceFeedCache,
+ * refreshed at most every refreshMinTime ms for each pair
  */
 public abstract class AbstractPriceFeed {
 
     long refreshMinTime;
-    long lastRequest;
-    LastPrice lastPrice;
 
     public AbstractPriceFeed() {
     }
 
-    public abstract LastPrice getLastPrice(CurrencyPair pair);
+    /**
+     * last price for the pair, from the cache
+     */
+    public LastPrice getLastPrice(CurrencyPair pair) {
+        return PriceFeedCache.get(this, pair);
+    }
+
+    /**
+     * query the remote service, bypassing the cache
+     */
+    public abstract LastPrice fetchLastPrice(CurrencyPair pair);
+
+    /**
+     * query the remote service for the pair and for every other pair quoted in the same answer,
+     * bypassing the cache. Keyed by CurrencyPair.toStringSep().
+     * Feeds answering with a whole table of rates override it, so that one request fills the cache for all of them
+     */
+    public Map<String, LastPrice> fetchLastPrices(CurrencyPair pair) {
+        Map<String, LastPrice> prices = new HashMap<>();
+        prices.put(pair.toStringSep(), fetchLastPrice(pair));
+        return prices;
+    }
+
+    /**
+     * [ms] time a fetched price is considered fresh
+     */
+    public long getRefreshMinTime() {
+        return refreshMinTime;
+    }
 
+    public void setRefreshMinTime(long refreshMinTime) {
+        this.refreshMinTime = refreshMinTime;
+    }
 
 }
@@ -39,41 +39,27 @@ public class BitcoinaveragePriceFeed extends AbstractPriceFeed {
 
     public BitcoinaveragePriceFeed() {
         refreshMinTime = 50 * 1000; //Two minutes
-        lastRequest = 0L;
     }
 
     @Override
-    public LastPrice getLastPrice(CurrencyPair pair) {
+    public LastPrice fetchLastPrice(CurrencyPair pair) {
 
-        long now = System.currentTimeMillis();
-        long diff = now - lastRequest;
-        if (diff >= refreshMinTime) {
-            String htmlString;
-            try {
-                htmlString = Utils.getHTML(getUrl(pair), true);
-            } catch (IOException ex) {
-                LOG.error(ex.toString());
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-            JSONParser parser = new JSONParser();
-            try {
-                JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
-                double last = Utils.getDouble(httpAnswerJson.get("last"));
-                lastRequest = System.currentTimeMillis();
-                lastPrice = new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
-                return lastPrice;
-            } catch (Exception ex) {
-                LOG.error(ex.toString());
-                lastRequest = System.currentTimeMillis();
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-        } else {
-            double t = (refreshMinTime - (System.currentTimeMillis() - lastRequest));
-            LOG.warn("Wait " + t + " ms "
-                    + "before making a new request. Now returning the last saved price\n\n");
-            return lastPrice;
+        String htmlString;
+        try {
+            htmlString = Utils.getHTML(getUrl(pair), true);
+        } catch (IOException ex) {
+            LOG.error(ex.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
+        }
+        JSONParser parser = new JSONParser();
+        try {
+            JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
+            double last = Utils.getDouble(httpAnswerJson.get("last"));
+            return new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
+        } catch (Exception ex) {
+            LOG.error(ex.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
         }
-
 
     }
 
@@ -43,39 +43,27 @@ public class BitstampPriceFeed extends AbstractPriceFeed {
     }
 
     @Override
-    public LastPrice getLastPrice(CurrencyPair pair) {
-        long now = System.currentTimeMillis();
-        long diff = now - lastRequest;
-        if (diff >= refreshMinTime) {
-            String url = "https://www.bitstamp.net/api/ticker/";
-            String htmlString;
-            try {
-                htmlString = Utils.getHTML(url, true);
-            } catch (IOException ex) {
-                LOG.error(ex.toString());
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-            JSONParser parser = new JSONParser();
-            try {
-                JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
-                double last = Double.valueOf((String) httpAnswerJson.get("last"));
-
-                //Make the average between buy and sell
-                last = Utils.round(last, 8);
+    public LastPrice fetchLastPrice(CurrencyPair pair) {
+        String url = "https://www.bitstamp.net/api/ticker/";
+        String htmlString;
+        try {
+            htmlString = Utils.getHTML(url, true);
+        } catch (IOException ex) {
+            LOG.error(ex.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
+        }
+        JSONParser parser = new JSONParser();
+        try {
+            JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
+            double last = Double.valueOf((String) httpAnswerJson.get("last"));
 
+            //Make the average between buy and sell
+            last = Utils.round(last, 8);
 
-                lastRequest = System.currentTimeMillis();
-                lastPrice = new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
-                return lastPrice;
-            } catch (Exception ex) {
-                LOG.error(ex.toString());
-                lastRequest = System.currentTimeMillis();
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-        } else {
-            LOG.warn("Wait " + (refreshMinTime - (System.currentTimeMillis() - lastRequest)) + " ms "
-                    + "before making a new request. Now returning the last saved price\n\n");
-            return lastPrice;
+            return new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
+        } catch (Exception ex) {
+            LOG.error(ex.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
         }
     }
 }
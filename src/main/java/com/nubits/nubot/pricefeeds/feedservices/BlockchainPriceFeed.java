@@ -42,36 +42,25 @@ public class BlockchainPriceFeed extends AbstractPriceFeed {
     }
 
     @Override
-    public LastPrice getLastPrice(CurrencyPair pair) {
+    public LastPrice fetchLastPrice(CurrencyPair pair) {
         String url = "https://blockchain.info/ticker";
-        long now = System.currentTimeMillis();
-        long diff = now - lastRequest;
-        if (diff >= refreshMinTime) {
-            String htmlString = "";
-            try {
-                htmlString = Utils.getHTML(url, true);
-            } catch (IOException ex) {
-                LOG.error(ex.toString());
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-            JSONParser parser = new JSONParser();
-            try {
-                JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
-                JSONObject tickerObject = (JSONObject) httpAnswerJson.get("USD");
-                double last = Utils.getDouble(tickerObject.get("last"));
+        String htmlString = "";
+        try {
+            htmlString = Utils.getHTML(url, true);
+        } catch (IOException ex) {
+            LOG.error(ex.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
+        }
+        JSONParser parser = new JSONParser();
+        try {
+            JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
+            JSONObject tickerObject = (JSONObject) httpAnswerJson.get("USD");
+            double last = Utils.getDouble(tickerObject.get("last"));
 
-                lastRequest = System.currentTimeMillis();
-                lastPrice = new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
-                return lastPrice;
-            } catch (Exception ex) {
-                lastRequest = System.currentTimeMillis();
-                LOG.error(ex.toString());
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-        } else {
-            LOG.warn("Wait " + (refreshMinTime - (System.currentTimeMillis() - lastRequest)) + " ms "
-                    + "before making a new request. Now returning the last saved price\n\n");
-            return lastPrice;
+            return new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
+        } catch (Exception ex) {
+            LOG.error(ex.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
         }
 
     }
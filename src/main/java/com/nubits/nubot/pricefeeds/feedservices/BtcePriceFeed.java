@@ -42,38 +42,27 @@ public class BtcePriceFeed extends AbstractPriceFeed {
     }
 
     @Override
-    public LastPrice getLastPrice(CurrencyPair pair) {
+    public LastPrice fetchLastPrice(CurrencyPair pair) {
 
-        long now = System.currentTimeMillis();
-        long diff = now - lastRequest;
-        if (diff >= refreshMinTime) {
-            String url = getUrl(pair);
-            String htmlString;
-            try {
-                htmlString = Utils.getHTML(url, true);
-            } catch (IOException ex) {
-                LOG.error(ex.toString());
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-            JSONParser parser = new JSONParser();
-            try {
-                JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
-                JSONObject tickerObject = (JSONObject) httpAnswerJson.get("ticker");
-                double last = Utils.getDouble(tickerObject.get("last"));
+        String url = getUrl(pair);
+        String htmlString;
+        try {
+            htmlString = Utils.getHTML(url, true);
+        } catch (IOException ex) {
+            LOG.error(ex.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
+        }
+        JSONParser parser = new JSONParser();
+        try {
+            JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
+            JSONObject tickerObject = (JSONObject) httpAnswerJson.get("ticker");
+            double last = Utils.getDouble(tickerObject.get("last"));
 
-                lastRequest = System.currentTimeMillis();
-                lastPrice = new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
-                return lastPrice;
-            } catch (Exception ex) {
-                LOG.error(htmlString);
-                LOG.error(ex.toString());
-                lastRequest = System.currentTimeMillis();
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-        } else {
-            LOG.warn("Wait " + (refreshMinTime - (System.currentTimeMillis() - lastRequest)) + " ms "
-                    + "before making a new request. Now returning the last saved price\n\n");
-            return lastPrice;
+            return new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
+        } catch (Exception ex) {
+            LOG.error(htmlString);
+            LOG.error(ex.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
         }
     }
 
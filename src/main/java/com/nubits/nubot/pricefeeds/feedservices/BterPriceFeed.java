@@ -52,33 +52,21 @@ public class BterPriceFeed extends AbstractPriceFeed {
     }
 
     @Override
-    public LastPrice getLastPrice(CurrencyPair pair) {
-        long now = System.currentTimeMillis();
-        long diff = now - lastRequest;
-        if (diff >= refreshMinTime) {
-            try {
-                ApiResponse lastPriceResponse = trader.getLastPrice(pair);
-                if (lastPriceResponse.isPositive()) {
-                    Ticker ticker = (Ticker) lastPriceResponse.getResponseObject();
-                    double last = ticker.getLast();
-                    lastRequest = System.currentTimeMillis();
-                    lastPrice = new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
-                    return lastPrice;
-                } else {
-                    LOG.error(lastPriceResponse.getError().toString());
-                    lastRequest = System.currentTimeMillis();
-                    return new LastPrice(true, name, pair.getOrderCurrency(), null);
-                }
-
-            } catch (Exception ex) {
-                LOG.error(ex.toString());
-                lastRequest = System.currentTimeMillis();
+    public LastPrice fetchLastPrice(CurrencyPair pair) {
+        try {
+            ApiResponse lastPriceResponse = trader.getLastPrice(pair);
+            if (lastPriceResponse.isPositive()) {
+                Ticker ticker = (Ticker) lastPriceResponse.getResponseObject();
+                double last = ticker.getLast();
+                return new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
+            } else {
+                LOG.error(lastPriceResponse.getError().toString());
                 return new LastPrice(true, name, pair.getOrderCurrency(), null);
             }
-        } else {
-            LOG.warn("Wait " + (refreshMinTime - (System.currentTimeMillis() - lastRequest)) + " ms "
-                    + "before making a new request. Now returning the last saved price\n\n");
-            return lastPrice;
+
+        } catch (Exception ex) {
+            LOG.error(ex.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
         }
     }
 
@@ -39,41 +39,28 @@ public class CoinmarketcapnexuistPriceFeed extends AbstractPriceFeed {
 
     public CoinmarketcapnexuistPriceFeed() {
         refreshMinTime = 50 * 1000; //Two minutes
-        lastRequest = 0L;
     }
 
     @Override
-    public LastPrice getLastPrice(CurrencyPair pair) {
+    public LastPrice fetchLastPrice(CurrencyPair pair) {
 
-        long now = System.currentTimeMillis();
-        long diff = now - lastRequest;
-        if (diff >= refreshMinTime) {
-            String htmlString;
-            try {
-                htmlString = Utils.getHTML(getUrl(pair), true);
-            } catch (IOException ex) {
-                LOG.error(ex.toString());
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-            JSONParser parser = new JSONParser();
-            try {
-                JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
-                JSONObject price = (JSONObject) httpAnswerJson.get("price");
-                double last = Utils.getDouble(price.get("usd"));
-                lastRequest = System.currentTimeMillis();
-                lastPrice = new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
-                return lastPrice;
-            } catch (Exception ex) {
-                LOG.error(ex.toString());
-                lastRequest = System.currentTimeMillis();
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-        } else {
-            LOG.warn("Wait " + (refreshMinTime - (System.currentTimeMillis() - lastRequest)) + " ms "
-                    + "before making a new request. Now returning the last saved price\n\n");
-            return lastPrice;
+        String htmlString;
+        try {
+            htmlString = Utils.getHTML(getUrl(pair), true);
+        } catch (IOException ex) {
+            LOG.error(ex.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
+        }
+        JSONParser parser = new JSONParser();
+        try {
+            JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
+            JSONObject price = (JSONObject) httpAnswerJson.get("price");
+            double last = Utils.getDouble(price.get("usd"));
+            return new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
+        } catch (Exception ex) {
+            LOG.error(ex.toString());
+            return new LastPrice(true, name, pair.getOrderCurrency(), null);
         }
-
 
     }
 
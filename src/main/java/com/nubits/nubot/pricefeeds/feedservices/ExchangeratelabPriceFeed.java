@@ -21,8 +21,10 @@ package com.nubits.nubot.pricefeeds.feedservices;
 
 import com.nubits.nubot.global.Passwords;
 import com.nubits.nubot.models.Amount;
+import com.nubits.nubot.models.Currency;
 import com.nubits.nubot.models.CurrencyPair;
 import com.nubits.nubot.models.LastPrice;
+import com.nubits.nubot.pricefeeds.CrossRates;
 import com.nubits.nubot.pricefeeds.FeedFacade;
 import com.nubits.nubot.utils.Utils;
 import org.json.simple.JSONArray;
@@ -32,6 +34,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 public class ExchangeratelabPriceFeed extends AbstractPriceFeed {
 
@@ -44,58 +48,61 @@ public class ExchangeratelabPriceFeed extends AbstractPriceFeed {
     }
 
     @Override
-    public LastPrice getLastPrice(CurrencyPair pair) {
-        long now = System.currentTimeMillis();
-        long diff = now - lastRequest;
-        if (diff >= refreshMinTime) {
-            String url = getUrl(pair);
-            String htmlString;
-            try {
-                htmlString = Utils.getHTML(url, true);
-            } catch (IOException ex) {
-                LOG.error(ex.toString());
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-            JSONParser parser = new JSONParser();
-            try {
-                JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
-                JSONArray array = (JSONArray) httpAnswerJson.get("rates");
-
-                String lookingfor = pair.getOrderCurrency().getCode().toUpperCase();
+    public LastPrice fetchLastPrice(CurrencyPair pair) {
+        LastPrice price = CrossRates.derive(pair, fetchLastPrices(pair));
+        return price != null ? price : new LastPrice(true, name, pair.getOrderCurrency(), null);
+    }
 
-                boolean found = false;
-                double rate = -1;
-                for (int i = 0; i < array.size(); i++) {
-                    JSONObject temp = (JSONObject) array.get(i);
-                    String tempCurrency = (String) temp.get("to");
-                    if (tempCurrency.equalsIgnoreCase(lookingfor)) {
-                        found = true;
-                        rate = Utils.getDouble((Double) temp.get("rate"));
-                        rate = Utils.round(1 / rate, 8);
-                    }
+    /**
+     * the answer holds the rates of all currencies against its base (USD) : all the known ones are returned
+     */
+    @Override
+    public Map<String, LastPrice> fetchLastPrices(CurrencyPair pair) {
+        Map<String, LastPrice> prices = new HashMap<>();
+        String url = getUrl(pair);
+        String htmlString;
+        try {
+            htmlString = Utils.getHTML(url, true);
+        } catch (IOException ex) {
+            LOG.error(ex.toString());
+            return prices;
+        }
+        JSONParser parser = new JSONParser();
+        try {
+            JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
+            JSONArray array = (JSONArray) httpAnswerJson.get("rates");
+
+            String lookingfor = pair.getOrderCurrency().getCode().toUpperCase();
+            String baseCode = httpAnswerJson.containsKey("baseCurrency") ? (String) httpAnswerJson.get("baseCurrency") : "USD";
+            Currency base = baseCode.equalsIgnoreCase(pair.getPaymentCurrency().getCode())
+                    ? pair.getPaymentCurrency() : Currency.createCurrency(baseCode);
+
+            boolean found = false;
+            for (int i = 0; i < array.size(); i++) {
+                JSONObject temp = (JSONObject) array.get(i);
+                String tempCurrency = (String) temp.get("to");
+                boolean requested = tempCurrency.equalsIgnoreCase(lookingfor);
+                found |= requested;
+                if (tempCurrency.equalsIgnoreCase(baseCode) || (!requested && !Currency.isKnown(tempCurrency))) {
+                    continue;
                 }
-
-                lastRequest = System.currentTimeMillis();
-
-                if (found) {
-
-                    lastPrice = new LastPrice(false, name, pair.getOrderCurrency(), new Amount(rate, pair.getPaymentCurrency()));
-                    return lastPrice;
-                } else {
-                    LOG.warn("Cannot find currency " + lookingfor + " on feed " + name);
-                    return new LastPrice(true, name, pair.getOrderCurrency(), null);
+                double rate = Utils.getDouble(temp.get("rate"));
+                if (rate <= 0) {
+                    continue;
                 }
+                rate = Utils.round(1 / rate, 8);
+                Currency currency = requested ? pair.getOrderCurrency() : Currency.createCurrency(tempCurrency);
+                prices.put(new CurrencyPair(currency, base).toStringSep(), new LastPrice(false, name, currency, new Amount(rate, base)));
+            }
 
-            } catch (Exception ex) {
-                LOG.error(ex.toString());
-                lastRequest = System.currentTimeMillis();
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
+            if (!found) {
+                LOG.warn("Cannot find currency " + lookingfor + " on feed " + name);
             }
-        } else {
-            LOG.warn("Wait " + (refreshMinTime - (System.currentTimeMillis() - lastRequest)) + " ms "
-                    + "before making a new request. Now returning the last saved price\n\n");
-            return lastPrice;
+
+        } catch (Exception ex) {
+            LOG.error(ex.toString());
         }
+        return prices;
     }
 
     private String getUrl(CurrencyPair pair) {
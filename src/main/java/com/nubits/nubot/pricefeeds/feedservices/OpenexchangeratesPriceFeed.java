@@ -21,8 +21,10 @@ package com.nubits.nubot.pricefeeds.feedservices;
 
 import com.nubits.nubot.global.Passwords;
 import com.nubits.nubot.models.Amount;
+import com.nubits.nubot.models.Currency;
 import com.nubits.nubot.models.CurrencyPair;
 import com.nubits.nubot.models.LastPrice;
+import com.nubits.nubot.pricefeeds.CrossRates;
 import com.nubits.nubot.pricefeeds.FeedFacade;
 import com.nubits.nubot.utils.Utils;
 import org.json.simple.JSONObject;
@@ -32,6 +34,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 public class OpenexchangeratesPriceFeed extends AbstractPriceFeed {
 
@@ -44,50 +48,56 @@ public class OpenexchangeratesPriceFeed extends AbstractPriceFeed {
     }
 
     @Override
-    public LastPrice getLastPrice(CurrencyPair pair) {
+    public LastPrice fetchLastPrice(CurrencyPair pair) {
+        LastPrice price = CrossRates.derive(pair, fetchLastPrices(pair));
+        return price != null ? price : new LastPrice(true, name, pair.getOrderCurrency(), null);
+    }
 
-        long now = System.currentTimeMillis();
-        long diff = now - lastRequest;
-        if (diff >= refreshMinTime) {
-            String url = getUrl(pair);
-            String htmlString;
-            try {
-                LOG.trace("feed fetching from URL: " + url);
-                htmlString = Utils.getHTML(url, true);
-            } catch (IOException ex) {
-                LOG.error(ex.toString());
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
-            }
-            JSONParser parser = new JSONParser();
-            boolean found = false;
-            try {
-                JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
+    /**
+     * the answer holds the rates of all currencies against its base (USD) : all the known ones are returned
+     */
+    @Override
+    public Map<String, LastPrice> fetchLastPrices(CurrencyPair pair) {
+        Map<String, LastPrice> prices = new HashMap<>();
+        String url = getUrl(pair);
+        String htmlString;
+        try {
+            LOG.trace("feed fetching from URL: " + url);
+            htmlString = Utils.getHTML(url, true);
+        } catch (IOException ex) {
+            LOG.error(ex.toString());
+            return prices;
+        }
+        JSONParser parser = new JSONParser();
+        try {
+            JSONObject httpAnswerJson = (JSONObject) (parser.parse(htmlString));
 
-                String lookingfor = pair.getOrderCurrency().getCode().toUpperCase();
-                JSONObject rates = (JSONObject) httpAnswerJson.get("rates");
-                lastRequest = System.currentTimeMillis();
-                if (rates.containsKey(lookingfor)) {
-                    double last = (Double) rates.get(lookingfor);
-                    LOG.trace("last " + last);
-                    last = Utils.round(1 / last, 8);
-                    lastPrice = new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
-                    return lastPrice;
-                } else {
-                    LOG.warn("Cannot find currency :" + lookingfor + " on feed :" + name);
-                    return new LastPrice(true, name, pair.getOrderCurrency(), null);
+            String lookingfor = pair.getOrderCurrency().getCode().toUpperCase();
+            String baseCode = httpAnswerJson.containsKey("base") ? (String) httpAnswerJson.get("base") : "USD";
+            Currency base = baseCode.equalsIgnoreCase(pair.getPaymentCurrency().getCode())
+                    ? pair.getPaymentCurrency() : Currency.createCurrency(baseCode);
+            JSONObject rates = (JSONObject) httpAnswerJson.get("rates");
+            for (Object key : rates.keySet()) {
+                String code = (String) key;
+                boolean requested = code.equalsIgnoreCase(lookingfor);
+                if (code.equalsIgnoreCase(baseCode) || (!requested && !Currency.isKnown(code))) {
+                    continue;
                 }
-
-
-            } catch (ParseException ex) {
-                LOG.error(ex.toString());
-                lastRequest = System.currentTimeMillis();
-                return new LastPrice(true, name, pair.getOrderCurrency(), null);
+                double last = Utils.getDouble(rates.get(key));
+                if (last <= 0) {
+                    continue;
+                }
+                last = Utils.round(1 / last, 8);
+                Currency currency = requested ? pair.getOrderCurrency() : Currency.createCurrency(code);
+                prices.put(new CurrencyPair(currency, base).toStringSep(), new LastPrice(false, name, currency, new Amount(last, base)));
+            }
+            if (!rates.containsKey(lookingfor)) {
+                LOG.warn("Cannot find currency :" + lookingfor + " on feed :" + name);
             }
-        } else {
-            LOG.warn("Wait " + (refreshMinTime - (System.currentTimeMillis() - lastRequest)) + " ms "
-                    + "before making a new request. Now returning the last saved price\n\n");
-            return lastPrice;
+        } catch (ParseException ex) {
+            LOG.error(ex.toString());
         }
+        return prices;
     }
 
     private String getUrl(CurrencyPair pair) {
@@ -42,16 +42,13 @@ public class SimulationPriceFeed extends AbstractPriceFeed {
     }
 
     @Override
-    public LastPrice getLastPrice(CurrencyPair pair) {
+    public LastPrice fetchLastPrice(CurrencyPair pair) {
 
         try {
             double last = 200.0;
-            lastRequest = System.currentTimeMillis();
-            lastPrice = new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
-            return lastPrice;
+            return new LastPrice(false, name, pair.getOrderCurrency(), new Amount(last, pair.getPaymentCurrency()));
         } catch (Exception ex) {
             LOG.error(ex.toString());
-            lastRequest = System.currentTimeMillis();
             return new LastPrice(true, name, pair.getOrderCurrency(), null);
         }
 
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.pricefeeds.history;
+
+/**
+ * Price ticks aggregated over a time bucket
+ */
+public class PriceBar {
+
+    private final long timestamp; //start of the bucket [ms]
+    private final double open;
+    private double high;
+    private double low;
+    private double close;
+    private int count;
+
+    public PriceBar(long timestamp, double firstPrice) {
+        this.timestamp = timestamp;
+        this.open = firstPrice;
+        this.high = firstPrice;
+        this.low = firstPrice;
+        this.close = firstPrice;
+        this.count = 1;
+    }
+
+    void add(double price) {
+        high = Math.max(high, price);
+        low = Math.min(low, price);
+        close = price;
+        count++;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public double getOpen() {
+        return open;
+    }
+
+    public double getHigh() {
+        return high;
+    }
+
+    public double getLow() {
+        return low;
+    }
+
+    public double getClose() {
+        return close;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + "," + open + "," + high + "," + low + "," + close + "," + count;
+    }
+}
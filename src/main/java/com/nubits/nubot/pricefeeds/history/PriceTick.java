@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.pricefeeds.history;
+
+/**
+ * A price quote returned by a feed
+ */
+public class PriceTick {
+
+    private final long timestamp;
+    private final String feed;
+    private final String pair;
+    private final double price;
+
+    /**
+     * @param timestamp [ms]
+     * @param feed      name of the feed
+     * @param pair      pair quoted by the feed, as in CurrencyPair.toStringSep()
+     * @param price
+     */
+    public PriceTick(long timestamp, String feed, String pair, double price) {
+        this.timestamp = timestamp;
+        this.feed = feed;
+        this.pair = pair;
+        this.price = price;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getFeed() {
+        return feed;
+    }
+
+    public String getPair() {
+        return pair;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + "," + feed + "," + pair + "," + price;
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.pricefeeds.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Append-only binary store of price ticks.
+ * The file starts with a header (magic, version, record size) followed by fixed-width records :
+ * timestamp (long, ms), price (double), feed and pair (zero-padded ASCII).
+ * Ticks are expected to be appended in time order : queries binary-search the start of the range
+ * on a read-only memory mapping of the file and scan from there.
+ */
+public class TickStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TickStore.class.getName());
+
+    private static final int MAGIC = 0x4e55544b; //NUTK
+    private static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private static final int FEED_WIDTH = 24;
+    private static final int PAIR_WIDTH = 16;
+    static final int RECORD_SIZE = 8 + 8 + FEED_WIDTH + PAIR_WIDTH;
+
+    private static final int TIMESTAMP_OFFSET = 0;
+    private static final int PRICE_OFFSET = 8;
+    private static final int FEED_OFFSET = 16;
+    private static final int PAIR_OFFSET = FEED_OFFSET + FEED_WIDTH;
+
+    private final File file;
+
+    public TickStore(String path) {
+        this.file = new File(path);
+    }
+
+    public void append(PriceTick tick) {
+        append(Collections.singletonList(tick));
+    }
+
+    public synchronized void append(List<PriceTick> ticks) {
+        if (ticks.isEmpty()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + RECORD_SIZE * ticks.size());
+            if (channel.size() == 0) {
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0);
+            } else if ((channel.size() - HEADER_SIZE) % RECORD_SIZE != 0) {
+                //a previous write was interrupted : drop the partial record to keep records aligned
+                channel.truncate(channel.size() - (channel.size() - HEADER_SIZE) % RECORD_SIZE);
+            }
+            for (PriceTick tick : ticks) {
+                buffer.putLong(tick.getTimestamp());
+                buffer.putDouble(tick.getPrice());
+                buffer.put(encode(tick.getFeed(), FEED_WIDTH));
+                buffer.put(encode(tick.getPair(), PAIR_WIDTH));
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            LOG.error("Cannot append price ticks to " + file + " : " + e.toString());
+        }
+    }
+
+    /**
+     * number of ticks stored
+     */
+    public long count() {
+        long length = file.length();
+        return length <= HEADER_SIZE ? 0 : (length - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    /**
+     * oldest tick, or null if the store is empty
+     */
+    public PriceTick first() {
+        MappedByteBuffer buffer = map();
+        if (buffer == null) {
+            return null;
+        }
+        return read(buffer, offset(0));
+    }
+
+    /**
+     * ticks with from <= timestamp <= to
+     *
+     * @param from [ms]
+     * @param to   [ms]
+     * @param feed only ticks of this feed, or null for all
+     * @param pair only ticks of this pair, or null for all
+     * @return
+     */
+    public ArrayList<PriceTick> range(long from, long to, String feed, String pair) {
+        ArrayList<PriceTick> ticks = new ArrayList<>();
+        MappedByteBuffer buffer = map();
+        if (buffer == null) {
+            return ticks;
+        }
+        byte[] feedBytes = feed == null ? null : encode(feed, FEED_WIDTH);
+        byte[] pairBytes = pair == null ? null : encode(pair, PAIR_WIDTH);
+        long n = records(buffer);
+        for (long i = lowerBound(buffer, n, from); i < n; i++) {
+            int offset = offset(i);
+            long timestamp = buffer.getLong(offset + TIMESTAMP_OFFSET);
+            if (timestamp > to) {
+                break;
+            }
+            if (matches(buffer, offset + FEED_OFFSET, feedBytes) && matches(buffer, offset + PAIR_OFFSET, pairBytes)) {
+                ticks.add(read(buffer, offset));
+            }
+        }
+        return ticks;
+    }
+
+    /**
+     * ticks with from <= timestamp <= to, aggregated in buckets of bucketMillis aligned on the epoch.
+     * Empty buckets are omitted
+     *
+     * @param from         [ms]
+     * @param to           [ms]
+     * @param bucketMillis [ms]
+     * @param feed         only ticks of this feed, or null for all
+     * @param pair         only ticks of this pair, or null for all
+     * @return
+     */
+    public ArrayList<PriceBar> downsample(long from, long to, long bucketMillis, String feed, String pair) {
+        ArrayList<PriceBar> bars = new ArrayList<>();
+        MappedByteBuffer buffer = map();
+        if (buffer == null || bucketMillis <= 0) {
+            return bars;
+        }
+        byte[] feedBytes = feed == null ? null : encode(feed, FEED_WIDTH);
+        byte[] pairBytes = pair == null ? null : encode(pair, PAIR_WIDTH);
+        long n = records(buffer);
+        PriceBar bar = null;
+        for (long i = lowerBound(buffer, n, from); i < n; i++) {
+            int offset = offset(i);
+            long timestamp = buffer.getLong(offset + TIMESTAMP_OFFSET);
+            if (timestamp > to) {
+                break;
+            }
+            if (!matches(buffer, offset + FEED_OFFSET, feedBytes) || !matches(buffer, offset + PAIR_OFFSET, pairBytes)) {
+                continue;
+            }
+            double price = buffer.getDouble(offset + PRICE_OFFSET);
+            long bucket = timestamp - Math.floorMod(timestamp, bucketMillis);
+            if (bar == null || bar.getTimestamp() != bucket) {
+                bar = new PriceBar(bucket, price);
+                bars.add(bar);
+            } else {
+                bar.add(price);
+            }
+        }
+        return bars;
+    }
+
+    private MappedByteBuffer map() {
+        if (count() == 0) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE + records * RECORD_SIZE);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(8) != RECORD_SIZE) {
+                LOG.error(file + " is not a price tick store");
+                return null;
+            }
+            return buffer;
+        } catch (IOException e) {
+            LOG.error("Cannot read price ticks from " + file + " : " + e.toString());
+            return null;
+        }
+    }
+
+    private static PriceTick read(MappedByteBuffer buffer, int offset) {
+        return new PriceTick(buffer.getLong(offset + TIMESTAMP_OFFSET), decode(buffer, offset + FEED_OFFSET, FEED_WIDTH),
+                decode(buffer, offset + PAIR_OFFSET, PAIR_WIDTH), buffer.getDouble(offset + PRICE_OFFSET));
+    }
+
+    private static long records(MappedByteBuffer buffer) {
+        return (buffer.capacity() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    private static int offset(long record) {
+        return (int) (HEADER_SIZE + record * RECORD_SIZE);
+    }
+
+    /**
+     * first record with timestamp >= from
+     */
+    private static long lowerBound(MappedByteBuffer buffer, long n, long from) {
+        long low = 0, high = n;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (buffer.getLong(offset(mid) + TIMESTAMP_OFFSET) < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean matches(MappedByteBuffer buffer, int offset, byte[] expected) {
+        if (expected == null) {
+            return true;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(offset + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] encode(String value, int width) {
+        byte[] field = new byte[width];
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, field, 0, Math.min(bytes.length, width));
+        return field;
+    }
+
+    private static String decode(MappedByteBuffer buffer, int offset, int width) {
+        byte[] field = new byte[width];
+        int length = 0;
+        for (int i = 0; i < width; i++) {
+            field[i] = buffer.get(offset + i);
+            if (field[i] != 0) {
+                length = i + 1;
+            }
+        }
+        return new String(field, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
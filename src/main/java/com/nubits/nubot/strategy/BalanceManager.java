@@ -25,7 +25,7 @@ public class BalanceManager {
     private long lastFetchBalance, lastFetchPairBalance;
 
     /*public void fetchBalance(Currency currency) throws Exception {
-        ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalance(currency);
+        ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalance(currency);
         if (!balancesResponse.isPositive()) {
             this.lastFetchBalance = System.currentTimeMillis();
             String errmsg = balancesResponse.getError().toString();
@@ -39,7 +39,7 @@ public class BalanceManager {
 
 
     public void fetchBalances(CurrencyPair pair) throws Exception {
-        ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalances(pair);
+        ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalances(pair);
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
         if (!balancesResponse.isPositive()) {
@@ -54,6 +54,13 @@ public class BalanceManager {
 
     }
 
+    /**
+     * the fetched balances no longer match the exchange : the next time bound fetch goes to the exchange whatever its age
+     */
+    public void balancesChanged() {
+        this.lastFetchPairBalance = 0;
+    }
+
     public void fetchBalancePairTimeBound(CurrencyPair pair, double tresh) throws Exception {
         long current = System.currentTimeMillis();
         long diff = current - this.lastFetchPairBalance;
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.strategy;
+
+import com.nubits.nubot.bot.Global;
+import com.nubits.nubot.bot.SessionManager;
+import com.nubits.nubot.global.Constant;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.*;
+import com.nubits.nubot.strategy.Secondary.SecondaryPegPricing;
+import com.nubits.nubot.trading.LiquidityDistribution.LiquidityDistributionModel;
+import com.nubits.nubot.trading.LiquidityDistribution.ModelParameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Keeps each side of the book shaped as the ladder of the LiquidityDistributionModel (options.distributeLiquidity)
+ * instead of two walls. A side is laid out at a peg price and stays there until the peg moves more than
+ * wallchangeThreshold : in between, a sync only refills the levels consumed by trades and removes stray orders.
+ * The wall height is chosen when the side is laid out, so that the whole ladder fits in the funds of the side.
+ * The ladder is compressed to Settings.LADDER_MAX_ORDERS orders, see LiquidityDistributionModel.compress
+ */
+public class LadderManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LadderManager.class.getName());
+
+    //peg price and wall height each side was laid out with
+    private final HashMap<String, Double> layoutPeg = new HashMap<>();
+    private final HashMap<String, Double> layoutWallHeight = new HashMap<>();
+
+    /**
+     * true if the session trades ladders. Not supported when NBT is the payment currency
+     */
+    public static boolean isEnabled() {
+        return Global.session().options.isDistributeLiquidity() && !Global.session().swappedPair;
+    }
+
+    /**
+     * bring the orders of both sides (the sell side only unless options.dualSide) in line with their ladders.
+     * The fee, the balances and the active orders are read once for the cycle : the sides work on separate funds and orders
+     *
+     * @param pegPrice value of one unit of the payment currency in USD
+     * @return false if the fee, the orders or the balances could not be read, or some order request failed
+     */
+    public boolean sync(double pegPrice) {
+        CurrencyPair pair = Global.session().options.getPair();
+
+        ApiResponse txFeeResponse = Global.session().exchange.getTrade().getTxFee(pair);
+        if (!txFeeResponse.isPositive()) {
+            LOG.error("An error occurred while attempting to update tx fee.");
+            return false;
+        }
+        double txFee = (Double) txFeeResponse.getResponseObject();
+        ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalances(pair);
+        if (!balancesResponse.isPositive()) {
+            LOG.error(balancesResponse.getError().toString());
+            return false;
+        }
+        //through the order manager : the orders are reused by the checkpoint of the cycle
+        if (!Global.session().orderManager.fetchOrders()) {
+            return false;
+        }
+        PairBalance balance = (PairBalance) balancesResponse.getResponseObject();
+        ArrayList<Order> orders = Global.session().orderManager.getOrderList();
+
+        boolean success = sync(Constant.SELL, pegPrice, txFee, balance, orders);
+        if (Global.session().options.isDualSide() && !SessionManager.sessionInterrupted()) {
+            success &= sync(Constant.BUY, pegPrice, txFee, balance, orders);
+        }
+        return success;
+    }
+
+    /**
+     * bring the orders of one side in line with its ladder
+     *
+     * @param type     Constant.SELL or Constant.BUY
+     * @param pegPrice value of one unit of the payment currency in USD
+     * @param txFee    [%]
+     * @param balance  balances read for the cycle
+     * @param orders   active orders of both sides, read for the cycle
+     * @return false if some order request failed
+     */
+    private boolean sync(String type, double pegPrice, double txFee, PairBalance balance, ArrayList<Order> orders) {
+        CurrencyPair pair = Global.session().options.getPair();
+        ArrayList<Order> active = Global.session().orderManager.filterOrders(orders, type);
+
+        //funds of the side : available plus what is on order, in the currency the side is paid with
+        double funds;
+        if (type.equals(Constant.SELL)) {
+            funds = balance.getNBTAvailable().getQuantity();
+            for (Order order : active) {
+                funds += order.getAmount().getQuantity();
+            }
+        } else {
+            Amount available = Global.session().frozenBalancesManager.removeFrozenAmount(balance.getPEGAvailableBalance(), Global.session().frozenBalancesManager.getFrozenAmount());
+            funds = available.getQuantity();
+            for (Order order : active) {
+                funds += order.getAmount().getQuantity() * order.getPrice().getQuantity();
+            }
+        }
+        double fundsNBT = type.equals(Constant.SELL) ? funds : funds * pegPrice;
+        if (fundsNBT < 1) {
+            LOG.debug(type + " side funds below 1 NBT, no ladder");
+            return true;
+        }
+
+        Double peg = layoutPeg.get(type);
+        if (peg == null || SecondaryPegPricing.needToMoveWalls(peg, pegPrice, Global.session().options.getWallchangeThreshold())) {
+            peg = pegPrice;
+            double wallHeight = fundsNBT * Settings.LADDER_FUNDS_SHARE / ladderSize(type, peg, pair, txFee);
+            layoutPeg.put(type, peg);
+            layoutWallHeight.put(type, wallHeight);
+            LOG.info("Laying out the " + type + " ladder at peg " + peg + " with wall height " + wallHeight);
+        }
+
+        Currency fundsCurrency = type.equals(Constant.SELL) ? pair.getOrderCurrency() : pair.getPaymentCurrency();
+        ModelParameters params = LiquidityDistributionModel.getStandardParams(type, layoutWallHeight.get(type));
+        ArrayList<OrderToPlace> target = LiquidityDistributionModel.compress(
+                new LiquidityDistributionModel(params, type).getOrdersToPlace(type, new Amount(funds, fundsCurrency), peg, pair, txFee),
+                Settings.LADDER_MAX_ORDERS, Settings.LADDER_DEPTH_TOLERANCE);
+
+        ArrayList<Order> toCancel = new ArrayList<>();
+        ArrayList<OrderToPlace> toPlace = diff(target, active, toCancel);
+        if (toCancel.isEmpty() && toPlace.isEmpty()) {
+            LOG.debug(type + " ladder in place (" + active.size() + " orders)");
+            return true;
+        }
+        LOG.info(type + " ladder : " + toCancel.size() + " orders to cancel, " + toPlace.size() + " to place");
+        return Global.session().orderManager.submitBatch(toCancel, toPlace);
+    }
+
+    /**
+     * forget the layouts : the next sync lays both sides out again
+     */
+    public void reset() {
+        layoutPeg.clear();
+        layoutWallHeight.clear();
+    }
+
+    /**
+     * the orders to place to turn the active orders of a side into the target ladder.
+     * An active order matches the level within Settings.LADDER_PRICE_TOLERANCE of its price ; a level traded more
+     * than Settings.LADDER_REFILL_THRESHOLD is cancelled and placed again, as are the missing ones.
+     * Active orders matching no level are cancelled
+     *
+     * @param target   the ladder
+     * @param active   the active orders of the same side
+     * @param toCancel filled with the orders to cancel
+     * @return the orders to place
+     */
+    public static ArrayList<OrderToPlace> diff(List<OrderToPlace> target, List<Order> active, List<Order> toCancel) {
+        ArrayList<OrderToPlace> toPlace = new ArrayList<>();
+        ArrayList<Order> unmatched = new ArrayList<>(active);
+        for (OrderToPlace level : target) {
+            Order match = null;
+            for (Order order : unmatched) {
+                if (SecondaryPegPricing.percentageDistance(level.getPrice(), order.getPrice().getQuantity()) <= Settings.LADDER_PRICE_TOLERANCE) {
+                    match = order;
+                    break;
+                }
+            }
+            if (match == null) {
+                toPlace.add(level);
+                continue;
+            }
+            unmatched.remove(match);
+            if (match.getAmount().getQuantity() < level.getSize() * (1 - Settings.LADDER_REFILL_THRESHOLD)) {
+                toCancel.add(match);
+                toPlace.add(level);
+            }
+        }
+        toCancel.addAll(unmatched);
+        return toPlace;
+    }
+
+    /**
+     * total size of the ladder of a side with a wall height of 1 NBT
+     */
+    private static double ladderSize(String type, double pegPrice, CurrencyPair pair, double txFee) {
+        ModelParameters unit = LiquidityDistributionModel.getStandardParams(type, 1);
+        Currency currency = type.equals(Constant.SELL) ? pair.getOrderCurrency() : pair.getPaymentCurrency();
+        double size = 0;
+        for (OrderToPlace order : new LiquidityDistributionModel(unit, type).getOrdersToPlace(type, new Amount(1e12, currency), pegPrice, pair, txFee)) {
+            size += order.getSize();
+        }
+        return size;
+    }
+}
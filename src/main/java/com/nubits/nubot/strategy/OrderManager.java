@@ -3,6 +3,7 @@ package com.nubits.nubot.strategy;
 import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.bot.SessionManager;
 import com.nubits.nubot.global.Constant;
+import com.nubits.nubot.global.Settings;
 import com.nubits.nubot.models.ApiResponse;
 import com.nubits.nubot.models.CurrencyPair;
 import com.nubits.nubot.models.Order;
@@ -16,6 +17,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * OrderManager channels order queries to exchanges and stores the results
@@ -25,19 +27,21 @@ public class OrderManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(OrderManager.class.getName());
 
-    private static ArrayList<Order> orderList;
+    private ArrayList<Order> orderList;
 
     private long lastFetch;
 
     private int totalOrdersSubmitted = 0;
 
+    private long lastSubmission;
+
     /**
      * clear all orders
      *
      * @throws com.nubits.nubot.trading.OrderException
      */
     public void clearOrders() throws OrderException {
-        ApiResponse deleteOrdersResponse = Global.exchange.getTrade().clearOrders(Global.options.getPair());
+        ApiResponse deleteOrdersResponse = Global.session().exchange.getTrade().clearOrders(Global.session().options.getPair());
         if (!deleteOrdersResponse.isPositive()) {
             LOG.error(deleteOrdersResponse.getError().toString());
             String message = "Could not submit request to clear orders";
@@ -53,9 +57,10 @@ public class OrderManager {
         }
 
         LOG.warn("Clear all orders request successful");
+        ordersChanged();
         //Wait until there are no active orders
         boolean timedOut = false;
-        long timeout = Global.options.getEmergencyTimeout() * 1000;
+        long timeout = Global.session().options.getEmergencyTimeout() * 1000;
         long wait = 6 * 1000;
         long count = 0L;
         do {
@@ -67,13 +72,13 @@ public class OrderManager {
             } catch (InterruptedException ex) {
                 LOG.error(ex.toString());
             }
-        } while (!tryCancelAllOrders(Global.options.getPair()) && !timedOut);
+        } while (!tryCancelAllOrders(Global.session().options.getPair()) && !timedOut);
 
         if (timedOut) {
             String message = "There was a problem cancelling all existing orders";
             LOG.error(message);
             HipChatNotifications.sendMessage(message, MessageColor.YELLOW);
-            MailNotifications.send(Global.options.getMailRecipient(), "NuBot : Problem cancelling existing orders", message);
+            MailNotifications.send(Global.session().options.getMailRecipient(), "NuBot : Problem cancelling existing orders", message);
             //Continue anyway, maybe there is some balance to put up on order.
         }
 
@@ -88,7 +93,7 @@ public class OrderManager {
     public boolean tryCancelAllOrders(CurrencyPair pair) {
         boolean toRet = false;
         //get all orders
-        ApiResponse activeOrdersResponse = Global.exchange.getTrade().getActiveOrders(Global.options.getPair());
+        ApiResponse activeOrdersResponse = Global.session().exchange.getTrade().getActiveOrders(Global.session().options.getPair());
         if (!activeOrdersResponse.isPositive()) {
             LOG.error(activeOrdersResponse.getError().toString());
             return false;
@@ -101,7 +106,8 @@ public class OrderManager {
         } else {
             LOG.info("There are still : " + orderList.size() + " active orders");
             //Retry to cancel them to fix issue #14
-            ApiResponse deleteOrdersResponse = Global.exchange.getTrade().clearOrders(pair);
+            ApiResponse deleteOrdersResponse = Global.session().exchange.getTrade().clearOrders(pair);
+            ordersChanged();
             if (deleteOrdersResponse.isPositive()) {
                 boolean deleted = (boolean) deleteOrdersResponse.getResponseObject();
 
@@ -124,7 +130,7 @@ public class OrderManager {
     public boolean takeDownOrders(String type, CurrencyPair pair) {
         boolean completed = true;
         //Get active orders
-        ApiResponse activeOrdersResponse = Global.exchange.getTrade().getActiveOrders(Global.options.getPair());
+        ApiResponse activeOrdersResponse = Global.session().exchange.getTrade().getActiveOrders(Global.session().options.getPair());
         if (!activeOrdersResponse.isPositive()) {
             LOG.error(activeOrdersResponse.getError().toString());
             return false;
@@ -147,7 +153,8 @@ public class OrderManager {
 
     public boolean takeDownAndWait(String orderID, long timeoutMS, CurrencyPair pair) {
 
-        ApiResponse deleteOrderResponse = Global.exchange.getTrade().cancelOrder(orderID, pair);
+        ApiResponse deleteOrderResponse = Global.session().exchange.getTrade().cancelOrder(orderID, pair);
+        ordersChanged();
         if (deleteOrderResponse.isPositive()) {
             boolean delRequested = (boolean) deleteOrderResponse.getResponseObject();
 
@@ -173,7 +180,7 @@ public class OrderManager {
                 count += wait;
                 timedout = count > timeoutMS;
 
-                ApiResponse orderDetailResponse = Global.exchange.getTrade().isOrderActive(orderID);
+                ApiResponse orderDetailResponse = Global.session().exchange.getTrade().isOrderActive(orderID);
                 if (orderDetailResponse.isPositive()) {
                     deleted = !((boolean) orderDetailResponse.getResponseObject());
                     LOG.info("Does order " + orderID + "  still exist?" + !deleted);
@@ -197,10 +204,10 @@ public class OrderManager {
     private ApiResponse executeBuysideOrder(CurrencyPair pair, double amount, double rate) {
         LOG.info("executeBuysideOrder : " + pair + " " + amount + " " + rate);
         ApiResponse orderResponse;
-        if (!Global.swappedPair) {
-            orderResponse = Global.exchange.getTrade().buy(pair, amount, rate);
+        if (!Global.session().swappedPair) {
+            orderResponse = Global.session().exchange.getTrade().buy(pair, amount, rate);
         } else {
-            orderResponse = Global.exchange.getTrade().sell(pair, amount, rate);
+            orderResponse = Global.session().exchange.getTrade().sell(pair, amount, rate);
         }
         return orderResponse;
     }
@@ -208,10 +215,10 @@ public class OrderManager {
     private ApiResponse executeSellsideOrder(CurrencyPair pair, double amount, double rate) {
         LOG.info("executeSellsideOrder : " + pair + " " + amount + " " + rate);
         ApiResponse orderResponse;
-        if (!Global.swappedPair) {
-            orderResponse = Global.exchange.getTrade().sell(pair, amount, rate);
+        if (!Global.session().swappedPair) {
+            orderResponse = Global.session().exchange.getTrade().sell(pair, amount, rate);
         } else {
-            orderResponse = Global.exchange.getTrade().buy(pair, amount, rate);
+            orderResponse = Global.session().exchange.getTrade().buy(pair, amount, rate);
         }
         return orderResponse;
     }
@@ -221,9 +228,9 @@ public class OrderManager {
         String orderString;
         String sideStr = type + " side order : ";
 
-        if (!Global.swappedPair) {
-            orderString = sideStr + " " + type + " " + Utils.round(amount1, 4) + " " + Global.options.getPair().getOrderCurrency().getCode()
-                    + " @ " + price + " " + Global.options.getPair().getPaymentCurrency().getCode();
+        if (!Global.session().swappedPair) {
+            orderString = sideStr + " " + type + " " + Utils.round(amount1, 4) + " " + Global.session().options.getPair().getOrderCurrency().getCode()
+                    + " @ " + price + " " + Global.session().options.getPair().getPaymentCurrency().getCode();
         } else {
             String typeStr;
             if (type.equals(Constant.SELL)) {
@@ -231,8 +238,8 @@ public class OrderManager {
             } else {
                 typeStr = Constant.SELL;
             }
-            orderString = sideStr + " " + typeStr + " " + Utils.round(amount1, 4) + " " + Global.options.getPair().getOrderCurrency().getCode()
-                    + " @ " + price + " " + Global.options.getPair().getPaymentCurrency().getCode();
+            orderString = sideStr + " " + typeStr + " " + Utils.round(amount1, 4) + " " + Global.session().options.getPair().getOrderCurrency().getCode()
+                    + " @ " + price + " " + Global.session().options.getPair().getPaymentCurrency().getCode();
         }
 
         return orderString;
@@ -254,10 +261,10 @@ public class OrderManager {
         String orderString = orderString(type, amount, rate);
         LOG.warn("Submitting limit order : " + orderString);
 
-        if (Global.options.isExecuteOrders()) {
+        if (Global.session().options.isExecuteOrders()) {
 
-            if (SessionManager.startupDuration == -1)
-                SessionManager.startupDuration = System.currentTimeMillis() - SessionManager.sessionStarted;
+            if (Global.session().startupDuration == -1)
+                Global.session().startupDuration = System.currentTimeMillis() - Global.session().sessionStarted;
 
             ApiResponse orderResponse;
             if (type.equals(Constant.BUY)) {
@@ -265,10 +272,11 @@ public class OrderManager {
             } else {
                 orderResponse = executeSellsideOrder(pair, amount, rate);
             }
+            ordersChanged();
             if (SessionManager.sessionInterrupted()) return false;
 
             if (orderResponse.isPositive()) {
-                String msg = "New " + type + " wall is up on <strong>" + Global.options.getExchangeName() + "</strong> : " + orderString;
+                String msg = "New " + type + " wall is up on <strong>" + Global.session().options.getExchangeName() + "</strong> : " + orderString;
                 HipChatNotifications.sendMessage(msg, MessageColor.YELLOW);
                 LOG.info("Strategy - Order success: " + type + " Response = " + orderResponse.getResponseObject());
                 totalOrdersSubmitted++;
@@ -294,10 +302,11 @@ public class OrderManager {
 
         ApiResponse toReturn;
         if (order.getType().equalsIgnoreCase(Constant.BUY)) {
-            toReturn = Global.exchange.getTrade().buy(order.getPair(), order.getSize(), order.getPrice());
+            toReturn = Global.session().exchange.getTrade().buy(order.getPair(), order.getSize(), order.getPrice());
         } else {
-            toReturn = Global.exchange.getTrade().sell(order.getPair(), order.getSize(), order.getPrice());
+            toReturn = Global.session().exchange.getTrade().sell(order.getPair(), order.getSize(), order.getPrice());
         }
+        ordersChanged();
 
         return toReturn;
     }
@@ -312,6 +321,7 @@ public class OrderManager {
         int countSuccess = 0;
         String failureString = "";
         for (int i = 0; i < orders.size(); i++) {
+            pace(); //avoid getting banned
             ApiResponse tempResponse = placeOrder(orders.get(i));
 
             if (tempResponse.isPositive()) {
@@ -323,12 +333,6 @@ public class OrderManager {
                 failureString += "Order " + i + " failed : " + tempResponse.getError().toString() + "\n";
             }
 
-            try {
-                Thread.sleep(300); //sleep to avoid getting banned
-            } catch (InterruptedException ex) {
-                LOG.error(ex.getMessage());
-            }
-
         }
         if (success) {
             LOG.info(orders.size() + " orders placed succesfully");
@@ -340,23 +344,114 @@ public class OrderManager {
         return success;
     }
 
+    /**
+     * cancel then place a batch of orders, with the API calls paced Settings.ORDER_SUBMIT_INTERVAL ms apart.
+     * Cancellations are not waited for : a placement failing for lack of funds is retried by the next batch.
+     * The batch stops after Settings.ORDER_BATCH_MAX_ERRORS consecutive failures, not to hammer a failing exchange
+     *
+     * @param toCancel
+     * @param toPlace
+     * @return true if every call succeeded
+     */
+    public boolean submitBatch(List<Order> toCancel, List<OrderToPlace> toPlace) {
+        if (!Global.session().options.isExecuteOrders()) {
+            LOG.warn("Demo mode[executeorders:false] . Should cancel " + toCancel.size() + " and place " + toPlace.size() + " orders");
+            for (OrderToPlace order : toPlace) {
+                LOG.warn("Should execute : " + order);
+            }
+            return true;
+        }
+
+        int errors = 0;
+        int consecutiveErrors = 0;
+        for (Order order : toCancel) {
+            if (SessionManager.sessionInterrupted() || consecutiveErrors >= Settings.ORDER_BATCH_MAX_ERRORS) {
+                return false;
+            }
+            pace();
+            ApiResponse response = Global.session().exchange.getTrade().cancelOrder(order.getId(), Global.session().options.getPair());
+            ordersChanged();
+            if (response.isPositive() && (boolean) response.getResponseObject()) {
+                LOG.info("Order " + order.getId() + " delete request submitted");
+                consecutiveErrors = 0;
+            } else {
+                LOG.error("Could not submit request to delete order " + order.getId()
+                        + (response.isPositive() ? "" : " : " + response.getError()));
+                errors++;
+                consecutiveErrors++;
+            }
+        }
+
+        for (OrderToPlace order : toPlace) {
+            if (SessionManager.sessionInterrupted() || consecutiveErrors >= Settings.ORDER_BATCH_MAX_ERRORS) {
+                return false;
+            }
+            if (Global.session().startupDuration == -1)
+                Global.session().startupDuration = System.currentTimeMillis() - Global.session().sessionStarted;
+            pace();
+            ApiResponse response = placeOrder(order);
+            if (response.isPositive()) {
+                totalOrdersSubmitted++;
+                consecutiveErrors = 0;
+            } else {
+                LOG.error(response.getError().toString());
+                errors++;
+                consecutiveErrors++;
+            }
+        }
+
+        if (errors > 0) {
+            LOG.warn(errors + "/" + (toCancel.size() + toPlace.size()) + " order requests failed");
+        }
+        return errors == 0;
+    }
+
+    /**
+     * wait until Settings.ORDER_SUBMIT_INTERVAL ms have passed since the previous order request
+     */
+    private synchronized void pace() {
+        long wait = lastSubmission + Settings.ORDER_SUBMIT_INTERVAL - System.currentTimeMillis();
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException ex) {
+                LOG.error(ex.getMessage());
+            }
+        }
+        lastSubmission = System.currentTimeMillis();
+    }
+
     /**
      * fetch orders without delay
+     *
+     * @return false if the orders could not be fetched
      */
-    public void fetchOrders() {
-        if (SessionManager.sessionInterrupted()) return; //external interruption
+    public boolean fetchOrders() {
+        if (SessionManager.sessionInterrupted()) return false; //external interruption
 
-        ApiResponse activeOrdersResponse = Global.exchange.getTrade().getActiveOrders(Global.options.getPair());
+        ApiResponse activeOrdersResponse = Global.session().exchange.getTrade().getActiveOrders(Global.session().options.getPair());
         if (activeOrdersResponse.isPositive()) {
             lastFetch = System.currentTimeMillis();
             this.orderList = (ArrayList<Order>) activeOrdersResponse.getResponseObject();
-
+            return true;
         } else {
             LOG.error(activeOrdersResponse.getError().toString());
+            return false;
         }
     }
 
 
+    /**
+     * an order was placed or cancelled : the fetched order list and balances no longer match the exchange,
+     * the next time bound fetch goes to the exchange whatever its age
+     */
+    private void ordersChanged() {
+        lastFetch = 0;
+        if (Global.session().balanceManager != null) {
+            Global.session().balanceManager.balancesChanged();
+        }
+    }
+
     /**
      * fetch bound with time
      *
@@ -21,6 +21,7 @@ package com.nubits.nubot.strategy.Primary;
 import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.bot.NuBotBase;
 import com.nubits.nubot.strategy.BalanceManager;
+import com.nubits.nubot.strategy.LadderManager;
 import com.nubits.nubot.strategy.OrderManager;
 import com.nubits.nubot.tasks.SubmitLiquidityinfoTask;
 import org.slf4j.Logger;
@@ -42,15 +43,16 @@ public class NuBotSimple extends NuBotBase {
 
         LOG.info("configuring strategy NuBotSimple");
 
-        Global.balanceManager = new BalanceManager();
-        Global.orderManager = new OrderManager();
+        Global.session().balanceManager = new BalanceManager();
+        Global.session().orderManager = new OrderManager();
+        Global.session().ladderManager = new LadderManager();
 
         // set liquidityinfo task to the strategy
-        ((StrategyPrimaryPegTask) (Global.taskManager.getStrategyFiatTask().getTask()))
-                .setSendLiquidityTask(((SubmitLiquidityinfoTask) (Global.taskManager.getSendLiquidityTask().getTask())));
+        ((StrategyPrimaryPegTask) (Global.session().taskManager.getStrategyFiatTask().getTask()))
+                .setSendLiquidityTask(((SubmitLiquidityinfoTask) (Global.session().taskManager.getSendLiquidityTask().getTask())));
 
-        int delay = 7;
-        Global.taskManager.getStrategyFiatTask().start(delay);
+        //the exchange, nud and frozen balances are ready by now, see StartupPipeline
+        Global.session().taskManager.getStrategyFiatTask().start();
     }
 
 
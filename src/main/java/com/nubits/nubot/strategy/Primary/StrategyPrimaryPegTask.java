@@ -18,6 +18,7 @@
 
 package com.nubits.nubot.strategy.Primary;
 
+import com.nubits.nubot.NTP.SlotScheduler;
 import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.bot.SessionManager;
 import com.nubits.nubot.global.Constant;
@@ -25,6 +26,8 @@ import com.nubits.nubot.global.Settings;
 import com.nubits.nubot.models.*;
 import com.nubits.nubot.notifications.HipChatNotifications;
 import com.nubits.nubot.notifications.MailNotifications;
+import com.nubits.nubot.strategy.LadderManager;
+import com.nubits.nubot.strategy.StrategyCheckpoint;
 import com.nubits.nubot.tasks.SubmitLiquidityinfoTask;
 import com.nubits.nubot.trading.OrderException;
 import com.nubits.nubot.trading.TradeUtils;
@@ -40,7 +43,6 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
     private static final Logger LOG = LoggerFactory.getLogger(StrategyPrimaryPegTask.class.getName());
     private final int RESET_AFTER_CYCLES = 50;
-    private final int MAX_RANDOM_WAIT_SECONDS = 5;
     private final int SHORT_WAIT_SECONDS = 5;
     private boolean mightNeedInit = true;
     private int activeSellOrders, activeBuyOrders, totalActiveOrders;
@@ -49,6 +51,8 @@ public class StrategyPrimaryPegTask extends TimerTask {
     private SubmitLiquidityinfoTask sendLiquidityTask;
     private boolean proceedsInBalance = false;
     private int cycles = 0;
+    private SlotScheduler slotScheduler;
+    private double txFee = -1; //last fee read [%], -1 until read
 
     @Override
     public void run() {
@@ -56,14 +60,24 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
         LOG.debug("Executing " + this.getClass());
 
-        LOG.debug("DualSide :  " + Global.options.isDualSide());
+        LOG.debug("DualSide :  " + Global.session().options.isDualSide());
 
         cycles++;
 
+        if (LadderManager.isEnabled()) {
+            //the ladder is refilled continuously : no periodic reset nor wall aggregation
+            if (isFirstTime) {
+                init();
+            } else if (syncLadder()) {
+                recordCheckpoint();
+            }
+            return;
+        }
+
         if (isFirstTime)
             init();
 
-        if (cycles == RESET_AFTER_CYCLES) {
+        if (cycles >= RESET_AFTER_CYCLES && resetSlotReached()) {
             reset();
         }
 
@@ -91,7 +105,7 @@ public class StrategyPrimaryPegTask extends TimerTask {
                 //if there orders need to be cleared
                 if (totalActiveOrders > 0) {
                     try {
-                        Global.orderManager.clearOrders();
+                        Global.session().orderManager.clearOrders();
                     } catch (OrderException e) {
                         throw e;
                     }
@@ -114,9 +128,9 @@ public class StrategyPrimaryPegTask extends TimerTask {
         } else {
             if (SessionManager.sessionInterrupted()) return; //external interruption
 
-            CurrencyPair pair = Global.options.getPair();
+            CurrencyPair pair = Global.session().options.getPair();
 
-            ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalances(pair);
+            ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalances(pair);
 
             if (!balancesResponse.isPositive()) {
                 LOG.error(balancesResponse.getError().toString());
@@ -126,14 +140,14 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
             Amount balanceNBT = balance.getNBTAvailable();
 
-            Amount balanceFIAT = Global.frozenBalancesManager.removeFrozenAmount(balance.getPEGAvailableBalance(), Global.frozenBalancesManager.getFrozenAmount());
+            Amount balanceFIAT = Global.session().frozenBalancesManager.removeFrozenAmount(balance.getPEGAvailableBalance(), Global.session().frozenBalancesManager.getFrozenAmount());
             LOG.info("Current Balance : " + balanceNBT.getQuantity() + " " + pair.getOrderCurrency() + " "
                     + balanceFIAT.getQuantity() + " " + pair.getPaymentCurrency());
 
             if (SessionManager.sessionInterrupted()) return; //external interruption
 
 
-            if (balance.getNBTonOrder().getQuantity() < Global.options.getMaxSellVolume())
+            if (balance.getNBTonOrder().getQuantity() < Global.session().options.getMaxSellVolume())
                 //Execute sellSide strategy
                 sellSide(balanceNBT);
 
@@ -141,10 +155,11 @@ public class StrategyPrimaryPegTask extends TimerTask {
             if (SessionManager.sessionInterrupted()) return; //external interruption
 
             //Execute buy Side strategy
-            if (Global.options.isDualSide() && proceedsInBalance) {
+            if (Global.session().options.isDualSide() && proceedsInBalance) {
                 buySide();
             }
 
+            recordCheckpoint();
         }
     }
 
@@ -157,16 +172,119 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
         isFirstTime = false;
 
+        if (adoptCheckpoint()) {
+            LOG.info("Walls of the previous run taken over");
+            recordCheckpoint();
+            getSendLiquidityTask().setFirstOrdersPlaced(true);
+            return;
+        }
+
         boolean reinitiateSuccess = reInitiateOrders(true);
         if (!reinitiateSuccess) {
             LOG.error("There was a problem while trying to reinitiating orders on first execution. Trying again on next execution");
             isFirstTime = true;
         } else {
             LOG.info("Initial walls placed");
+            recordCheckpoint();
         }
         getSendLiquidityTask().setFirstOrdersPlaced(true);
     }
 
+    /**
+     * warm restart : take over the walls left on the exchange by the previous run, see StrategyCheckpoint.
+     * A side whose walls did not all survive is taken down and placed again
+     *
+     * @return false if there was nothing to take over : the orders are to be reinitiated
+     */
+    private boolean adoptCheckpoint() {
+        boolean ladder = LadderManager.isEnabled();
+        double sellPrice = 0, buyPrice = 0;
+        if (!ladder) {
+            ApiResponse txFeeResponse = fetchTxFee();
+            if (!txFeeResponse.isPositive()) {
+                LOG.error("An error occurred while attempting to update tx fee.");
+                Global.session().checkpoint = null;
+                return false;
+            }
+            double txFee = (Double) txFeeResponse.getResponseObject();
+            sellPrice = TradeUtils.getSellPrice(txFee);
+            buyPrice = TradeUtils.getBuyPrice(txFee);
+        }
+        StrategyCheckpoint.Reconciliation adopted = StrategyCheckpoint.adopt(sellPrice, buyPrice,
+                Global.session().options.getPair().getPaymentCurrency());
+        if (adopted == null) {
+            return false;
+        }
+        if (ladder) {
+            mightNeedInit = !syncLadder();
+            return true;
+        }
+        boolean success = true;
+        if (adopted.countAdopted(Constant.SELL) != 2) {
+            Global.session().orderManager.takeDownOrders(Constant.SELL, Global.session().options.getPair());
+            success = initOrders(Constant.SELL, sellPrice);
+        }
+        if (Global.session().options.isDualSide() && adopted.countAdopted(Constant.BUY) != 2) {
+            Global.session().orderManager.takeDownOrders(Constant.BUY, Global.session().options.getPair());
+            success &= initOrders(Constant.BUY, buyPrice);
+        }
+        mightNeedInit = !success;
+        checkBalancesAndOrders();
+        return true;
+    }
+
+    /**
+     * save the walls for a warm restart, with the prices of the last fee read, see StrategyCheckpoint
+     */
+    private void recordCheckpoint() {
+        if (!Global.session().options.isWarmRestart()) {
+            return;
+        }
+        if (LadderManager.isEnabled()) {
+            StrategyCheckpoint.record(0, 0);
+            return;
+        }
+        if (txFee >= 0) {
+            StrategyCheckpoint.record(TradeUtils.getSellPrice(txFee), TradeUtils.getBuyPrice(txFee));
+        }
+    }
+
+    /**
+     * read the tx fee, kept for the checkpoints : the walls were placed with the last fee read
+     */
+    private ApiResponse fetchTxFee() {
+        ApiResponse txFeeResponse = Global.session().exchange.getTrade().getTxFee(Global.session().options.getPair());
+        if (txFeeResponse.isPositive()) {
+            txFee = (Double) txFeeResponse.getResponseObject();
+        }
+        return txFeeResponse;
+    }
+
+    /**
+     * With multiple custodians the reset is executed during the slot owned by this custodian, so that
+     * competing bots never take down and place their walls at the same time.
+     * If the slot starts within the next execution, wait for it, otherwise check again on next execution
+     *
+     * @return true if the reset can be executed now
+     */
+    private boolean resetSlotReached() {
+        if (!Global.session().options.isMultipleCustodians()) {
+            return true;
+        }
+        if (slotScheduler == null) {
+            slotScheduler = SlotScheduler.forCustodian(Global.session().options);
+        }
+        if (slotScheduler.isInSlot()) {
+            return true;
+        }
+        long wait = slotScheduler.millisToNextSlot();
+        if (wait > Settings.EXECUTE_STRATEGY_INTERVAL * 1000) {
+            return false;
+        }
+        LOG.debug("waiting " + wait + " ms for the reset slot");
+        return slotScheduler.waitForSlot();
+    }
+
     /**
      * Execute this block every RESET_AFTER_CYCLES cycles to ensure fairness with competing custodians
      */
@@ -177,16 +295,13 @@ public class StrategyPrimaryPegTask extends TimerTask {
         //Reset cycle number
         cycles = 0;
 
-        //add a random number of cycles to avoid unlikely situation of synced custodians
-        cycles += Utils.randInt(0, 5);
-
         //Cancel sell side orders
-        boolean cancelSells = Global.orderManager.takeDownOrders(Constant.SELL, Global.options.getPair());
+        boolean cancelSells = Global.session().orderManager.takeDownOrders(Constant.SELL, Global.session().options.getPair());
 
         if (cancelSells) {
             //Update balances
 
-            ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalances(Global.options.getPair());
+            ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalances(Global.session().options.getPair());
             if (!balancesResponse.isPositive()) {
                 //Cannot get balance
                 LOG.error(balancesResponse.getError().toString());
@@ -196,32 +311,16 @@ public class StrategyPrimaryPegTask extends TimerTask {
             Amount balanceNBT = balance.getNBTAvailable();
 
 
-            Amount balanceFIAT = Global.frozenBalancesManager.removeFrozenAmount(balance.getPEGAvailableBalance(), Global.frozenBalancesManager.getFrozenAmount());
+            Amount balanceFIAT = Global.session().frozenBalancesManager.removeFrozenAmount(balance.getPEGAvailableBalance(), Global.session().frozenBalancesManager.getFrozenAmount());
             LOG.info("Updated Balance : " + balanceNBT.getQuantity() + " NBT\n "
                     + balanceFIAT.getQuantity() + " USD");
 
             //Execute sellSide strategy
-            //Introuce an aleatory sleep time to desync bots at the time of placing orders.
-            //This will favour competition in markets with multiple custodians
-            try {
-                Thread.sleep(Utils.randInt(0, MAX_RANDOM_WAIT_SECONDS) * 1000);
-            } catch (InterruptedException ex) {
-                LOG.error(ex.toString());
-            }
-
             sellSide(balanceNBT);
         }
 
         //Execute buy Side strategy
-        if (Global.options.isDualSide()) {
-            //Introduce an aleatory sleep time to desync bots at the time of placing orders.
-            //This will favour competition in markets with multiple custodians
-            try {
-                Thread.sleep(Utils.randInt(0, MAX_RANDOM_WAIT_SECONDS) * 1000);
-            } catch (InterruptedException ex) {
-                LOG.error(ex.toString());
-            }
-
+        if (Global.session().options.isDualSide()) {
             buySide();
         }
     }
@@ -230,7 +329,12 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
         LOG.info("place initial walls");
 
-        ApiResponse txFeeNTBFIATResponse = Global.exchange.getTrade().getTxFee(Global.options.getPair());
+        if (LadderManager.isEnabled()) {
+            mightNeedInit = !syncLadder();
+            return;
+        }
+
+        ApiResponse txFeeNTBFIATResponse = fetchTxFee();
         if (txFeeNTBFIATResponse.isPositive()) {
 
             double txFeeFIATNTB = (Double) txFeeNTBFIATResponse.getResponseObject();
@@ -242,7 +346,7 @@ public class StrategyPrimaryPegTask extends TimerTask {
             LOG.debug("txFeeFIATNTB " + txFeeFIATNTB);
             LOG.debug("sellsOrdersOk " + sellsOrdersOk);
 
-            if (Global.options.isDualSide()) {
+            if (Global.session().options.isDualSide()) {
 
                 double buyprice = TradeUtils.getBuyPrice(txFeeFIATNTB);
                 LOG.info("init buy orders. price " + buyprice);
@@ -267,6 +371,13 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
     }
 
+    /**
+     * bring the ladders of both sides in line with the liquidity model, see LadderManager
+     */
+    private boolean syncLadder() {
+        return Global.session().ladderManager.sync(Global.session().conversion);
+    }
+
     private void orderLog(String orderString) {
         LOG.warn("Strategy : Submit order : " + orderString);
     }
@@ -294,17 +405,17 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
         LOG.warn("Sellside : Taking down smaller order to aggregate it with new balance");
 
-        boolean orderdelete = Global.orderManager.takeDownAndWait(idToDelete, Global.options.getEmergencyTimeout() * 1000, Global.options.getPair());
+        boolean orderdelete = Global.session().orderManager.takeDownAndWait(idToDelete, Global.session().options.getEmergencyTimeout() * 1000, Global.session().options.getPair());
 
         if (!orderdelete) {
             String errMessagedeletingOrder = "could not delete order " + idToDelete;
             LOG.error(errMessagedeletingOrder);
             HipChatNotifications.sendMessage(errMessagedeletingOrder, MessageColor.YELLOW);
-            MailNotifications.send(Global.options.getMailRecipient(), "NuBot : problem shifting walls", errMessagedeletingOrder);
+            MailNotifications.send(Global.session().options.getMailRecipient(), "NuBot : problem shifting walls", errMessagedeletingOrder);
             return;
         }
 
-        ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalances(Global.options.getPair());
+        ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalances(Global.session().options.getPair());
         if (!balancesResponse.isPositive()) {
             //Cannot get balance
             LOG.error(balancesResponse.getError().toString());
@@ -315,14 +426,14 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
         balanceNBT = balance.getNBTAvailable();
 
-        Amount balanceFIAT = Global.frozenBalancesManager.removeFrozenAmount(balance.getPEGAvailableBalance(), Global.frozenBalancesManager.getFrozenAmount());
+        Amount balanceFIAT = Global.session().frozenBalancesManager.removeFrozenAmount(balance.getPEGAvailableBalance(), Global.session().frozenBalancesManager.getFrozenAmount());
 
         LOG.info("Updated Balance : " + balanceNBT.getQuantity() + " " + balanceNBT.getCurrency().getCode() + "\n "
                 + balanceFIAT.getQuantity() + " " + balanceFIAT.getCurrency().getCode());
 
         //Update TX fee :
         //Get the current transaction fee associated with a specific CurrencyPair
-        ApiResponse txFeeNTBUSDResponse = Global.exchange.getTrade().getTxFee(Global.options.getPair());
+        ApiResponse txFeeNTBUSDResponse = fetchTxFee();
         if (!txFeeNTBUSDResponse.isPositive()) {
             //Cannot update txfee
             LOG.error(txFeeNTBUSDResponse.getError().toString());
@@ -336,24 +447,24 @@ public class StrategyPrimaryPegTask extends TimerTask {
         double sellPrice = TradeUtils.getSellPrice(txFeeUSDNTB);
 
         //There is a cap on the order size
-        if (Global.options.getMaxSellVolume() > 0) {
-            if (balanceNBT.getQuantity() > Global.options.getMaxSellVolume()) {
+        if (Global.session().options.getMaxSellVolume() > 0) {
+            if (balanceNBT.getQuantity() > Global.session().options.getMaxSellVolume()) {
                 //put the cap
-                balanceNBT.setQuantity(Global.options.getMaxSellVolume());
+                balanceNBT.setQuantity(Global.session().options.getMaxSellVolume());
             }
         }
 
         double amountToSell = balanceNBT.getQuantity();
         LOG.info("amount to sell " + amountToSell);
-        if (Global.options.isExecuteOrders()) {
+        if (Global.session().options.isExecuteOrders()) {
             //execute the order
-            String orderString = "sell " + Utils.round(amountToSell, 2) + " " + Global.options.getPair().getOrderCurrency().getCode()
-                    + " @ " + sellPrice + " " + Global.options.getPair().getPaymentCurrency().getCode();
+            String orderString = "sell " + Utils.round(amountToSell, 2) + " " + Global.session().options.getPair().getOrderCurrency().getCode()
+                    + " @ " + sellPrice + " " + Global.session().options.getPair().getPaymentCurrency().getCode();
             orderLog(orderString);
 
-            ApiResponse sellResponse = Global.exchange.getTrade().sell(Global.options.getPair(), amountToSell, sellPrice);
+            ApiResponse sellResponse = Global.session().exchange.getTrade().sell(Global.session().options.getPair(), amountToSell, sellPrice);
             if (sellResponse.isPositive()) {
-                HipChatNotifications.sendMessage("New sell wall is up on <strong>" + Global.options.getExchangeName() + " </strong>: " + orderString, MessageColor.YELLOW);
+                HipChatNotifications.sendMessage("New sell wall is up on <strong>" + Global.session().options.getExchangeName() + " </strong>: " + orderString, MessageColor.YELLOW);
                 String sellResponseString = (String) sellResponse.getResponseObject();
                 LOG.warn("Strategy : Sell Response = " + sellResponseString);
             } else {
@@ -362,8 +473,8 @@ public class StrategyPrimaryPegTask extends TimerTask {
         } else {
             //Testing only : print the order without executing it
             LOG.warn("Strategy : (Should) Submit order : "
-                    + "sell" + amountToSell + " " + Global.options.getPair().getOrderCurrency().getCode()
-                    + " @ " + sellPrice + " " + Global.options.getPair().getPaymentCurrency().getCode());
+                    + "sell" + amountToSell + " " + Global.session().options.getPair().getOrderCurrency().getCode()
+                    + " @ " + sellPrice + " " + Global.session().options.getPair().getPaymentCurrency().getCode());
         }
     }
 
@@ -375,10 +486,10 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
         LOG.debug("buySide");
 
-        boolean cancel = Global.orderManager.takeDownOrders(Constant.BUY, Global.options.getPair());
+        boolean cancel = Global.session().orderManager.takeDownOrders(Constant.BUY, Global.session().options.getPair());
         if (cancel) {
-            Global.frozenBalancesManager.freezeNewFunds();
-            ApiResponse txFeeNTBFIATResponse = Global.exchange.getTrade().getTxFee(Global.options.getPair());
+            Global.session().frozenBalancesManager.freezeNewFunds();
+            ApiResponse txFeeNTBFIATResponse = fetchTxFee();
             if (txFeeNTBFIATResponse.isPositive()) {
                 double txFeeFIATNTB = (Double) txFeeNTBFIATResponse.getResponseObject();
                 double buyprice = TradeUtils.getBuyPrice(txFeeFIATNTB);
@@ -399,11 +510,11 @@ public class StrategyPrimaryPegTask extends TimerTask {
         Order smallerOrder = new Order();
         smallerOrder.setId("-1");
 
-        Global.orderManager.fetchOrders();
+        Global.session().orderManager.fetchOrders();
 
-        ArrayList<Order> orderList = Global.orderManager.getOrderList();
+        ArrayList<Order> orderList = Global.session().orderManager.getOrderList();
 
-        ArrayList<Order> orderListCategorized = Global.orderManager.filterOrders(orderList, type);
+        ArrayList<Order> orderListCategorized = Global.session().orderManager.filterOrders(orderList, type);
 
         int i = 0;
         for (Order tempOrder : orderListCategorized) {
@@ -431,7 +542,7 @@ public class StrategyPrimaryPegTask extends TimerTask {
         LOG.debug("checkBalancesAndOrders");
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
-        ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalances(Global.options.getPair());
+        ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalances(Global.session().options.getPair());
 
         if (!balancesResponse.isPositive()) {
             LOG.error(balancesResponse.getError().toString());
@@ -441,14 +552,14 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
         PairBalance balance = (PairBalance) balancesResponse.getResponseObject();
         double balanceNBT = balance.getNBTAvailable().getQuantity();
-        double balanceFIAT = (Global.frozenBalancesManager.removeFrozenAmount(balance.getPEGAvailableBalance(), Global.frozenBalancesManager.getFrozenAmount())).getQuantity();
+        double balanceFIAT = (Global.session().frozenBalancesManager.removeFrozenAmount(balance.getPEGAvailableBalance(), Global.session().frozenBalancesManager.getFrozenAmount())).getQuantity();
 
         LOG.debug("balance NBT " + balanceNBT);
         LOG.debug("balance USD " + balanceFIAT);
 
-        Global.orderManager.fetchOrders();
-        activeSellOrders = Global.orderManager.getNumActiveSellOrders();
-        activeBuyOrders = Global.orderManager.getNumActiveBuyOrders();
+        Global.session().orderManager.fetchOrders();
+        activeSellOrders = Global.session().orderManager.getNumActiveSellOrders();
+        activeBuyOrders = Global.session().orderManager.getNumActiveBuyOrders();
         totalActiveOrders = activeSellOrders + activeBuyOrders;
 
         LOG.debug("activeSellOrders " + activeSellOrders);
@@ -463,7 +574,7 @@ public class StrategyPrimaryPegTask extends TimerTask {
         int numOrdersSell = 2;
         int numOrdersBuy = 2;
 
-        if (Global.options.isDualSide()) {
+        if (Global.session().options.isDualSide()) {
             LOG.debug("checking balance and orders for dualside");
 
             boolean bothSides = activeSellOrders == numOrdersBoth && activeBuyOrders == numOrdersBoth;
@@ -476,7 +587,7 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
             ordersAndBalancesOk = bothSides || sellinplace || buyinplace;
 
-            if (balanceFIAT > 1 && !isFirstTime && Global.options.getMaxBuyVolume() == 0) { //TODO this condition should be more complext to take into account froozenBalance
+            if (balanceFIAT > 1 && !isFirstTime && Global.session().options.getMaxBuyVolume() == 0) { //TODO this condition should be more complext to take into account froozenBalance
                 LOG.warn("The " + balance.getPEGAvailableBalance().getCurrency().getCode() + " balance is not zero (" + balanceFIAT + " ). If the balance represent proceedings "
                         + "from a sale the bot will notice.  On the other hand, If you keep seying this message repeatedly over and over, you should restart the bot. ");
                 proceedsInBalance = true;
@@ -508,7 +619,7 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
             LOG.info("totalActiveOrders " + totalActiveOrders);
 
-            ApiResponse deleteOrdersResponse = Global.exchange.getTrade().clearOrders(Global.options.getPair());
+            ApiResponse deleteOrdersResponse = Global.session().exchange.getTrade().clearOrders(Global.session().options.getPair());
             if (SessionManager.sessionInterrupted()) return false;
             if (deleteOrdersResponse.isPositive()) {
                 boolean deleted = (boolean) deleteOrdersResponse.getResponseObject();
@@ -516,11 +627,11 @@ public class StrategyPrimaryPegTask extends TimerTask {
                     LOG.warn("Clear all orders request successful");
                     if (firstTime) //update the initial balance of the secondary peg
                     {
-                        Global.frozenBalancesManager.setBalanceAlreadyThere(Global.options.getPair().getPaymentCurrency());
+                        Global.session().frozenBalancesManager.setBalanceAlreadyThere(Global.session().options.getPair().getPaymentCurrency());
                     }
                     //Wait until there are no active orders
                     boolean timedOut = false;
-                    long timeout = Global.options.getEmergencyTimeout() * 1000;
+                    long timeout = Global.session().options.getEmergencyTimeout() * 1000;
                     long wait = 5 * 1000;
                     long count = 0L;
                     if (SessionManager.sessionInterrupted()) return false;
@@ -529,7 +640,7 @@ public class StrategyPrimaryPegTask extends TimerTask {
                         try {
                             if (SessionManager.sessionInterrupted()) return false;
                             Thread.sleep(wait);
-                            areAllOrdersCanceled = Global.orderManager.tryCancelAllOrders(Global.options.getPair());
+                            areAllOrdersCanceled = Global.session().orderManager.tryCancelAllOrders(Global.session().options.getPair());
                             if (areAllOrdersCanceled) {
                                 LOG.warn("All orders canceled succefully");
                             } else {
@@ -548,7 +659,7 @@ public class StrategyPrimaryPegTask extends TimerTask {
                         String message = "There was a problem cancelling all existing orders";
                         LOG.error(message);
                         HipChatNotifications.sendMessage(message, MessageColor.YELLOW);
-                        MailNotifications.send(Global.options.getMailRecipient(), "NuBot : Problem cancelling existing orders", message);
+                        MailNotifications.send(Global.session().options.getMailRecipient(), "NuBot : Problem cancelling existing orders", message);
                         //Continue anyway, maybe there is some balance to put up on order.
                     }
 
@@ -570,7 +681,7 @@ public class StrategyPrimaryPegTask extends TimerTask {
         } else {
             if (firstTime) //update the initial balance of the secondary peg
             {
-                Global.frozenBalancesManager.setBalanceAlreadyThere(Global.options.getPair().getPaymentCurrency());
+                Global.session().frozenBalancesManager.setBalanceAlreadyThere(Global.session().options.getPair().getPaymentCurrency());
             }
             placeInitialWalls();
         }
@@ -593,12 +704,12 @@ public class StrategyPrimaryPegTask extends TimerTask {
         Currency currency;
 
         if (type.equals(Constant.SELL)) {
-            currency = Global.options.getPair().getOrderCurrency();
+            currency = Global.session().options.getPair().getOrderCurrency();
         } else {
-            currency = Global.options.getPair().getPaymentCurrency();
+            currency = Global.session().options.getPair().getPaymentCurrency();
         }
 
-        ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalance(currency);
+        ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalance(currency);
 
         if (!balancesResponse.isPositive()) {
             LOG.error(balancesResponse.getError().toString());
@@ -611,8 +722,8 @@ public class StrategyPrimaryPegTask extends TimerTask {
         } else {
             //Here its time to compute the balance to put apart, if any
             amount = (Amount) balancesResponse.getResponseObject();
-            amount = Global.frozenBalancesManager.removeFrozenAmount(amount, Global.frozenBalancesManager.getFrozenAmount());
-            oneNBT = Utils.round(1 / Global.conversion, Settings.DEFAULT_PRECISION);
+            amount = Global.session().frozenBalancesManager.removeFrozenAmount(amount, Global.session().frozenBalancesManager.getFrozenAmount());
+            oneNBT = Utils.round(1 / Global.session().conversion, Settings.DEFAULT_PRECISION);
         }
 
 
@@ -623,15 +734,15 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
             //Update TX fee :
             //Get the current transaction fee associated with a specific CurrencyPair
-            ApiResponse txFeeNTBPEGResponse = Global.exchange.getTrade().getTxFee(Global.options.getPair());
+            ApiResponse txFeeNTBPEGResponse = fetchTxFee();
             if (txFeeNTBPEGResponse.isPositive()) {
                 double txFeePEGNTB = (Double) txFeeNTBPEGResponse.getResponseObject();
                 LOG.debug("Updated Trasaction fee = " + txFeePEGNTB + "%");
                 if (SessionManager.sessionInterrupted()) return false;
                 double amount1 = Utils.round(amount.getQuantity() / 2, Settings.DEFAULT_PRECISION);
 
-                double maxBuy = Global.options.getMaxBuyVolume();
-                double maxSell = Global.options.getMaxSellVolume();
+                double maxBuy = Global.session().options.getMaxBuyVolume();
+                double maxSell = Global.session().options.getMaxSellVolume();
 
                 LOG.debug("check the calculated amount against the set maximum sell amount");
 
@@ -647,7 +758,7 @@ public class StrategyPrimaryPegTask extends TimerTask {
                     }
                 }
 
-                if (type.equals(Constant.BUY) && !Global.swappedPair) {
+                if (type.equals(Constant.BUY) && !Global.session().swappedPair) {
                     amount1 = Utils.round(amount1 / price, Settings.DEFAULT_PRECISION);
                     //check the calculated amount against the max buy amount option, if any.
                     LOG.debug("check the calculated amount against the max buy amount option, if any.");
@@ -673,8 +784,8 @@ public class StrategyPrimaryPegTask extends TimerTask {
                     }
                 }
 
-                if ((type.equals(Constant.BUY) && !Global.swappedPair)
-                        || (type.equals(Constant.SELL) && Global.swappedPair)) {
+                if ((type.equals(Constant.BUY) && !Global.session().swappedPair)
+                        || (type.equals(Constant.SELL) && Global.session().swappedPair)) {
                     //hotfix
                     amount2 = Utils.round(amount2 - (oneNBT * 0.9), Settings.DEFAULT_PRECISION); //multiply by .9 to keep it below one NBT
 
@@ -697,23 +808,23 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
                 //Prepare the orders
 
-                String orderString1 = type + " " + Utils.round(amount1, 2) + " " + Global.options.getPair().getOrderCurrency().getCode()
-                        + " @ " + price + " " + Global.options.getPair().getPaymentCurrency().getCode();
-                String orderString2 = type + " " + Utils.round(amount2, 2) + " " + Global.options.getPair().getOrderCurrency().getCode()
-                        + " @ " + price + " " + Global.options.getPair().getPaymentCurrency().getCode();
+                String orderString1 = type + " " + Utils.round(amount1, 2) + " " + Global.session().options.getPair().getOrderCurrency().getCode()
+                        + " @ " + price + " " + Global.session().options.getPair().getPaymentCurrency().getCode();
+                String orderString2 = type + " " + Utils.round(amount2, 2) + " " + Global.session().options.getPair().getOrderCurrency().getCode()
+                        + " @ " + price + " " + Global.session().options.getPair().getPaymentCurrency().getCode();
 
-                if (Global.options.isExecuteOrders()) {
+                if (Global.session().options.isExecuteOrders()) {
                     LOG.warn("Strategy - Submit order : " + orderString1);
 
                     ApiResponse order1Response;
                     if (type.equals(Constant.SELL)) {
-                        order1Response = Global.exchange.getTrade().sell(Global.options.getPair(), amount1, price);
+                        order1Response = Global.session().exchange.getTrade().sell(Global.session().options.getPair(), amount1, price);
                     } else {
-                        order1Response = Global.exchange.getTrade().buy(Global.options.getPair(), amount1, price);
+                        order1Response = Global.session().exchange.getTrade().buy(Global.session().options.getPair(), amount1, price);
                     }
                     if (SessionManager.sessionInterrupted()) return false;
                     if (order1Response.isPositive()) {
-                        HipChatNotifications.sendMessage("New " + type + " wall is up on <strong>" + Global.options.getExchangeName() + "</strong> : " + orderString1, MessageColor.YELLOW);
+                        HipChatNotifications.sendMessage("New " + type + " wall is up on <strong>" + Global.session().options.getExchangeName() + "</strong> : " + orderString1, MessageColor.YELLOW);
                         String response1String = (String) order1Response.getResponseObject();
                         LOG.warn("Strategy - " + type + " Response1 = " + response1String);
                     } else {
@@ -725,13 +836,13 @@ public class StrategyPrimaryPegTask extends TimerTask {
 
                     ApiResponse order2Response;
                     if (type.equals(Constant.SELL)) {
-                        order2Response = Global.exchange.getTrade().sell(Global.options.getPair(), amount2, price);
+                        order2Response = Global.session().exchange.getTrade().sell(Global.session().options.getPair(), amount2, price);
                     } else {
-                        order2Response = Global.exchange.getTrade().buy(Global.options.getPair(), amount2, price);
+                        order2Response = Global.session().exchange.getTrade().buy(Global.session().options.getPair(), amount2, price);
                     }
                     if (SessionManager.sessionInterrupted()) return false;
                     if (order2Response.isPositive()) {
-                        HipChatNotifications.sendMessage("New " + type + " wall is up on <strong>" + Global.options.getExchangeName() + "</strong> : " + orderString2, MessageColor.YELLOW);
+                        HipChatNotifications.sendMessage("New " + type + " wall is up on <strong>" + Global.session().options.getExchangeName() + "</strong> : " + orderString2, MessageColor.YELLOW);
                         String response2String = (String) order2Response.getResponseObject();
                         LOG.warn("Strategy : " + type + " Response2 = " + response2String);
                     } else {
@@ -18,6 +18,7 @@
 
 package com.nubits.nubot.strategy.Secondary;
 
+import com.nubits.nubot.NTP.SlotScheduler;
 import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.bot.NuBotBase;
 import com.nubits.nubot.global.Settings;
@@ -27,10 +28,10 @@ import com.nubits.nubot.models.CurrencyPair;
 import com.nubits.nubot.options.NuBotConfigException;
 import com.nubits.nubot.pricefeeds.PriceFeedManager;
 import com.nubits.nubot.strategy.BalanceManager;
+import com.nubits.nubot.strategy.LadderManager;
 import com.nubits.nubot.strategy.OrderManager;
 import com.nubits.nubot.tasks.PriceMonitorTriggerTask;
 import com.nubits.nubot.tasks.SubmitLiquidityinfoTask;
-import com.nubits.nubot.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,31 +42,52 @@ public class NuBotSecondary extends NuBotBase {
 
     final static Logger LOG = LoggerFactory.getLogger(NuBotSecondary.class);
 
-    @Override
-    public void configureStrategy() throws NuBotConfigException {
-
-        Global.balanceManager = new BalanceManager();
-        Global.orderManager = new OrderManager();
-
-        if (Global.options.isDualSide()) {
-            LOG.info("Configuring NuBot for Dual-Side strategy");
-        } else {
-            LOG.info("Configuring NuBot for Sell-Side strategy");
-        }
+    private PriceFeedManager pfm;
 
+    /**
+     * set up the price feeds and fetch the first prices while the exchange is being set up :
+     * the first check of the price monitor finds them in the feed cache
+     */
+    @Override
+    protected void prepareStrategy() throws NuBotConfigException {
         //Peg to a USD price via crypto pair
         Currency toTrackCurrency;
 
-        if (Global.swappedPair) { //NBT as paymentCurrency
-            toTrackCurrency = Global.options.getPair().getOrderCurrency();
+        if (Global.session().swappedPair) { //NBT as paymentCurrency
+            toTrackCurrency = Global.session().options.getPair().getOrderCurrency();
         } else {
-            toTrackCurrency = Global.options.getPair().getPaymentCurrency();
+            toTrackCurrency = Global.session().options.getPair().getPaymentCurrency();
         }
 
         CurrencyPair toTrackCurrencyPair = new CurrencyPair(toTrackCurrency, CurrencyList.USD);
 
-        PriceMonitorTriggerTask pmTask = (PriceMonitorTriggerTask) Global.taskManager.getPriceTriggerTask().getTask();
-        StrategySecondaryPegTask stratTask = (StrategySecondaryPegTask) (Global.taskManager.getSecondaryPegTask().getTask());
+        try {
+            pfm = new PriceFeedManager(Global.session().options.getMainFeed(), Global.session().options.getBackupFeeds(), toTrackCurrencyPair);
+        } catch (NuBotConfigException e) {
+            throw new NuBotConfigException("can't configure price feeds");
+        } catch (Exception e) {
+            LOG.error("" + Global.session().options);
+            throw new NuBotConfigException("something wrong with options");
+        }
+
+        pfm.fetchLastPrices();
+    }
+
+    @Override
+    public void configureStrategy() throws NuBotConfigException {
+
+        Global.session().balanceManager = new BalanceManager();
+        Global.session().orderManager = new OrderManager();
+        Global.session().ladderManager = new LadderManager();
+
+        if (Global.session().options.isDualSide()) {
+            LOG.info("Configuring NuBot for Dual-Side strategy");
+        } else {
+            LOG.info("Configuring NuBot for Sell-Side strategy");
+        }
+
+        PriceMonitorTriggerTask pmTask = (PriceMonitorTriggerTask) Global.session().taskManager.getPriceTriggerTask().getTask();
+        StrategySecondaryPegTask stratTask = (StrategySecondaryPegTask) (Global.session().taskManager.getSecondaryPegTask().getTask());
 
         // set trading strategy to the price monitor task
         pmTask.setStrategy(stratTask);
@@ -76,23 +98,16 @@ public class NuBotSecondary extends NuBotBase {
         stratTask.setPriceMonitorTask(pmTask);
 
         // set liquidityinfo task to the strategy
-        SubmitLiquidityinfoTask liqTask = (SubmitLiquidityinfoTask) Global.taskManager.getSendLiquidityTask().getTask();
+        SubmitLiquidityinfoTask liqTask = (SubmitLiquidityinfoTask) Global.session().taskManager.getSendLiquidityTask().getTask();
         stratTask.setSendLiquidityTask(liqTask);
 
-        PriceFeedManager pfm = null;
-        try {
-            pfm = new PriceFeedManager(Global.options.getMainFeed(), Global.options.getBackupFeeds(), toTrackCurrencyPair);
-        } catch (NuBotConfigException e) {
-            throw new NuBotConfigException("can't configure price feeds");
-        } catch (Exception e) {
-            LOG.error("" + Global.options);
-            throw new NuBotConfigException("something wrong with options");
+        if (pfm == null) {
+            prepareStrategy();
         }
-
         pmTask.setPriceFeedManager(pfm);
 
         //Set the wallet shift threshold
-        pmTask.setWallchangeThreshold(Global.options.getWallchangeThreshold());
+        pmTask.setWallchangeThreshold(Global.session().options.getWallchangeThreshold());
 
 
         //read the delay to sync with remote clock
@@ -104,35 +119,37 @@ public class NuBotSecondary extends NuBotBase {
         int reset_every = Settings.RESET_EVERY_MINUTES;
 
         int interval = 1;
-        if (Global.options.isMultipleCustodians()) {
+        if (Global.session().options.isMultipleCustodians()) {
             interval = 60 * reset_every;
         } else {
             interval = Settings.CHECK_PRICE_INTERVAL;
         }
-        Global.taskManager.getPriceTriggerTask().setInterval(interval);
+        Global.session().taskManager.getPriceTriggerTask().setInterval(interval);
 
-        if (Global.options.isMultipleCustodians()) {
+        if (Global.session().options.isMultipleCustodians()) {
             //Force the a spread to avoid collisions
             double forcedSpread = Settings.FORCED_SPREAD;
-            if (Global.options.getSpread() < forcedSpread) {
-                Global.options.setSpread(forcedSpread);
+            if (Global.session().options.getSpread() < forcedSpread) {
+                Global.session().options.setSpread(forcedSpread);
                 LOG.info("Forcing a " + forcedSpread + "% minimum spread to protect from collisions");
             }
         }
 
         int delaySeconds = 0;
 
-        LOG.info("multiple custodians: " + Global.options.isMultipleCustodians());
+        LOG.info("multiple custodians: " + Global.session().options.isMultipleCustodians());
 
-        if (Global.options.isMultipleCustodians()) {
-            delaySeconds = Utils.getSecondsToNextwindow(reset_every);
-            LOG.warn("NuBot will start running in " + delaySeconds + " seconds, to sync with remote NTP and place walls during next wall shift window.");
+        if (Global.session().options.isMultipleCustodians()) {
+            SlotScheduler slots = SlotScheduler.forCustodian(Global.session().options);
+            delaySeconds = slots.getSecondsToNextSlot();
+            LOG.warn("NuBot will start running in " + delaySeconds + " seconds, to sync with remote NTP and place walls during its own wall shift slot ("
+                    + slots.getSlot() + "/" + Settings.RESET_SLOTS + ").");
         } else {
 
             LOG.warn("NuBot will not try to sync with other bots via remote NTP : 'multiple-custodians' is set to false");
         }
         //then start the thread
-        Global.taskManager.getPriceTriggerTask().start(delaySeconds);
+        Global.session().taskManager.getPriceTriggerTask().start(delaySeconds);
     }
 
 
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package com.nubits.nubot.strategy.Secondary;
+
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.BidAskPair;
+import com.nubits.nubot.utils.Utils;
+
+/**
+ * Price computations of the secondary peg strategy.
+ * Kept free of global state so that the same code drives both the live
+ * PriceMonitorTriggerTask and the backtester.
+ */
+public class SecondaryPegPricing {
+
+    /**
+     * Compute the USD prices of the walls
+     *
+     * @param txFee          transaction fee in %
+     * @param spread         spread in %
+     * @param dualSide
+     * @param priceIncrement only applied to sell-side custodians
+     * @return bid = buy price, ask = sell price
+     */
+    public static BidAskPair computeUSDPrices(double txFee, double spread, boolean dualSide, double priceIncrement) {
+        double sellPriceUSD = 1 + (0.01 * txFee);
+        if (!dualSide) {
+            sellPriceUSD = sellPriceUSD + priceIncrement;
+        }
+        double buyPriceUSD = 1 - (0.01 * txFee);
+
+        //Add(remove) the offset % from prices
+        double halfSpread = Utils.round(spread / 2, 6);
+        double offset = Utils.round(halfSpread / 100, 6);
+
+        return new BidAskPair(buyPriceUSD - offset, sellPriceUSD + offset);
+    }
+
+    /**
+     * Convert USD wall prices to the peg currency
+     *
+     * @param usdPrices
+     * @param conversion price of one unit of the peg currency in USD.
+     * @param swappedPair NBT as paymentCurrency
+     * @return bid = buy price, ask = sell price
+     */
+    public static BidAskPair convertToPEG(BidAskPair usdPrices, double conversion, boolean swappedPair) {
+        double sellPricePEG;
+        double buyPricePEG;
+        if (swappedPair) {
+            sellPricePEG = Utils.round(usdPrices.getAsk() * conversion, Settings.DEFAULT_PRECISION);
+            buyPricePEG = Utils.round(usdPrices.getBid() * conversion, Settings.DEFAULT_PRECISION);
+        } else {
+            sellPricePEG = Utils.round(usdPrices.getAsk() / conversion, Settings.DEFAULT_PRECISION);
+            buyPricePEG = Utils.round(usdPrices.getBid() / conversion, Settings.DEFAULT_PRECISION);
+        }
+        return new BidAskPair(buyPricePEG, sellPricePEG);
+    }
+
+    /**
+     * @return the distance in % between the price the walls were placed at and the new price
+     */
+    public static double percentageDistance(double wallPrice, double newPrice) {
+        double distance = Math.abs(newPrice - wallPrice);
+        return Utils.round((distance * 100) / wallPrice, 4);
+    }
+
+    /**
+     * check if price moved more than threshold% from when the wall was setup
+     */
+    public static boolean needToMoveWalls(double wallPrice, double newPrice, double wallchangeThreshold) {
+        return percentageDistance(wallPrice, newPrice) >= wallchangeThreshold;
+    }
+
+    /**
+     * @return the difference in % between the moving average and the current price
+     */
+    public static double movingAverageDeviation(double movingAverage, double current) {
+        return ((movingAverage - current) / ((movingAverage + current) / 2)) * 100;
+    }
+}
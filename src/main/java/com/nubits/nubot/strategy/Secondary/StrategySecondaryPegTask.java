@@ -20,8 +20,11 @@ package com.nubits.nubot.strategy.Secondary;
 
 import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.bot.SessionManager;
+import com.nubits.nubot.global.Constant;
 import com.nubits.nubot.global.Settings;
 import com.nubits.nubot.notifications.HipChatNotifications;
+import com.nubits.nubot.strategy.LadderManager;
+import com.nubits.nubot.strategy.StrategyCheckpoint;
 import com.nubits.nubot.tasks.PriceMonitorTriggerTask;
 import com.nubits.nubot.tasks.SubmitLiquidityinfoTask;
 import io.evanwong.oss.hipchat.v2.rooms.MessageColor;
@@ -59,7 +62,7 @@ public class StrategySecondaryPegTask extends TimerTask {
     @Override
     public void run() {
         if (SessionManager.sessionInterrupted()) return; //external interruption
-        LOG.debug("Executing task on " + Global.exchange.getName() + ": StrategySecondaryPegTask. DualSide :  " + Global.options.isDualSide());
+        LOG.debug("Executing task on " + Global.session().exchange.getName() + ": StrategySecondaryPegTask. DualSide :  " + Global.session().options.isDualSide());
 
 
         if (isFirstTime) {
@@ -74,7 +77,7 @@ public class StrategySecondaryPegTask extends TimerTask {
 
         LOG.debug("adapt orders");
 
-        if (Global.options.isMultipleCustodians()) {
+        if (Global.session().options.isMultipleCustodians()) {
             LOG.trace("multiple custodians do not need strategy exec");
             return;
         }
@@ -84,6 +87,14 @@ public class StrategySecondaryPegTask extends TimerTask {
             return;
         }
 
+        if (LadderManager.isEnabled()) {
+            //refill the levels consumed since last execution
+            if (strategyUtils.syncLadder(Global.session().conversion)) {
+                StrategyCheckpoint.record(0, 0);
+            }
+            return;
+        }
+
         strategyUtils.recount(); //Count number of active sells and buys
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
@@ -91,7 +102,7 @@ public class StrategySecondaryPegTask extends TimerTask {
             LOG.info("might need init");
             boolean reset = mightNeedInit && !(ordersAndBalancesOK);
             if (reset) {
-                String message = "Order reset needed on " + Global.exchange.getName();
+                String message = "Order reset needed on " + Global.session().exchange.getName();
                 HipChatNotifications.sendMessage(message, MessageColor.PURPLE);
                 if (SessionManager.sessionInterrupted()) return; //external interruption
 
@@ -113,12 +124,13 @@ public class StrategySecondaryPegTask extends TimerTask {
             LOG.warn("Detected a number of active orders not in line with strategy. Will try to aggregate soon");
             mightNeedInit = true;
         } else {
-            if (Global.options.getKeepProceeds() > 0 && Global.options.getPair().getPaymentCurrency().isFiat()) {
+            if (Global.session().options.getKeepProceeds() > 0 && Global.session().options.getPair().getPaymentCurrency().isFiat()) {
                 //Execute buy Side strategy
-                if (Global.options.isDualSide() && proceedsInBalance && !needWallShift) {
+                if (Global.session().options.isDualSide() && proceedsInBalance && !needWallShift) {
                     strategyUtils.aggregateAndKeepProceeds();
                 }
             }
+            StrategyCheckpoint.record(sellPricePEG, buyPricePEG);
         }
 
     }
@@ -133,14 +145,52 @@ public class StrategySecondaryPegTask extends TimerTask {
 
         isFirstTime = false;
         strategyUtils.recount();
+        if (adoptCheckpoint()) {
+            StrategyCheckpoint.record(sellPricePEG, buyPricePEG);
+            getSendLiquidityTask().setFirstOrdersPlaced(true);
+            return;
+        }
         boolean reinitiateSuccess = strategyUtils.reInitiateOrders(true);
         if (!reinitiateSuccess) {
             LOG.error("There was a problem while trying to reinitiating orders on first execution. Trying again on next execution");
             isFirstTime = true;
+        } else {
+            StrategyCheckpoint.record(sellPricePEG, buyPricePEG);
         }
         getSendLiquidityTask().setFirstOrdersPlaced(true);
     }
 
+    /**
+     * warm restart : take over the walls left on the exchange by the previous run, see StrategyCheckpoint.
+     * A side whose walls did not all survive is taken down and placed again
+     *
+     * @return false if there was nothing to take over : the orders are to be reinitiated
+     */
+    private boolean adoptCheckpoint() {
+        boolean ladder = LadderManager.isEnabled();
+        StrategyCheckpoint.Reconciliation adopted = StrategyCheckpoint.adopt(ladder ? 0 : sellPricePEG, ladder ? 0 : buyPricePEG,
+                Global.session().options.getPair().getPaymentCurrency());
+        if (adopted == null) {
+            return false;
+        }
+        if (ladder) {
+            mightNeedInit = !strategyUtils.syncLadder(Global.session().conversion);
+            return true;
+        }
+        boolean success = true;
+        if (adopted.countAdopted(Constant.SELL) != 2) {
+            Global.session().orderManager.takeDownOrders(Constant.SELL, Global.session().options.getPair());
+            success = strategyUtils.initOrders(Constant.SELL, sellPricePEG);
+        }
+        if (Global.session().options.isDualSide() && adopted.countAdopted(Constant.BUY) != 2) {
+            Global.session().orderManager.takeDownOrders(Constant.BUY, Global.session().options.getPair());
+            success &= strategyUtils.initOrders(Constant.BUY, buyPricePEG);
+        }
+        mightNeedInit = !success;
+        strategyUtils.recount();
+        return true;
+    }
+
     public void notifyPriceChanged(double new_sellPricePEG, double new_buyPricePEG, double conversion, String direction) {
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
@@ -154,7 +204,7 @@ public class StrategySecondaryPegTask extends TimerTask {
         LOG.info("Strategy received a price change notification.");
         needWallShift = true;
 
-        if (!Global.swappedPair) {
+        if (!Global.session().swappedPair) {
             sellPricePEG = new_sellPricePEG;
             buyPricePEG = new_buyPricePEG;
         } else {
@@ -167,15 +217,15 @@ public class StrategySecondaryPegTask extends TimerTask {
         boolean shiftSuccess = false;
 
         String currencyTracked = "";
-        if (Global.swappedPair) {
-            currencyTracked = Global.options.getPair().getOrderCurrency().getCode().toUpperCase();
+        if (Global.session().swappedPair) {
+            currencyTracked = Global.session().options.getPair().getOrderCurrency().getCode().toUpperCase();
         } else {
-            currencyTracked = Global.options.getPair().getPaymentCurrency().getCode().toUpperCase();
+            currencyTracked = Global.session().options.getPair().getPaymentCurrency().getCode().toUpperCase();
         }
 
-        String message = "Shift needed on " + Global.exchange.getName() + " Reason : ";
-        if (!Global.options.isMultipleCustodians()) {
-            message += currencyTracked + " price went " + getPriceDirection() + " more than " + Global.options.getWallchangeThreshold() + " %";
+        String message = "Shift needed on " + Global.session().exchange.getName() + " Reason : ";
+        if (!Global.session().options.isMultipleCustodians()) {
+            message += currencyTracked + " price went " + getPriceDirection() + " more than " + Global.session().options.getWallchangeThreshold() + " %";
         } else {
             message += Settings.RESET_EVERY_MINUTES + " minutes elapsed since last shift";
         }
@@ -183,11 +233,16 @@ public class StrategySecondaryPegTask extends TimerTask {
         LOG.warn(message);
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
-        shiftSuccess = strategyUtils.shiftWalls();
+        if (LadderManager.isEnabled()) {
+            shiftSuccess = strategyUtils.shiftLadder(conversion);
+        } else {
+            shiftSuccess = strategyUtils.shiftWalls();
+        }
         if (shiftSuccess) {
             mightNeedInit = false;
             needWallShift = false;
             LOG.info("Wall shift successful");
+            StrategyCheckpoint.record(sellPricePEG, buyPricePEG);
         } else {
             LOG.error("Wall shift failed");
         }
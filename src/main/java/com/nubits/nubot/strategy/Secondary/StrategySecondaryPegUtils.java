@@ -27,6 +27,7 @@ import com.nubits.nubot.models.Currency;
 import com.nubits.nubot.models.PairBalance;
 import com.nubits.nubot.notifications.HipChatNotifications;
 import com.nubits.nubot.notifications.MailNotifications;
+import com.nubits.nubot.strategy.LadderManager;
 import com.nubits.nubot.utils.Utils;
 import io.evanwong.oss.hipchat.v2.rooms.MessageColor;
 import org.slf4j.Logger;
@@ -36,7 +37,6 @@ public class StrategySecondaryPegUtils {
 
 
     final static Logger LOG = LoggerFactory.getLogger(StrategySecondaryPegUtils.class);
-    private final int MAX_RANDOM_WAIT_SECONDS = 5;
     private final int SHORT_WAIT_SECONDS = 6;
     private StrategySecondaryPegTask strategy;
 
@@ -50,10 +50,10 @@ public class StrategySecondaryPegUtils {
 
         if (SessionManager.sessionInterrupted()) return false; //external interruption
         //They are either 0 or need to be cancelled
-        Global.orderManager.fetchOrders();
-        int totalOrders = Global.orderManager.getNumTotalActiveOrders();
+        Global.session().orderManager.fetchOrders();
+        int totalOrders = Global.session().orderManager.getNumTotalActiveOrders();
         if (totalOrders > 0) {
-            ApiResponse deleteOrdersResponse = Global.exchange.getTrade().clearOrders(Global.options.getPair());
+            ApiResponse deleteOrdersResponse = Global.session().exchange.getTrade().clearOrders(Global.session().options.getPair());
             if (deleteOrdersResponse.isPositive()) {
                 if (SessionManager.sessionInterrupted()) return false;
                 boolean deleted = (boolean) deleteOrdersResponse.getResponseObject();
@@ -61,11 +61,11 @@ public class StrategySecondaryPegUtils {
                     LOG.info("Clear all orders request successfully");
                     if (firstTime) //update the initial balance of the secondary peg
                     {
-                        Global.frozenBalancesManager.setBalanceAlreadyThere(Global.options.getPair().getPaymentCurrency());
+                        Global.session().frozenBalancesManager.setBalanceAlreadyThere(Global.session().options.getPair().getPaymentCurrency());
                     }
                     //Wait until there are no active orders
                     boolean timedOut = false;
-                    long timeout = Global.options.getEmergencyTimeout() * 1000;
+                    long timeout = Global.session().options.getEmergencyTimeout() * 1000;
                     long wait = SHORT_WAIT_SECONDS * 1000;
                     long count = 0L;
 
@@ -74,7 +74,7 @@ public class StrategySecondaryPegUtils {
                         try {
                             if (SessionManager.sessionInterrupted()) return false;
                             Thread.sleep(wait);
-                            areAllOrdersCanceled = Global.orderManager.tryCancelAllOrders(Global.options.getPair());
+                            areAllOrdersCanceled = Global.session().orderManager.tryCancelAllOrders(Global.session().options.getPair());
                             if (areAllOrdersCanceled) {
                                 LOG.warn("All orders canceled successfully");
                             } else {
@@ -93,7 +93,7 @@ public class StrategySecondaryPegUtils {
                         String message = "There was a problem cancelling all existing orders (timeout:" + timeout + ", count: " + count + ")";
                         LOG.error(message);
                         HipChatNotifications.sendMessage(message, MessageColor.YELLOW);
-                        MailNotifications.send(Global.options.getMailRecipient(), "NuBot : Problem cancelling existing orders", message);
+                        MailNotifications.send(Global.session().options.getMailRecipient(), "NuBot : Problem cancelling existing orders", message);
                         //Continue anyway, maybe there is some balance to put up on order.
                     }
                     //Update the balance
@@ -115,7 +115,7 @@ public class StrategySecondaryPegUtils {
         } else {
             if (firstTime) //update the initial balance of the secondary peg
             {
-                Global.frozenBalancesManager.setBalanceAlreadyThere(Global.options.getPair().getPaymentCurrency());
+                Global.session().frozenBalancesManager.setBalanceAlreadyThere(Global.session().options.getPair().getPaymentCurrency());
             }
             placeInitialWalls();
         }
@@ -130,13 +130,17 @@ public class StrategySecondaryPegUtils {
 
     public void placeInitialWalls() {
         if (SessionManager.sessionInterrupted()) return;
+        if (LadderManager.isEnabled()) {
+            strategy.setMightNeedInit(!syncLadder(Global.session().conversion));
+            return;
+        }
         boolean buysOrdersOk = true;
         double sellPrice = strategy.getSellPricePEG();
         if (SessionManager.sessionInterrupted()) return;
         LOG.debug("init sell orders. price: " + sellPrice);
         boolean sellsOrdersOk = initOrders(Constant.SELL, sellPrice);
         if (SessionManager.sessionInterrupted()) return;
-        if (Global.options.isDualSide()) {
+        if (Global.session().options.isDualSide()) {
             if (SessionManager.sessionInterrupted()) return;
             double buyPrice = strategy.getBuyPricePEG();
             LOG.debug("init buy orders. price: " + buyPrice);
@@ -154,17 +158,17 @@ public class StrategySecondaryPegUtils {
 
     private Currency getCurrency(String type) {
         Currency currency;
-        if (!Global.swappedPair) {
+        if (!Global.session().swappedPair) {
             if (type.equals(Constant.SELL)) {
-                currency = Global.options.getPair().getOrderCurrency();
+                currency = Global.session().options.getPair().getOrderCurrency();
             } else {
-                currency = Global.options.getPair().getPaymentCurrency();
+                currency = Global.session().options.getPair().getPaymentCurrency();
             }
         } else {
             if (type.equals(Constant.SELL)) {
-                currency = Global.options.getPair().getPaymentCurrency();
+                currency = Global.session().options.getPair().getPaymentCurrency();
             } else {
-                currency = Global.options.getPair().getOrderCurrency();
+                currency = Global.session().options.getPair().getOrderCurrency();
             }
         }
 
@@ -172,7 +176,7 @@ public class StrategySecondaryPegUtils {
     }
 
     private String hipchatMsg(String type, String orderString1) {
-        return "New " + type + " wall is up on <strong>" + Global.options.getExchangeName() + "</strong> : " + orderString1;
+        return "New " + type + " wall is up on <strong>" + Global.session().options.getExchangeName() + "</strong> : " + orderString1;
     }
 
 
@@ -186,7 +190,7 @@ public class StrategySecondaryPegUtils {
         //Update the available balance
         Currency currency = getCurrency(type);
 
-        ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalance(currency);
+        ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalance(currency);
         if (!balancesResponse.isPositive()) {
             LOG.error(balancesResponse.getError().toString());
             return false;
@@ -199,8 +203,8 @@ public class StrategySecondaryPegUtils {
         } else {
             //Here its time to compute the balance to put apart, if any
             balance = (Amount) balancesResponse.getResponseObject();
-            balance = Global.frozenBalancesManager.removeFrozenAmount(balance, Global.frozenBalancesManager.getFrozenAmount());
-            oneNBT = Utils.round(1 / Global.conversion, Settings.DEFAULT_PRECISION);
+            balance = Global.session().frozenBalancesManager.removeFrozenAmount(balance, Global.session().frozenBalancesManager.getFrozenAmount());
+            oneNBT = Utils.round(1 / Global.session().conversion, Settings.DEFAULT_PRECISION);
         }
         if (SessionManager.sessionInterrupted()) return false;
 
@@ -211,12 +215,12 @@ public class StrategySecondaryPegUtils {
 
         //Update TX fee :
         //Get the current transaction fee associated with a specific CurrencyPair
-        ApiResponse txFeeNTBPEGResponse = Global.exchange.getTrade().getTxFee(Global.options.getPair());
+        ApiResponse txFeeNTBPEGResponse = Global.session().exchange.getTrade().getTxFee(Global.session().options.getPair());
         if (SessionManager.sessionInterrupted()) return false;
 
         //short hand variables
-        double maxSell = Global.options.getMaxSellVolume();
-        double maxBuy = Global.options.getMaxBuyVolume();
+        double maxSell = Global.session().options.getMaxSellVolume();
+        double maxBuy = Global.session().options.getMaxBuyVolume();
 
         LOG.debug("balance " + balance + " maxBuy " + maxBuy + ". maxSell " + maxSell);
 
@@ -235,7 +239,7 @@ public class StrategySecondaryPegUtils {
             }
 
 
-            if (type.equals(Constant.BUY) && !Global.swappedPair) {
+            if (type.equals(Constant.BUY) && !Global.session().swappedPair) {
                 amount1 = Utils.round(amount1 / price, Settings.DEFAULT_PRECISION);
                 LOG.debug("buy: => amount " + amount1);
                 //check the calculated amount against the max buy amount option, if any.
@@ -247,7 +251,7 @@ public class StrategySecondaryPegUtils {
             }
             if (SessionManager.sessionInterrupted()) return false;
 
-            success = Global.orderManager.executeOrder(type, Global.options.getPair(), amount1, price);
+            success = Global.session().orderManager.executeOrder(type, Global.session().options.getPair(), amount1, price);
             if (!success)
                 return false;
 
@@ -261,13 +265,13 @@ public class StrategySecondaryPegUtils {
             if (SessionManager.sessionInterrupted()) return false;
 
             //read balance again
-            ApiResponse balancesResponse2 = Global.exchange.getTrade().getAvailableBalance(currency);
+            ApiResponse balancesResponse2 = Global.session().exchange.getTrade().getAvailableBalance(currency);
             if (balancesResponse2.isPositive()) {
 
                 balance = (Amount) balancesResponse2.getResponseObject();
 
                 if (type.equals(Constant.BUY)) {
-                    balance = Global.frozenBalancesManager.removeFrozenAmount(balance, Global.frozenBalancesManager.getFrozenAmount());
+                    balance = Global.session().frozenBalancesManager.removeFrozenAmount(balance, Global.session().frozenBalancesManager.getFrozenAmount());
                 }
 
 
@@ -280,8 +284,8 @@ public class StrategySecondaryPegUtils {
                         amount2 = maxSell / 2;
                 }
 
-                if ((type.equals(Constant.BUY) && !Global.swappedPair)
-                        || (type.equals(Constant.SELL) && Global.swappedPair)) {
+                if ((type.equals(Constant.BUY) && !Global.session().swappedPair)
+                        || (type.equals(Constant.SELL) && Global.session().swappedPair)) {
                     //hotfix
                     amount2 = Utils.round(amount2 - (oneNBT * 0.9), Settings.DEFAULT_PRECISION); //multiply by .9 to keep it below one NBT
 
@@ -298,7 +302,7 @@ public class StrategySecondaryPegUtils {
                 //execute second order
                 if (SessionManager.sessionInterrupted()) return false;
 
-                success = Global.orderManager.executeOrder(type, Global.options.getPair(), amount2, price);
+                success = Global.session().orderManager.executeOrder(type, Global.session().options.getPair(), amount2, price);
                 if (!success)
                     return false;
 
@@ -315,22 +319,22 @@ public class StrategySecondaryPegUtils {
     public void recount() {
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
-        ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalances(Global.options.getPair());
+        ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalances(Global.session().options.getPair());
         if (balancesResponse.isPositive()) {
             PairBalance balance = (PairBalance) balancesResponse.getResponseObject();
             double balanceNBT = balance.getNBTAvailable().getQuantity();
-            double balancePEG = (Global.frozenBalancesManager.removeFrozenAmount(balance.getPEGAvailableBalance(), Global.frozenBalancesManager.getFrozenAmount())).getQuantity();
+            double balancePEG = (Global.session().frozenBalancesManager.removeFrozenAmount(balance.getPEGAvailableBalance(), Global.session().frozenBalancesManager.getFrozenAmount())).getQuantity();
 
             strategy.setOrdersAndBalancesOK(false);
 
-            double oneNBT = Utils.round(1 / Global.conversion, Settings.DEFAULT_PRECISION);
+            double oneNBT = Utils.round(1 / Global.session().conversion, Settings.DEFAULT_PRECISION);
             if (SessionManager.sessionInterrupted()) return; //external interruption
 
-            Global.orderManager.fetchOrders();
-            int activeSellOrders = Global.orderManager.getNumActiveSellOrders();
-            int activeBuyOrders = Global.orderManager.getNumActiveBuyOrders();
+            Global.session().orderManager.fetchOrders();
+            int activeSellOrders = Global.session().orderManager.getNumActiveSellOrders();
+            int activeBuyOrders = Global.session().orderManager.getNumActiveBuyOrders();
 
-            if (Global.options.isDualSide()) {
+            if (Global.session().options.isDualSide()) {
 
                 boolean correctOrders = (activeSellOrders == 2 && activeBuyOrders == 2)
                         || (activeSellOrders == 2 && activeBuyOrders == 0 && balancePEG < oneNBT)
@@ -341,9 +345,9 @@ public class StrategySecondaryPegUtils {
 
 
                 if (balancePEG > oneNBT
-                        && Global.options.getPair().getPaymentCurrency().isFiat()
+                        && Global.session().options.getPair().getPaymentCurrency().isFiat()
                         && !strategy.isFirstTime()
-                        && Global.options.getMaxBuyVolume() != 0) { //Only for EUR...CNY etc
+                        && Global.session().options.getMaxBuyVolume() != 0) { //Only for EUR...CNY etc
                     LOG.warn("The " + balance.getPEGAvailableBalance().getCurrency().getCode() + " balance is not zero (" + balancePEG + " ). If the balance represent proceedings "
                             + "from a sale the bot will notice.  On the other hand, If you keep seying this message repeatedly over and over, you should restart the bot. ");
                     strategy.setProceedsInBalance(true);
@@ -365,7 +369,7 @@ public class StrategySecondaryPegUtils {
 
         LOG.info("aggregateAndKeepProceeds");
 
-        boolean cancel = Global.orderManager.takeDownOrders(Constant.BUY, Global.options.getPair());
+        boolean cancel = Global.session().orderManager.takeDownOrders(Constant.BUY, Global.session().options.getPair());
         if (!cancel) {
             LOG.error("An error occurred while attempting to cancel buy orders.");
             return;
@@ -373,15 +377,7 @@ public class StrategySecondaryPegUtils {
 
         //get the balance and see if it does still require an aggregation
 
-        Global.frozenBalancesManager.freezeNewFunds();
-
-        //Introuce an aleatory sleep time to desync bots at the time of placing orders.
-        //This will favour competition in markets with multiple custodians
-        try {
-            Thread.sleep(Utils.randInt(0, MAX_RANDOM_WAIT_SECONDS) * 1000);
-        } catch (InterruptedException ex) {
-            LOG.error(ex.toString());
-        }
+        Global.session().frozenBalancesManager.freezeNewFunds();
 
         double buyPrice = strategy.getBuyPricePEG();
         LOG.info("init buy orders. price " + buyPrice);
@@ -391,6 +387,30 @@ public class StrategySecondaryPegUtils {
     }
 
 
+    /**
+     * bring the ladders of both sides in line with the liquidity model at the given peg, see LadderManager.
+     * Replaces the walls with options.distributeLiquidity
+     *
+     * @param pegPrice value of one unit of the payment currency in USD
+     */
+    public boolean syncLadder(double pegPrice) {
+        return Global.session().ladderManager.sync(pegPrice);
+    }
+
+    /**
+     * move the ladders to a new peg : only the levels out of place are replaced
+     */
+    public boolean shiftLadder(double pegPrice) {
+        strategy.getPriceMonitorTask().setWallsBeingShifted(true);
+        strategy.getSendLiquidityTask().setWallsBeingShifted(true);
+        try {
+            return syncLadder(pegPrice);
+        } finally {
+            strategy.getPriceMonitorTask().setWallsBeingShifted(false);
+            strategy.getSendLiquidityTask().setWallsBeingShifted(false);
+        }
+    }
+
     public boolean shiftWalls() {
         if (SessionManager.sessionInterrupted()) return false; //external interruption
 
@@ -417,7 +437,7 @@ public class StrategySecondaryPegUtils {
         double buyPrice = strategy.getBuyPricePEG();
 
         //Swap prices
-        if (Global.swappedPair) {
+        if (Global.session().swappedPair) {
             sellPrice = strategy.getBuyPricePEG();
             buyPrice = strategy.getSellPricePEG();
         }
@@ -426,32 +446,23 @@ public class StrategySecondaryPegUtils {
         if (SessionManager.sessionInterrupted()) return false; //external interruption
 
         //immediately try to : cancel all active orders
-        ApiResponse deleteOrdersResponse = Global.exchange.getTrade().clearOrders(Global.options.getPair());
+        ApiResponse deleteOrdersResponse = Global.session().exchange.getTrade().clearOrders(Global.session().options.getPair());
         if (SessionManager.sessionInterrupted()) return false; //external interruption
 
         if (deleteOrdersResponse.isPositive()) {
             boolean deleted = (boolean) deleteOrdersResponse.getResponseObject();
             if (deleted) {
                 LOG.warn("Orders deleted");
-                if (Global.options.isMultipleCustodians()) {
-                    //Introuce an aleatory sleep time to desync bots at the time of placing orders.
-                    //This will favour competition in markets with multiple custodians
-                    if (SessionManager.sessionInterrupted()) return false; //external interruption
-
-                    try {
-                        Thread.sleep(SHORT_WAIT_SECONDS + Utils.randInt(0, MAX_RANDOM_WAIT_SECONDS) * 1000); //SHORT_WAIT_SECONDS gives the time to other bots to take down their order
-                    } catch (InterruptedException ex) {
-                        LOG.error(ex.toString());
-                    }
-                }
+                //With multiple custodians no wait is needed here : the price monitor triggers
+                //the shift at the start of the slot owned by this custodian (see SlotScheduler)
                 if (SessionManager.sessionInterrupted()) return false; //external interruption
 
                 //Update frozen balances
-                if (!Global.options.isDualSide() //Do not do this for sell side custodians or...
-                        || !Global.options.getPair().getPaymentCurrency().isFiat()) //...do not do this for stable secondary pegs (e.g EUR)
+                if (!Global.session().options.isDualSide() //Do not do this for sell side custodians or...
+                        || !Global.session().options.getPair().getPaymentCurrency().isFiat()) //...do not do this for stable secondary pegs (e.g EUR)
                 {
                     // update the initial balance of the secondary peg
-                    Global.frozenBalancesManager.freezeNewFunds();
+                    Global.session().frozenBalancesManager.freezeNewFunds();
                 }
 
 
@@ -465,7 +476,7 @@ public class StrategySecondaryPegUtils {
                 }
 
                 if (initSells) { //Only move the buy orders if sure that the sell have been taken down
-                    if (Global.options.isDualSide()) {
+                    if (Global.session().options.isDualSide()) {
                         boolean initBuys;
                         if (SessionManager.sessionInterrupted()) return false; //external interruption
 
@@ -0,0 +1,404 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.strategy;
+
+import com.nubits.nubot.bot.BotSession;
+import com.nubits.nubot.bot.Global;
+import com.nubits.nubot.global.Constant;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.Amount;
+import com.nubits.nubot.models.Currency;
+import com.nubits.nubot.models.CurrencyPair;
+import com.nubits.nubot.models.Order;
+import com.nubits.nubot.models.OrderToPlace;
+import com.nubits.nubot.tasks.PriceMonitorTriggerTask;
+import com.nubits.nubot.utils.FilesystemUtils;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State of a strategy saved while it runs, so that a restarted bot can take over the orders left on the exchange
+ * instead of clearing them and placing its walls again : the order ledger, the wall prices and the peg price they
+ * were computed with, the moving average window of the price monitor and the frozen-balance baseline.
+ * Saved through a temporary file renamed over the previous one, see FilesystemUtils.writeAtomically
+ */
+public class StrategyCheckpoint {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StrategyCheckpoint.class.getName());
+
+    //path -> state of the strategy last saved there, see record
+    private static final ConcurrentHashMap<String, String> recorded = new ConcurrentHashMap<>();
+
+    private final long timestamp;
+    private final double sellPrice;
+    private final double buyPrice;
+    private final double conversion;
+    private final double[] priceWindow;
+    private final double amountAlreadyThere;
+    private final ArrayList<Order> orders;
+
+    public StrategyCheckpoint(long timestamp, double sellPrice, double buyPrice, double conversion,
+                              double[] priceWindow, double amountAlreadyThere, List<Order> orders) {
+        this.timestamp = timestamp;
+        this.sellPrice = sellPrice;
+        this.buyPrice = buyPrice;
+        this.conversion = conversion;
+        this.priceWindow = priceWindow.clone();
+        this.amountAlreadyThere = amountAlreadyThere;
+        this.orders = new ArrayList<>(orders);
+    }
+
+    /**
+     * checkpoint of the running strategy, taken from the session with the orders last fetched by the order manager
+     *
+     * @param sellPrice price of the sell walls, 0 if not tracked
+     * @param buyPrice  price of the buy walls, 0 if not tracked
+     */
+    public static StrategyCheckpoint capture(double sellPrice, double buyPrice) {
+        BotSession session = Global.session();
+        double[] window = new double[0];
+        if (session.taskManager != null && session.taskManager.getPriceTriggerTask() != null) {
+            TimerTask task = session.taskManager.getPriceTriggerTask().getTask();
+            if (task instanceof PriceMonitorTriggerTask) {
+                window = ((PriceMonitorTriggerTask) task).getPriceStats().values();
+            }
+        }
+        double already = session.frozenBalancesManager != null ? session.frozenBalancesManager.getAmountAlreadyThere().getQuantity() : 0;
+        List<Order> orders = session.orderManager.getOrderList();
+        if (orders == null) {
+            orders = new ArrayList<>(); //not fetched yet
+        }
+        return new StrategyCheckpoint(System.currentTimeMillis(), sellPrice, buyPrice, session.conversion, window, already, orders);
+    }
+
+    /**
+     * save a checkpoint of the running strategy with the active orders.
+     * The orders fetched by the strategy cycle are reused : they are fetched again only once orders were placed or
+     * cancelled, or after Settings.ORDER_MAX_INTERVAL.
+     * Nothing is written while the orders, the wall prices, the peg and the frozen-balance baseline stay the same
+     */
+    public static void record(double sellPrice, double buyPrice) {
+        if (!Global.session().options.isWarmRestart()) {
+            return;
+        }
+        Global.session().orderManager.fetchTimeBound(Settings.ORDER_MAX_INTERVAL);
+        StrategyCheckpoint checkpoint = capture(sellPrice, buyPrice);
+        String path = path(Global.session().options.getExchangeName(), Global.session().options.getPair());
+        String state = checkpoint.state();
+        if (state.equals(recorded.get(path))) {
+            return;
+        }
+        if (checkpoint.save(path)) {
+            recorded.put(path, state);
+        }
+    }
+
+    /**
+     * what a restarted strategy relies on, without the time and the moving average window
+     */
+    public String state() {
+        ArrayList<String> ledger = new ArrayList<>();
+        for (Order order : orders) {
+            ledger.add(order.getId() + ":" + order.getType() + ":" + order.getPrice().getQuantity() + ":" + order.getAmount().getQuantity());
+        }
+        Collections.sort(ledger);
+        return sellPrice + ";" + buyPrice + ";" + conversion + ";" + amountAlreadyThere + ";" + ledger;
+    }
+
+    /**
+     * update the saved checkpoint with the active orders, keeping the prices recorded by the strategy.
+     * Used when the bot stops and leaves its orders on the exchange
+     *
+     * @return false if there is no checkpoint to update : the orders should be cleared
+     */
+    public static boolean refresh() {
+        if (!Global.session().options.isWarmRestart()) {
+            return false;
+        }
+        String path = path(Global.session().options.getExchangeName(), Global.session().options.getPair());
+        if (Global.session().checkpoint != null) {
+            return true; //the orders of the previous run were not adopted yet : their checkpoint still holds
+        }
+        //the checkpoint is written only on changes : its age does not matter here
+        StrategyCheckpoint last = read(path, Global.session().options.getPair());
+        if (last == null) {
+            return false;
+        }
+        Global.session().orderManager.fetchOrders();
+        StrategyCheckpoint checkpoint = capture(last.getSellPrice(), last.getBuyPrice());
+        if (!checkpoint.save(path)) {
+            return false;
+        }
+        recorded.put(path, checkpoint.state());
+        return true;
+    }
+
+    public static String path(String exchangeName, CurrencyPair pair) {
+        return Settings.CHECKPOINT_PATH + pair.toStringSep() + "-" + exchangeName + "-checkpoint.json";
+    }
+
+    public boolean save(String path) {
+        return FilesystemUtils.writeAtomically(toJSON().toJSONString(), path);
+    }
+
+    /**
+     * @return the checkpoint saved at path, null if there is none, it cannot be read or it is older than
+     * Settings.WARM_RESTART_MAX_AGE
+     */
+    public static StrategyCheckpoint load(String path, CurrencyPair pair, long now) {
+        StrategyCheckpoint checkpoint = read(path, pair);
+        if (checkpoint == null) {
+            return null;
+        }
+        long age = now - checkpoint.getTimestamp();
+        if (age > Settings.WARM_RESTART_MAX_AGE) {
+            LOG.info("Ignoring the strategy checkpoint " + path + ", " + age / 1000 + " seconds old");
+            return null;
+        }
+        return checkpoint;
+    }
+
+    private static StrategyCheckpoint read(String path, CurrencyPair pair) {
+        if (!new File(path).exists()) {
+            return null;
+        }
+        try {
+            JSONObject json = (JSONObject) new JSONParser().parse(FilesystemUtils.readFromFile(path));
+            return fromJSON(json, pair);
+        } catch (ParseException | ClassCastException | NullPointerException e) {
+            LOG.error("Unable to read the strategy checkpoint " + path + " : " + e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * forget the checkpoint, once its orders have been cleared
+     */
+    public static void discard(String path) {
+        recorded.remove(path);
+        File file = new File(path);
+        if (file.exists() && !file.delete()) {
+            LOG.error("Unable to delete the strategy checkpoint " + path);
+        }
+    }
+
+    /**
+     * take over the orders of the session checkpoint still active on the exchange, if any :
+     * restore the frozen-balance baseline and cancel the active orders which are not in the checkpoint.
+     * The checkpoint is consumed : later re-initializations start from scratch
+     *
+     * @param sellPrice current price of the sell walls, 0 not to compare prices
+     * @param buyPrice  current price of the buy walls, 0 not to compare prices
+     * @return what was adopted, null if nothing was (the strategy starts from scratch)
+     */
+    public static Reconciliation adopt(double sellPrice, double buyPrice, Currency frozenCurrency) {
+        StrategyCheckpoint checkpoint = Global.session().checkpoint;
+        Global.session().checkpoint = null;
+        if (checkpoint == null) {
+            return null;
+        }
+        OrderManager orderManager = Global.session().orderManager;
+        orderManager.fetchOrders();
+        if (orderManager.getOrderList() == null) {
+            LOG.error("Warm restart : unable to fetch the active orders, the orders of the previous run are not adopted");
+            return null;
+        }
+        //only the orders of the ledger still active on the exchange are adopted
+        Reconciliation reconciliation = checkpoint.reconcile(orderManager.getOrderList(), sellPrice, buyPrice);
+        LOG.info("Warm restart : " + reconciliation);
+        for (Order order : reconciliation.getMissing()) {
+            LOG.warn("Order " + order.getId() + " of the checkpoint is no longer active on the exchange");
+        }
+        if (reconciliation.getAdopted().isEmpty()) {
+            return null;
+        }
+
+        Global.session().frozenBalancesManager.setAmountAlreadyThere(new Amount(checkpoint.getAmountAlreadyThere(), frozenCurrency));
+        if (!reconciliation.getToCancel().isEmpty()) {
+            orderManager.submitBatch(reconciliation.getToCancel(), new ArrayList<OrderToPlace>());
+            orderManager.fetchOrders();
+        }
+        return reconciliation;
+    }
+
+    /**
+     * sort the active orders : those of the checkpoint on the right side and at the price of their side are adopted,
+     * the others are to cancel. Orders of the checkpoint no longer active were filled or cancelled meanwhile
+     */
+    public Reconciliation reconcile(List<Order> active, double sellPrice, double buyPrice) {
+        HashMap<String, Order> ledger = new HashMap<>();
+        for (Order order : orders) {
+            ledger.put(order.getId(), order);
+        }
+        Reconciliation reconciliation = new Reconciliation();
+        HashSet<String> seen = new HashSet<>();
+        for (Order order : active) {
+            Order known = ledger.get(order.getId());
+            double price = Constant.SELL.equalsIgnoreCase(order.getType()) ? sellPrice : buyPrice;
+            if (known != null && known.getType().equalsIgnoreCase(order.getType()) && priceMatches(order, price)) {
+                reconciliation.adopted.add(order);
+                seen.add(order.getId());
+            } else {
+                reconciliation.toCancel.add(order);
+            }
+        }
+        for (Order order : orders) {
+            if (!seen.contains(order.getId())) {
+                reconciliation.missing.add(order);
+            }
+        }
+        return reconciliation;
+    }
+
+    private static boolean priceMatches(Order order, double price) {
+        if (price <= 0) {
+            return true;
+        }
+        double distance = Math.abs(order.getPrice().getQuantity() - price) / price * 100;
+        return distance <= Settings.WARM_RESTART_PRICE_TOLERANCE;
+    }
+
+    public JSONObject toJSON() {
+        JSONObject json = new JSONObject();
+        json.put("timestamp", timestamp);
+        json.put("sellPrice", sellPrice);
+        json.put("buyPrice", buyPrice);
+        json.put("conversion", conversion);
+        json.put("amountAlreadyThere", amountAlreadyThere);
+        JSONArray window = new JSONArray();
+        for (double price : priceWindow) {
+            window.add(price);
+        }
+        json.put("priceWindow", window);
+        JSONArray ledger = new JSONArray();
+        for (Order order : orders) {
+            JSONObject o = new JSONObject();
+            o.put("id", order.getId());
+            o.put("type", order.getType());
+            o.put("price", order.getPrice().getQuantity());
+            o.put("amount", order.getAmount().getQuantity());
+            ledger.add(o);
+        }
+        json.put("orders", ledger);
+        return json;
+    }
+
+    public static StrategyCheckpoint fromJSON(JSONObject json, CurrencyPair pair) {
+        JSONArray window = (JSONArray) json.get("priceWindow");
+        double[] priceWindow = new double[window.size()];
+        for (int i = 0; i < priceWindow.length; i++) {
+            priceWindow[i] = ((Number) window.get(i)).doubleValue();
+        }
+        ArrayList<Order> orders = new ArrayList<>();
+        for (Object o : (JSONArray) json.get("orders")) {
+            JSONObject order = (JSONObject) o;
+            orders.add(new Order((String) order.get("id"), new Date(), (String) order.get("type"), pair,
+                    new Amount(((Number) order.get("amount")).doubleValue(), pair.getOrderCurrency()),
+                    new Amount(((Number) order.get("price")).doubleValue(), pair.getPaymentCurrency())));
+        }
+        return new StrategyCheckpoint(((Number) json.get("timestamp")).longValue(),
+                ((Number) json.get("sellPrice")).doubleValue(),
+                ((Number) json.get("buyPrice")).doubleValue(),
+                ((Number) json.get("conversion")).doubleValue(),
+                priceWindow,
+                ((Number) json.get("amountAlreadyThere")).doubleValue(),
+                orders);
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public double getSellPrice() {
+        return sellPrice;
+    }
+
+    public double getBuyPrice() {
+        return buyPrice;
+    }
+
+    public double getConversion() {
+        return conversion;
+    }
+
+    public double[] getPriceWindow() {
+        return priceWindow.clone();
+    }
+
+    public double getAmountAlreadyThere() {
+        return amountAlreadyThere;
+    }
+
+    public ArrayList<Order> getOrders() {
+        return new ArrayList<>(orders);
+    }
+
+    /**
+     * active orders sorted against a checkpoint
+     */
+    public static class Reconciliation {
+
+        private final ArrayList<Order> adopted = new ArrayList<>();
+        private final ArrayList<Order> toCancel = new ArrayList<>();
+        private final ArrayList<Order> missing = new ArrayList<>();
+
+        public ArrayList<Order> getAdopted() {
+            return adopted;
+        }
+
+        public ArrayList<Order> getToCancel() {
+            return toCancel;
+        }
+
+        public ArrayList<Order> getMissing() {
+            return missing;
+        }
+
+        public int countAdopted(String type) {
+            int count = 0;
+            for (Order order : adopted) {
+                if (order.getType().equalsIgnoreCase(type)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return adopted.size() + " orders adopted (" + countAdopted(Constant.SELL) + " sells, " + countAdopted(Constant.BUY)
+                    + " buys), " + toCancel.size() + " to cancel, " + missing.size() + " gone since the checkpoint";
+        }
+    }
+}
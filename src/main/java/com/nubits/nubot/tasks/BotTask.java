@@ -18,24 +18,35 @@
 
 package com.nubits.nubot.tasks;
 
+import com.nubits.nubot.bot.BotSession;
+import com.nubits.nubot.bot.Global;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Timer;
 import java.util.TimerTask;
-
-
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A periodic task of a bot session. Tasks of all sessions are timed by the shared Global.scheduler and run on
+ * Global.taskWorkers, each execution bound to the session which created the task.
+ * An execution is skipped while the previous one is still running
+ */
 public class BotTask {
 
     private static final Logger LOG = LoggerFactory.getLogger(BotTask.class.getName());
-    private Timer timer;
+    private ScheduledFuture<?> future;
+    private final BotSession session;
     private boolean running;
+    private final AtomicBoolean executing = new AtomicBoolean();
     private long interval; //expressed in seconds
     private TimerTask task;
     private String name;
 
     public BotTask(TimerTask task, int interval, String name) {
-        this.timer = new Timer(name);
+        this.session = Global.session();
         this.running = false;
 
         this.name = name;
@@ -52,8 +63,7 @@ public class BotTask {
     }
 
     public void start() {
-        timer.scheduleAtFixedRate(task, 0, interval * 1000);
-        setRunning(true);
+        schedule(0);
         LOG.info("Started BotTask " + this.name);
     }
 
@@ -61,15 +71,58 @@ public class BotTask {
 
 
         LOG.info("BotTask [" + this.name + "] will start in " + delay + "s, and run it every " + interval + "s");
-        timer.scheduleAtFixedRate(task, delay * 1000, interval * 1000);
+        schedule(delay);
+    }
+
+    private void schedule(int delay) {
+        if (running) {
+            LOG.warn("BotTask " + name + " already running");
+            return;
+        }
+        final String threadName = session.name + "-" + name;
+        final Runnable execution = new Runnable() {
+            @Override
+            public void run() {
+                Thread thread = Thread.currentThread();
+                String poolName = thread.getName();
+                thread.setName(threadName);
+                Global.bindSession(session);
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    LOG.error("BotTask " + name + " failed : " + e.toString());
+                } finally {
+                    Global.unbindSession();
+                    thread.setName(poolName);
+                    executing.set(false);
+                }
+            }
+        };
+        future = Global.scheduler.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                if (!executing.compareAndSet(false, true)) {
+                    LOG.debug("BotTask " + name + " still running, skipping an execution");
+                    return;
+                }
+                try {
+                    Global.taskWorkers.execute(execution);
+                } catch (RejectedExecutionException e) {
+                    executing.set(false);
+                    LOG.error("BotTask " + name + " could not run : " + e.toString());
+                }
+            }
+        }, delay * 1000L, interval * 1000, TimeUnit.MILLISECONDS);
         setRunning(true);
     }
 
     public void stop() {
         LOG.debug("Stopping " + this.name + " (" + this + ")");
         task.cancel();
-        timer.cancel();
-        timer.purge();
+        if (future != null) {
+            future.cancel(false);
+        }
+        Global.scheduler.purge();
         setRunning(false);
         LOG.info("Stopped BotTask " + this.name);
     }
@@ -82,8 +135,8 @@ public class BotTask {
         this.running = running;
     }
 
-    public Timer getTimer() {
-        return timer;
+    public BotSession getSession() {
+        return session;
     }
 
     public void setInterval(long interval) {
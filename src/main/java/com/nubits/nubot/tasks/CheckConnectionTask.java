@@ -38,9 +38,9 @@ public class CheckConnectionTask extends TimerTask {
     public void run() {
         //if (SessionManager.sessionShuttingDown || !SessionManager.isSessionRunning) return; //external interruption
         LOG.debug("Executing " + this.getClass());
-        this.url = Global.exchange.getLiveData().getUrlConnectionCheck();
-        Global.exchange.getLiveData().setConnected(isConnected());
-        LOG.debug("Checking connection to " + url + " -  Connected : " + Global.exchange.getLiveData().isConnected());
+        this.url = Global.session().exchange.getLiveData().getUrlConnectionCheck();
+        Global.session().exchange.getLiveData().setConnected(isConnected());
+        LOG.debug("Checking connection to " + url + " -  Connected : " + Global.session().exchange.getLiveData().isConnected());
     }
 
     public boolean isConnected() {
@@ -36,16 +36,16 @@ public class CheckNudTask extends TimerTask {
 
         LOG.info("Executing " + this.getClass());
 
-        if (Global.rpcClient != null) {
-            Global.rpcClient.checkConnection();
+        if (Global.session().rpcClient != null) {
+            Global.session().rpcClient.checkConnection();
             if (SessionManager.sessionInterrupted()) return; //external interruption
 
-            if (Global.options.verbose) {
+            if (Global.session().options.verbose) {
                 String connectedString = "offline";
-                if (Global.rpcClient.isConnected()) {
+                if (Global.session().rpcClient.isConnected()) {
                     connectedString = "online";
                 }
-                LOG.info("Nud is " + connectedString + " @ " + Global.rpcClient.getIp() + ":" + Global.rpcClient.getPort());
+                LOG.info("Nud is " + connectedString + " @ " + Global.session().rpcClient.getIp() + ":" + Global.session().rpcClient.getPort());
             }
         }
     }
@@ -18,49 +18,59 @@
 
 package com.nubits.nubot.tasks;
 
+import com.nubits.nubot.bot.BotSession;
 import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.bot.NuBotConnectionException;
 import com.nubits.nubot.bot.SessionManager;
 import com.nubits.nubot.global.Constant;
 import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.Amount;
 import com.nubits.nubot.models.ApiResponse;
 import com.nubits.nubot.models.BidAskPair;
 import com.nubits.nubot.models.LastPrice;
 import com.nubits.nubot.notifications.HipChatNotifications;
 import com.nubits.nubot.notifications.MailNotifications;
+import com.nubits.nubot.pricefeeds.PriceConsensus;
+import com.nubits.nubot.pricefeeds.PriceFeedCache;
 import com.nubits.nubot.pricefeeds.PriceFeedManager;
+import com.nubits.nubot.pricefeeds.PriceListener;
+import com.nubits.nubot.pricefeeds.history.TickStore;
+import com.nubits.nubot.strategy.StrategyCheckpoint;
+import com.nubits.nubot.strategy.Secondary.SecondaryPegPricing;
 import com.nubits.nubot.strategy.Secondary.StrategySecondaryPegTask;
 import com.nubits.nubot.utils.FilesystemUtils;
+import com.nubits.nubot.utils.HistoryJournal;
+import com.nubits.nubot.utils.RollingStats;
 import com.nubits.nubot.utils.Utils;
 import io.evanwong.oss.hipchat.v2.rooms.MessageColor;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A task for monitoring prices and triggering actions
  */
-public class PriceMonitorTriggerTask extends TimerTask {
+public class PriceMonitorTriggerTask extends TimerTask implements PriceListener {
 
     private static final int REFRESH_OFFSET = 1000; //this is how close to the refresh interval is considered a fail (millisecond)
     private static final int PRICE_PERCENTAGE = 10; //this is the percentage at which refresh action is taken
     private static final Logger LOG = LoggerFactory.getLogger(PriceMonitorTriggerTask.class.getName());
-    private static int SLEEP_COUNT = 0;
-    private final int MOVING_AVERAGE_SIZE = 30; //this is how many elements the Moving average queue holds
+    private int SLEEP_COUNT = 0;
+    private final int MOVING_AVERAGE_SIZE = Settings.PRICE_STATS_WINDOWS[0]; //this is how many prices the moving average is computed on
     /**
      * threshold for signaling a deviation of prices
      */
     private final double DISTANCE_TRESHHOLD = 10;
     private final int MAX_ATTEMPTS = 5;
     protected PriceFeedManager pfm = null;
-    //set up a Queue to hold the prices used to calculate the moving average of prices
-    protected Queue<Double> queueMA = new LinkedList<>();
+    //rolling statistics of the prices, the moving average among them
+    protected RollingStats priceStats = new RollingStats(Settings.PRICE_STATS_EWMA_ALPHA, Settings.PRICE_STATS_WINDOWS);
     protected LastPrice lastPrice;
     protected ArrayList<LastPrice> lastPrices;
     private double wallchangeThreshold;
@@ -72,10 +82,12 @@ public class PriceMonitorTriggerTask extends TimerTask {
     private boolean wallsBeingShifted = false;
     private BidAskPair bidask;
     private StrategySecondaryPegTask strategy = null;
-    private int count;
+    private final RetryBackoff retries = new RetryBackoff(MAX_ATTEMPTS);
+    private volatile ScheduledFuture<?> pendingUpdate;
+    private long lastQuoteTrigger = 0;
     private boolean isFirstTimeExecution = true;
-    private String wallshiftsFilePathCSV = Global.sessionLogFolder + "/" + Settings.WALLSHIFTS_FILENAME + ".csv";
-    private String wallshiftsFilePathJSON = Global.sessionLogFolder + "/" + Settings.WALLSHIFTS_FILENAME + ".json";
+    private String wallshiftsFilePathCSV = Global.session().sessionLogFolder + "/" + Settings.WALLSHIFTS_FILENAME + ".csv";
+    private HistoryJournal wallshiftsJournal = new HistoryJournal(Global.session().sessionLogFolder + "/" + Settings.WALLSHIFTS_FILENAME + HistoryJournal.EXTENSION);
     private String emailHistory = "";
     private Long currentTime = null;
     private boolean first = true;
@@ -83,6 +95,8 @@ public class PriceMonitorTriggerTask extends TimerTask {
     private final int PR = Settings.DEFAULT_PRECISION;
 
     public void init() {
+        Global.session().tickStore = new TickStore(Global.session().sessionLogFolder + "/" + Settings.PRICE_TICKS_FILENAME);
+
         File c = new File(this.wallshiftsFilePathCSV);
         if (!c.exists()) {
             try {
@@ -93,20 +107,16 @@ public class PriceMonitorTriggerTask extends TimerTask {
         }
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
-        FilesystemUtils.writeToFile("timestamp,source,crypto,price,currency,sellprice,buyprice,otherfeeds\n", wallshiftsFilePathCSV, true);
+        FilesystemUtils.appendToSegments("timestamp,source,crypto,price,currency,sellprice,buyprice,otherfeeds\n", wallshiftsFilePathCSV);
 
-        //create json file if it doesn't already exist
-        File json = new File(this.wallshiftsFilePathJSON);
-        if (!json.exists()) {
-            try {
-                json.createNewFile();
-            } catch (Exception e) {
-                LOG.error("error creating " + json);
+        //warm restart : resume the moving average of the previous run rather than filling it with the first price
+        StrategyCheckpoint checkpoint = Global.session().checkpoint;
+        if (checkpoint != null && checkpoint.getPriceWindow().length >= MOVING_AVERAGE_SIZE) {
+            priceStats.clear();
+            for (double price : checkpoint.getPriceWindow()) {
+                priceStats.add(price);
             }
-            JSONObject history = new JSONObject();
-            JSONArray wall_shifts = new JSONArray();
-            history.put("wall_shifts", wall_shifts);
-            FilesystemUtils.writeToFile(history.toJSONString(), this.wallshiftsFilePathJSON, true);
+            LOG.info("Moving average restored from the strategy checkpoint : " + getMovingAverage());
         }
     }
 
@@ -124,6 +134,11 @@ public class PriceMonitorTriggerTask extends TimerTask {
             LOG.info("running PriceMonitorTrigger for first time");
             init();
             first = false;
+            if (pfm != null) {
+                pfm.subscribe(this);
+                //quotes are recorded as they are fetched, by the periodic checks and the pollers alike
+                PriceFeedCache.recordTicks(pfm.getPair(), Global.session().tickStore);
+            }
         }
 
         //if a problem occurred we sleep for a period using the SLEEP_COUNTER
@@ -146,88 +161,155 @@ public class PriceMonitorTriggerTask extends TimerTask {
             LOG.error("PriceMonitorTriggerTask task needs a PriceFeedManager and a Strategy to work. Please assign it before running it");
 
         } else {
-            count = 1;
-            try {
-                executeUpdatePrice(count);
-                if (SessionManager.sessionInterrupted()) return; //external interruption
-            } catch (FeedPriceException e) {
-                LOG.error("" + e);
-                sendErrorNotification();
-                Global.exchange.getTrade().clearOrders(Global.options.getPair());
-                if (SessionManager.sessionInterrupted()) return; //external interruption
-            }
+            updatePrice(false);
+        }
+
+    }
+
+    @Override
+    public boolean cancel() {
+        if (pfm != null) {
+            pfm.unsubscribe();
+            PriceFeedCache.stopRecording(pfm.getPair(), Global.session().tickStore);
+        }
+        cancelPendingUpdate();
+        retries.reset();
+        return super.cancel();
+    }
+
+    /**
+     * called on every new quote of a feed, between the periodic checks.
+     * A quote further than wallchangeThreshold from the current wall price triggers a full price check right away :
+     * the walls are shifted only if the feeds agree
+     *
+     * @param quote
+     */
+    @Override
+    public void onQuote(LastPrice quote) {
+        if (SessionManager.sessionInterrupted()) return; //external interruption
+        ScheduledFuture<?> pending = pendingUpdate;
+        if (currentWallPEGPrice == null || isWallsBeingShifted() || (pending != null && !pending.isDone())
+                || Global.session().options.isMultipleCustodians()) {
+            return;
+        }
+        double wallPrice = currentWallPEGPrice.getPrice().getQuantity();
+        double price = quote.getPrice().getQuantity();
+        if (!SecondaryPegPricing.needToMoveWalls(wallPrice, price, wallchangeThreshold)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - lastQuoteTrigger < Settings.FEED_QUOTE_TRIGGER_MIN_GAP) {
+            return;
         }
+        lastQuoteTrigger = now;
+        LOG.info(quote.getSource() + " quoted " + price + ", more than " + wallchangeThreshold + "% away from the wall price "
+                + wallPrice + ". Checking all feeds now");
+        scheduleUpdate(0, false);
+    }
 
+    /**
+     * fetch prices and update the wall price. Runs periodically and for the updates scheduled after a failure
+     *
+     * @param retry true for the update scheduled after a failure
+     */
+    private synchronized void updatePrice(boolean retry) {
+        try {
+            executeUpdatePrice(retry);
+        } catch (FeedPriceException e) {
+            LOG.error("" + e);
+            sendErrorNotification();
+            if (SessionManager.sessionInterrupted()) return; //external interruption
+            Global.session().exchange.getTrade().clearOrders(Global.session().options.getPair());
+        }
+    }
+
+    /**
+     * schedule an extra price update, timed by the shared scheduler and run on the task workers, replacing any pending one.
+     * The periodic updates keep running meanwhile
+     *
+     * @param delaySeconds
+     * @param retry         true if it retries a failed update
+     */
+    private void scheduleUpdate(long delaySeconds, final boolean retry) {
+        cancelPendingUpdate();
+        final BotSession session = Global.session();
+        final Runnable update = new Runnable() {
+            @Override
+            public void run() {
+                Global.bindSession(session);
+                try {
+                    if (SessionManager.sessionInterrupted()) return; //external interruption
+                    updatePrice(retry);
+                } catch (Exception e) {
+                    LOG.error("Scheduled price update failed : " + e.toString());
+                } finally {
+                    Global.unbindSession();
+                }
+            }
+        };
+        pendingUpdate = Global.scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                Global.taskWorkers.execute(update);
+            }
+        }, delaySeconds, TimeUnit.SECONDS);
+    }
+
+    private void cancelPendingUpdate() {
+        ScheduledFuture<?> pending = pendingUpdate;
+        if (pending != null) {
+            pending.cancel(false);
+            pendingUpdate = null;
+        }
     }
 
     private void initStrategy(double peg_price) throws NuBotConnectionException {
 
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
-        Global.conversion = peg_price; //used then for liquidity info
+        Global.session().conversion = peg_price; //used then for liquidity info
         //Compute the buy/sell prices in USD
 
         //get the TX fee
-        ApiResponse txFeeNTBPEGResponse = Global.exchange.getTrade().getTxFee(Global.options.getPair());
+        ApiResponse txFeeNTBPEGResponse = Global.session().exchange.getTrade().getTxFee(Global.session().options.getPair());
         if (!txFeeNTBPEGResponse.isPositive()) {
             throw new NuBotConnectionException("Cannot get txFee : " + txFeeNTBPEGResponse.getError().getDescription());
         }
 
         double txfee = (Double) txFeeNTBPEGResponse.getResponseObject();
 
-        sellPriceUSD = 1 + (0.01 * txfee);
-        if (!Global.options.isDualSide()) {
-            sellPriceUSD = sellPriceUSD + Global.options.getPriceIncrement();
-        }
-        buyPriceUSD = 1 - (0.01 * txfee);
-
-        //Add(remove) the offset % from prices
-
-        //compute half of the spread
-        double halfSpread = Utils.round(Global.options.getSpread() / 2, 6);
-
-        double offset = Utils.round(halfSpread / 100, 6);
-
-        LOG.debug("halfspread " + halfSpread);
-        LOG.debug("offset " + offset);
+        BidAskPair usdPrices = SecondaryPegPricing.computeUSDPrices(txfee, Global.session().options.getSpread(),
+                Global.session().options.isDualSide(), Global.session().options.getPriceIncrement());
+        sellPriceUSD = usdPrices.getAsk();
+        buyPriceUSD = usdPrices.getBid();
 
-        sellPriceUSD = sellPriceUSD + offset;
-        buyPriceUSD = buyPriceUSD - offset;
-
-        String message = "Computing USD prices with spread " + Global.options.getSpread() + "%  : sell @ " + sellPriceUSD;
-        if (Global.options.isDualSide()) {
+        String message = "Computing USD prices with spread " + Global.session().options.getSpread() + "%  : sell @ " + sellPriceUSD;
+        if (Global.session().options.isDualSide()) {
             message += " buy @ " + buyPriceUSD;
         }
         LOG.info(message);
 
         //convert sell price to PEG
-
-        double sellPricePEGInitial;
-        double buyPricePEGInitial;
-        if (Global.swappedPair) { //NBT as paymentCurrency
-            sellPricePEGInitial = Utils.round(Global.conversion * sellPriceUSD, PR);
-            buyPricePEGInitial = Utils.round(Global.conversion * buyPriceUSD, PR);
-        } else {
-            sellPricePEGInitial = Utils.round(sellPriceUSD / peg_price, PR);
-            buyPricePEGInitial = Utils.round(buyPriceUSD / peg_price, PR);
-        }
+        BidAskPair pegPrices = SecondaryPegPricing.convertToPEG(usdPrices, peg_price, Global.session().swappedPair);
+        double sellPricePEGInitial = pegPrices.getAsk();
+        double buyPricePEGInitial = pegPrices.getBid();
 
         //store first value
         this.bidask = new BidAskPair(buyPricePEGInitial, sellPricePEGInitial);
 
-        String message2 = "Converted price (using 1 " + Global.options.getPair().getPaymentCurrency().getCode() + " = " + peg_price + " USD)"
-                + " : sell @ " + sellPricePEGInitial + " " + Global.options.getPair().getPaymentCurrency().getCode() + "";
+        String message2 = "Converted price (using 1 " + Global.session().options.getPair().getPaymentCurrency().getCode() + " = " + peg_price + " USD)"
+                + " : sell @ " + sellPricePEGInitial + " " + Global.session().options.getPair().getPaymentCurrency().getCode() + "";
 
-        if (Global.options.isDualSide()) {
-            message2 += "; buy @ " + buyPricePEGInitial + " " + Global.options.getPair().getPaymentCurrency().getCode();
+        if (Global.session().options.isDualSide()) {
+            message2 += "; buy @ " + buyPricePEGInitial + " " + Global.session().options.getPair().getPaymentCurrency().getCode();
         }
         LOG.info(message2);
 
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
         //Assign prices
-        StrategySecondaryPegTask secTask = (StrategySecondaryPegTask) Global.taskManager.getSecondaryPegTask().getTask();
-        if (!Global.swappedPair) {
+        StrategySecondaryPegTask secTask = (StrategySecondaryPegTask) Global.session().taskManager.getSecondaryPegTask().getTask();
+        if (!Global.session().swappedPair) {
             secTask.setBuyPricePEG(buyPricePEGInitial);
             secTask.setSellPricePEG(sellPricePEGInitial);
         } else {
@@ -235,126 +317,94 @@ public class PriceMonitorTriggerTask extends TimerTask {
             secTask.setSellPricePEG(buyPricePEGInitial);
         }
         //Start strategy
-        Global.taskManager.getSecondaryPegTask().start();
+        Global.session().taskManager.getSecondaryPegTask().start();
 
         //Send email notification
-        String title = " production (" + Global.options.getExchangeName() + ") [" + pfm.getPair().toString() + "] price tracking started";
+        String title = " production (" + Global.session().options.getExchangeName() + ") [" + pfm.getPair().toString() + "] price tracking started";
         String tldr = pfm.getPair().getOrderCurrency().getCode().toUpperCase() + " price tracking started at " + peg_price + " " + pfm.getPair().getPaymentCurrency().getCode().toUpperCase() + ".\n"
-                + "Will send a new mail notification everytime the price of " + pfm.getPair().getOrderCurrency().getCode().toUpperCase() + " changes more than " + Global.options.getWallchangeThreshold() + "%.";
-        MailNotifications.send(Global.options.getMailRecipient(), title, tldr);
+                + "Will send a new mail notification everytime the price of " + pfm.getPair().getOrderCurrency().getCode().toUpperCase() + " changes more than " + Global.session().options.getWallchangeThreshold() + "%.";
+        MailNotifications.send(Global.session().options.getMailRecipient(), title, tldr);
 
     }
 
-    private void executeUpdatePrice(int countTrials) throws FeedPriceException {
+    private void executeUpdatePrice(boolean retry) throws FeedPriceException {
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
-        if (countTrials <= MAX_ATTEMPTS) {
-            if (SessionManager.sessionInterrupted()) return; //external interruption
+        pfm.fetchLastPrices();
+        ArrayList<LastPrice> currentPriceList = pfm.getLastPrices();
 
-            pfm.fetchLastPrices();
-            ArrayList<LastPrice> currentPriceList = pfm.getLastPrices();
+        LOG.debug("CheckLastPrice received values from " + currentPriceList.size() + "/" + pfm.getFeedList().size() + " remote feeds. ");
 
-            LOG.debug("CheckLastPrice received values from remote feeds. ");
+        //the healthiest feed is used when it agrees with the others (the main feed if all are healthy), otherwise the next one which does
+        PriceConsensus consensus = PriceConsensus.compute(currentPriceList, DISTANCE_TRESHHOLD, Settings.FEED_CONSENSUS_TRIM);
+        LOG.debug(consensus.toString());
 
-            boolean gotall = currentPriceList.size() == pfm.getFeedList().size();
+        if (consensus.isReached()) {
+            pfm.recordDeviations(consensus.getMedian());
+            retries.reset();
+            cancelPendingUpdate();
+            if (SessionManager.sessionInterrupted()) return; //external interruption
+            this.updateLastPrice(consensus.getReferencePrice(), currentPriceList);
+        } else {
+            unableToUpdatePrice(consensus, retry);
+        }
+    }
 
-            if (gotall) {
-                //All feeds returned a positive value
-                //Check if mainPrice is close enough to the others
-                // I am assuming that mainPrice is the first element of the list
-                if (sanityCheck(currentPriceList, 0)) {
-                    //mainPrice is reliable compared to the others
-                    if (SessionManager.sessionInterrupted()) return; //external interruption
-                    this.updateLastPrice(currentPriceList.get(0), currentPriceList);
+    private void unableToUpdatePrice(PriceConsensus consensus, boolean retry) throws FeedPriceException {
+        long delay = retries.failed(retry);
+        if (delay < 0) {
+            cancelPendingUpdate();
+            throw new FeedPriceException("The price has failed updating more than " + MAX_ATTEMPTS + " times in a row");
+        }
+        if (delay == 0) {
+            LOG.warn("Feeds do not agree on the price (" + consensus + "). A retry is already scheduled");
+            return;
+        }
+        LOG.warn("Feeds do not agree on the price (" + consensus + "). Trying again in " + delay / 60 + " minutes");
+        scheduleUpdate(delay, true);
+    }
 
-                } else {
-                    //mainPrice is not reliable compared to the others
-                    //Check if other backup prices are close enough to each other
-                    if (SessionManager.sessionInterrupted()) return; //external interruption
-                    boolean foundSomeValidBackUp = false;
-                    LastPrice goodPrice = null;
-                    for (int l = 1; l < currentPriceList.size(); l++) {
-                        if (sanityCheck(currentPriceList, l)) {
-                            goodPrice = currentPriceList.get(l);
-                            foundSomeValidBackUp = true;
-                            break;
-                        }
-                    }
-
-                    if (foundSomeValidBackUp) {
-                        //goodPrice is a valid price backup!
-                        if (SessionManager.sessionInterrupted()) return; //external interruption
-                        this.updateLastPrice(goodPrice, currentPriceList);
-                    } else {
-                        //None of the source are in accord with others.
-                        //Try to send a notification
-                        unableToUpdatePrice(currentPriceList);
-                    }
-                }
-            } else {
-                //One or more feed returned an error value
-                if (SessionManager.sessionInterrupted()) return; //external interruption
+    /**
+     * Counts the failed price updates in a row and spaces out their retries : one more minute after each failure.
+     * Only the updates of the retry chain count, a periodic update failing while a retry is pending does not
+     */
+    public static class RetryBackoff {
 
-                if (currentPriceList.size() == 2) { // if only 2 values are available
-                    if (SessionManager.sessionInterrupted()) return; //external interruption
+        private final int maxAttempts;
+        private int failedAttempts = 0;
+        private boolean retryPending = false;
 
-                    double p1 = currentPriceList.get(0).getPrice().getQuantity();
-                    double p2 = currentPriceList.get(1).getPrice().getQuantity();
-                    if (closeEnough(this.DISTANCE_TRESHHOLD, p1, p2)) {
-                        this.updateLastPrice(currentPriceList.get(0), currentPriceList);
-                    } else {
-                        //The two values are too unreliable
-                        unableToUpdatePrice(currentPriceList);
-                    }
-                } else if (currentPriceList.size() > 2) { // more than two
-                    if (SessionManager.sessionInterrupted()) return; //external interruption
+        public RetryBackoff(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
 
-                    //Check if other backup prices are close enough to each other
-                    boolean foundSomeValidBackUp = false;
-                    LastPrice goodPrice = null;
-                    for (int l = 1; l < currentPriceList.size(); l++) {
-                        if (sanityCheck(currentPriceList, l)) {
-                            goodPrice = currentPriceList.get(l);
-                            foundSomeValidBackUp = true;
-                            break;
-                        }
-                    }
-                    if (foundSomeValidBackUp) {
-                        //goodPrice is a valid price backup!
-                        this.updateLastPrice(goodPrice, currentPriceList);
-                    } else {
-                        //None of the source are in accord with others.
-                        //Try to send a notification
-                        unableToUpdatePrice(currentPriceList);
-                    }
-                } else {//if only one or 0 feeds are positive
-                    unableToUpdatePrice(currentPriceList);
-                }
+        /**
+         * @param retry true for the update scheduled after a failure
+         * @return seconds before the retry, 0 to keep the one pending, -1 after more than maxAttempts failures
+         */
+        public synchronized long failed(boolean retry) {
+            if (retryPending && !retry) {
+                return 0;
             }
-
-        } else {
-            //Tried more than three times without success
-            throw new FeedPriceException("The price has failed updating more than " + MAX_ATTEMPTS + " times in a row");
-
+            failedAttempts++;
+            if (failedAttempts > maxAttempts) {
+                reset();
+                return -1;
+            }
+            retryPending = true;
+            return failedAttempts * 60L;
         }
-    }
-
 
-    private void unableToUpdatePrice(ArrayList<LastPrice> priceList) {
-        count++;
-        try {
-            Thread.sleep(count * 60 * 1000);
-        } catch (InterruptedException ex) {
-            LOG.error(ex.toString());
+        public synchronized void reset() {
+            failedAttempts = 0;
+            retryPending = false;
         }
-        try {
-            executeUpdatePrice(count);
-        } catch (FeedPriceException ex) {
-            LOG.error(ex.toString());
+
+        public synchronized int getFailedAttempts() {
+            return failedAttempts;
         }
     }
 
-
     public void gracefulPause(LastPrice lp) {
         //This is called is an abnormal price is detected for one whole refresh period
         String logMessage;
@@ -365,7 +415,7 @@ public class PriceMonitorTriggerTask extends TimerTask {
 
         //we need to check the reason that the refresh took a whole period.
         //if it's because of a no connection issue, we need to wait to see if connection restarts
-        if (!Global.exchange.getLiveData().isConnected()) {
+        if (!Global.session().exchange.getLiveData().isConnected()) {
 
             currentTime = System.currentTimeMillis();
 
@@ -373,7 +423,7 @@ public class PriceMonitorTriggerTask extends TimerTask {
                     + "Consider restarting the bot if the connection issue persists";
             notification = "";
             notificationColor = MessageColor.YELLOW;
-            subject = Global.exchange.getName() + " Bot is suffering a connection issue";
+            subject = Global.session().exchange.getName() + " Bot is suffering a connection issue";
 
         } else { //otherwise something bad has happened so we shutdown.
             int p = 3;
@@ -382,13 +432,13 @@ public class PriceMonitorTriggerTask extends TimerTask {
             logMessage = "The Fetched Exchange rate data has remained outside of the required price band for "
                     + Settings.CHECK_PRICE_INTERVAL + "seconds.\nThe bot will notify and restart in "
                     + sleepTime + "seconds.";
-            notification = "A large price difference was detected at " + Global.exchange.getName()
+            notification = "A large price difference was detected at " + Global.session().exchange.getName()
                     + ".\nThe Last obtained price of " + Objects.toString(lp.getPrice().getQuantity()) + " was outside of "
                     + Objects.toString(PRICE_PERCENTAGE) + "% of the moving average figure of " + Objects.toString(getMovingAverage())
                     + ".\nNuBot will remove the current orders and replace them in "
                     + sleepTime + "seconds.";
             notificationColor = MessageColor.PURPLE;
-            subject = Global.exchange.getName() + " Moving Average issue. Bot will replace orders in "
+            subject = Global.session().exchange.getName() + " Moving Average issue. Bot will replace orders in "
                     + sleepTime + "seconds.";
         }
 
@@ -399,12 +449,12 @@ public class PriceMonitorTriggerTask extends TimerTask {
         LOG.error("Notifying HipChat");
         HipChatNotifications.sendMessage(notification, notificationColor);
         LOG.error("Sending Email");
-        MailNotifications.send(Global.options.getMailRecipient(), subject, notification);
+        MailNotifications.send(Global.session().options.getMailRecipient(), subject, notification);
         if (sleepTime > 0) {
             LOG.error("Cancelling Orders to avoid Arbitrage against the bot");
-            Global.exchange.getTrade().clearOrders(Global.options.getPair());
+            Global.session().exchange.getTrade().clearOrders(Global.session().options.getPair());
             //clear the moving average so the restart is fresh
-            queueMA.clear();
+            priceStats.clear();
             LOG.error("Sleeping for " + sleepTime);
             SLEEP_COUNT = 3;
         }
@@ -415,35 +465,30 @@ public class PriceMonitorTriggerTask extends TimerTask {
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
         //We need to fill up the moving average queue so that 30 data points exist.
-        if (queueMA.size() < MOVING_AVERAGE_SIZE) {
+        if (priceStats.size(MOVING_AVERAGE_SIZE) < MOVING_AVERAGE_SIZE) {
             initMA(lp.getPrice().getQuantity());
         }
 
-        if (!Global.options.isMultipleCustodians()) {  //
+        if (!Global.session().options.isMultipleCustodians()) {  //
             //we check against the moving average
             double current = lp.getPrice().getQuantity();
             double MA = getMovingAverage();
 
             //calculate the percentage difference
-            double percentageDiff = (((MA - current) / ((MA + current) / 2)) * 100);
+            double percentageDiff = SecondaryPegPricing.movingAverageDeviation(MA, current);
             if ((percentageDiff > PRICE_PERCENTAGE) || (percentageDiff < -PRICE_PERCENTAGE)) {
                 //The potential price is more than % different to the moving average
-                //add it to the MA-Queue to raise the Moving Average and re-request the currency data
+                //add it to the moving average to raise the Moving Average and re-request the currency data
                 //in this way we can react to a large change in price when we are sure it is not an anomaly
-                LOG.warn("Latest price " + Objects.toString(current) + " is " + Objects.toString(percentageDiff) + "% outside of the moving average of " + Objects.toString(MA) + "."
+                LOG.warn("Latest price " + Objects.toString(current) + " is " + Objects.toString(percentageDiff) + "% outside of the moving average of " + Objects.toString(MA)
+                        + " (standard deviation " + Utils.round(priceStats.standardDeviation(MOVING_AVERAGE_SIZE), PR) + ", EWMA " + Utils.round(priceStats.getEwma(), PR) + ")."
                         + "\nShifting moving average and re-fetching exchange rate data.");
                 updateMovingAverageQueue(current);
-
-                try {
-                    int trials = 1;
-                    executeUpdatePrice(trials);
-                } catch (FeedPriceException ex) {
-
-                }
+                scheduleUpdate(0, false);
                 return;
             }
             //the potential price is within the % boundary.
-            //add it to the MA-Queue to keep the moving average moving
+            //add it to the moving average to keep the moving average moving
             // Only do this if the standard update interval hasn't passed
             if (((System.currentTimeMillis() - (currentTime + REFRESH_OFFSET)) / 1000L) < Settings.CHECK_PRICE_INTERVAL) {
                 updateMovingAverageQueue(current);
@@ -463,12 +508,19 @@ public class PriceMonitorTriggerTask extends TimerTask {
         LOG.info("Price Updated. " + lp.getSource() + ":1 " + lp.getCurrencyMeasured().getCode() + " = "
                 + "" + lp.getPrice().getQuantity() + " " + lp.getPrice().getCurrency().getCode());
         if (isFirstTimeExecution) {
+            //warm restart : keep the walls of the previous run while the price did not move enough to shift them
+            StrategyCheckpoint checkpoint = Global.session().checkpoint;
+            LastPrice wallPrice = lp;
+            if (checkpoint != null && !SecondaryPegPricing.needToMoveWalls(checkpoint.getConversion(), lp.getPrice().getQuantity(), wallchangeThreshold)) {
+                wallPrice = new LastPrice(false, lp.getSource(), lp.getCurrencyMeasured(), new Amount(checkpoint.getConversion(), lp.getPrice().getCurrency()));
+                LOG.info("Walls priced as in the strategy checkpoint, with 1 " + lp.getCurrencyMeasured().getCode() + " = " + checkpoint.getConversion());
+            }
             try {
-                initStrategy(lp.getPrice().getQuantity());
+                initStrategy(wallPrice.getPrice().getQuantity());
             } catch (NuBotConnectionException e) {
 
             }
-            currentWallPEGPrice = lp;
+            currentWallPEGPrice = wallPrice;
             isFirstTimeExecution = false;
         } else {
             verifyPegPrices();
@@ -481,7 +533,7 @@ public class PriceMonitorTriggerTask extends TimerTask {
         LOG.debug("Executing tryMoveWalls");
 
         boolean needToShift = true;
-        if (!Global.options.isMultipleCustodians()) {
+        if (!Global.session().options.isMultipleCustodians()) {
             needToShift = needToMoveWalls(lastPrice);         //check if price moved more than x% from when the wall was setup
         }
 
@@ -503,15 +555,10 @@ public class PriceMonitorTriggerTask extends TimerTask {
     private boolean needToMoveWalls(LastPrice last) {
 
         double currentWallPEGprice = currentWallPEGPrice.getPrice().getQuantity();
-        double distance = Math.abs(last.getPrice().getQuantity() - currentWallPEGprice);
-        double percentageDistance = Utils.round((distance * 100) / currentWallPEGprice, 4);
+        double percentageDistance = SecondaryPegPricing.percentageDistance(currentWallPEGprice, last.getPrice().getQuantity());
         LOG.debug("delta =" + percentageDistance + "% (old : " + currentWallPEGprice + " new " + last.getPrice().getQuantity() + ")");
 
-        if (percentageDistance < wallchangeThreshold) {
-            return false;
-        } else {
-            return true;
-        }
+        return SecondaryPegPricing.needToMoveWalls(currentWallPEGprice, last.getPrice().getQuantity(), wallchangeThreshold);
     }
 
     private void computeNewPrices() {
@@ -519,19 +566,11 @@ public class PriceMonitorTriggerTask extends TimerTask {
 
         double peg_price = lastPrice.getPrice().getQuantity();
 
-        double sellPricePEG_new;
-        double buyPricePEG_new;
-
-        if (Global.swappedPair) { //NBT as paymentCurrency
-            sellPricePEG_new = Utils.round(sellPriceUSD * Global.conversion, Settings.DEFAULT_PRECISION);
-            buyPricePEG_new = Utils.round(buyPriceUSD * Global.conversion, Settings.DEFAULT_PRECISION);
-        } else {
-            //convert sell price to PEG
-            sellPricePEG_new = Utils.round(sellPriceUSD / peg_price, Settings.DEFAULT_PRECISION);
-            buyPricePEG_new = Utils.round(buyPriceUSD / peg_price, Settings.DEFAULT_PRECISION);
-        }
-
-        BidAskPair newPrice = new BidAskPair(buyPricePEG_new, sellPricePEG_new);
+        //NBT as paymentCurrency : the conversion of the previous shift is used
+        double conversion = Global.session().swappedPair ? Global.session().conversion : peg_price;
+        BidAskPair newPrice = SecondaryPegPricing.convertToPEG(new BidAskPair(buyPriceUSD, sellPriceUSD), conversion, Global.session().swappedPair);
+        double sellPricePEG_new = newPrice.getAsk();
+        double buyPricePEG_new = newPrice.getBid();
 
         //check if the price increased or decreased compared to last
         if ((newPrice.getAsk() - this.bidask.getAsk()) > 0) {
@@ -557,7 +596,7 @@ public class PriceMonitorTriggerTask extends TimerTask {
 
         strategy.notifyPriceChanged(sellPricePEG_new, buyPricePEG_new, price, pegPriceDirection);
 
-        Global.conversion = price;
+        Global.session().conversion = price;
 
         Date currentDate = new Date();
         String row = currentDate + ","
@@ -583,7 +622,7 @@ public class PriceMonitorTriggerTask extends TimerTask {
 
         row += otherPricesAtThisTime.toString() + "\n";
         backup_feeds.add(otherPricesAtThisTime);
-        logrow(row, wallshiftsFilePathCSV, true);
+        logrow(row, wallshiftsFilePathCSV);
 
         //Also update a json version of the output file
         //build the latest data into a JSONObject
@@ -596,26 +635,12 @@ public class PriceMonitorTriggerTask extends TimerTask {
         wall_shift.put("sell_price", sellPricePEG_new);
         wall_shift.put("buy_price", buyPricePEG_new);
         wall_shift.put("backup_feed", backup_feeds);
-        //now read the existing object if one exists
-        JSONParser parser = new JSONParser();
-        JSONObject wall_shift_info = new JSONObject();
-        JSONArray wall_shifts = new JSONArray();
-        try { //object already exists in file
-            wall_shift_info = (JSONObject) parser.parse(FilesystemUtils.readFromFile(this.wallshiftsFilePathJSON));
-            wall_shifts = (JSONArray) wall_shift_info.get("wall_shifts");
-        } catch (ParseException pe) {
-            LOG.error("Unable to parse order_history.json");
-        }
-        //add the latest orders to the orders array
-        wall_shifts.add(wall_shift);
-        wall_shift_info.put("wall_shifts", wall_shifts);
-        //then save
-
-        logWallShift(wall_shift_info.toJSONString());
+        //append it to the history
+        wallshiftsJournal.append(wall_shift);
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
-        if (Global.options.sendMails()) {
-            String title = " production (" + Global.options.getExchangeName() + ") [" + pfm.getPair().toString() + "] price changed more than " + wallchangeThreshold + "%";
+        if (Global.session().options.sendMails()) {
+            String title = " production (" + Global.session().options.getExchangeName() + ") [" + pfm.getPair().toString() + "] price changed more than " + wallchangeThreshold + "%";
 
             String messageNow = row;
             emailHistory += messageNow;
@@ -630,8 +655,8 @@ public class PriceMonitorTriggerTask extends TimerTask {
                     + "For each row the bot should have shifted the sell/buy walls.\n\n";
 
 
-            if (!Global.options.isMultipleCustodians()) {
-                MailNotifications.send(Global.options.getMailRecipient(), title, tldr + emailHistory);
+            if (!Global.session().options.isMultipleCustodians()) {
+                MailNotifications.send(Global.session().options.getMailRecipient(), title, tldr + emailHistory);
             }
         }
     }
@@ -658,8 +683,8 @@ public class PriceMonitorTriggerTask extends TimerTask {
         String title = "Problems while updating " + pfm.getPair().getOrderCurrency().getCode() + " price. Cannot find a reliable feed.";
         String message = "NuBot timed out after " + MAX_ATTEMPTS + " failed attempts to update " + pfm.getPair().getOrderCurrency().getCode() + ""
                 + " price. Please restart the bot and get in touch with Nu Dev team ";
-        message += "[<strong>" + SessionManager.sessionId + "</strong>]";
-        MailNotifications.sendCritical(Global.options.getMailRecipient(), title, message);
+        message += "[<strong>" + Global.session().sessionId + "</strong>]";
+        MailNotifications.sendCritical(Global.session().options.getMailRecipient(), title, message);
         HipChatNotifications.sendMessageCritical(title + message);
         LOG.error(title + message);
 
@@ -668,12 +693,11 @@ public class PriceMonitorTriggerTask extends TimerTask {
     // ----- price utils ------
 
     public double getMovingAverage() {
-        double MA = 0;
-        for (Iterator<Double> price = queueMA.iterator(); price.hasNext(); ) {
-            MA += price.next();
-        }
-        MA = MA / queueMA.size();
-        return MA;
+        return priceStats.mean(MOVING_AVERAGE_SIZE);
+    }
+
+    public RollingStats getPriceStats() {
+        return priceStats;
     }
 
     public void updateMovingAverageQueue(double price) {
@@ -681,85 +705,22 @@ public class PriceMonitorTriggerTask extends TimerTask {
             //don't add 0
             return;
         }
-        queueMA.add(price);
-        //trim the queue so that it is a moving average over the correct number of data points
-        if (queueMA.size() > MOVING_AVERAGE_SIZE) {
-            queueMA.remove();
-        }
+        priceStats.add(price);
     }
 
     /**
-     * init queue by filling it with one price only
+     * init the statistics as if all the windows were filled with one price only
      *
      * @param price
      */
     protected void initMA(double price) {
-        for (int i = 0; i <= 30; i++) {
-            updateMovingAverageQueue(price);
-        }
-    }
-
-    protected boolean closeEnough(double distanceTreshold, double mainPrice, double temp) {
-        //if temp differs from mainPrice for more than a threshold%, return false
-        double distance = Math.abs(mainPrice - temp);
-
-        double percentageDistance = Utils.round(distance * 100 / mainPrice, 4);
-        if (percentageDistance > distanceTreshold) {
-            return false;
-        } else {
-            return true;
-        }
-    }
-
-    /**
-     * Measure if mainPrice is close to other two values
-     *
-     * @param priceList
-     * @param mainPriceIndex
-     * @return
-     */
-    protected boolean sanityCheck(ArrayList<LastPrice> priceList, int mainPriceIndex) {
-
-        boolean[] ok = new boolean[priceList.size() - 1];
-        double mainPrice = priceList.get(mainPriceIndex).getPrice().getQuantity();
-
-        //Test mainPrice vs backup sources
-        int f = 0;
-        for (int i = 0; i < priceList.size(); i++) {
-            if (i != mainPriceIndex) {
-                LastPrice tempPrice = priceList.get(i);
-                double temp = tempPrice.getPrice().getQuantity();
-                ok[f] = closeEnough(DISTANCE_TRESHHOLD, mainPrice, temp);
-                f++;
-            }
-        }
-
-        int countOk = 0;
-        for (int j = 0; j < ok.length; j++) {
-            if (ok[j]) {
-                countOk++;
-            }
-        }
-
-        boolean overallOk = false; //is considered ok if the mainPrice is closeEnough to more than a half of backupPrices
-        //Need to distinguish pair vs odd
-        if (ok.length % 2 == 0) {
-            if (countOk >= (int) ok.length / 2) {
-                overallOk = true;
-            }
-        } else {
-            if (countOk > (int) ok.length / 2) {
-                overallOk = true;
-            }
-        }
-
-        return overallOk;
+        priceStats.fill(price);
     }
 
     protected void notifyDeviation(ArrayList<LastPrice> priceList) {
         String title = "Problems while updating " + pfm.getPair().getOrderCurrency().getCode() + " price. Cannot find a reliable feed.";
         String message = "Positive response from " + priceList.size() + "/" + pfm.getFeedList().size() + " feeds\n";
-        message += "[<strong>" + SessionManager.sessionId + "</strong>]";
+        message += "[<strong>" + Global.session().sessionId + "</strong>]";
 
         for (int i = 0; i < priceList.size(); i++) {
             LastPrice tempPrice = priceList.get(i);
@@ -768,19 +729,15 @@ public class PriceMonitorTriggerTask extends TimerTask {
         }
 
 
-        MailNotifications.sendCritical(Global.options.getMailRecipient(), title, message);
+        MailNotifications.sendCritical(Global.session().options.getMailRecipient(), title, message);
         HipChatNotifications.sendMessageCritical(title + message);
 
         LOG.error(title + message);
     }
 
 
-    private void logrow(String row, String outputPath, boolean append) {
-        FilesystemUtils.writeToFile(row, outputPath, append);
-    }
-
-    private void logWallShift(String wall_shift) {
-        FilesystemUtils.writeToFile(wall_shift, this.wallshiftsFilePathJSON, false);
+    private void logrow(String row, String outputPath) {
+        FilesystemUtils.appendToSegments(row, outputPath);
     }
 
 }
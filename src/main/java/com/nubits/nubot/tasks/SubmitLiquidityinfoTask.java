@@ -24,26 +24,29 @@ import com.nubits.nubot.bot.SessionManager;
 import com.nubits.nubot.global.Constant;
 import com.nubits.nubot.global.Settings;
 import com.nubits.nubot.models.Amount;
-import com.nubits.nubot.models.ApiResponse;
 import com.nubits.nubot.models.Order;
 import com.nubits.nubot.models.PairBalance;
 import com.nubits.nubot.utils.FilesystemUtils;
+import com.nubits.nubot.utils.HistoryJournal;
 import com.nubits.nubot.utils.Utils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.TimerTask;
 
 /**
- * Submit info via NuWalletRPC
+ * Submit info via NuWalletRPC.
+ * The liquidity on order and the balances are checked often but only reported when either tier moved by more than
+ * Settings.LIQUIDITY_REPORT_DELTA, or when the last report is Settings.SUBMIT_LIQUIDITY_SECONDS old.
+ * They are compared with the last reports nud accepted : a report dropped or given up goes out again at the next check
  */
 public class SubmitLiquidityinfoTask extends TimerTask {
 
@@ -54,9 +57,13 @@ public class SubmitLiquidityinfoTask extends TimerTask {
     private boolean firstOrdersPlaced = false;
     private boolean firstExecution = true;
 
+    //tier -> last liquidity written to the journals, compared with when liquidity is not submitted to nud
+    private final HashMap<Integer, NuRPCClient.LiquidityReport> logged = new HashMap<>();
+    private final HashMap<Integer, Long> loggedAt = new HashMap<>();
+
     private String outputFile_orders;
-    private String jsonFile_orders;
-    private String jsonFile_balances;
+    private HistoryJournal ordersJournal;
+    private HistoryJournal balancesJournal;
 
     public SubmitLiquidityinfoTask(boolean verbose) {
         this.verbose = verbose;
@@ -65,46 +72,11 @@ public class SubmitLiquidityinfoTask extends TimerTask {
     private void initFiles() {
         if (SessionManager.sessionInterrupted()) return; //external interruption
 
-        this.outputFile_orders = Global.sessionLogFolder + "/" + Settings.ORDERS_FILENAME + ".csv";
-        this.jsonFile_orders = Global.sessionLogFolder + "/" + Settings.ORDERS_FILENAME + ".json";
-        this.jsonFile_balances = Global.sessionLogFolder + "/" + Settings.BALANCES_FILEAME + ".json";
+        this.outputFile_orders = Global.session().sessionLogFolder + "/" + Settings.ORDERS_FILENAME + ".csv";
+        this.ordersJournal = new HistoryJournal(Global.session().sessionLogFolder + "/" + Settings.ORDERS_FILENAME + HistoryJournal.EXTENSION);
+        this.balancesJournal = new HistoryJournal(Global.session().sessionLogFolder + "/" + Settings.BALANCES_FILEAME + HistoryJournal.EXTENSION);
 
-        //create json file if it doesn't already exist
         LOG.debug("init files");
-        File jsonF1 = new File(this.jsonFile_orders);
-        if (!jsonF1.exists()) {
-            try {
-                jsonF1.createNewFile();
-                LOG.debug("created " + jsonF1);
-            } catch (Exception e) {
-                LOG.error("error creating file " + jsonF1 + " " + e);
-            }
-
-            JSONObject history = new JSONObject();
-            JSONArray orders = new JSONArray();
-            history.put("orders", orders);
-            FilesystemUtils.writeToFile(history.toJSONString(), this.jsonFile_orders, true);
-        }
-        if (SessionManager.sessionInterrupted()) return; //external interruption
-
-        //create json file if it doesn't already exist
-        File jsonF2 = new File(this.jsonFile_balances);
-        if (!jsonF2.exists()) {
-            try {
-                jsonF2.createNewFile();
-                LOG.debug("created " + jsonF2);
-            } catch (Exception e) {
-                LOG.error("error creating file " + jsonF1 + " " + e);
-            }
-
-            JSONObject history = new JSONObject();
-            JSONArray balances = new JSONArray();
-            history.put("balances", balances);
-            FilesystemUtils.writeToFile(history.toJSONString(), this.jsonFile_balances, true);
-        }
-
-        if (SessionManager.sessionInterrupted()) return; //external interruption
-
         File of = new File(this.outputFile_orders);
         if (!of.exists()) {
             try {
@@ -140,33 +112,93 @@ public class SubmitLiquidityinfoTask extends TimerTask {
 
         if (!isWallsBeingShifted()) { //Do not report liquidity info during wall shifts (issue #23)
             if (isFirstOrdersPlaced()) {
-                String response1 = reportTier1(); //active orders
+                List<NuRPCClient.LiquidityReport> reports = new ArrayList<>();
+                PairBalance balance = fetchBalance();
+                NuRPCClient.LiquidityReport tier2 = balance == null ? null : tier2(balance);
+                if (!reportTier1(reports, tier2)) { //active orders
+                    return; //nothing worth reporting yet
+                }
 
                 if (SessionManager.sessionInterrupted()) return; //external interruption
 
-                String response2 = reportTier2(); //balance
-                if (Global.options.isSubmitliquidity()) {
-                    LOG.info("Liquidity info submitted:\n\t" + response1 + "\n\t" + response2);
+                if (balance != null) {
+                    reportTier2(reports, balance, tier2);
+                } else {
+                    LOG.error("No balances available to report tier 2 liquidity");
+                }
+                if (SessionManager.sessionInterrupted()) return; //external interruption : liquidity is being reset
+
+                if (Global.session().options.isSubmitliquidity() && !reports.isEmpty()) {
+                    //nud is called from the submitter thread : a slow nud does not hold up this task
+                    Global.session().liquiditySubmitter.offer(reports);
+                    LOG.debug("Liquidity info queued : " + reports);
                 }
             } else {
-                LOG.warn("Liquidity is not being sent : orders are not yet initialized");
+                LOG.debug("Liquidity is not being sent : orders are not yet initialized");
 
             }
         } else {
-            if (Global.options.isSubmitliquidity()) {
-                LOG.warn("Liquidity is not being sent, a wall shift is happening. Will send on next execution.");
+            if (Global.session().options.isSubmitliquidity()) {
+                LOG.debug("Liquidity is not being sent, a wall shift is happening. Will send once it is over.");
             }
         }
     }
 
-    private String reportTier1() {
-        String toReturn = "";
+    /**
+     * @return true if the liquidity moved enough since the last report, or if that report is too old
+     */
+    public static boolean needsReport(double reportedBuy, double reportedSell, long reportedAt,
+                                      double buy, double sell, long now) {
+        if (now - reportedAt >= Settings.SUBMIT_LIQUIDITY_SECONDS * 1000L) {
+            return true;
+        }
+        return moved(reportedBuy, buy) || moved(reportedSell, sell);
+    }
 
-        Global.orderManager.fetchOrders();
+    private static boolean moved(double reported, double current) {
+        return Math.abs(current - reported) > Math.max(Settings.LIQUIDITY_REPORT_DELTA * reported, 1);
+    }
+
+    /**
+     * @return true if this tier moved enough since nud last accepted it, or since it was last logged
+     * when liquidity is not submitted
+     */
+    private boolean needsReport(NuRPCClient.LiquidityReport report, long now) {
+        NuRPCClient.LiquidityReport last;
+        long lastAt;
+        if (Global.session().options.isSubmitliquidity()) {
+            last = Global.session().liquiditySubmitter.getLastSubmitted(report.getTier());
+            lastAt = Global.session().liquiditySubmitter.getLastSubmittedAt(report.getTier());
+        } else {
+            last = logged.get(report.getTier());
+            lastAt = last == null ? 0 : loggedAt.get(report.getTier());
+        }
+        if (last == null) {
+            return true;
+        }
+        return needsReport(last.getBuy(), last.getSell(), lastAt, report.getBuy(), report.getSell(), now);
+    }
 
-        ArrayList<Order> orderList = Global.orderManager.getOrderList();
+    private void logged(NuRPCClient.LiquidityReport report, long now) {
+        logged.put(report.getTier(), report);
+        loggedAt.put(report.getTier(), now);
+    }
 
-        if (SessionManager.sessionInterrupted()) return ""; //external interruption
+    /**
+     * @param tier2 the balances, also compared to decide whether anything gets reported. null if unavailable
+     * @return false when the liquidity does not need to be reported
+     */
+    private boolean reportTier1(List<NuRPCClient.LiquidityReport> reports, NuRPCClient.LiquidityReport tier2) {
+        //orders fetched by the last strategy cycle are good enough : only go to the exchange if the strategy
+        //did not fetch them during the last cycle, or if orders were placed or cancelled since
+        Global.session().orderManager.fetchTimeBound(Settings.LIQUIDITY_SNAPSHOT_MAX_AGE);
+
+        ArrayList<Order> orderList = Global.session().orderManager.getOrderList();
+        if (orderList == null) {
+            return false;
+        }
+
+        if (SessionManager.sessionInterrupted()) return false; //external interruption
 
         LOG.debug("Active orders : " + orderList.size());
 
@@ -175,12 +207,12 @@ public class SubmitLiquidityinfoTask extends TimerTask {
             Order o = it.next();
             LOG.debug("order: " + o.getDigest());
         }
-        if (SessionManager.sessionInterrupted()) return ""; //external interruption
+        if (SessionManager.sessionInterrupted()) return false; //external interruption
 
         if (verbose) {
 
-            LOG.info(Global.exchange.getName() + "OLD NBTonbuy  : " + Utils.formatNumber(Global.exchange.getLiveData().getNBTonbuy(), Settings.DEFAULT_PRECISION));
-            LOG.info(Global.exchange.getName() + "OLD NBTonsell  : " + Utils.formatNumber(Global.exchange.getLiveData().getNBTonsell(), Settings.DEFAULT_PRECISION));
+            LOG.info(Global.session().exchange.getName() + "OLD NBTonbuy  : " + Utils.formatNumber(Global.session().exchange.getLiveData().getNBTonbuy(), Settings.DEFAULT_PRECISION));
+            LOG.info(Global.session().exchange.getName() + "OLD NBTonsell  : " + Utils.formatNumber(Global.session().exchange.getLiveData().getNBTonsell(), Settings.DEFAULT_PRECISION));
         }
 
         double nbt_onsell = 0;
@@ -207,17 +239,36 @@ public class SubmitLiquidityinfoTask extends TimerTask {
             }
         }
         //Update the order
-        Global.exchange.getLiveData().setOrdersList(orderList);
+        Global.session().exchange.getLiveData().setOrdersList(orderList);
 
-        if (Global.conversion != 1
-                && Global.swappedPair) {  //For swapped pair, need to convert the amounts to NBT
-            nbt_onbuy = nbt_onbuy * Global.conversion;
-            nbt_onsell = nbt_onsell * Global.conversion;
+        if (Global.session().conversion != 1
+                && Global.session().swappedPair) {  //For swapped pair, need to convert the amounts to NBT
+            nbt_onbuy = nbt_onbuy * Global.session().conversion;
+            nbt_onsell = nbt_onsell * Global.session().conversion;
         }
 
 
-        Global.exchange.getLiveData().setNBTonbuy(nbt_onbuy);
-        Global.exchange.getLiveData().setNBTonsell(nbt_onsell);
+        Global.session().exchange.getLiveData().setNBTonbuy(nbt_onbuy);
+        Global.session().exchange.getLiveData().setNBTonsell(nbt_onsell);
+
+        double buySide;
+        double sellSide;
+
+        if (!Global.session().swappedPair) {
+            buySide = nbt_onbuy;
+            sellSide = nbt_onsell;
+        } else {
+            buySide = nbt_onsell;
+            sellSide = nbt_onbuy;
+        }
+
+        long now = System.currentTimeMillis();
+        NuRPCClient.LiquidityReport tier1 = new NuRPCClient.LiquidityReport(1, buySide, sellSide);
+        if (!needsReport(tier1, now) && (tier2 == null || !needsReport(tier2, now))) {
+            LOG.trace("Liquidity unchanged : " + tier1.toString() + " " + tier2);
+            return false;
+        }
+        logged(tier1, now);
 
         //Write to file timestamp,activeOrders, sells,buys, digest
         Date timeStamp = new Date();
@@ -226,7 +277,7 @@ public class SubmitLiquidityinfoTask extends TimerTask {
         String toWrite = timeStampString + " , " + orderList.size() + " , " + sells + " , " + buys + " , " + digest;
         logOrderCSV(toWrite);
 
-        if (SessionManager.sessionInterrupted()) return ""; //external interruption
+        if (SessionManager.sessionInterrupted()) return false; //external interruption
 
         //Also update a json version of the output file
         //build the latest data into a JSONObject
@@ -243,10 +294,10 @@ public class SubmitLiquidityinfoTask extends TimerTask {
 
             double amount = _order.getAmount().getQuantity();
             //special case: swapped pair
-            if (Global.conversion != 1) {
-                if (Global.swappedPair)//For swapped pair, need to convert the amounts to NBT
+            if (Global.session().conversion != 1) {
+                if (Global.session().swappedPair)//For swapped pair, need to convert the amounts to NBT
                 {
-                    amount = _order.getAmount().getQuantity() * Global.conversion;
+                    amount = _order.getAmount().getQuantity() * Global.session().conversion;
                 }
             }
 
@@ -261,159 +312,74 @@ public class SubmitLiquidityinfoTask extends TimerTask {
         }
         latestOrders.put("digest", jsonDigest);
 
-        if (SessionManager.sessionInterrupted()) return ""; //external interruption
-
-        //now read the existing object if one exists
-        JSONParser parser = new JSONParser();
-        JSONObject orderHistory = new JSONObject();
-        JSONArray orders = new JSONArray();
-        try { //object already exists in file
-            orderHistory = (JSONObject) parser.parse(FilesystemUtils.readFromFile(this.jsonFile_orders));
-            orders = (JSONArray) orderHistory.get("orders");
-        } catch (ParseException pe) {
-            LOG.error("Unable to parse " + this.jsonFile_orders);
-        }
-        //add the latest orders to the orders array
-        orders.add(latestOrders);
-        //then save
-        logOrderJSON(orderHistory);
+        if (SessionManager.sessionInterrupted()) return false; //external interruption
+
+        //append the latest orders to the history
+        ordersJournal.append(latestOrders);
 
         if (verbose) {
-            LOG.info(Global.exchange.getName() + "Updated NBTonbuy  : " + Utils.formatNumber(nbt_onbuy, Settings.DEFAULT_PRECISION));
-            LOG.info(Global.exchange.getName() + "Updated NBTonsell  : " + Utils.formatNumber(nbt_onsell, Settings.DEFAULT_PRECISION));
+            LOG.info(Global.session().exchange.getName() + "Updated NBTonbuy  : " + Utils.formatNumber(nbt_onbuy, Settings.DEFAULT_PRECISION));
+            LOG.info(Global.session().exchange.getName() + "Updated NBTonsell  : " + Utils.formatNumber(nbt_onsell, Settings.DEFAULT_PRECISION));
         }
 
-        if (SessionManager.sessionInterrupted()) return ""; //external interruption
+        if (SessionManager.sessionInterrupted()) return false; //external interruption
 
-        if (Global.options.isSubmitliquidity()) {
-            //Call RPC
-
-            double buySide;
-            double sellSide;
-
-            if (!Global.swappedPair) {
-                buySide = Global.exchange.getLiveData().getNBTonbuy();
-                sellSide = Global.exchange.getLiveData().getNBTonsell();
-            } else {
-                buySide = Global.exchange.getLiveData().getNBTonsell();
-                sellSide = Global.exchange.getLiveData().getNBTonbuy();
-            }
-
-            toReturn = sendLiquidityInfoImpl(buySide, sellSide, 1);
+        if (Global.session().options.isSubmitliquidity()) {
+            reports.add(tier1);
         }
-        return toReturn;
+        return true;
     }
 
-    private JSONObject getBalanceHistory() throws ParseException {
-        JSONParser parser = new JSONParser();
-        JSONObject balanceHistory = (JSONObject) parser.parse(FilesystemUtils.readFromFile(this.jsonFile_balances));
-        return balanceHistory;
+    /**
+     * @return the balances, fetched again once older than Settings.LIQUIDITY_SNAPSHOT_MAX_AGE. null if unavailable
+     */
+    private PairBalance fetchBalance() {
+        try {
+            Global.session().balanceManager.fetchBalancePairTimeBound(Global.session().options.getPair(), Settings.LIQUIDITY_SNAPSHOT_MAX_AGE);
+        } catch (Exception e) {
+            return null; //already logged by the balance manager
+        }
+        return Global.session().balanceManager.getPairBalance();
     }
 
-    private String reportTier2() {
-        String toReturn = "";
-        if (SessionManager.sessionInterrupted()) return ""; //external interruption
-
-        ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalances(Global.options.getPair());
-        if (balancesResponse.isPositive()) {
-            PairBalance balance = (PairBalance) balancesResponse.getResponseObject();
-
-            Amount NBTbalance = balance.getNBTAvailable();
-            Amount PEGbalance = balance.getPEGAvailableBalance();
-
-            double buyside = PEGbalance.getQuantity();
-            double sellside = NBTbalance.getQuantity();
-
-            //Log balances
-            JSONObject latestBalances = new JSONObject();
-            latestBalances.put("time_stamp", Utils.getTimestampLong());
-
-            JSONArray availableBalancesArray = new JSONArray();
-            JSONObject NBTBalanceJSON = new JSONObject();
-            NBTBalanceJSON.put("amount", sellside);
-            NBTBalanceJSON.put("currency", NBTbalance.getCurrency().getCode().toUpperCase());
-
-            JSONObject PEGBalanceJSON = new JSONObject();
-            PEGBalanceJSON.put("amount", buyside);
-            PEGBalanceJSON.put("currency", PEGbalance.getCurrency().getCode().toUpperCase());
-
-            availableBalancesArray.add(PEGBalanceJSON);
-            availableBalancesArray.add(NBTBalanceJSON);
-
-            latestBalances.put("balance-not-on-order", availableBalancesArray);
-
-            if (SessionManager.sessionInterrupted()) return ""; //external interruption
-
-            //now read the existing object if one exists
-            JSONObject balanceHistory = null;
-            try {
-                balanceHistory = getBalanceHistory();
-            } catch (ParseException pe) {
-                LOG.error("Unable to parse " + this.jsonFile_balances);
-            }
-
-            JSONArray balances = new JSONArray();
-            try { //object already exists in file
-                balances = (JSONArray) balanceHistory.get("balances");
-            } catch (Exception e) {
+    private NuRPCClient.LiquidityReport tier2(PairBalance balance) {
+        double buyside = Utils.round(balance.getPEGAvailableBalance().getQuantity() * Global.session().conversion, 2);
+        return new NuRPCClient.LiquidityReport(2, buyside, balance.getNBTAvailable().getQuantity());
+    }
 
-            }
+    private void reportTier2(List<NuRPCClient.LiquidityReport> reports, PairBalance balance, NuRPCClient.LiquidityReport tier2) {
+        if (SessionManager.sessionInterrupted()) return; //external interruption
 
-            //add the latest orders to the orders array
-            balances.add(latestBalances);
-            //then save
-            logBalanceJSON(balanceHistory);
+        Amount NBTbalance = balance.getNBTAvailable();
+        Amount PEGbalance = balance.getPEGAvailableBalance();
 
-            buyside = Utils.round(buyside * Global.conversion, 2);
+        //Log balances
+        JSONObject latestBalances = new JSONObject();
+        latestBalances.put("time_stamp", Utils.getTimestampLong());
 
-            if (Global.options.isSubmitliquidity()) {
-                //Call RPC
-                if (SessionManager.sessionInterrupted()) return ""; //external interruption
-                toReturn = sendLiquidityInfoImpl(buyside, sellside, 2);
-            }
+        JSONArray availableBalancesArray = new JSONArray();
+        JSONObject NBTBalanceJSON = new JSONObject();
+        NBTBalanceJSON.put("amount", NBTbalance.getQuantity());
+        NBTBalanceJSON.put("currency", NBTbalance.getCurrency().getCode().toUpperCase());
 
+        JSONObject PEGBalanceJSON = new JSONObject();
+        PEGBalanceJSON.put("amount", PEGbalance.getQuantity());
+        PEGBalanceJSON.put("currency", PEGbalance.getCurrency().getCode().toUpperCase());
 
-        } else {
-            LOG.error(balancesResponse.getError().toString());
-        }
-        return toReturn;
-    }
-
-    private String sendLiquidityInfoImpl(double buySide, double sellSide, int tier) {
-        String toReturn = "";
-        if (SessionManager.sessionInterrupted()) return ""; //external interruption
+        availableBalancesArray.add(PEGBalanceJSON);
+        availableBalancesArray.add(NBTBalanceJSON);
 
-        if (Global.rpcClient.isConnected()) {
-            JSONObject responseObject;
+        latestBalances.put("balance-not-on-order", availableBalancesArray);
 
+        if (SessionManager.sessionInterrupted()) return; //external interruption
 
-            responseObject = Global.rpcClient.submitLiquidityInfo(Global.rpcClient.USDchar,
-                    buySide, sellSide, tier);
+        //append the latest balances to the history
+        balancesJournal.append(latestBalances);
+        logged(tier2, System.currentTimeMillis());
 
-            toReturn = "tier=" + tier
-                    + " buy=" + buySide
-                    + " sell=" + sellSide
-                    + " identifier=" + Global.rpcClient.generateIdentifier(tier)
-                    + " response=" + responseObject.toJSONString();
-            if (null == responseObject) {
-                LOG.error("Something went wrong while sending liquidityinfo");
-            } else {
-                LOG.debug(responseObject.toJSONString());
-                if ((boolean) responseObject.get("submitted")) {
-                    LOG.debug("RPC Liquidityinfo sent : "
-                            + " buyside : " + buySide
-                            + " sellside : " + sellSide);
-                    if (verbose) {
-                        JSONObject infoObject = Global.rpcClient.getLiquidityInfo(NuRPCClient.USDchar);
-                        LOG.info("getliquidityinfo result : ");
-                        LOG.info(infoObject.toJSONString());
-                    }
-                }
-            }
-        } else {
-            LOG.error("Can't reach Nud client. ");
+        if (Global.session().options.isSubmitliquidity()) {
+            reports.add(tier2);
         }
-        return toReturn;
     }
 
     public boolean isVerbose() {
@@ -443,15 +409,7 @@ public class SubmitLiquidityinfoTask extends TimerTask {
     //---------------- storage related -----------------
 
     private void logOrderCSV(String toWrite) {
-        FilesystemUtils.writeToFile(toWrite, outputFile_orders, true);
-    }
-
-    private void logOrderJSON(JSONObject orderHistory) {
-        FilesystemUtils.writeToFile(orderHistory.toJSONString(), jsonFile_orders, false);
-    }
-
-    private void logBalanceJSON(JSONObject balanceHistory) {
-        FilesystemUtils.writeToFile(balanceHistory.toJSONString(), jsonFile_balances, false);
+        FilesystemUtils.appendToSegments(toWrite, outputFile_orders);
     }
 
 
@@ -18,6 +18,7 @@
 
 package com.nubits.nubot.tasks;
 
+import com.nubits.nubot.RPC.LiquiditySubmitter;
 import com.nubits.nubot.RPC.NuRPCClient;
 import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.global.Settings;
@@ -54,7 +55,7 @@ public class TaskManager {
         this.running = false;
         taskList = new ArrayList<BotTask>();
 
-        //assign default values just for testing without Global.options loaded
+        //assign default values just for testing without Global.session().options loaded
 
     }
 
@@ -62,11 +63,12 @@ public class TaskManager {
      * setup the task for checking Nu RPC
      */
     public void setupNuRPCTask() {
-        LOG.info("Setting up RPC client on " + Global.options.getNudIp() + ":" + Global.options.getNudPort());
+        LOG.info("Setting up RPC client on " + Global.session().options.getNudIp() + ":" + Global.session().options.getNudPort());
 
-        Global.rpcClient = new NuRPCClient(Global.options.getNudIp(), Global.options.getNudPort(),
-                Global.options.getRpcUser(), Global.options.getRpcPass(), true,
-                Global.options.getNubitsAddress(), Global.options.getPair(), Global.options.getExchangeName());
+        Global.session().rpcClient = new NuRPCClient(Global.session().options.getNudIp(), Global.session().options.getNudPort(),
+                Global.session().options.getRpcUser(), Global.session().options.getRpcPass(), true,
+                Global.session().options.getNubitsAddress(), Global.session().options.getPair(), Global.session().options.getExchangeName());
+        Global.session().liquiditySubmitter = new LiquiditySubmitter(Global.session().rpcClient);
 
         this.setNudTask();
 
@@ -103,7 +105,7 @@ public class TaskManager {
         LOG.debug("checkConnectionTask : " + checkConnectionTask);
 
         sendLiquidityTask = new BotTask(
-                new SubmitLiquidityinfoTask(Global.options.verbose), Settings.SUBMIT_LIQUIDITY_SECONDS, "sendLiquidity");
+                new SubmitLiquidityinfoTask(Global.session().options.verbose), Settings.LIQUIDITY_CHECK_SECONDS, "sendLiquidity");
         taskList.add(sendLiquidityTask);
         LOG.debug("sendLiquidityTask : " + sendLiquidityTask);
 
@@ -120,9 +122,9 @@ public class TaskManager {
 
         //Select the correct interval
         int checkPriceInterval = Settings.CHECK_PRICE_INTERVAL;
-        CurrencyPair pair = Global.options.getPair();
-        boolean checkFiat = pair.getPaymentCurrency().isFiat() && !Global.swappedPair
-                || pair.getOrderCurrency().isFiat() && Global.swappedPair;
+        CurrencyPair pair = Global.session().options.getPair();
+        boolean checkFiat = pair.getPaymentCurrency().isFiat() && !Global.session().swappedPair
+                || pair.getOrderCurrency().isFiat() && Global.session().swappedPair;
 
         if (checkFiat) {
             checkPriceInterval = Settings.CHECK_PRICE_INTERVAL_FIAT;
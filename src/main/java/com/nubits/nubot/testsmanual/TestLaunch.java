@@ -52,10 +52,10 @@ public class TestLaunch {
 
         LOG.info("test");
 
-        Global.sessionPath = "testlaunch" + "/" + Settings.SESSION_LOG + System.currentTimeMillis();
-        MDC.put("session", Global.sessionPath);
+        Global.session().sessionPath = "testlaunch" + "/" + Settings.SESSION_LOG + System.currentTimeMillis();
+        MDC.put("session", Global.session().sessionPath);
 
-        LOG.info("defined session path " + Global.sessionPath);
+        LOG.info("defined session path " + Global.session().sessionPath);
 
         LOG.info("commit info " + VersionInfo.getBranchCommitInfo());
 
@@ -79,9 +79,9 @@ public class TestLaunch {
 
         LOG.info("test");
 
-        Global.sessionPath = "testlaunch" + "/" + Settings.SESSION_LOG + System.currentTimeMillis();
-        MDC.put("session", Global.sessionPath);
-        LOG.info("defined session path " + Global.sessionPath);
+        Global.session().sessionPath = "testlaunch" + "/" + Settings.SESSION_LOG + System.currentTimeMillis();
+        MDC.put("session", Global.session().sessionPath);
+        LOG.info("defined session path " + Global.session().sessionPath);
         LOG.info("commit info " + VersionInfo.getBranchCommitInfo());
 
         sessionLOG.debug("test launch");
@@ -191,10 +191,10 @@ public class TestLiquidityDistribution {
 
         long startTime = System.nanoTime(); //TIC
 
-        LOG.info("Placing sell orders on " + Global.exchange.getName());
+        LOG.info("Placing sell orders on " + Global.session().exchange.getName());
         WrapperTestUtils.testMultipleOrders(sellOrders, pair);
 
-        LOG.info("Placing buy orders on " + Global.exchange.getName());
+        LOG.info("Placing buy orders on " + Global.session().exchange.getName());
         WrapperTestUtils.testMultipleOrders(buyOrders, pair);
 
         LOG.info("Total Time: " + (System.nanoTime() - startTime) / 1000000 + " ms"); //TOC
@@ -203,7 +203,7 @@ public class TestLiquidityDistribution {
 
     private boolean configureBalances(CurrencyPair pair) {
         boolean success = true;
-        ApiResponse balanceNBTResponse = Global.exchange.getTrade().getAvailableBalance(CurrencyList.NBT);
+        ApiResponse balanceNBTResponse = Global.session().exchange.getTrade().getAvailableBalance(CurrencyList.NBT);
         if (balanceNBTResponse.isPositive()) {
             Amount balance = (Amount) balanceNBTResponse.getResponseObject();
             LOG.info("NBT Balance : " + balance.toString());
@@ -213,7 +213,7 @@ public class TestLiquidityDistribution {
             success = false;
         }
 
-        ApiResponse balancePEGResponse = Global.exchange.getTrade().getAvailableBalance(pair.getPaymentCurrency());
+        ApiResponse balancePEGResponse = Global.session().exchange.getTrade().getAvailableBalance(pair.getPaymentCurrency());
         if (balancePEGResponse.isPositive()) {
             Amount balance = (Amount) balancePEGResponse.getResponseObject();
             LOG.info(pair.getPaymentCurrency().getCode() + " Balance : " + balance.toString());
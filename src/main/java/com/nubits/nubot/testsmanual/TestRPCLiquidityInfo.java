@@ -78,7 +78,7 @@ public class TestRPCLiquidityInfo {
             buy = Double.parseDouble(args[4]);
         }
 
-        Global.rpcClient = new NuRPCClient("127.0.0.1", 9091, user, pass, true, custodian, CurrencyList.NBT_BTC, "");
+        Global.session().rpcClient = new NuRPCClient("127.0.0.1", 9091, user, pass, true, custodian, CurrencyList.NBT_BTC, "");
 
         TestRPCLiquidityInfo test = new TestRPCLiquidityInfo();
 
@@ -99,15 +99,15 @@ public class TestRPCLiquidityInfo {
     }
 
     private void testSendLiquidityInfo(double amountBuy, double amountSell, int tier) {
-        if (Global.rpcClient.isConnected()) {
-            JSONObject responseObject = Global.rpcClient.submitLiquidityInfo(Global.rpcClient.USDchar, amountBuy, amountSell, tier);
+        if (Global.session().rpcClient.isConnected()) {
+            JSONObject responseObject = Global.session().rpcClient.submitLiquidityInfo(Global.session().rpcClient.USDchar, amountBuy, amountSell, tier);
             if (null == responseObject) {
                 LOG.error("Something went wrong while sending liquidityinfo");
             } else {
                 LOG.info(responseObject.toJSONString());
-                if ((boolean) responseObject.get("submitted")) {
+                if (Boolean.TRUE.equals(responseObject.get("submitted"))) {
                     LOG.info("Now calling getliquidityinfo");
-                    JSONObject infoObject = Global.rpcClient.getLiquidityInfo(NuRPCClient.USDchar);
+                    JSONObject infoObject = Global.session().rpcClient.getLiquidityInfo(NuRPCClient.USDchar);
                     LOG.info(infoObject.toJSONString());
                 }
             }
@@ -118,8 +118,8 @@ public class TestRPCLiquidityInfo {
     }
 
     private void testGetInfo() {
-        if (Global.rpcClient.isConnected()) {
-            JSONObject responseObject = Global.rpcClient.getInfo();
+        if (Global.session().rpcClient.isConnected()) {
+            JSONObject responseObject = Global.session().rpcClient.getInfo();
             LOG.info(responseObject.toJSONString());
         } else {
             LOG.error("Nu Client offline. ");
@@ -128,18 +128,18 @@ public class TestRPCLiquidityInfo {
 
     private void testIsConnected() {
         String connectedString = "offline";
-        if (Global.rpcClient.isConnected()) {
+        if (Global.session().rpcClient.isConnected()) {
             connectedString = "online";
         }
-        LOG.info("Nud is " + connectedString + " @ " + Global.rpcClient.getIp() + ":" + Global.rpcClient.getPort());
+        LOG.info("Nud is " + connectedString + " @ " + Global.session().rpcClient.getIp() + ":" + Global.session().rpcClient.getPort());
     }
 
     private void testCheckNudTask() {
         //Create a TaskManager and
-        Global.taskManager = new TaskManager();
-        Global.taskManager.setNudTask();
+        Global.session().taskManager = new TaskManager();
+        Global.session().taskManager.setNudTask();
         //Start checking for connection
-        Global.taskManager.getCheckNudTask().start();
+        Global.session().taskManager.getCheckNudTask().start();
 
         //Wait a couple of seconds for the connectionThread to get live
         try {
@@ -150,8 +150,8 @@ public class TestRPCLiquidityInfo {
     }
 
     private void testGetLiquidityInfo() {
-        if (Global.rpcClient.isConnected()) {
-            JSONObject responseObject = Global.rpcClient.getLiquidityInfo(NuRPCClient.USDchar);
+        if (Global.session().rpcClient.isConnected()) {
+            JSONObject responseObject = Global.session().rpcClient.getLiquidityInfo(NuRPCClient.USDchar);
             if (null == responseObject) {
                 LOG.error("Something went wrong while sending liquidityinfo");
             } else {
@@ -163,8 +163,8 @@ public class TestRPCLiquidityInfo {
     }
 
     private void testGetLiquidityInfo(String type, String address) {
-        if (Global.rpcClient.isConnected()) {
-            double response = Global.rpcClient.getLiquidityInfo(NuRPCClient.USDchar, type, address);
+        if (Global.session().rpcClient.isConnected()) {
+            double response = Global.session().rpcClient.getLiquidityInfo(NuRPCClient.USDchar, type, address);
             if (response == -1) {
                 LOG.error("Something went wrong while sending liquidityinfo");
             } else {
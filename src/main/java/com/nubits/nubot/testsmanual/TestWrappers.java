@@ -199,15 +199,15 @@ public class TestWrappers {
 
         //Load keystore
         boolean trustAll = false;
-        if (Global.options.getExchangeName().equalsIgnoreCase(ExchangeFacade.INTERNAL_EXCHANGE_PEATIO)) {
+        if (Global.session().options.getExchangeName().equalsIgnoreCase(ExchangeFacade.INTERNAL_EXCHANGE_PEATIO)) {
             trustAll = true;
         }
         InitTests.loadKeystore(trustAll);
 
         try {
-            LOG.info("Public API key: " + Global.options.getApiKey());
-            LOG.info("Exchange: " + Global.options.getExchangeName());
-            WrapperTestUtils.configureExchange(Global.options.getExchangeName());
+            LOG.info("Public API key: " + Global.session().options.getApiKey());
+            LOG.info("Exchange: " + Global.session().options.getExchangeName());
+            WrapperTestUtils.configureExchange(Global.session().options.getExchangeName());
             InitTests.startConnectionCheck();
 
         } catch (NuBotConfigException ex) {
@@ -215,7 +215,7 @@ public class TestWrappers {
         }
 
 
-        Global.sessionLogFolder = Settings.TEST_LOGFOLDER;
+        Global.session().sessionLogFolder = Settings.TEST_LOGFOLDER;
     }
 
 
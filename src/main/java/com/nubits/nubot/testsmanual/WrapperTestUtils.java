@@ -40,7 +40,7 @@ public class WrapperTestUtils {
 
     public static void testGetAvailableBalances(CurrencyPair pair) {
         //Get all the balances  associated with the account
-        ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalances(pair);
+        ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalances(pair);
         if (balancesResponse.isPositive()) {
             LOG.info("\nPositive response  from TradeInterface.getBalance() ");
             PairBalance balance = (PairBalance) balancesResponse.getResponseObject();
@@ -54,7 +54,7 @@ public class WrapperTestUtils {
 
     public static void testGetAvailableBalance(Currency cur) {
         //Get the USD balance associated with the account
-        ApiResponse balanceResponse = Global.exchange.getTrade().getAvailableBalance(cur);
+        ApiResponse balanceResponse = Global.session().exchange.getTrade().getAvailableBalance(cur);
         if (balanceResponse.isPositive()) {
             LOG.info("Positive response from TradeInterface.getBalance(Currency cur) ");
             Amount balance = (Amount) balanceResponse.getResponseObject();
@@ -67,7 +67,7 @@ public class WrapperTestUtils {
 
     public static void testGetLastPrice(CurrencyPair pair) {
         //Get lastPrice for a given CurrencyPair
-        ApiResponse lastPriceResponse = Global.exchange.getTrade().getLastPrice(pair);
+        ApiResponse lastPriceResponse = Global.session().exchange.getTrade().getLastPrice(pair);
         if (lastPriceResponse.isPositive()) {
             LOG.info("\nPositive response  from TradeInterface.getLastPrice(CurrencyPair pair) ");
             Ticker ticker = (Ticker) lastPriceResponse.getResponseObject();
@@ -88,7 +88,7 @@ public class WrapperTestUtils {
         //Place a sell order
 
 
-        ApiResponse sellResponse = Global.exchange.getTrade().sell(pair, amountSell, priceSell);
+        ApiResponse sellResponse = Global.session().exchange.getTrade().sell(pair, amountSell, priceSell);
         if (sellResponse.isPositive()) {
 
             LOG.info("\nPositive response  from TradeInterface.sell(...) ");
@@ -106,7 +106,7 @@ public class WrapperTestUtils {
     public static void testBuy(double amountBuy, double priceBuy, CurrencyPair pair) {
         //Place a buy order
 
-        ApiResponse buyResponse = Global.exchange.getTrade().buy(pair, amountBuy, priceBuy);
+        ApiResponse buyResponse = Global.session().exchange.getTrade().buy(pair, amountBuy, priceBuy);
         if (buyResponse.isPositive()) {
             LOG.info("\nPositive response  from TradeInterface.buy(...) ");
             LOG.info("Submit order : "
@@ -122,7 +122,7 @@ public class WrapperTestUtils {
 
     public static void testGetActiveOrders() {
         //Get active orders
-        ApiResponse activeOrdersResponse = Global.exchange.getTrade().getActiveOrders();
+        ApiResponse activeOrdersResponse = Global.session().exchange.getTrade().getActiveOrders();
         if (activeOrdersResponse.isPositive()) {
             LOG.info("\nPositive response  from TradeInterface.getActiveOrders() ");
             ArrayList<Order> orderList = (ArrayList<Order>) activeOrdersResponse.getResponseObject();
@@ -140,7 +140,7 @@ public class WrapperTestUtils {
 
     public static void testGetActiveOrders(CurrencyPair pair, boolean printThem) {
         //Get active orders associated with a specific CurrencyPair
-        ApiResponse activeOrdersUSDNTBResponse = Global.exchange.getTrade().getActiveOrders(pair);
+        ApiResponse activeOrdersUSDNTBResponse = Global.session().exchange.getTrade().getActiveOrders(pair);
         if (activeOrdersUSDNTBResponse.isPositive()) {
             LOG.info("\nPositive response  from TradeInterface.getActiveOrders(CurrencyPair pair) ");
             ArrayList<Order> orderListUSDNBT = (ArrayList<Order>) activeOrdersUSDNTBResponse.getResponseObject();
@@ -159,7 +159,7 @@ public class WrapperTestUtils {
 
     public static void testGetOrderDetail(String order_id_detail) {
         //Get the order details for a specific order_id
-        ApiResponse orderDetailResponse = Global.exchange.getTrade().getOrderDetail(order_id_detail);
+        ApiResponse orderDetailResponse = Global.session().exchange.getTrade().getOrderDetail(order_id_detail);
         if (orderDetailResponse.isPositive()) {
             LOG.info("\nPositive response  from TradeInterface.getOrderDetail(id) ");
             Order order = (Order) orderDetailResponse.getResponseObject();
@@ -171,7 +171,7 @@ public class WrapperTestUtils {
 
     public static void testCancelOrder(String order_id_delete, CurrencyPair pair) {
         //Cancel an order
-        ApiResponse deleteOrderResponse = Global.exchange.getTrade().cancelOrder(order_id_delete, pair);
+        ApiResponse deleteOrderResponse = Global.session().exchange.getTrade().cancelOrder(order_id_delete, pair);
         if (deleteOrderResponse.isPositive()) {
             boolean deleted = (boolean) deleteOrderResponse.getResponseObject();
 
@@ -188,7 +188,7 @@ public class WrapperTestUtils {
 
     public static void testGetTxFee() {
         //Get current trascation fee
-        ApiResponse txFeeResponse = Global.exchange.getTrade().getTxFee();
+        ApiResponse txFeeResponse = Global.session().exchange.getTrade().getTxFee();
         if (txFeeResponse.isPositive()) {
             LOG.info("\nPositive response  from TradeInterface.getTxFee()");
             double txFee = (Double) txFeeResponse.getResponseObject();
@@ -200,7 +200,7 @@ public class WrapperTestUtils {
 
     public static void testGetTxFeeWithArgs(CurrencyPair pair) {
         //Get the current transaction fee associated with a specific CurrencyPair
-        ApiResponse txFeeNTBUSDResponse = Global.exchange.getTrade().getTxFee(pair);
+        ApiResponse txFeeNTBUSDResponse = Global.session().exchange.getTrade().getTxFee(pair);
         if (txFeeNTBUSDResponse.isPositive()) {
             LOG.info("\nPositive response  from TradeInterface.getTxFee(CurrencyPair pair)");
             double txFeeUSDNTB = (Double) txFeeNTBUSDResponse.getResponseObject();
@@ -212,7 +212,7 @@ public class WrapperTestUtils {
 
     public static void testIsOrderActive(String orderId) {
         //Check if orderId is active
-        ApiResponse orderDetailResponse = Global.exchange.getTrade().isOrderActive(orderId);
+        ApiResponse orderDetailResponse = Global.session().exchange.getTrade().isOrderActive(orderId);
         if (orderDetailResponse.isPositive()) {
             LOG.info("\nPositive response  from TradeInterface.isOrderActive(id) ");
             boolean exist = (boolean) orderDetailResponse.getResponseObject();
@@ -224,7 +224,7 @@ public class WrapperTestUtils {
 
     public static void testClearAllOrders(CurrencyPair pair) {
         LOG.debug("TestClearAllOrders");
-        ApiResponse deleteOrdersResponse = Global.exchange.getTrade().clearOrders(pair);
+        ApiResponse deleteOrdersResponse = Global.session().exchange.getTrade().clearOrders(pair);
         if (deleteOrdersResponse.isPositive()) {
             boolean deleted = (boolean) deleteOrdersResponse.getResponseObject();
 
@@ -241,7 +241,7 @@ public class WrapperTestUtils {
 
     public static void testGetLastTrades(CurrencyPair pair) {
         //Get active orders
-        ApiResponse activeOrdersResponse = Global.exchange.getTrade().getLastTrades(pair);
+        ApiResponse activeOrdersResponse = Global.session().exchange.getTrade().getLastTrades(pair);
         if (activeOrdersResponse.isPositive()) {
             LOG.info("\nPositive response  from TradeInterface.getLastTrades(pair) ");
             ArrayList<Trade> tradeList = (ArrayList<Trade>) activeOrdersResponse.getResponseObject();
@@ -257,7 +257,7 @@ public class WrapperTestUtils {
 
     public static void testGetLastTrades(CurrencyPair pair, long startTime) {
         //Get active orders
-        ApiResponse activeOrdersResponse = Global.exchange.getTrade().getLastTrades(pair, startTime);
+        ApiResponse activeOrdersResponse = Global.session().exchange.getTrade().getLastTrades(pair, startTime);
         if (activeOrdersResponse.isPositive()) {
             LOG.info("\nPositive response  from TradeInterface.getLastTrades(pair,startTime) ");
             ArrayList<Trade> tradeList = (ArrayList<Trade>) activeOrdersResponse.getResponseObject();
@@ -319,25 +319,25 @@ public class WrapperTestUtils {
     public static void configureExchange(String exchangeName) throws NuBotConfigException {
 
         //Create exchange object
-        Global.exchange = new Exchange(exchangeName);
+        Global.session().exchange = new Exchange(exchangeName);
 
-        //Create e ExchangeLiveData object to accomodate liveData from the Global.exchange
+        //Create e ExchangeLiveData object to accomodate liveData from the Global.session().exchange
         ExchangeLiveData liveData = new ExchangeLiveData();
-        Global.exchange.setLiveData(liveData);
+        Global.session().exchange.setLiveData(liveData);
 
         //Create the ApiKeys object reading from option files
-        ApiKeys keys = new ApiKeys(Global.options.getApiSecret(), Global.options.getApiKey());
+        ApiKeys keys = new ApiKeys(Global.session().options.getApiSecret(), Global.session().options.getApiKey());
 
         //Create a new TradeInterface object using the custom implementation
-        TradeInterface ti = ExchangeFacade.getInterfaceByName(exchangeName, keys, Global.exchange);
+        TradeInterface ti = ExchangeFacade.getInterfaceByName(exchangeName, keys, Global.session().exchange);
 
         //Assign the keys to the TradeInterface
         ti.setKeys(keys);
 
         //Assign the TradeInterface to the exchange
-        Global.exchange.setTrade(ti);
+        Global.session().exchange.setTrade(ti);
 
         //Set the connection check url
-        Global.exchange.getLiveData().setUrlConnectionCheck(Global.exchange.getTrade().getUrlConnectionCheck());
+        Global.session().exchange.getLiveData().setUrlConnectionCheck(Global.session().exchange.getTrade().getUrlConnectionCheck());
     }
 }
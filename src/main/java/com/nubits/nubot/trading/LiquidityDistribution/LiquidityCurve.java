@@ -22,6 +22,8 @@ package com.nubits.nubot.trading.LiquidityDistribution;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Objects;
+
 public abstract class LiquidityCurve {
 
     private static final Logger LOG = LoggerFactory.getLogger(LiquidityCurve.class.getName());
@@ -45,9 +47,36 @@ public abstract class LiquidityCurve {
         }
     }
 
-    abstract double[] computeOrderSize(double[] prices, double wallHeight, String wallType, double startPrice, double pegPrice);
+    /**
+     * fill sizes with the size of the order at each price of the tail
+     *
+     * @param sizes buffer at least as long as prices
+     */
+    abstract void computeOrderSize(double[] prices, double wallHeight, String wallType, double startPrice, double pegPrice, double[] sizes);
 
     abstract double computeCoefficient();
 
     abstract double computeIncrement(int index, double wallHeight);
+
+    public String getSteepness() {
+        return steepness;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * getClass().hashCode() + Objects.hashCode(steepness);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return Objects.equals(steepness, ((LiquidityCurve) obj).steepness);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" + steepness + "}";
+    }
 }
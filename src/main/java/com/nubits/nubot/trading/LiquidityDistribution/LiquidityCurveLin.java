@@ -32,14 +32,10 @@ public class LiquidityCurveLin extends LiquidityCurve {
     }
 
     @Override
-    double[] computeOrderSize(double[] prices, double wallHeight, String wallType, double wallPrice, double pegPrice) {
-        double[] toReturn = new double[prices.length];
-
+    void computeOrderSize(double[] prices, double wallHeight, String wallType, double wallPrice, double pegPrice, double[] sizes) {
         for (int i = 0; i < prices.length; i++) {
-            toReturn[i] = Utils.round(wallHeight + computeIncrement(i, wallHeight), 8);
+            sizes[i] = Utils.round(wallHeight + computeIncrement(i, wallHeight), 8);
         }
-
-        return toReturn;
     }
 
     @Override
@@ -32,17 +32,17 @@ public class LiquidityCurveLog extends LiquidityCurve {
     }
 
     @Override
-    double[] computeOrderSize(double[] prices, double wallHeight, String wallType, double wallPrice, double pegPrice) {
-        double[] toReturn = new double[prices.length];
-
-        double m = computeCoefficient();
-
-        double increment = m * wallHeight;
+    void computeOrderSize(double[] prices, double wallHeight, String wallType, double wallPrice, double pegPrice, double[] sizes) {
+        //same as computeIncrement, without the recursion
+        double increment = 0;
         for (int i = 0; i < prices.length; i++) {
-            toReturn[i] = Utils.round(wallHeight + computeIncrement(i, wallHeight), 8);
+            if (i == 0) {
+                increment = computeCoefficient() * wallHeight / 4;
+            } else {
+                increment += ((1000 / (i + 2))) * computeCoefficient();
+            }
+            sizes[i] = Utils.round(wallHeight + increment, 8);
         }
-
-        return toReturn;
     }
 
     @Override
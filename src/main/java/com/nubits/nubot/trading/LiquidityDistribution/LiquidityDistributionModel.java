@@ -20,6 +20,7 @@ package com.nubits.nubot.trading.LiquidityDistribution;
 
 
 import com.nubits.nubot.global.Constant;
+import com.nubits.nubot.global.Settings;
 import com.nubits.nubot.models.Amount;
 import com.nubits.nubot.models.CurrencyPair;
 import com.nubits.nubot.models.OrderToPlace;
@@ -28,10 +29,25 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public class LiquidityDistributionModel {
 
     private static final Logger LOG = LoggerFactory.getLogger(LiquidityDistributionModel.class.getName());
+
+    //least recently used first
+    private static final LinkedHashMap<ShapeKey, Shape> shapes = new LinkedHashMap<ShapeKey, Shape>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ShapeKey, Shape> eldest) {
+            return size() > Settings.LADDER_SHAPE_CACHE;
+        }
+    };
+    private static long shapeRequests;
+    private static long shapeHits;
+
     private ModelParameters sellParams, buyParams;
 
     public LiquidityDistributionModel(ModelParameters sellParams, ModelParameters buyParams) {
@@ -87,74 +103,225 @@ public class LiquidityDistributionModel {
 
     private ArrayList<OrderToPlace> getOrdersToPlaceImpl(ModelParameters params, Amount funds, String wallType, double pegPrice, CurrencyPair pair, double txFee) {
         ArrayList<OrderToPlace> toReturn = new ArrayList();
-
-        //First create the wall order and add it to the list
+        Shape shape = getShape(params, wallType, txFee);
         double oneUSD = Utils.round(1 / pegPrice, 8); //one $ expressed in the peg currency
-        double wallPrice = oneUSD;
-
-        double offset = Utils.round(params.getOffset() * oneUSD, 8); //Convert the spread in the peg currency
-        double fee = Utils.round((oneUSD / 100) * txFee, 8); //Convert the txFee in the peg currency
-
-        double totalOffset = offset + fee;//Compute the total offset by adding spread+fee
-
-        double endPrice; // The last price of the book
-        double wallWidthPeg = Utils.round(params.getWallWidth() * oneUSD, 8);
-
+        double wallPrice = Utils.round(shape.wallPrice * oneUSD, 8);
 
         double totalFundsAvailNBT = funds.getQuantity();
-        //Add it or remove it from the price, based on the type of order
-        if (wallType.equals(Constant.SELL)) {
-            wallPrice += totalOffset;
-            endPrice = wallPrice + wallWidthPeg;
-        } else {
-            wallPrice -= totalOffset;
-            endPrice = wallPrice - wallWidthPeg;
+        if (wallType.equals(Constant.BUY)) {
             totalFundsAvailNBT = Utils.round(totalFundsAvailNBT * pegPrice, 8);
         }
-        wallPrice = Utils.round(wallPrice, 8);
-
 
         double wallHeight = params.getWallHeight();
-        boolean tailAvailable = true;
         if (wallHeight > totalFundsAvailNBT) {
             LOG.warn("The current balance equivalent " + totalFundsAvailNBT
                     + " NBT is not enought to place the full " + wallType + "wall"
                     + " defined in the liquidity model (" + wallHeight + "). "
                     + "\nResizing the size of the order, and not adding the tail");
 
-            tailAvailable = false;
-            wallHeight = totalFundsAvailNBT - 1;
+            toReturn.add(new OrderToPlace(wallType, pair, totalFundsAvailNBT - 1, wallPrice));
+            return toReturn;
         }
 
         toReturn.add(new OrderToPlace(wallType, pair, wallHeight, wallPrice));        //Add first order
-        totalFundsAvailNBT -= wallHeight;
-
-        if (tailAvailable) {
-            //Compute the array of prices
-            double[] prices = getPriceArray(wallPrice, endPrice, wallType, params.getDensity(), pegPrice);
-            double[] sizes = params.getCurve().computeOrderSize(prices, params.getWallHeight(), wallType, wallPrice, pegPrice);
-
-            boolean prepareNext = true;
-            for (int i = 0; i < prices.length; i++) {
-                if (prepareNext) {
-                    if (sizes[i] < totalFundsAvailNBT) {
-                        toReturn.add(new OrderToPlace(wallType, pair, sizes[i], prices[i]));
-                        totalFundsAvailNBT -= sizes[i];
-                    } else {
-                        LOG.warn("Not enough liquidity to place the full tail as defined in the model. Skipping the rest of the tail"
-                                + "\ntotalFundsAvailNBT = " + totalFundsAvailNBT + " ; sizes[i] = " + sizes[i]);
-                        break;
-                    }
 
+        int levels = shape.levelsWithin(totalFundsAvailNBT - wallHeight);
+        if (levels < shape.prices.length) {
+            LOG.warn("Not enough liquidity to place the full tail as defined in the model. Skipping the rest of the tail"
+                    + "\ntotalFundsAvailNBT = " + totalFundsAvailNBT + " ; levels placed = " + levels + "/" + shape.prices.length);
+        }
+        for (int i = 0; i < levels; i++) {
+            toReturn.add(new OrderToPlace(wallType, pair, shape.sizes[i], Utils.round(shape.prices[i] * oneUSD, 8)));
+        }
+        return toReturn;
+    }
+
+    /**
+     * the ladder for the parameters, in USD : the model sets offsets, widths and distances in USD, so the ladder of
+     * any peg price is this one converted. Computed once for every set of parameters
+     */
+    private static Shape getShape(ModelParameters params, String wallType, double txFee) {
+        //snapshot of the parameters : they are mutable
+        ModelParameters keyParams = new ModelParameters(params.getOffset(), params.getWallHeight(), params.getWallWidth(), params.getDensity(), params.getCurve());
+        ShapeKey key = new ShapeKey(keyParams, wallType, txFee);
+        synchronized (shapes) {
+            shapeRequests++;
+            Shape shape = shapes.get(key);
+            if (shape == null) {
+                shape = new Shape(params, wallType, 1, txFee);
+                shapes.put(key, shape);
+            } else {
+                shapeHits++;
+            }
+            return shape;
+        }
+    }
+
+    /**
+     * @return the share of the ladders served from the cache, since the process started
+     */
+    public static double getShapeHitRate() {
+        synchronized (shapes) {
+            return shapeRequests == 0 ? 0 : (double) shapeHits / shapeRequests;
+        }
+    }
+
+    /**
+     * drop the cached ladders and their hit rate
+     */
+    public static void clearShapes() {
+        synchronized (shapes) {
+            shapes.clear();
+            shapeRequests = 0;
+            shapeHits = 0;
+        }
+    }
+
+    /**
+     * prices and sizes of a ladder, before truncation to the funds available
+     */
+    private static class Shape {
+        private final double wallPrice;
+        private final double[] prices; //tail only
+        private final double[] sizes;
+        private final double[] cumulative; //cumulative[i] = sizes[0] + ... + sizes[i]
+
+        private Shape(ModelParameters params, String wallType, double pegPrice, double txFee) {
+            double oneUSD = Utils.round(1 / pegPrice, 8); //one $ expressed in the peg currency
+            double offset = Utils.round(params.getOffset() * oneUSD, 8); //Convert the spread in the peg currency
+            double fee = Utils.round((oneUSD / 100) * txFee, 8); //Convert the txFee in the peg currency
+            double totalOffset = offset + fee;//Compute the total offset by adding spread+fee
+            double wallWidthPeg = Utils.round(params.getWallWidth() * oneUSD, 8);
+
+            //Add it or remove it from the price, based on the type of order
+            double price;
+            double endPrice; // The last price of the book
+            if (wallType.equals(Constant.SELL)) {
+                price = oneUSD + totalOffset;
+                endPrice = price + wallWidthPeg;
+            } else {
+                price = oneUSD - totalOffset;
+                endPrice = price - wallWidthPeg;
+            }
+            wallPrice = Utils.round(price, 8);
+
+            prices = getPriceArray(wallPrice, endPrice, wallType, params.getDensity(), pegPrice);
+            sizes = new double[prices.length];
+            params.getCurve().computeOrderSize(prices, params.getWallHeight(), wallType, wallPrice, pegPrice, sizes);
+            cumulative = new double[prices.length];
+            double sum = 0;
+            for (int i = 0; i < sizes.length; i++) {
+                sum += sizes[i];
+                cumulative[i] = sum;
+            }
+        }
+
+        /**
+         * number of tail levels placed in order with the funds : each one fits in what the previous ones left
+         */
+        private int levelsWithin(double funds) {
+            int low = 0;
+            int high = cumulative.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < funds) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
                 }
             }
-            System.out.println("\n");
+            return low;
+        }
+    }
 
+    private static class ShapeKey {
+        private final ModelParameters params;
+        private final String wallType;
+        private final double txFee;
+
+        private ShapeKey(ModelParameters params, String wallType, double txFee) {
+            this.params = params;
+            this.wallType = wallType;
+            this.txFee = txFee;
         }
-        return toReturn;
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(params, wallType, txFee);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ShapeKey)) {
+                return false;
+            }
+            ShapeKey other = (ShapeKey) obj;
+            return params.equals(other.params) && wallType.equals(other.wallType)
+                    && Double.compare(txFee, other.txFee) == 0;
+        }
+    }
+
+    /**
+     * merge adjacent levels of a ladder into the fewest orders whose cumulative depth stays within tolerance
+     * of the ladder's, and in any case into at most maxOrders orders.
+     * A merged order is placed at the price of its first level, the closest to the peg : at any price the compressed
+     * book offers at least the depth of the ladder, and at most tolerance * total depth more.
+     * When maxOrders cannot be met within tolerance the order count wins, with the smallest excess that fits
+     *
+     * @param ladder    levels, from the wall outwards
+     * @param maxOrders
+     * @param tolerance [0-1] fraction of the total depth
+     * @return
+     */
+    public static ArrayList<OrderToPlace> compress(List<OrderToPlace> ladder, int maxOrders, double tolerance) {
+        maxOrders = Math.max(maxOrders, 1);
+        double total = 0;
+        for (OrderToPlace level : ladder) {
+            total += level.getSize();
+        }
+
+        double maxExcess = tolerance * total;
+        ArrayList<OrderToPlace> compressed = merge(ladder, maxExcess);
+        if (compressed.size() > maxOrders) {
+            double low = maxExcess;
+            double high = total;
+            for (int i = 0; i < 50; i++) {
+                double mid = (low + high) / 2;
+                if (merge(ladder, mid).size() <= maxOrders) {
+                    high = mid;
+                } else {
+                    low = mid;
+                }
+            }
+            compressed = merge(ladder, high);
+            LOG.warn("Cannot place the ladder in " + maxOrders + " orders within " + tolerance * 100 + "% of its depth : "
+                    + "off by up to " + Utils.round(high * 100 / total, 2) + "%");
+        }
+        return compressed;
+    }
+
+    /**
+     * greedy merge : a group grows as long as the sizes after its first level sum up to at most maxExcess.
+     * Gives the fewest groups for maxExcess
+     */
+    private static ArrayList<OrderToPlace> merge(List<OrderToPlace> ladder, double maxExcess) {
+        ArrayList<OrderToPlace> merged = new ArrayList<>();
+        OrderToPlace group = null;
+        double excess = 0;
+        for (OrderToPlace level : ladder) {
+            if (group != null && excess + level.getSize() <= maxExcess) {
+                group.setSize(Utils.round(group.getSize() + level.getSize(), 8));
+                excess += level.getSize();
+            } else {
+                group = new OrderToPlace(level.getType(), level.getPair(), level.getSize(), level.getPrice());
+                merged.add(group);
+                excess = 0;
+            }
+        }
+        return merged;
     }
 
-    private double[] getPriceArray(double startPrice, double endPrice, String type, double density, double pegPrice) {
+    private static double[] getPriceArray(double startPrice, double endPrice, String type, double density, double pegPrice) {
         double oneUSD = Utils.round(1 / pegPrice, 8); //one $ expressed in the peg currency
         double distanceAmongOrders = Utils.round(density * oneUSD, 8); //Convert the distance in the peg currency
         int numberOfElements = Utils.safeLongToInt(Math.round((Math.abs(startPrice - endPrice)) / distanceAmongOrders));
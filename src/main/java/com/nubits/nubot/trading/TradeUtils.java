@@ -39,10 +39,10 @@ public class TradeUtils {
 
 
     public static double getSellPrice(double txFee) {
-        if (Global.options.isDualSide()) {
+        if (Global.session().options.isDualSide()) {
             return 1 + (0.01 * txFee);
         } else {
-            return 1 + (0.01 * txFee) + Global.options.getPriceIncrement();
+            return 1 + (0.01 * txFee) + Global.session().options.getPriceIncrement();
         }
 
     }
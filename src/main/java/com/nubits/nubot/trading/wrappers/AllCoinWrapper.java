@@ -552,8 +552,8 @@ public class AllCoinWrapper implements TradeInterface {
 
         //AllCoin global txFee is 0.15 not the global setting of 0.2
 
-        //if (Global.options != null) {
-        //    return new ApiResponse(true, Global.options.getTxFee(), null);
+        //if (Global.session().options != null) {
+        //    return new ApiResponse(true, Global.session().options.getTxFee(), null);
         //} else {
         return new ApiResponse(true, defaultFee, null);
         //}
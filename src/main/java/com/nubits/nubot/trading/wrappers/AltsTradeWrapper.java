@@ -665,8 +665,8 @@ public class AltsTradeWrapper implements TradeInterface {
                 LOG.error(ex.toString());
                 return null;
             }
-            if (Global.options
-                    != null && Global.options.isVerbose()) {
+            if (Global.session().options
+                    != null && Global.session().options.isVerbose()) {
 
                 LOG.trace("\nSending request to URL : " + base + " ; get = " + isGet);
                 if (post != null) {
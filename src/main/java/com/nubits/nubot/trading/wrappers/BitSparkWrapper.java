@@ -97,7 +97,7 @@ public class BitSparkWrapper implements TradeInterface {
         } else {
             try {
 
-                if (Global.options.isVerbose()) {
+                if (Global.session().options.isVerbose()) {
                     LOG.debug(System.currentTimeMillis() + " - Api is busy, I'll sleep and retry in a few ms (" + requester + ")");
                 }
 
@@ -498,7 +498,7 @@ public class BitSparkWrapper implements TradeInterface {
 
     private ApiResponse getTxFeeImpl() {
 
-        return new ApiResponse(true, Global.options.getTxFee(), null);
+        return new ApiResponse(true, Global.session().options.getTxFee(), null);
 
     }
 
@@ -647,7 +647,7 @@ public class BitSparkWrapper implements TradeInterface {
         apiBusy = true;
         long currentTime = System.currentTimeMillis();
 
-        if (Global.options.isVerbose()) {
+        if (Global.session().options.isVerbose()) {
             LOG.debug(currentTime + " Now apiBusy! req : " + requester);
         }
 
@@ -657,8 +657,8 @@ public class BitSparkWrapper implements TradeInterface {
                 long sleepTime = SPACING_BETWEEN_CALLS;
                 Thread.sleep(sleepTime);
                 currentTime = System.currentTimeMillis();
-                if (Global.options != null) {
-                    if (Global.options.isVerbose()) {
+                if (Global.session().options != null) {
+                    if (Global.session().options.isVerbose()) {
                         LOG.debug("Just slept " + sleepTime + "; req : " + requester);
                     }
                 }
@@ -669,7 +669,7 @@ public class BitSparkWrapper implements TradeInterface {
 
         lastSentTonce = currentTime;
 
-        if (Global.options.isVerbose()) {
+        if (Global.session().options.isVerbose()) {
             LOG.debug("Final tonce to be sent: req : " + requester + " ; Tonce=" + lastSentTonce);
         }
 
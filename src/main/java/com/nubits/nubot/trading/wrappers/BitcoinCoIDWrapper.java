@@ -293,7 +293,7 @@ public class BitcoinCoIDWrapper implements TradeInterface {
         if (pair != null) {
             query_args.put("pair", pair.toStringSep());
         } else {
-            pair = Global.options.getPair();
+            pair = Global.session().options.getPair();
             query_args.put("pair", pair.toStringSep());
         }
 
@@ -324,17 +324,17 @@ public class BitcoinCoIDWrapper implements TradeInterface {
         out.setType(in.get("type").toString().equals("buy") ? Constant.BUY : Constant.SELL);
         String cur;
         Amount amount;
-        Amount price = new Amount(Double.parseDouble(in.get("price").toString()), Global.options.getPair().getPaymentCurrency());
+        Amount price = new Amount(Double.parseDouble(in.get("price").toString()), Global.session().options.getPair().getPaymentCurrency());
         if (out.getType().equals(Constant.BUY)) {
-            cur = Global.options.getPair().getPaymentCurrency().getCode().toLowerCase();
+            cur = Global.session().options.getPair().getPaymentCurrency().getCode().toLowerCase();
             if (!convertBuyAmounts) {
-                amount = new Amount(Double.parseDouble(in.get("order_" + cur).toString()) / price.getQuantity(), Global.options.getPair().getOrderCurrency());
+                amount = new Amount(Double.parseDouble(in.get("order_" + cur).toString()) / price.getQuantity(), Global.session().options.getPair().getOrderCurrency());
             } else {
-                amount = new Amount(Double.parseDouble(in.get("order_" + cur).toString()), Global.options.getPair().getPaymentCurrency()); //Leave the amount expressed in PEG currency, to count orders
+                amount = new Amount(Double.parseDouble(in.get("order_" + cur).toString()), Global.session().options.getPair().getPaymentCurrency()); //Leave the amount expressed in PEG currency, to count orders
             }
         } else {
-            cur = Global.options.getPair().getOrderCurrency().getCode().toLowerCase();
-            amount = new Amount(Double.parseDouble(in.get("order_" + cur).toString()), Global.options.getPair().getOrderCurrency());
+            cur = Global.session().options.getPair().getOrderCurrency().getCode().toLowerCase();
+            amount = new Amount(Double.parseDouble(in.get("order_" + cur).toString()), Global.session().options.getPair().getOrderCurrency());
         }
         out.setPair(cp);
 
@@ -471,7 +471,7 @@ public class BitcoinCoIDWrapper implements TradeInterface {
         out.setType(in.get("type").toString().equals("buy") ? Constant.BUY : Constant.SELL);
         Date tradeDate = new Date(Long.parseLong(in.get("trade_time").toString()) * 1000L);
         out.setDate(tradeDate);
-        out.setExchangeName(Global.exchange.getName());
+        out.setExchangeName(Global.session().exchange.getName());
         Amount fee = new Amount(Double.parseDouble(in.get("fee").toString()), pair.getPaymentCurrency());
         out.setFee(fee);
         Amount amount = new Amount(Double.parseDouble(in.get(pair.getOrderCurrency().getCode().toLowerCase()).toString()), pair.getOrderCurrency());
@@ -482,7 +482,7 @@ public class BittrexWrapper implements TradeInterface {
     private Trade parseTrade(JSONObject in) {
         Trade out = new Trade();
 
-        out.setExchangeName(Global.exchange.getName());
+        out.setExchangeName(Global.session().exchange.getName());
         //Bittrex returns the currencies inverted. turn them round here.
         CurrencyPair orderPair = CurrencyPair.getCurrencyPairFromString(in.get("Exchange").toString(), "-");
         CurrencyPair pair = new CurrencyPair(orderPair.getPaymentCurrency(), orderPair.getOrderCurrency());
@@ -301,7 +301,7 @@ public class BtceWrapper implements TradeInterface {
     @Override
     public ApiResponse getTxFee() {
 
-        return new ApiResponse(true, Global.options.getTxFee(), null);
+        return new ApiResponse(true, Global.session().options.getTxFee(), null);
 
         /* else {
             ApiResponse apiResponse = new ApiResponse();
@@ -905,8 +905,8 @@ public class BterWrapper implements TradeInterface {
                 LOG.error(ex.toString());
                 return null;
             }
-            if (Global.options
-                    != null && Global.options.isVerbose()) {
+            if (Global.session().options
+                    != null && Global.session().options.isVerbose()) {
 
                 LOG.info("\nSending request to URL : " + url + " ; get = " + isGet);
                 if (post != null) {
@@ -449,7 +449,7 @@ public class CcedkWrapper implements TradeInterface {
     @Override
     public ApiResponse getTxFee() {
 
-        return new ApiResponse(true, Global.options.getTxFee(), null);
+        return new ApiResponse(true, Global.session().options.getTxFee(), null);
 
     }
 
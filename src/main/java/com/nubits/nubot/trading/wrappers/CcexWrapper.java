@@ -462,7 +462,7 @@ public class CcexWrapper implements TradeInterface {
     @Override
     public ApiResponse getTxFee() {
 
-        return new ApiResponse(true, Global.options.getTxFee(), null);
+        return new ApiResponse(true, Global.session().options.getTxFee(), null);
 
     }
 
@@ -832,8 +832,8 @@ public class CcexWrapper implements TradeInterface {
                 LOG.error("" + ex);
                 return null;
             }
-            if (Global.options
-                    != null && Global.options.isVerbose()) {
+            if (Global.session().options
+                    != null && Global.session().options.isVerbose()) {
 
                 LOG.info("\nSending request to URL : " + url + " ; get = " + isGet);
                 if (post != null) {
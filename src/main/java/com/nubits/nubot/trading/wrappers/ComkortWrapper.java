@@ -377,7 +377,7 @@ public class ComkortWrapper implements TradeInterface {
 
     @Override
     public ApiResponse getTxFee() {
-        double defaultFee = Global.options == null ? 0.2 : Global.options.getTxFee();
+        double defaultFee = Global.session().options == null ? 0.2 : Global.session().options.getTxFee();
         return new ApiResponse(true, defaultFee, null);
     }
 
@@ -443,7 +443,7 @@ public class ComkortWrapper implements TradeInterface {
             Date insertDate = new Date(timeStamp);
             out.setDate(insertDate);
         }
-        out.setExchangeName(Global.exchange.getName());
+        out.setExchangeName(Global.session().exchange.getName());
         out.setId(in.get("id").toString());
         if (in.get("buy_order_id").equals(false)) {
             out.setOrder_id(in.get("sell_order_id").toString());
@@ -668,7 +668,7 @@ public class ComkortWrapper implements TradeInterface {
             }
 
             if (httpError) {
-                if (Global.options.isVerbose()) {
+                if (Global.session().options.isVerbose()) {
                     LOG.warn("Query to : " + url
                             + "\nData : " + post_data
                             + "\nHTTP Response : " + Objects.toString(response));
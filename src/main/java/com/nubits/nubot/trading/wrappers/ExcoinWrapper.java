@@ -433,7 +433,7 @@ public class ExcoinWrapper implements TradeInterface {
 
     @Override
     public ApiResponse getTxFee() {
-        return new ApiResponse(true, Global.options.getTxFee(), null);
+        return new ApiResponse(true, Global.session().options.getTxFee(), null);
     }
 
     @Override
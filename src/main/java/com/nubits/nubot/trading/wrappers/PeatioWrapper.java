@@ -484,7 +484,7 @@ public class PeatioWrapper implements TradeInterface {
 
     private ApiResponse getTxFeeImpl() {
 
-        return new ApiResponse(true, Global.options.getTxFee(), null);
+        return new ApiResponse(true, Global.session().options.getTxFee(), null);
 
     }
 
@@ -418,7 +418,7 @@ public class PoloniexWrapper implements TradeInterface {
     @Override
     public ApiResponse getTxFee() {
 
-        return new ApiResponse(true, Global.options.getTxFee(), null);
+        return new ApiResponse(true, Global.session().options.getTxFee(), null);
 
     }
 
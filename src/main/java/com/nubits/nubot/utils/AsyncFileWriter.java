@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.utils;
+
+import com.nubits.nubot.global.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background writer for every file the bot writes.
+ * Callers hand over their text and return at once; one thread keeps the files open, groups the appends of all
+ * producers and writes them when Settings.FILE_WRITER_FLUSH_BYTES are pending, when the oldest pending append is
+ * Settings.FILE_WRITER_FLUSH_INTERVAL ms old, when someone waits for them, and at shutdown.
+ * In durable mode a write is forced to disk before the caller is released : concurrent durable appends share one sync.
+ * Segmented files are rotated by the writer itself once written, see SegmentedFile.
+ * A caller waiting for its write gets the failure thrown back, unchecked; the others find it in the log.
+ */
+public class AsyncFileWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncFileWriter.class.getName());
+
+    private static final LinkedBlockingQueue<Op> QUEUE = new LinkedBlockingQueue<>(Settings.FILE_WRITER_QUEUE);
+
+    //open channels, least recently used first
+    private static final LinkedHashMap<String, FileChannel> CHANNELS = new LinkedHashMap<String, FileChannel>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, FileChannel> eldest) {
+            if (size() > Settings.FILE_WRITER_OPEN_FILES) {
+                closeQuietly(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private static final Thread WRITER = new Thread(new Runnable() {
+        @Override
+        public void run() {
+            work();
+        }
+    }, "file-writer");
+
+    static {
+        WRITER.setDaemon(true);
+        WRITER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, "file-writer-shutdown"));
+    }
+
+    private enum Kind {APPEND, WRITE, CLOSE, FLUSH}
+
+    private static final class Op {
+        final Kind kind;
+        final String path;
+        final byte[] data;
+        final boolean durable;
+        final boolean segmented;
+        final CountDownLatch done; //null if nobody waits
+        Throwable error; //set before done is counted down
+
+        Op(Kind kind, String path, byte[] data, boolean durable, boolean wait) {
+            this(kind, path, data, durable, wait, false);
+        }
+
+        Op(Kind kind, String path, byte[] data, boolean durable, boolean wait, boolean segmented) {
+            this.kind = kind;
+            this.path = path;
+            this.data = data;
+            this.durable = durable;
+            this.segmented = segmented;
+            this.done = wait ? new CountDownLatch(1) : null;
+        }
+    }
+
+    /**
+     * append text to a file. Returns at once, unless Settings.FILE_WRITER_DURABLE is set
+     */
+    public static void append(String path, String text) {
+        submit(new Op(Kind.APPEND, path, bytes(text), Settings.FILE_WRITER_DURABLE, Settings.FILE_WRITER_DURABLE));
+    }
+
+    /**
+     * append text to a file, and return once it is on disk
+     */
+    public static void appendDurable(String path, String text) {
+        submit(new Op(Kind.APPEND, path, bytes(text), true, true));
+    }
+
+    /**
+     * append text to a session output, moved to a new segment once it gets too large or too old
+     */
+    public static void appendSegmented(String path, String text) {
+        submit(new Op(Kind.APPEND, path, bytes(text), Settings.FILE_WRITER_DURABLE, Settings.FILE_WRITER_DURABLE, true));
+    }
+
+    /**
+     * replace the content of a file, after the appends queued before. Returns once it is written
+     */
+    public static void write(String path, String text) {
+        submit(new Op(Kind.WRITE, path, bytes(text), Settings.FILE_WRITER_DURABLE, true));
+    }
+
+    /**
+     * write what is queued for a file and close it, before it gets moved or deleted. Returns once closed
+     */
+    public static void close(String path) {
+        if (Thread.currentThread() == WRITER) {
+            return;
+        }
+        submit(new Op(Kind.CLOSE, path, null, false, true));
+    }
+
+    /**
+     * wait until everything queued so far is written
+     */
+    public static void flush() {
+        if (Thread.currentThread() == WRITER) {
+            return;
+        }
+        submit(new Op(Kind.FLUSH, null, null, false, true));
+    }
+
+    private static void submit(Op op) {
+        try {
+            QUEUE.put(op); //only blocks if the disk falls Settings.FILE_WRITER_QUEUE writes behind
+            if (op.done != null) {
+                op.done.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (op.error instanceof IOException) {
+            throw new UncheckedIOException("Unable to write " + op.path, (IOException) op.error);
+        } else if (op.error != null) {
+            throw new IllegalStateException("Unable to write " + op.path, op.error);
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void work() {
+        //path -> appends not written yet
+        LinkedHashMap<String, ByteArrayOutputStream> pending = new LinkedHashMap<>();
+        List<Op> waiting = new ArrayList<>();
+        //path -> why its appends were not written, for the ones waiting on them
+        HashMap<String, Throwable> failed = new HashMap<>();
+        HashSet<String> toSync = new HashSet<>();
+        //segmented path -> time its current segment got its first write
+        HashMap<String, Long> segments = new HashMap<>();
+        List<Op> batch = new ArrayList<>();
+        long pendingBytes = 0;
+        long oldestPending = 0;
+
+        while (true) {
+            batch.clear();
+            try {
+                long wait = pending.isEmpty() ? Long.MAX_VALUE
+                        : Math.max(1, oldestPending + Settings.FILE_WRITER_FLUSH_INTERVAL - System.currentTimeMillis());
+                Op first = QUEUE.poll(wait, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    QUEUE.drainTo(batch);
+                }
+            } catch (InterruptedException e) {
+                continue; //the writer lives as long as the process
+            }
+
+            boolean commit = false;
+            for (Op op : batch) {
+                try {
+                    if (op.kind == Kind.FLUSH) {
+                        waiting.add(op);
+                        commit = true;
+                    } else if (op.kind == Kind.WRITE || op.kind == Kind.CLOSE) {
+                        //keep the order of the appends queued before
+                        commit(pending, toSync, segments, failed);
+                        pendingBytes = 0;
+                        closeQuietly(op.path, CHANNELS.remove(op.path));
+                        segments.remove(op.path);
+                        if (op.kind == Kind.WRITE) {
+                            overwrite(op);
+                        }
+                    } else {
+                        ByteArrayOutputStream buffer = pending.get(op.path);
+                        if (buffer == null) {
+                            buffer = new ByteArrayOutputStream();
+                            pending.put(op.path, buffer);
+                        }
+                        if (pendingBytes == 0) {
+                            oldestPending = System.currentTimeMillis();
+                        }
+                        buffer.write(op.data, 0, op.data.length);
+                        pendingBytes += op.data.length;
+                        if (op.durable) {
+                            toSync.add(op.path);
+                        }
+                        if (op.segmented && !segments.containsKey(op.path)) {
+                            segments.put(op.path, System.currentTimeMillis());
+                        }
+                        if (op.done != null) {
+                            waiting.add(op);
+                            commit = true;
+                        }
+                    }
+                } catch (Throwable e) {
+                    LOG.error("Unable to write " + op.path + " : " + e.toString());
+                    op.error = e;
+                    waiting.remove(op);
+                } finally {
+                    if (op.done != null && !waiting.contains(op)) {
+                        op.done.countDown();
+                    }
+                }
+            }
+
+            if (commit || pendingBytes >= Settings.FILE_WRITER_FLUSH_BYTES
+                    || (pendingBytes > 0 && System.currentTimeMillis() - oldestPending >= Settings.FILE_WRITER_FLUSH_INTERVAL)) {
+                try {
+                    commit(pending, toSync, segments, failed);
+                } finally {
+                    pendingBytes = 0;
+                    for (Op op : waiting) {
+                        op.error = failed.get(op.path);
+                        op.done.countDown();
+                    }
+                    waiting.clear();
+                    failed.clear();
+                }
+            }
+        }
+    }
+
+    private static void commit(LinkedHashMap<String, ByteArrayOutputStream> pending, HashSet<String> toSync,
+                               HashMap<String, Long> segments, HashMap<String, Throwable> failed) {
+        for (Iterator<Map.Entry<String, ByteArrayOutputStream>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, ByteArrayOutputStream> entry = it.next();
+            it.remove();
+            String path = entry.getKey();
+            try {
+                FileChannel channel = channel(path);
+                ByteBuffer buffer = ByteBuffer.wrap(entry.getValue().toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                if (toSync.contains(path)) {
+                    channel.force(false);
+                }
+                Long segmentStart = segments.get(path);
+                if (segmentStart != null && SegmentedFile.isDue(channel.size(), segmentStart, System.currentTimeMillis())) {
+                    closeQuietly(path, CHANNELS.remove(path));
+                    segments.remove(path);
+                    SegmentedFile.rotate(path);
+                }
+            } catch (Throwable e) {
+                LOG.error("Unable to write " + path + " : " + e.toString());
+                closeQuietly(path, CHANNELS.remove(path));
+                failed.put(path, e);
+            }
+        }
+        toSync.clear();
+    }
+
+    private static void overwrite(Op op) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(op.path), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(op.data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (op.durable) {
+                channel.force(false);
+            }
+        }
+    }
+
+    private static FileChannel channel(String path) throws IOException {
+        FileChannel channel = CHANNELS.get(path);
+        if (channel == null || !channel.isOpen()) {
+            channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            CHANNELS.put(path, channel);
+        }
+        return channel;
+    }
+
+    private static void closeQuietly(String path, FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.error("Unable to close " + path + " : " + e.toString());
+            }
+        }
+    }
+}
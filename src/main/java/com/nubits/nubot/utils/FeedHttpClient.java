@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.utils;
+
+import com.nubits.nubot.global.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * HTTP GET for the price feeds. Asks for a gzip/deflate answer and revalidates the last answer of each url
+ * with its ETag/Last-Modified, so that an unchanged resource costs a 304.
+ * The body is streamed into a StringBuilder, dropping line breaks (and non-ASCII chars on demand) in the same pass.
+ * Connections are kept alive and reused by the JVM pool as long as every answer is read to the end
+ */
+public class FeedHttpClient {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FeedHttpClient.class.getName());
+
+    //least recently used first
+    private static final Map<String, Validated> validated = Collections.synchronizedMap(
+            new LinkedHashMap<String, Validated>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Validated> eldest) {
+                    return size() > Settings.FEED_HTTP_VALIDATORS;
+                }
+            });
+
+    private static class Validated {
+        private final String etag;
+        private final String lastModified;
+        private final String body;
+
+        private Validated(String etag, String lastModified, String body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+
+    /**
+     * body of the answer to a GET on url, without line breaks
+     *
+     * @param url
+     * @param removeNonLatinChars drop the chars out of the ASCII range
+     * @return
+     * @throws IOException on network errors and on HTTP error status
+     */
+    public static String get(String url, boolean removeNonLatinChars) throws IOException {
+        String key = (removeNonLatinChars ? "ascii:" : "any:") + url;
+        URLConnection con = new URL(url).openConnection();
+        con.setConnectTimeout(Settings.FEED_HTTP_TIMEOUT);
+        con.setReadTimeout(Settings.FEED_HTTP_TIMEOUT);
+        con.setRequestProperty("Accept-Encoding", "gzip, deflate");
+
+        if (!(con instanceof HttpURLConnection)) {
+            return read(con, removeNonLatinChars);
+        }
+        HttpURLConnection http = (HttpURLConnection) con;
+
+        Validated previous = validated.get(key);
+        if (previous != null) {
+            if (previous.etag != null) {
+                http.setRequestProperty("If-None-Match", previous.etag);
+            }
+            if (previous.lastModified != null) {
+                http.setRequestProperty("If-Modified-Since", previous.lastModified);
+            }
+        }
+
+        int status = http.getResponseCode();
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED && previous != null) {
+            drain(http.getInputStream());
+            LOG.trace("not modified : " + url);
+            return previous.body;
+        }
+        if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+            drain(http.getErrorStream());
+            throw new IOException("Server returned HTTP response code: " + status + " for URL: " + url);
+        }
+
+        String body = read(http, removeNonLatinChars);
+        String etag = http.getHeaderField("ETag");
+        String lastModified = http.getHeaderField("Last-Modified");
+        if (etag != null || lastModified != null) {
+            validated.put(key, new Validated(etag, lastModified, body));
+        } else if (previous != null) {
+            validated.remove(key);
+        }
+        return body;
+    }
+
+    private static String read(URLConnection con, boolean removeNonLatinChars) throws IOException {
+        InputStream in = con.getInputStream();
+        String encoding = con.getContentEncoding();
+        if ("gzip".equalsIgnoreCase(encoding)) {
+            in = new GZIPInputStream(in);
+        } else if ("deflate".equalsIgnoreCase(encoding)) {
+            in = new InflaterInputStream(in);
+        }
+
+        StringBuilder body = new StringBuilder(4096);
+        char[] buffer = new char[4096];
+        try (Reader reader = new InputStreamReader(in, charset(con.getContentType()))) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    char c = buffer[i];
+                    if (c == '\n' || c == '\r' || (removeNonLatinChars && c > 0x7F)) {
+                        continue;
+                    }
+                    body.append(c);
+                }
+            }
+        }
+        return body.toString();
+    }
+
+    private static Charset charset(String contentType) {
+        if (contentType != null) {
+            for (String param : contentType.split(";")) {
+                param = param.trim();
+                if (param.toLowerCase().startsWith("charset=")) {
+                    try {
+                        return Charset.forName(param.substring("charset=".length()).replace("\"", ""));
+                    } catch (IllegalArgumentException e) {
+                        LOG.warn("Unknown charset in " + contentType);
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /**
+     * read what is left so that the connection goes back to the keep-alive pool
+     */
+    private static void drain(InputStream in) {
+        if (in == null) {
+            return;
+        }
+        byte[] buffer = new byte[1024];
+        try {
+            while (in.read(buffer) != -1) {
+                //discard
+            }
+        } catch (IOException e) {
+            LOG.trace(e.toString());
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                LOG.trace(e.toString());
+            }
+        }
+    }
+
+    /**
+     * forget the validators of the previous answers
+     */
+    public static void clear() {
+        validated.clear();
+    }
+}
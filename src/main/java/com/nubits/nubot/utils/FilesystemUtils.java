@@ -26,7 +26,15 @@ import java.io.*;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 
 public class FilesystemUtils {
@@ -34,6 +42,7 @@ public class FilesystemUtils {
     private static final Logger LOG = LoggerFactory.getLogger(FilesystemUtils.class.getName());
 
     public static void deleteFile(String path) {
+        AsyncFileWriter.close(path);
         try {
             File file = new File(path);
             if (file.delete()) {
@@ -47,6 +56,7 @@ public class FilesystemUtils {
     }
 
     public static void deleteFile(String path, boolean verbose) {
+        AsyncFileWriter.close(path);
         try {
             File file = new File(path);
             if (file.delete()) {
@@ -69,28 +79,63 @@ public class FilesystemUtils {
         new File(path).mkdirs();
     }
 
+    /**
+     * write a line through the AsyncFileWriter : appends return at once, a rewrite returns once the file is written.
+     * A failed write is logged
+     */
     public static void writeToFile(String what, String where, boolean append) {
-        if (!append) {
-            PrintWriter writer;
-            try {
-                writer = new PrintWriter(where, "UTF-8");
-                writer.println(what);
-                writer.close();
-            } catch (FileNotFoundException ex) {
-                LOG.error(ex.toString());
-            } catch (UnsupportedEncodingException ex) {
-                LOG.error(ex.toString());
+        try {
+            if (!append) {
+                AsyncFileWriter.write(where, what + System.lineSeparator());
+            } else {
+                AsyncFileWriter.append(where, what + System.lineSeparator());
             }
-        } else {
-            try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(where, true)))) {
-                out.println(what);
-            } catch (IOException e) {
-                LOG.error(e.toString());
+        } catch (UncheckedIOException | IllegalStateException e) {
+            LOG.error(e.toString() + (e.getCause() != null ? " : " + e.getCause() : ""));
+        }
+    }
+
+    /**
+     * append a line to a session output, rotated into compressed segments as it grows, see SegmentedFile
+     */
+    public static void appendToSegments(String what, String where) {
+        AsyncFileWriter.appendSegmented(where, what + System.lineSeparator());
+    }
+
+    /**
+     * replace a file in one step : the text goes to a temporary file next to it, forced to disk, then renamed over it.
+     * A crash leaves either the old content or the new one, never a mix
+     *
+     * @return false if the file could not be written
+     */
+    public static boolean writeAtomically(String what, String where) {
+        AsyncFileWriter.close(where); //after the writes queued before
+        Path target = Paths.get(where).toAbsolutePath();
+        Path temp = Paths.get(target + ".tmp");
+        try {
+            Files.createDirectories(target.getParent());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(what.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
             }
+            return true;
+        } catch (IOException e) {
+            LOG.error("Unable to write " + where + " : " + e.toString());
+            return false;
         }
     }
 
     public static String readFromFile(String path) {
+        AsyncFileWriter.flush(); //see the appends still queued
 
         File file = new File(path);
 
@@ -158,14 +203,18 @@ public class FilesystemUtils {
         return toReturn;
     }
 
+    /**
+     * @param path a csv file, read with its rotated segments if it has any
+     */
     public static ArrayList<String[]> parseCsvFromFile(String path) {
+        AsyncFileWriter.flush(); //see the appends still queued
         BufferedReader br = null;
         String line = "";
         String cvsSplitBy = ",";
         ArrayList<String[]> toReturn = new ArrayList<>();
         try {
 
-            br = new BufferedReader(new FileReader(path));
+            br = new BufferedReader(new InputStreamReader(SegmentedFile.open(path)));
             while ((line = br.readLine()) != null) {
 
                 // use comma as separator
@@ -30,7 +30,6 @@ import com.nubits.nubot.models.Currency;
 import com.nubits.nubot.models.CurrencyPair;
 import com.nubits.nubot.notifications.HipChatNotifications;
 import io.evanwong.oss.hipchat.v2.rooms.MessageColor;
-import org.apache.commons.io.FileUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -39,17 +38,27 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Locale;
 
+/**
+ * Keeps the funds set apart from the proceeds of sales.
+ * The state lives in memory. Every change is appended to a log (*-frozen.jsonl) and forced to disk;
+ * every Settings.FROZEN_SNAPSHOT_EVENTS changes, the whole state is written to the snapshot (*-frozen.json)
+ * through a temporary file renamed over the old one, and the log is emptied.
+ * At startup the snapshot is read and the changes logged after it are replayed : log entries are numbered and the
+ * snapshot records the last one it contains, so a crash at any point neither loses nor repeats a change
+ */
 public class FrozenBalancesManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(FrozenBalancesManager.class.getName());
     private String pathToFrozenBalancesFiles;
+    private String pathToFrozenLog;
+    private long sequence; //last change applied
+    private int changesSinceSnapshot;
     private FrozenAmount frozenAmount;
     private ArrayList<HistoryRow> history;
     private Amount amountAlreadyThere;
@@ -57,22 +66,34 @@ public class FrozenBalancesManager {
 
     public final static String frozenfolder = Settings.FROZEN_FUNDS_PATH;
 
+    private final static String CHANGE_FREEZE = "freeze"; //quantity added to the frozen funds
+
+    private final static String CHANGE_SET = "set"; //frozen funds set to quantity
+
     //Call this on bot startup
     public FrozenBalancesManager(String exchangName, CurrencyPair pair) {
-        String fileName = pair.toStringSep() + "-" + exchangName + "-frozen.json";
-        this.pathToFrozenBalancesFiles = frozenfolder + "/" + fileName;
-        if (Global.swappedPair) {
+        this(exchangName, pair, frozenfolder);
+    }
+
+    public FrozenBalancesManager(String exchangName, CurrencyPair pair, String folder) {
+        String fileName = pair.toStringSep() + "-" + exchangName + "-frozen";
+        this.pathToFrozenBalancesFiles = folder + "/" + fileName + ".json";
+        this.pathToFrozenLog = folder + "/" + fileName + HistoryJournal.EXTENSION;
+        if (Global.session().swappedPair) {
             toFreezeCurrency = pair.getOrderCurrency();
         } else {
             toFreezeCurrency = pair.getPaymentCurrency();
         }
         this.amountAlreadyThere = new Amount(0, toFreezeCurrency);
         history = new ArrayList<>();
-        if (new File(pathToFrozenBalancesFiles).exists()) {
+        frozenAmount = new FrozenAmount(new Amount(0, toFreezeCurrency));
+        boolean snapshotFound = new File(pathToFrozenBalancesFiles).exists();
+        if (snapshotFound) {
             parseFrozenBalancesFile();
-        } else {
-            //Create the file and write 0 on it
-            frozenAmount = new FrozenAmount(new Amount(0, toFreezeCurrency));
+        }
+        int replayed = replayFrozenLog();
+        if (!snapshotFound || replayed > 0) {
+            //Create the file and write 0 on it, or fold the replayed changes into it
             updateFrozenFilesystem();
         }
     }
@@ -101,19 +122,19 @@ public class FrozenBalancesManager {
     }
 
     public void tryKeepProceedsAside(Amount amountFoundInBalance, Amount initialFunds) {
-        if (Global.options.getKeepProceeds() > 0) {
+        if (Global.session().options.getKeepProceeds() > 0) {
             if (initialFunds.getQuantity() < amountFoundInBalance.getQuantity()) {
-                double percentageToSetApart = Utils.round(Global.options.getKeepProceeds() / 100, 4);
+                double percentageToSetApart = Utils.round(Global.session().options.getKeepProceeds() / 100, 4);
 
                 if (percentageToSetApart != 0) {
                     double quantityToFreeze = percentageToSetApart * (amountFoundInBalance.getQuantity() - initialFunds.getQuantity());
 
                     Currency curerncyToFreeze = amountFoundInBalance.getCurrency();
-                    Global.frozenBalancesManager.updateFrozenBalance(new Amount(quantityToFreeze, curerncyToFreeze));
+                    Global.session().frozenBalancesManager.updateFrozenBalance(new Amount(quantityToFreeze, curerncyToFreeze));
 
                     HipChatNotifications.sendMessage("" + Utils.formatNumber(quantityToFreeze, Settings.DEFAULT_PRECISION) + " " + curerncyToFreeze.getCode().toUpperCase() + " have been put aside to pay dividends ("
                             + percentageToSetApart * 100 + "% of  sale proceedings)"
-                            + ". Funds frozen to date = " + Utils.formatNumber(Global.frozenBalancesManager.getFrozenAmount().getAmount().getQuantity(), Settings.DEFAULT_PRECISION) + " " + curerncyToFreeze.getCode().toUpperCase(), MessageColor.PURPLE);
+                            + ". Funds frozen to date = " + Utils.formatNumber(Global.session().frozenBalancesManager.getFrozenAmount().getAmount().getQuantity(), Settings.DEFAULT_PRECISION) + " " + curerncyToFreeze.getCode().toUpperCase(), MessageColor.PURPLE);
                 }
             } else {
                 LOG.info("Nothing to freeze. The funds initially set apart (" + initialFunds.toString() + ") "
@@ -123,15 +144,15 @@ public class FrozenBalancesManager {
     }
 
     public void freezeNewFunds() {
-        if (Global.options.getKeepProceeds() > 0) {
-            ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalance(toFreezeCurrency);
+        if (Global.session().options.getKeepProceeds() > 0) {
+            ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalance(toFreezeCurrency);
 
             if (balancesResponse.isPositive()) {
                 Amount balance = (Amount) balancesResponse.getResponseObject();
-                balance = removeFrozenAmount(balance, Global.frozenBalancesManager.getFrozenAmount());
-                double oneNBT = Utils.round(1 / Global.conversion, 8);
+                balance = removeFrozenAmount(balance, Global.session().frozenBalancesManager.getFrozenAmount());
+                double oneNBT = Utils.round(1 / Global.session().conversion, 8);
                 if (balance.getQuantity() > oneNBT) {
-                    tryKeepProceedsAside(balance, Global.frozenBalancesManager.getAmountAlreadyThere());
+                    tryKeepProceedsAside(balance, Global.session().frozenBalancesManager.getAmountAlreadyThere());
                 }
                 setBalanceAlreadyThere(toFreezeCurrency);
             } else {
@@ -144,14 +165,14 @@ public class FrozenBalancesManager {
     public void setBalanceAlreadyThere(Currency currency) {
         boolean success = true;
         //update the balance of the secondary peg after the shift
-        if (Global.options.getKeepProceeds() > 0) {
-            ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalance(currency);
+        if (Global.session().options.getKeepProceeds() > 0) {
+            ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalance(currency);
             Amount balance = null;
 
             if (balancesResponse.isPositive()) {
                 //Here its time to compute the balance to put apart, if any
                 balance = (Amount) balancesResponse.getResponseObject();
-                balance = removeFrozenAmount(balance, Global.frozenBalancesManager.getFrozenAmount());
+                balance = removeFrozenAmount(balance, Global.session().frozenBalancesManager.getFrozenAmount());
 
                 //Only set this value is its greater than prev
                 if (balance.getQuantity() > getAmountAlreadyThere().getQuantity()) {
@@ -165,9 +186,9 @@ public class FrozenBalancesManager {
         }
         if (success) {
             String message = "Frozen funds already in balance (not proceeds) updated : "
-                    + Global.frozenBalancesManager.getAmountAlreadyThere().getQuantity()
-                    + " " + Global.frozenBalancesManager.getAmountAlreadyThere().getCurrency();
-            if (Global.options.getKeepProceeds() > 0) {
+                    + Global.session().frozenBalancesManager.getAmountAlreadyThere().getQuantity()
+                    + " " + Global.session().frozenBalancesManager.getAmountAlreadyThere().getCurrency();
+            if (Global.session().options.getKeepProceeds() > 0) {
                 LOG.info(message);
             } else
                 LOG.debug(message);
@@ -177,30 +198,21 @@ public class FrozenBalancesManager {
     }
 
     //use this method to set frozen amount
-    public void setInitialFrozenAmount(Amount newAmount, boolean writeToFile) {
-        this.frozenAmount = new FrozenAmount(newAmount);
-
-        if (Global.options.getKeepProceeds() != 0) {
-            LOG.info("Setting initial frozen amount to : " + Utils.formatNumber(this.frozenAmount.getAmount().getQuantity(), Settings.DEFAULT_PRECISION) + " " + toFreezeCurrency.getCode());
+    public synchronized void setInitialFrozenAmount(Amount newAmount, boolean writeToFile) {
+        if (Global.session().options.getKeepProceeds() != 0) {
+            LOG.info("Setting initial frozen amount to : " + Utils.formatNumber(Utils.round(newAmount.getQuantity(), 8), Settings.DEFAULT_PRECISION) + " " + toFreezeCurrency.getCode());
         }
 
         if (writeToFile) {
-            updateFrozenFilesystem();
+            logChange(CHANGE_SET, newAmount.getQuantity());
+        } else {
+            this.frozenAmount = new FrozenAmount(newAmount);
         }
     }
 
     //Use this method to add frozen balance (on top of the existing balance)
-    public void updateFrozenBalance(Amount toAdd) {
-        double oldQuantity = this.frozenAmount.getAmount().getQuantity();
-        double quantityToAdd = toAdd.getQuantity();
-        Amount newAmount = new Amount(oldQuantity + quantityToAdd, toFreezeCurrency);
-        this.frozenAmount = new FrozenAmount(newAmount);
-        //here I could log the history
-
-        HistoryRow historyRow = new HistoryRow(new Date(), quantityToAdd, toFreezeCurrency.getCode());
-        history.add(historyRow);
-
-        updateFrozenFilesystem();
+    public synchronized void updateFrozenBalance(Amount toAdd) {
+        logChange(CHANGE_FREEZE, toAdd.getQuantity());
     }
 
     //Use this method to retreive the updated amount
@@ -208,9 +220,66 @@ public class FrozenBalancesManager {
         return frozenAmount;
     }
 
-    public void reset() {
-        this.frozenAmount = new FrozenAmount(new Amount(0, toFreezeCurrency));
-        updateFrozenFilesystem();
+    public synchronized void reset() {
+        logChange(CHANGE_SET, 0);
+    }
+
+    /**
+     * apply a change in memory, then append it to the log, forced to disk.
+     * Every Settings.FROZEN_SNAPSHOT_EVENTS changes the log is folded into a new snapshot
+     */
+    private void logChange(String type, double quantity) {
+        JSONObject change = new JSONObject();
+        change.put("seq", sequence + 1);
+        change.put("timestamp", System.currentTimeMillis());
+        change.put("type", type);
+        change.put("quantity", quantity);
+        change.put("currency-code", toFreezeCurrency.getCode());
+        applyChange(change);
+
+        AsyncFileWriter.appendDurable(pathToFrozenLog, change.toJSONString() + System.lineSeparator());
+        LOG.info("Updated Froozen Balances (" + pathToFrozenLog + ") : " + Utils.formatNumber(getFrozenAmount().getAmount().getQuantity(), 10) + " " + toFreezeCurrency.getCode());
+
+        changesSinceSnapshot++;
+        if (changesSinceSnapshot >= Settings.FROZEN_SNAPSHOT_EVENTS) {
+            updateFrozenFilesystem();
+        }
+    }
+
+    private void applyChange(JSONObject change) {
+        double quantity = ((Number) change.get("quantity")).doubleValue();
+        if (CHANGE_FREEZE.equals(change.get("type"))) {
+            double oldQuantity = this.frozenAmount.getAmount().getQuantity();
+            this.frozenAmount = new FrozenAmount(new Amount(oldQuantity + quantity, toFreezeCurrency));
+            history.add(new HistoryRow(new Date(((Number) change.get("timestamp")).longValue()), quantity, (String) change.get("currency-code")));
+        } else {
+            this.frozenAmount = new FrozenAmount(new Amount(quantity, toFreezeCurrency));
+        }
+        sequence = ((Number) change.get("seq")).longValue();
+    }
+
+    /**
+     * apply the changes logged after the snapshot. A change cut short by a crash is skipped
+     *
+     * @return the number of changes applied
+     */
+    private int replayFrozenLog() {
+        final int[] replayed = new int[1];
+        new HistoryJournal(pathToFrozenLog).read(new HistoryJournal.RecordHandler() {
+            @Override
+            public void record(JSONObject change) {
+                Number seq = (Number) change.get("seq");
+                if (seq == null || seq.longValue() <= sequence || change.get("quantity") == null) {
+                    return; //already in the snapshot
+                }
+                applyChange(change);
+                replayed[0]++;
+            }
+        });
+        if (replayed[0] > 0) {
+            LOG.info("Replayed " + replayed[0] + " frozen balance changes from " + pathToFrozenLog);
+        }
+        return replayed[0];
     }
 
     private void parseFrozenBalancesFile() {
@@ -221,6 +290,9 @@ public class FrozenBalancesManager {
             double quantity = Double.parseDouble((String) frozenBalancesJSON.get("frozen-quantity-total"));
             Amount frozenAmount = new Amount(quantity, toFreezeCurrency);
             setInitialFrozenAmount(frozenAmount, false);
+            if (frozenBalancesJSON.containsKey("sequence")) {
+                sequence = Long.parseLong((String) frozenBalancesJSON.get("sequence"));
+            }
 
             JSONArray historyArr = (JSONArray) frozenBalancesJSON.get("history");
             for (int i = 0; i < historyArr.size(); i++) {
@@ -241,12 +313,16 @@ public class FrozenBalancesManager {
         }
     }
 
+    /**
+     * write the snapshot, then empty the log it now contains
+     */
     private void updateFrozenFilesystem() {
         String toWrite = "";
         JSONObject toWriteJ = new JSONObject();
 
 
         toWriteJ.put("frozen-quantity-total", Utils.formatNumber(getFrozenAmount().getAmount().getQuantity(), 10));
+        toWriteJ.put("sequence", Long.toString(sequence));
         toWriteJ.put("frozen-currency", getFrozenAmount().getAmount().getCurrency().getCode());
         JSONArray historyListJ = new JSONArray();
         for (int i = 0; i < history.size(); i++) {
@@ -274,11 +350,11 @@ public class FrozenBalancesManager {
         JsonElement je = jp.parse(toWrite);
         String toWritePretty = gson.toJson(je);
 
-        try {
-            FileUtils.writeStringToFile(new File(pathToFrozenBalancesFiles), toWritePretty);
+        if (FilesystemUtils.writeAtomically(toWritePretty, pathToFrozenBalancesFiles)) {
+            //entries left behind by a crash before this point are skipped at replay, being numbered
+            AsyncFileWriter.write(pathToFrozenLog, "");
+            changesSinceSnapshot = 0;
             LOG.info("Updated Froozen Balances file (" + pathToFrozenBalancesFiles + ") : " + Utils.formatNumber(getFrozenAmount().getAmount().getQuantity(), 10) + " " + toFreezeCurrency.getCode());
-        } catch (IOException ex) {
-            LOG.error(ex.toString());
         }
 
     }
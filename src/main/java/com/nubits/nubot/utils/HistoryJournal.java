@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.utils;
+
+import com.nubits.nubot.global.Settings;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Append-only history of a session, one JSON record per line.
+ * Appending costs the same whatever the length of the history; readers stream the records back.
+ * The journal is rotated into compressed segments as it grows, see SegmentedFile : readers see all of them in order.
+ * The legacy layout, a single object {"key":[records]}, is produced on demand by export
+ */
+public class HistoryJournal {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HistoryJournal.class.getName());
+
+    public static final String EXTENSION = ".jsonl";
+
+    private final String path;
+
+    /**
+     * called for each record of the journal, in order
+     */
+    public interface RecordHandler {
+        void record(JSONObject record);
+    }
+
+    /**
+     * @param path the journal file, created on first append
+     */
+    public HistoryJournal(String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void append(JSONObject record) {
+        FilesystemUtils.appendToSegments(record.toJSONString(), path);
+    }
+
+    /**
+     * stream the records to the handler.
+     * A line which does not parse, as the last one after a crash mid-write, is skipped
+     *
+     * @return the number of records read
+     */
+    public int read(RecordHandler handler) {
+        AsyncFileWriter.flush(); //see the appends still queued
+        if (SegmentedFile.segments(path).isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        int lineNumber = 0;
+        JSONParser parser = new JSONParser();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(SegmentedFile.open(path), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                Object parsed;
+                try {
+                    parsed = parser.parse(line);
+                } catch (ParseException e) {
+                    LOG.warn("Skipping unreadable record " + path + ":" + lineNumber);
+                    continue;
+                }
+                if (parsed instanceof JSONObject) {
+                    handler.record((JSONObject) parsed);
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("Unable to read " + path + " : " + e.toString());
+        }
+        return count;
+    }
+
+    /**
+     * write the journal to legacyPath as {"key":[records]}, one record at a time
+     *
+     * @return false if the export could not be written
+     */
+    public boolean export(final String key, String legacyPath) {
+        try (final Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(legacyPath), StandardCharsets.UTF_8))) {
+            out.write("{\"" + JSONValue.escape(key) + "\":[");
+            final IOException[] failure = new IOException[1];
+            read(new RecordHandler() {
+                private boolean first = true;
+
+                @Override
+                public void record(JSONObject record) {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    try {
+                        if (!first) {
+                            out.write(",");
+                        }
+                        first = false;
+                        record.writeJSONString(out);
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            out.write("]}\n");
+            return true;
+        } catch (IOException e) {
+            LOG.error("Unable to export " + path + " to " + legacyPath + " : " + e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * export the journals found in a session log folder to the legacy json files next to them
+     */
+    public static void exportSession(String folder) {
+        exportIfPresent(folder, Settings.ORDERS_FILENAME, "orders");
+        exportIfPresent(folder, Settings.BALANCES_FILEAME, "balances");
+        exportIfPresent(folder, Settings.WALLSHIFTS_FILENAME, "wall_shifts");
+    }
+
+    private static void exportIfPresent(String folder, String name, String key) {
+        HistoryJournal journal = new HistoryJournal(folder + "/" + name + EXTENSION);
+        if (!SegmentedFile.segments(journal.getPath()).isEmpty()) {
+            String legacyPath = folder + "/" + name + ".json";
+            if (journal.export(key, legacyPath)) {
+                LOG.info("History exported to " + legacyPath);
+            }
+        }
+    }
+}
@@ -45,7 +45,7 @@ public class InitTests {
         File f = new File(path);
         if (f.exists() && !f.isDirectory()) {
             try {
-                Global.options = ParseOptions.parseOptionsSingle(path, false);
+                Global.session().options = ParseOptions.parseOptionsSingle(path, false);
             } catch (NuBotConfigException ex) {
                 LOG.error(ex.toString());
             }
@@ -68,11 +68,11 @@ public class InitTests {
 
     public static void startConnectionCheck() {
         //Create a TaskManager
-        Global.taskManager = new TaskManager();
-        Global.taskManager.setTasks();
+        Global.session().taskManager = new TaskManager();
+        Global.session().taskManager.setTasks();
 
         //Start checking for connection with the exchange
-        Global.taskManager.getCheckConnectionTask().start();
+        Global.session().taskManager.getCheckConnectionTask().start();
         //Wait a couple of seconds for the connectionThread to get live
         try {
             Thread.sleep(2000);
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.utils;
+
+import com.nubits.nubot.global.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Deletes the session folders of past runs : those older than Settings.SESSION_RETENTION_DAYS,
+ * then the oldest ones until the logs folder fits in Settings.SESSION_RETENTION_BYTES.
+ * A folder is as old as the newest file in it (appending to a file does not touch its folder).
+ * The folder of the running session and the folders written within Settings.SESSION_RETENTION_LIVE,
+ * which may belong to another NuBot sharing the logs folder, are never deleted
+ */
+public class LogRetention {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LogRetention.class.getName());
+
+    /**
+     * prune the logs folder from a background thread
+     */
+    public static void pruneInBackground(final String logsFolder, final String currentSession) {
+        Thread pruner = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                prune(logsFolder, currentSession, System.currentTimeMillis());
+            }
+        }, "log-retention");
+        pruner.setDaemon(true);
+        pruner.setPriority(Thread.MIN_PRIORITY);
+        pruner.start();
+    }
+
+    /**
+     * @return the number of session folders deleted
+     */
+    public static int prune(String logsFolder, String currentSession, long now) {
+        File[] folders = new File(logsFolder).listFiles();
+        if (folders == null) {
+            return 0;
+        }
+        File current = currentSession == null ? null : new File(currentSession).getAbsoluteFile();
+        long total = current != null ? scan(current)[0] : 0;
+        final HashMap<File, long[]> scans = new HashMap<>(); //folder -> size, last write
+        List<File> sessions = new ArrayList<>();
+        for (File folder : folders) {
+            if (folder.isDirectory() && folder.getName().startsWith(Settings.SESSION_LOG)
+                    && !folder.getAbsoluteFile().equals(current)) {
+                long[] scan = scan(folder);
+                total += scan[0];
+                if (now - scan[1] < Settings.SESSION_RETENTION_LIVE) {
+                    continue; //possibly in use
+                }
+                scans.put(folder, scan);
+                sessions.add(folder);
+            }
+        }
+        //oldest first
+        Collections.sort(sessions, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(scans.get(a)[1], scans.get(b)[1]);
+            }
+        });
+
+        long maxAge = Settings.SESSION_RETENTION_DAYS * 24 * 60 * 60 * 1000L;
+        int deleted = 0;
+        for (File session : sessions) {
+            long[] scan = scans.get(session);
+            if (now - scan[1] < maxAge && total <= Settings.SESSION_RETENTION_BYTES) {
+                break;
+            }
+            if (delete(session)) {
+                total -= scan[0];
+                deleted++;
+            }
+        }
+        if (deleted > 0) {
+            LOG.info("Deleted " + deleted + " old session folders from " + logsFolder);
+        }
+        return deleted;
+    }
+
+    /**
+     * @return the size of the files in the folder, and the time of the last write in it
+     */
+    private static long[] scan(final File folder) {
+        final long[] scan = {0, folder.lastModified()};
+        try {
+            Files.walkFileTree(folder.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    scan[0] += attrs.size();
+                    scan[1] = Math.max(scan[1], attrs.lastModifiedTime().toMillis());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOG.warn("Unable to measure " + folder.getPath() + " : " + e.toString());
+        }
+        return scan;
+    }
+
+    private static boolean delete(File folder) {
+        try {
+            Files.walkFileTree(folder.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    if (e != null) {
+                        throw e;
+                    }
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            return true;
+        } catch (IOException e) {
+            LOG.error("Unable to delete " + folder.getPath() + " : " + e.toString());
+            return false;
+        }
+    }
+}
@@ -23,10 +23,10 @@ public class LogVerboseFilter extends ch.qos.logback.core.filter.AbstractMatcher
         //return FilterReply.NEUTRAL;
 
         //only filter if global.options is defined
-        if (Global.options != null) {
+        if (Global.session().options != null) {
             boolean isDebug = (loggingEvent.getLevel().equals(Level.DEBUG));
             if (isDebug) {
-                if (Global.options.isVerbose()) {
+                if (Global.session().options.isVerbose()) {
                     return FilterReply.NEUTRAL;
                 } else {
                     return FilterReply.DENY;
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.utils;
+
+import java.util.Arrays;
+
+/**
+ * Rolling statistics of a series of values (prices) over several windows, sharing one primitive ring buffer.
+ * Each add() costs O(1) per window (amortized for min/max, kept with monotonic queues) : mean and variance
+ * come from running sums, the exponentially weighted moving average (EWMA) is updated in place.
+ * Windows are expressed in number of values. Methods are synchronized : the UI reads while the bot writes
+ */
+public class RollingStats {
+
+    private final int[] windows;
+    private final double alpha;
+
+    private final double[] buffer;
+    private long count; //values added since the last clear
+
+    private final double[] sum;
+    private final double[] sumSquares;
+
+    //indexes (in the series) of the candidate minimum/maximum of each window, values increasing/decreasing
+    private final long[][] minQueue;
+    private final long[][] maxQueue;
+    private final int[] minHead, minTail, maxHead, maxTail;
+
+    private double ewma;
+    private double last;
+
+    /**
+     * @param alpha   [0-1] weight of the newest value in the EWMA
+     * @param windows sizes of the windows, in number of values
+     */
+    public RollingStats(double alpha, int... windows) {
+        if (windows.length == 0) {
+            throw new IllegalArgumentException("at least one window is needed");
+        }
+        this.alpha = alpha;
+        this.windows = windows.clone();
+        int capacity = 0;
+        for (int window : windows) {
+            if (window <= 0) {
+                throw new IllegalArgumentException("invalid window size " + window);
+            }
+            capacity = Math.max(capacity, window);
+        }
+        buffer = new double[capacity];
+        sum = new double[windows.length];
+        sumSquares = new double[windows.length];
+        minQueue = new long[windows.length][];
+        maxQueue = new long[windows.length][];
+        for (int w = 0; w < windows.length; w++) {
+            minQueue[w] = new long[windows[w]];
+            maxQueue[w] = new long[windows[w]];
+        }
+        minHead = new int[windows.length];
+        minTail = new int[windows.length];
+        maxHead = new int[windows.length];
+        maxTail = new int[windows.length];
+    }
+
+    public synchronized void add(double value) {
+        long index = count;
+        double evicted = buffer[(int) (index % buffer.length)];
+        buffer[(int) (index % buffer.length)] = value;
+        count++;
+
+        for (int w = 0; w < windows.length; w++) {
+            int window = windows[w];
+            sum[w] += value;
+            sumSquares[w] += value * value;
+            if (index >= window) {
+                //the value leaving this window was written window values ago
+                double leaving = window == buffer.length ? evicted : valueAt(index - window);
+                sum[w] -= leaving;
+                sumSquares[w] -= leaving * leaving;
+            }
+            pushMin(w, index, value);
+            pushMax(w, index, value);
+        }
+
+        ewma = index == 0 ? value : alpha * value + (1 - alpha) * ewma;
+        last = value;
+    }
+
+    /**
+     * reset the statistics as if every window was full of value
+     */
+    public synchronized void fill(double value) {
+        Arrays.fill(buffer, value);
+        count = buffer.length;
+        for (int w = 0; w < windows.length; w++) {
+            sum[w] = value * windows[w];
+            sumSquares[w] = value * value * windows[w];
+            minHead[w] = minTail[w] = maxHead[w] = maxTail[w] = 0;
+            pushMin(w, count - 1, value);
+            pushMax(w, count - 1, value);
+        }
+        ewma = value;
+        last = value;
+    }
+
+    public synchronized void clear() {
+        count = 0;
+        Arrays.fill(buffer, 0);
+        for (int w = 0; w < windows.length; w++) {
+            sum[w] = 0;
+            sumSquares[w] = 0;
+            minHead[w] = minTail[w] = maxHead[w] = maxTail[w] = 0;
+        }
+        ewma = 0;
+        last = 0;
+    }
+
+    private double valueAt(long index) {
+        return buffer[(int) (index % buffer.length)];
+    }
+
+    //queues are ring arrays of size window : head and tail are positions, tail - head the number of elements.
+    //The index leaving the window is dropped before pushing, so a queue never holds more than window indexes
+    private void pushMin(int w, long index, double value) {
+        long[] queue = minQueue[w];
+        int window = windows[w];
+        if (minTail[w] > minHead[w] && queue[minHead[w] % window] <= index - window) {
+            minHead[w]++;
+        }
+        while (minTail[w] > minHead[w] && valueAt(queue[(minTail[w] - 1) % window]) >= value) {
+            minTail[w]--;
+        }
+        queue[minTail[w] % window] = index;
+        minTail[w]++;
+        normalize(minHead, minTail, w, window);
+    }
+
+    private void pushMax(int w, long index, double value) {
+        long[] queue = maxQueue[w];
+        int window = windows[w];
+        if (maxTail[w] > maxHead[w] && queue[maxHead[w] % window] <= index - window) {
+            maxHead[w]++;
+        }
+        while (maxTail[w] > maxHead[w] && valueAt(queue[(maxTail[w] - 1) % window]) <= value) {
+            maxTail[w]--;
+        }
+        queue[maxTail[w] % window] = index;
+        maxTail[w]++;
+        normalize(maxHead, maxTail, w, window);
+    }
+
+    private static void normalize(int[] head, int[] tail, int w, int window) {
+        if (head[w] >= window) {
+            head[w] -= window;
+            tail[w] -= window;
+        }
+    }
+
+    private int windowIndex(int window) {
+        for (int w = 0; w < windows.length; w++) {
+            if (windows[w] == window) {
+                return w;
+            }
+        }
+        throw new IllegalArgumentException("window " + window + " is not tracked");
+    }
+
+    /**
+     * number of values currently in the window
+     */
+    public synchronized int size(int window) {
+        windowIndex(window);
+        return (int) Math.min(count, window);
+    }
+
+    public synchronized double mean(int window) {
+        int n = size(window);
+        return n == 0 ? 0 : sum[windowIndex(window)] / n;
+    }
+
+    public synchronized double variance(int window) {
+        int n = size(window);
+        if (n == 0) {
+            return 0;
+        }
+        int w = windowIndex(window);
+        double mean = sum[w] / n;
+        return Math.max(0, sumSquares[w] / n - mean * mean);
+    }
+
+    public synchronized double standardDeviation(int window) {
+        return Math.sqrt(variance(window));
+    }
+
+    public synchronized double min(int window) {
+        int w = windowIndex(window);
+        return count == 0 ? 0 : valueAt(minQueue[w][minHead[w] % window]);
+    }
+
+    public synchronized double max(int window) {
+        int w = windowIndex(window);
+        return count == 0 ? 0 : valueAt(maxQueue[w][maxHead[w] % window]);
+    }
+
+    /**
+     * @return the values kept, oldest first : as many as the largest window
+     */
+    public synchronized double[] values() {
+        int n = (int) Math.min(count, buffer.length);
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = valueAt(count - n + i);
+        }
+        return values;
+    }
+
+    public synchronized double getEwma() {
+        return ewma;
+    }
+
+    public synchronized double getLast() {
+        return last;
+    }
+
+    public int[] getWindows() {
+        return windows.clone();
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package com.nubits.nubot.utils;
+
+import com.nubits.nubot.global.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A session output split into segments as it grows.
+ * The active file keeps its name (orders_history.jsonl); closed segments are named after it with the day and
+ * a counter (orders_history.20151019.0.jsonl) and gzipped in the background (orders_history.20151019.0.jsonl.gz).
+ * The logback rolling appenders name their segments the same way.
+ * Readers see the concatenation of the closed segments, oldest first, and of the active file.
+ */
+public class SegmentedFile {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SegmentedFile.class.getName());
+
+    public static final String COMPRESSED = ".gz";
+
+    private static final String DAY_FORMAT = "yyyyMMdd";
+
+    /**
+     * compresses closed segments, one at a time, away from the writers
+     */
+    private static final ExecutorService COMPRESSOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "segment-compressor");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    /**
+     * @return the closed segments of path, oldest first, followed by path itself if it exists.
+     * A segment found both plain and compressed (compression interrupted) is listed once
+     */
+    public static List<File> segments(String path) {
+        File active = new File(path);
+        File folder = active.getAbsoluteFile().getParentFile();
+        final Pattern pattern = segmentPattern(active.getName());
+        ArrayList<File> closed = new ArrayList<>();
+        String[] names = folder == null ? null : folder.list();
+        if (names != null) {
+            HashSet<String> plain = new HashSet<>();
+            for (String name : names) {
+                if (!name.endsWith(COMPRESSED)) {
+                    plain.add(name);
+                }
+            }
+            for (String name : names) {
+                Matcher m = pattern.matcher(name);
+                if (m.matches() && !(m.group(2) != null && plain.contains(name.substring(0, name.length() - COMPRESSED.length())))) {
+                    closed.add(new File(folder, name));
+                }
+            }
+        }
+        Collections.sort(closed, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return compareCounters(counters(pattern, a.getName()), counters(pattern, b.getName()));
+            }
+        });
+        if (active.exists()) {
+            closed.add(active);
+        }
+        return closed;
+    }
+
+    /**
+     * @return the concatenation of all the segments of path, compressed ones inflated
+     * @throws FileNotFoundException if path has no segment
+     */
+    public static InputStream open(String path) throws IOException {
+        final List<File> segments = segments(path);
+        if (segments.isEmpty()) {
+            throw new FileNotFoundException(path);
+        }
+        return new SequenceInputStream(new Enumeration<InputStream>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < segments.size();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                File segment = segments.get(next++);
+                try {
+                    return openSegment(segment);
+                } catch (IOException e) {
+                    //pruned meanwhile
+                    LOG.warn("Skipping segment " + segment.getPath() + " : " + e.toString());
+                    return new ByteArrayInputStream(new byte[0]);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the last maxBytes of the concatenated segments of path, reading only the segments needed
+     * @throws FileNotFoundException if path has no segment
+     */
+    public static String tail(String path, int maxBytes) throws IOException {
+        AsyncFileWriter.flush(); //see the appends still queued
+        List<File> segments = segments(path);
+        if (segments.isEmpty()) {
+            throw new FileNotFoundException(path);
+        }
+        ArrayList<byte[]> parts = new ArrayList<>();
+        int collected = 0;
+        for (int i = segments.size() - 1; i >= 0 && collected < maxBytes; i--) {
+            byte[] part = tailOf(segments.get(i), maxBytes - collected);
+            parts.add(part);
+            collected += part.length;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(collected);
+        for (int i = parts.size() - 1; i >= 0; i--) {
+            out.write(parts.get(i), 0, parts.get(i).length);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * move the active file to a new closed segment and compress it in the background.
+     * Whoever writes the file must have closed it
+     *
+     * @return the closed segment, null if the file could not be moved
+     */
+    public static File rotate(String path) {
+        File active = new File(path);
+        if (!active.exists()) {
+            return null;
+        }
+        File segment = nextSegment(active);
+        if (!active.renameTo(segment)) {
+            LOG.error("Unable to rotate " + path + " to " + segment.getName());
+            return null;
+        }
+        LOG.debug("Rotated " + path + " to " + segment.getName());
+        compress(segment);
+        return segment;
+    }
+
+    /**
+     * gzip a closed segment in the background, then delete the plain one
+     */
+    public static Future<?> compress(final File segment) {
+        return COMPRESSOR.submit(new Runnable() {
+            @Override
+            public void run() {
+                File target = new File(segment.getPath() + COMPRESSED);
+                File temp = new File(target.getPath() + ".tmp");
+                try (InputStream in = new FileInputStream(segment);
+                     OutputStream out = new GZIPOutputStream(new FileOutputStream(temp), 64 * 1024)) {
+                    byte[] buffer = new byte[64 * 1024];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                } catch (IOException e) {
+                    LOG.error("Unable to compress " + segment.getPath() + " : " + e.toString());
+                    temp.delete();
+                    return;
+                }
+                //readers list the plain segment as long as it exists, so the content is never seen twice
+                if (!temp.renameTo(target) || !segment.delete()) {
+                    LOG.error("Unable to replace " + segment.getPath() + " with " + target.getName());
+                }
+            }
+        });
+    }
+
+    /**
+     * @return true if a file of this size, written since segmentStart, should be rotated
+     */
+    public static boolean isDue(long size, long segmentStart, long now) {
+        return size >= Settings.SEGMENT_MAX_BYTES || (size > 0 && now - segmentStart >= Settings.SEGMENT_MAX_AGE);
+    }
+
+    private static File nextSegment(File active) {
+        String day = new SimpleDateFormat(DAY_FORMAT).format(new Date());
+        int counter = 0;
+        Pattern pattern = segmentPattern(active.getName());
+        String[] names = active.getAbsoluteFile().getParentFile().list();
+        if (names != null) {
+            for (String name : names) {
+                long[] c = counters(pattern, name);
+                if (c != null && c.length == 2 && c[0] == Long.parseLong(day)) {
+                    counter = (int) Math.max(counter, c[1] + 1);
+                }
+            }
+        }
+        String name = active.getName();
+        int dot = name.lastIndexOf('.');
+        String stem = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        return new File(active.getAbsoluteFile().getParentFile(), stem + "." + day + "." + counter + extension);
+    }
+
+    //stem.<counters>.extension[.gz], the counters being numbers separated by dots or dashes
+    private static Pattern segmentPattern(String activeName) {
+        int dot = activeName.lastIndexOf('.');
+        String stem = dot > 0 ? activeName.substring(0, dot) : activeName;
+        String extension = dot > 0 ? activeName.substring(dot) : "";
+        return Pattern.compile(Pattern.quote(stem) + "\\.([0-9][0-9.\\-]*)" + Pattern.quote(extension)
+                + "(" + Pattern.quote(COMPRESSED) + ")?");
+    }
+
+    private static long[] counters(Pattern pattern, String name) {
+        Matcher m = pattern.matcher(name);
+        if (!m.matches()) {
+            return null;
+        }
+        String[] tokens = m.group(1).split("[.\\-]");
+        long[] counters = new long[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            try {
+                counters[i] = Long.parseLong(tokens[i]);
+            } catch (NumberFormatException e) {
+                counters[i] = 0;
+            }
+        }
+        return counters;
+    }
+
+    private static int compareCounters(long[] a, long[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            if (a[i] != b[i]) {
+                return a[i] < b[i] ? -1 : 1;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    private static InputStream openSegment(File segment) throws IOException {
+        segment = current(segment);
+        InputStream in = new FileInputStream(segment);
+        if (segment.getName().endsWith(COMPRESSED)) {
+            return new GZIPInputStream(in, 64 * 1024);
+        }
+        return in;
+    }
+
+    //a plain segment listed by a reader may have been compressed since
+    private static File current(File segment) {
+        if (!segment.exists() && !segment.getName().endsWith(COMPRESSED)) {
+            File compressed = new File(segment.getPath() + COMPRESSED);
+            if (compressed.exists()) {
+                return compressed;
+            }
+        }
+        return segment;
+    }
+
+    private static byte[] tailOf(File segment, int maxBytes) throws IOException {
+        segment = current(segment);
+        if (!segment.getName().endsWith(COMPRESSED)) {
+            try (RandomAccessFile file = new RandomAccessFile(segment, "r")) {
+                int size = (int) Math.min(maxBytes, file.length());
+                byte[] bytes = new byte[size];
+                file.seek(file.length() - size);
+                file.readFully(bytes);
+                return bytes;
+            }
+        }
+        //segments are bounded by Settings.SEGMENT_MAX_BYTES : inflate and keep the end
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = openSegment(segment)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        byte[] all = out.toByteArray();
+        int size = Math.min(maxBytes, all.length);
+        byte[] bytes = new byte[size];
+        System.arraycopy(all, all.length - size, bytes, 0, size);
+        return bytes;
+    }
+}
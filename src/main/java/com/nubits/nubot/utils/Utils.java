@@ -19,7 +19,7 @@
 package com.nubits.nubot.utils;
 
 import com.nubits.nubot.NTP.NTPClient;
-import com.nubits.nubot.bot.SessionManager;
+import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.global.Passwords;
 import com.nubits.nubot.global.Settings;
 import com.nubits.nubot.models.OrderToPlace;
@@ -45,8 +45,6 @@ import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.URL;
-import java.net.URLConnection;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -205,32 +203,7 @@ public class Utils {
     }
 
     public static String getHTML(String url, boolean removeNonLatinChars) throws IOException {
-        String line = "", all = "";
-        URL myUrl = null;
-        BufferedReader br = null;
-        try {
-            myUrl = new URL(url);
-
-            URLConnection con = myUrl.openConnection();
-            con.setConnectTimeout(1000 * 8);
-            con.setReadTimeout(1000 * 8);
-            InputStream in = con.getInputStream();
-
-            br = new BufferedReader(new InputStreamReader(in));
-
-            while ((line = br.readLine()) != null) {
-                all += line;
-            }
-        } finally {
-            if (br != null) {
-                br.close();
-            }
-        }
-
-        if (removeNonLatinChars) {
-            all = all.replaceAll("[^\\x00-\\x7F]", "");
-        }
-        return all;
+        return FeedHttpClient.get(url, removeNonLatinChars);
     }
 
     public static void printSeparator() {
@@ -269,7 +242,7 @@ public class Utils {
 
     //Computes the seconds missing till the next remote minutes clocks
     public static int getSecondsToRemoteMinute() {
-        Date remoteDate = new NTPClient().getTime();
+        Date remoteDate = new Date(NTPClient.currentTimeMillis());
         Calendar remoteCalendar = new GregorianCalendar();
         remoteCalendar.setTime(remoteDate);
         int remoteTimeInSeconds = remoteCalendar.get(Calendar.SECOND);
@@ -309,7 +282,7 @@ public class Utils {
      * @return delay
      */
     public static int getSecondsToNextwindow(int windowWidthSeconds) {
-        Date remoteDate = new NTPClient().getTime();
+        Date remoteDate = new Date(NTPClient.currentTimeMillis());
         Calendar remoteCalendar = new GregorianCalendar();
         remoteCalendar.setTime(remoteDate);
         int remoteTimeInSeconds = remoteCalendar.get(Calendar.SECOND);
@@ -470,7 +443,7 @@ public class Utils {
 
     public static String getBotUptimeDate() {
         DateTime now = new DateTime();
-        return getDurationDate(SessionManager.sessionStartDate, now);
+        return getDurationDate(Global.session().sessionStartDate, now);
     }
 
     //Return the uptime of the bot [hours]
@@ -5,6 +5,7 @@ import com.nubits.nubot.bot.Global;
 import com.nubits.nubot.bot.NuBotRunException;
 import com.nubits.nubot.bot.SessionManager;
 import com.nubits.nubot.launch.ShutDownProcess;
+import com.nubits.nubot.options.NuBotConfigException;
 import com.nubits.nubot.options.ParseOptions;
 import com.nubits.nubot.utils.Utils;
 import org.json.simple.JSONObject;
@@ -15,6 +16,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -30,8 +32,8 @@ public class BotController {
     private final static String START = "start";
     private final static String STOP = "stop";
 
-    //workaround for double stop call
-    private long lastStopCall;
+    //workaround for double stop call, per session
+    private final Map<String, Long> lastStopCall = new ConcurrentHashMap<>();
 
     public BotController() {
 
@@ -49,7 +51,7 @@ public class BotController {
                 opmap.put("sessionstart", "");
             }
 
-            //opmap.put("stopped", SessionManager.sessionStopped);
+            //opmap.put("stopped", Global.session().sessionStopped);
             String json = new Gson().toJson(opmap);
             return json;
         });
@@ -89,11 +91,18 @@ public class BotController {
                     opmap.put("error", errmsg);
                 }
 
-                if (ParseOptions.isValidOptions(Global.options)) {
+                boolean validOptions = false;
+                try {
+                    validOptions = ParseOptions.isValidOptions(Global.session().options);
+                } catch (NuBotConfigException e) {
+                    LOG.error(e.toString());
+                }
+
+                if (validOptions) {
                     LOG.info("trying to start bot");
                     try {
                         SessionManager.setModeStarting();
-                        SessionManager.launchBot(Global.options);
+                        SessionManager.launchBot(Global.session().options);
                     } catch (NuBotRunException e) {
                         success = false;
                         LOG.error("could not start bot " + e);
@@ -114,8 +123,8 @@ public class BotController {
             if (startstop.equals(STOP)) {
 
                 //workaround for double call, see issue #643
-                long dif = System.currentTimeMillis() - lastStopCall;
-                lastStopCall = System.currentTimeMillis();
+                Long previousStopCall = lastStopCall.put(Global.session().name, System.currentTimeMillis());
+                long dif = previousStopCall == null ? Long.MAX_VALUE : System.currentTimeMillis() - previousStopCall;
 
                 //prevent double calls
                 if (dif < 5000) {
@@ -131,7 +140,7 @@ public class BotController {
 
                         SessionManager.setModeHalting();
 
-                        Global.bot.shutdownBot();
+                        Global.session().bot.shutdownBot();
 
                         Global.mainThread.interrupt();
 
@@ -55,7 +55,7 @@ public class ConfigController {
         }
 
         if (savesuccess)
-            Global.options = newopt;
+            Global.session().options = newopt;
 
     }
 
@@ -66,7 +66,7 @@ public class ConfigController {
         post("/configreset", (request, response) -> {
             LOG.debug("/configreset called");
 
-            Global.currentOptionsFile = Settings.DEFAULT_CONFIG_FILE_PATH;
+            Global.session().currentOptionsFile = Settings.DEFAULT_CONFIG_FILE_PATH;
             boolean result = SaveOptions.optionsReset(Settings.DEFAULT_CONFIG_FILE_PATH);
             //return jsonString;
 
@@ -80,7 +80,7 @@ public class ConfigController {
             LOG.debug("/configfile called");
 
             Map opmap = new HashMap();
-            opmap.put("configfile", Global.currentOptionsFile);
+            opmap.put("configfile", Global.session().currentOptionsFile);
             String json = new Gson().toJson(opmap);
             return json;
         });
@@ -89,7 +89,7 @@ public class ConfigController {
             LOG.debug("GET /config called");
 
             //get from memory. any change in the file is reflected in the global options
-            String jsonString = NuBotOptions.optionsToJson(Global.options);
+            String jsonString = NuBotOptions.optionsToJson(Global.session().options);
             return jsonString;
         });
 
@@ -137,7 +137,7 @@ public class ConfigController {
             opmap.put("success", success);
 
             if (success) {
-                String saveTo = Global.currentOptionsFile;
+                String saveTo = Global.session().currentOptionsFile;
                 saveConfig(newopt, saveTo);
             }
 
@@ -7,13 +7,16 @@ import com.nubits.nubot.bot.SessionManager;
 import com.nubits.nubot.global.Settings;
 import com.nubits.nubot.models.Order;
 import com.nubits.nubot.models.PairBalance;
+import com.nubits.nubot.pricefeeds.FeedHealth;
+import com.nubits.nubot.pricefeeds.history.TickStore;
+import com.nubits.nubot.tasks.PriceMonitorTriggerTask;
+import com.nubits.nubot.utils.RollingStats;
+import com.nubits.nubot.utils.SegmentedFile;
 import com.nubits.nubot.utils.Utils;
 import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -26,15 +29,25 @@ public class LogController {
     final static Logger LOG = LoggerFactory.getLogger(LogController.class);
 
     /**
-     * the log file to send to client
+     * the log files to send to client, in the folder of the session
      */
-    String logfile = Global.sessionPath + "/standard.log"; //Must be the same as defined in logback.xml files
-    String verboselogfile = Global.sessionPath + "/verbose.log"; //Must be the same as defined in logback.xml files
+    private static final String logfile = "/standard.log"; //Must be the same as defined in logback.xml files
+    private static final String verboselogfile = "/verbose.log"; //Must be the same as defined in logback.xml files
 
     private String orderEndPoint = "orders";
 
     private String balanceEndPoint = "balances";
 
+    private String priceStatsEndPoint = "pricestats";
+
+    private String priceHistoryEndPoint = "pricehistory";
+
+    private String feedHealthEndPoint = "feedhealth";
+
+    private static final long DEFAULT_HISTORY_SPAN = 24 * 60 * 60 * 1000L;
+
+    private static final long DEFAULT_HISTORY_BUCKET = 5 * 60 * 1000L;
+
     private static final int maxSize = 100000;
 
     public LogController() {
@@ -43,14 +56,12 @@ public class LogController {
             LOG.trace("/logdump called");
             JsonObject object = new JsonObject();
 
-            String f = logfile;
-            if (Global.options.isVerbose())
-                f = verboselogfile;
+            String f = Global.session().sessionPath + logfile;
+            if (Global.session().options.isVerbose())
+                f = Global.session().sessionPath + verboselogfile;
             try {
-                String l = new String(Files.readAllBytes(Paths.get(f)));
-
-                if (l.length() > maxSize)
-                    l = l.substring(l.length()-maxSize,l.length());
+                //only the end of the log is read, across its rotated segments
+                String l = SegmentedFile.tail(f, maxSize);
                 object.addProperty("log", l);
                 return object;
             } catch (Exception e) {
@@ -66,17 +77,17 @@ public class LogController {
             int numbuys = 0;
             int numsells = 0;
 
-            if (SessionManager.isModeActive() && Global.orderManager != null) {
+            if (SessionManager.isModeActive() && Global.session().orderManager != null) {
                 try {
 
-                    numbuys = Global.orderManager.fetchBuyOrdersTimeBound(Settings.ORDER_MAX_INTERVAL);
-                    numsells = Global.orderManager.fetchSellOrdersTimeBound(Settings.ORDER_MAX_INTERVAL);
-                    Global.orderManager.logActiveOrders();
+                    numbuys = Global.session().orderManager.fetchBuyOrdersTimeBound(Settings.ORDER_MAX_INTERVAL);
+                    numsells = Global.session().orderManager.fetchSellOrdersTimeBound(Settings.ORDER_MAX_INTERVAL);
+                    Global.session().orderManager.logActiveOrders();
 
                     LOG.trace("GET /info : buys: " + numbuys);
                     LOG.trace("GET /info : sells: " + numsells);
 
-                    ArrayList<Order> ol = Global.orderManager.getOrderList();
+                    ArrayList<Order> ol = Global.session().orderManager.getOrderList();
                     opmap.put("orders", ol);
                     LOG.trace("orders: " + ol);
 
@@ -99,13 +110,13 @@ public class LogController {
             LOG.debug("/" + balanceEndPoint + " called");
             Map opmap = new HashMap();
 
-            if (SessionManager.isSessionRunning() && Global.balanceManager != null) {
+            if (SessionManager.isSessionRunning() && Global.session().balanceManager != null) {
                 try {
                     try {
                         //query only up to every X msec, otherwise just get the last info
                         //this caps the maximum queries we can do, so to not overload the exchange
-                        Global.balanceManager.fetchBalancePairTimeBound(Global.options.getPair(), Settings.BALANCE_MAX_INTERVAL);
-                        PairBalance balance = Global.balanceManager.getPairBalance();
+                        Global.session().balanceManager.fetchBalancePairTimeBound(Global.session().options.getPair(), Settings.BALANCE_MAX_INTERVAL);
+                        PairBalance balance = Global.session().balanceManager.getPairBalance();
                         opmap.put("pegBalance", prepareBalanceObject("peg", balance));
                         opmap.put("nbtBalance", prepareBalanceObject("nbt", balance));
                     } catch (Exception e) {
@@ -123,6 +134,80 @@ public class LogController {
         });
 
 
+        get("/" + priceStatsEndPoint, "application/json", (request, response) -> {
+            LOG.trace("/" + priceStatsEndPoint + " called");
+            Map opmap = new HashMap();
+
+            if (SessionManager.isSessionRunning() && Global.session().taskManager != null
+                    && Global.session().taskManager.getPriceTriggerTask() != null
+                    && Global.session().taskManager.getPriceTriggerTask().getTask() instanceof PriceMonitorTriggerTask) {
+                RollingStats stats = ((PriceMonitorTriggerTask) Global.session().taskManager.getPriceTriggerTask().getTask()).getPriceStats();
+                int pr = Settings.DEFAULT_PRECISION;
+                opmap.put("last", Utils.round(stats.getLast(), pr));
+                opmap.put("ewma", Utils.round(stats.getEwma(), pr));
+
+                ArrayList<Map> windows = new ArrayList<>();
+                for (int window : stats.getWindows()) {
+                    Map windowStats = new HashMap();
+                    windowStats.put("window", window);
+                    windowStats.put("count", stats.size(window));
+                    windowStats.put("mean", Utils.round(stats.mean(window), pr));
+                    windowStats.put("stddev", Utils.round(stats.standardDeviation(window), pr));
+                    windowStats.put("min", Utils.round(stats.min(window), pr));
+                    windowStats.put("max", Utils.round(stats.max(window), pr));
+                    windows.add(windowStats);
+                }
+                opmap.put("windows", windows);
+            }
+
+            String json = new Gson().toJson(opmap);
+            return json;
+        });
+
+
+        //?from=&to= [ms] &bucket= [ms] &feed= (default : main feed)
+        get("/" + priceHistoryEndPoint, "application/json", (request, response) -> {
+            LOG.trace("/" + priceHistoryEndPoint + " called");
+            Map opmap = new HashMap();
+
+            TickStore tickStore = Global.session().tickStore;
+            if (tickStore != null) {
+                try {
+                    long to = request.queryParams("to") != null ? Long.parseLong(request.queryParams("to")) : System.currentTimeMillis();
+                    long from = request.queryParams("from") != null ? Long.parseLong(request.queryParams("from")) : to - DEFAULT_HISTORY_SPAN;
+                    long bucket = request.queryParams("bucket") != null ? Long.parseLong(request.queryParams("bucket")) : DEFAULT_HISTORY_BUCKET;
+                    String feed = request.queryParams("feed") != null ? request.queryParams("feed") : Global.session().options.getMainFeed();
+                    opmap.put("feed", feed);
+                    opmap.put("bars", tickStore.downsample(from, to, bucket, feed, null));
+                } catch (NumberFormatException e) {
+                    opmap.put("error", "invalid parameter : " + e.getMessage());
+                }
+            }
+
+            String json = new Gson().toJson(opmap);
+            return json;
+        });
+
+
+        get("/" + feedHealthEndPoint, "application/json", (request, response) -> {
+            LOG.trace("/" + feedHealthEndPoint + " called");
+            ArrayList<Map> feeds = new ArrayList<>();
+            for (FeedHealth health : FeedHealth.getAll()) {
+                Map feed = new HashMap();
+                feed.put("name", health.getName());
+                feed.put("score", Utils.round(health.getScore(), 2));
+                feed.put("latency50", health.getLatencyPercentile(50));
+                feed.put("latency95", health.getLatencyPercentile(95));
+                feed.put("errorrate", Utils.round(health.getErrorRate() * 100, 1));
+                feed.put("deviation", Utils.round(health.getDeviation(), 3));
+                feed.put("excluded", health.isExcluded());
+                feed.put("samples", health.getSamples());
+                feeds.add(feed);
+            }
+            String json = new Gson().toJson(feeds);
+            return json;
+        });
+
     }
 
     private HashMap prepareBalanceObject(String type, PairBalance balance) {
@@ -0,0 +1,65 @@
+package com.nubits.nubot.webui;
+
+import com.google.gson.Gson;
+import com.nubits.nubot.bot.BotSession;
+import com.nubits.nubot.bot.Global;
+import com.nubits.nubot.bot.SessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static spark.Spark.after;
+import static spark.Spark.before;
+import static spark.Spark.get;
+
+/**
+ * list the bot sessions hosted by this process.
+ * Any endpoint can be directed to a session with the query parameter ?session=name
+ */
+public class SessionsController {
+
+    final static Logger LOG = LoggerFactory.getLogger(SessionsController.class);
+
+    public SessionsController() {
+
+        before((request, response) -> {
+            String name = request.queryParams("session");
+            if (name != null) {
+                BotSession session = Global.getSession(name);
+                if (session != null) {
+                    Global.bindSession(session);
+                }
+            }
+        });
+
+        after((request, response) -> Global.unbindSession());
+
+        get("/sessions", "application/json", (request, response) -> {
+            LOG.trace("/sessions called");
+
+            ArrayList<Map> sessionList = new ArrayList<>();
+            for (BotSession session : Global.getSessions()) {
+                if (session.options == null) {
+                    continue; //never configured
+                }
+                Global.bindSession(session);
+                try {
+                    Map opmap = new HashMap();
+                    opmap.put("name", session.name);
+                    opmap.put("exchange", session.options.getExchangeName());
+                    opmap.put("pair", session.options.getPair().toStringSep());
+                    opmap.put("status", SessionManager.getReadableMode());
+                    opmap.put("sessionstart", SessionManager.isSessionRunning() ? SessionManager.startedString() : "");
+                    sessionList.add(opmap);
+                } finally {
+                    Global.unbindSession();
+                }
+            }
+
+            return new Gson().toJson(sessionList);
+        });
+    }
+}
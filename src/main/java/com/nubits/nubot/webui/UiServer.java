@@ -42,6 +42,8 @@ public class UiServer {
         LayoutTemplateEngine tmpl = new LayoutTemplateEngine(Settings.HTML_FOLDER);
 
 
+        new SessionsController();
+
         new ConfigController(configFile);
 
         new LogController();
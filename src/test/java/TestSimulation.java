@@ -51,7 +51,7 @@ public class TestSimulation extends TestCase {
         System.out.println(">> mode: " + SessionManager.getMode());
         assertTrue(SessionManager.isSessionRunning());
 
-        Global.bot.shutdownBot();
+        Global.session().bot.shutdownBot();
         Global.createShutDownHook();
 
         try{
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.bot.Global;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.Amount;
+import com.nubits.nubot.models.Currency;
+import com.nubits.nubot.models.CurrencyList;
+import com.nubits.nubot.models.CurrencyPair;
+import com.nubits.nubot.models.LastPrice;
+import com.nubits.nubot.pricefeeds.AdaptivePoller;
+import com.nubits.nubot.pricefeeds.feedservices.AbstractPriceFeed;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class TestAdaptivePoller extends TestCase {
+
+    @Test
+    public void testDelay() {
+        long refresh = 60 * 1000;
+        assertEquals(refresh, AdaptivePoller.computeDelay(refresh, 0));
+        assertEquals(Settings.FEED_POLL_MIN_INTERVAL, AdaptivePoller.computeDelay(refresh, 5));
+        long half = AdaptivePoller.computeDelay(refresh, Settings.FEED_POLL_HIGH_VOLATILITY / 2);
+        assertTrue(half < refresh && half > Settings.FEED_POLL_MIN_INTERVAL);
+
+        //slow feeds are never polled more than FEED_POLL_MAX_SPEEDUP times faster
+        long fiat = 8 * 60 * 60 * 1000;
+        assertEquals(fiat / Settings.FEED_POLL_MAX_SPEEDUP, AdaptivePoller.computeDelay(fiat, 5));
+    }
+
+    @Test
+    public void testSlowFeedsDoNotHoldTheScheduler() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        int feeds = Global.scheduler.getCorePoolSize() + 2;
+        final CountDownLatch polling = new CountDownLatch(feeds);
+        ArrayList<AdaptivePoller> pollers = new ArrayList<>();
+        for (int i = 0; i < feeds; i++) {
+            AbstractPriceFeed slow = new AbstractPriceFeed() {
+                @Override
+                public LastPrice fetchLastPrice(CurrencyPair pair) {
+                    polling.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                    }
+                    return new LastPrice(true, "slow", pair.getOrderCurrency(), new Amount(0, pair.getPaymentCurrency()));
+                }
+            };
+            slow.setRefreshMinTime(60 * 1000);
+            //one pair per poller : each one blocks in a fetch of its own
+            CurrencyPair pair = new CurrencyPair(Currency.createCurrency("SLOW" + i), CurrencyList.USD);
+            AdaptivePoller poller = new AdaptivePoller(slow, pair, null);
+            pollers.add(poller);
+            poller.start();
+        }
+        try {
+            assertTrue(polling.await(5, TimeUnit.SECONDS));
+            //every feed is stuck, the tasks of the bots still run
+            ScheduledFuture<Boolean> task = Global.scheduler.schedule(() -> true, 0, TimeUnit.MILLISECONDS);
+            assertTrue(task.get(2, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            for (AdaptivePoller poller : pollers) {
+                poller.stop();
+            }
+        }
+    }
+}
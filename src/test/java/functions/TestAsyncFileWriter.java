@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.utils.AsyncFileWriter;
+import com.nubits.nubot.utils.FilesystemUtils;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.util.List;
+
+public class TestAsyncFileWriter extends TestCase {
+
+    @Test
+    public void testConcurrentAppends() throws Exception {
+        File folder = Files.createTempDirectory("writer").toFile();
+        final String path = folder + "/appends.csv";
+        Thread[] producers = new Thread[8];
+        for (int p = 0; p < producers.length; p++) {
+            final int producer = p;
+            producers[p] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 500; i++) {
+                        FilesystemUtils.writeToFile(producer + "," + i, path, true);
+                    }
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        AsyncFileWriter.flush();
+
+        List<String> lines = Files.readAllLines(new File(path).toPath(), StandardCharsets.UTF_8);
+        assertEquals(8 * 500, lines.size());
+        //the lines of each producer keep their order
+        int[] next = new int[producers.length];
+        for (String line : lines) {
+            String[] fields = line.split(",");
+            int producer = Integer.parseInt(fields[0]);
+            assertEquals(next[producer]++, Integer.parseInt(fields[1]));
+        }
+    }
+
+    @Test
+    public void testRewriteAfterAppends() throws Exception {
+        File folder = Files.createTempDirectory("writer").toFile();
+        String path = folder + "/state.json";
+
+        FilesystemUtils.writeToFile("first", path, true);
+        FilesystemUtils.writeToFile("second", path, false);
+        AsyncFileWriter.appendDurable(path, "third\n");
+
+        //appendDurable returned : the file is complete without any flush
+        List<String> lines = Files.readAllLines(new File(path).toPath(), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertEquals("second", lines.get(0));
+        assertEquals("third", lines.get(1));
+
+        FilesystemUtils.deleteFile(path, false);
+        assertFalse(new File(path).exists());
+    }
+
+    @Test
+    public void testFailuresReachTheCaller() throws Exception {
+        File folder = Files.createTempDirectory("writer").toFile();
+        String path = folder + "/after.log";
+
+        //not even a path : fails outside of any IOException
+        try {
+            AsyncFileWriter.write(folder + "/bad\0name", "lost\n");
+            fail("the failed write returned normally");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof InvalidPathException);
+        }
+        try {
+            AsyncFileWriter.appendDurable(folder + "/missing/folder.log", "lost\n");
+            fail("the failed append returned normally");
+        } catch (UncheckedIOException e) {
+            assertNotNull(e.getCause());
+        }
+
+        //logged, as the writes of FilesystemUtils always were
+        FilesystemUtils.writeToFile("lost", folder + "/missing/options.json", false);
+
+        //the writer survived them all
+        AsyncFileWriter.appendDurable(path, "kept\n");
+        List<String> lines = Files.readAllLines(new File(path).toPath(), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertEquals("kept", lines.get(0));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package functions;
+
+import com.nubits.nubot.backtest.BacktestParameters;
+import com.nubits.nubot.backtest.BacktestQuote;
+import com.nubits.nubot.backtest.BacktestResult;
+import com.nubits.nubot.backtest.BacktestSweep;
+import com.nubits.nubot.backtest.PegBacktest;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class TestBacktest extends TestCase {
+
+    /**
+     * a price going up 0.1% every 10 minutes for 10 hours
+     */
+    private ArrayList<BacktestQuote> trendingQuotes() {
+        ArrayList<BacktestQuote> quotes = new ArrayList<>();
+        double price = 250;
+        for (int i = 0; i <= 60; i++) {
+            quotes.add(new BacktestQuote(i * 10 * 60 * 1000L, "test", price));
+            price = price * 1.001;
+        }
+        return quotes;
+    }
+
+    @Test
+    public void testShiftCount() {
+        BacktestParameters params = new BacktestParameters();
+        params.setWallchangeThreshold(0.5);
+        BacktestResult result = new PegBacktest(trendingQuotes(), params).run();
+
+        //the price moves ~6.2% : a shift every ~0.5%
+        assertTrue(result.getShifts() >= 10 && result.getShifts() <= 12);
+        assertTrue(result.getApiCalls() > result.getShifts());
+        assertTrue(result.getLiquidityGapSeconds() > 0);
+    }
+
+    @Test
+    public void testSweep() {
+        BacktestParameters base = new BacktestParameters();
+        base.setBalancePEG(4);
+        ArrayList<BacktestParameters> grid = BacktestSweep.grid(base, new double[]{0.1, 1, 5}, new double[]{0, 1});
+        ArrayList<BacktestResult> results = BacktestSweep.run(trendingQuotes(), grid, 3);
+
+        assertEquals(6, results.size());
+        //lower thresholds shift more often
+        assertTrue(results.get(0).getShifts() > results.get(2).getShifts());
+        assertTrue(results.get(2).getShifts() > results.get(4).getShifts());
+        //stale walls lose against arbitrageurs
+        assertTrue(results.get(4).getPnl() <= results.get(0).getPnl());
+    }
+
+    @Test
+    public void testSweepKeepsFailedRuns() {
+        BacktestParameters broken = new BacktestParameters();
+        broken.setMovingAverageSize(0);
+        ArrayList<BacktestParameters> paramsList = new ArrayList<>();
+        paramsList.add(new BacktestParameters());
+        paramsList.add(broken);
+        paramsList.add(new BacktestParameters());
+        ArrayList<BacktestResult> results = BacktestSweep.run(trendingQuotes(), paramsList, 2);
+
+        //the failed run keeps its place, the others complete
+        assertEquals(3, results.size());
+        for (int i = 0; i < 3; i++) {
+            assertSame(paramsList.get(i), results.get(i).getParameters());
+        }
+        assertTrue(results.get(1).isFailed());
+        assertTrue(results.get(1).getError().contains("IllegalArgumentException"));
+        assertFalse(results.get(0).isFailed());
+        assertFalse(results.get(2).isFailed());
+        assertEquals(results.get(0).getShifts(), results.get(2).getShifts());
+        assertTrue(results.get(0).getShifts() > 0);
+    }
+}
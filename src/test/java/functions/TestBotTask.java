@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.bot.Global;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.tasks.BotTask;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.TimerTask;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestBotTask extends TestCase {
+
+    @Test
+    public void testBlockingTasksAllRun() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        int tasks = Settings.SCHEDULER_THREADS + 3;
+        final CountDownLatch running = new CountDownLatch(tasks);
+        ArrayList<BotTask> botTasks = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            BotTask task = new BotTask(new TimerTask() {
+                @Override
+                public void run() {
+                    running.countDown();
+                    try {
+                        release.await(); //stuck in an exchange call
+                    } catch (InterruptedException e) {
+                    }
+                }
+            }, 60, "blocking" + i);
+            botTasks.add(task);
+            task.start();
+        }
+        try {
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            //the scheduler only times the tasks
+            assertEquals(Settings.SCHEDULER_THREADS, Global.scheduler.getCorePoolSize());
+        } finally {
+            release.countDown();
+            for (BotTask task : botTasks) {
+                task.stop();
+            }
+        }
+    }
+
+    @Test
+    public void testOneExecutionAtATime() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        BotTask task = new BotTask(new TimerTask() {
+            @Override
+            public void run() {
+                executions.incrementAndGet();
+                maxConcurrent.set(Math.max(maxConcurrent.get(), concurrent.incrementAndGet()));
+                try {
+                    Thread.sleep(2500); //longer than the interval
+                } catch (InterruptedException e) {
+                } finally {
+                    concurrent.decrementAndGet();
+                }
+            }
+        }, 1, "slow");
+        task.start();
+        task.start(); //ignored : the task is running
+        try {
+            Thread.sleep(3500);
+            assertEquals(1, maxConcurrent.get());
+            assertEquals(2, executions.get());
+        } finally {
+            task.stop();
+        }
+
+        //stopped for good : no execution left behind
+        Thread.sleep(3000);
+        int stopped = executions.get();
+        Thread.sleep(1500);
+        assertEquals(stopped, executions.get());
+        assertFalse(task.isRunning());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.pricefeeds.FeedHealth;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class TestFeedHealth extends TestCase {
+
+    @Test
+    public void testScoreAndExclusion() {
+        FeedHealth health = new FeedHealth("test");
+        assertEquals(1.0, health.getScore());
+        assertFalse(health.isExcluded());
+
+        for (int i = 1; i <= 10; i++) {
+            health.recordRequest(i * 100, false);
+            health.recordDeviation(0.5);
+        }
+        assertEquals(500, health.getLatencyPercentile(50));
+        assertEquals(1000, health.getLatencyPercentile(95));
+        assertEquals(0.0, health.getErrorRate());
+        assertFalse(health.isExcluded());
+        double healthy = health.getScore();
+        assertTrue(healthy > 0.8);
+
+        for (int i = 0; i < 15; i++) {
+            health.recordRequest(Settings.FEED_FETCH_DEADLINE, true);
+        }
+        assertEquals(0.6, health.getErrorRate(), 1e-9);
+        assertTrue(health.isExcluded());
+        assertTrue(health.getScore() < healthy);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.utils.FeedHttpClient;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+public class TestFeedHttpClient extends TestCase {
+
+    private HttpServer server;
+    private final AtomicInteger full = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    @Override
+    protected void setUp() throws Exception {
+        FeedHttpClient.clear();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rates", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            full.incrementAndGet();
+            ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(zipped)) {
+                gzip.write("{\"rates\":\n{\"EUR\":0.8}}\n".getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, zipped.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(zipped.toByteArray());
+            }
+        });
+        server.start();
+    }
+
+    @Override
+    protected void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testGzipAndRevalidation() throws Exception {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/rates";
+
+        assertEquals("{\"rates\":{\"EUR\":0.8}}", FeedHttpClient.get(url, true));
+        assertEquals("{\"rates\":{\"EUR\":0.8}}", FeedHttpClient.get(url, true));
+        assertEquals(1, full.get());
+        assertEquals(1, notModified.get());
+    }
+}
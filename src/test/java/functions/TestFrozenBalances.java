@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.bot.Global;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.Amount;
+import com.nubits.nubot.models.CurrencyList;
+import com.nubits.nubot.models.CurrencyPair;
+import com.nubits.nubot.options.NuBotOptions;
+import com.nubits.nubot.utils.AsyncFileWriter;
+import com.nubits.nubot.utils.FilesystemUtils;
+import com.nubits.nubot.utils.FrozenBalancesManager;
+import junit.framework.TestCase;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+public class TestFrozenBalances extends TestCase {
+
+    private static final CurrencyPair PAIR = CurrencyPair.getCurrencyPairFromString("nbt_btc");
+
+    @Override
+    public void setUp() {
+        Global.session().options = new NuBotOptions();
+        Global.session().swappedPair = false;
+    }
+
+    @Test
+    public void testReplayAfterRestart() throws Exception {
+        String folder = Files.createTempDirectory("frozen").toString();
+        FrozenBalancesManager fbm = new FrozenBalancesManager("testexchange", PAIR, folder);
+        assertEquals(0.0, fbm.getFrozenAmount().getAmount().getQuantity());
+        String snapshot = folder + "/nbt_btc-testexchange-frozen.json";
+        String log = folder + "/nbt_btc-testexchange-frozen.jsonl";
+        assertTrue(new File(snapshot).exists());
+
+        for (int i = 0; i < 3; i++) {
+            fbm.updateFrozenBalance(new Amount(1.5, CurrencyList.BTC));
+        }
+        assertEquals(4.5, fbm.getFrozenAmount().getAmount().getQuantity());
+        assertEquals(3, FilesystemUtils.parseCsvFromFile(log).size()); //one line per change, snapshot untouched
+
+        //restart : the changes are replayed, then folded into the snapshot
+        fbm = new FrozenBalancesManager("testexchange", PAIR, folder);
+        assertEquals(4.5, fbm.getFrozenAmount().getAmount().getQuantity());
+        assertEquals(0, new File(log).length());
+        JSONObject state = (JSONObject) new JSONParser().parse(FilesystemUtils.readFromFile(snapshot));
+        assertEquals("3", state.get("sequence"));
+
+        //crash after the snapshot but before the log was emptied, then mid-append
+        AsyncFileWriter.appendDurable(log, "{\"seq\":3,\"timestamp\":0,\"type\":\"freeze\",\"quantity\":1.5,\"currency-code\":\"BTC\"}\n");
+        AsyncFileWriter.appendDurable(log, "{\"seq\":4,\"timestamp\":0,\"type\":\"freeze\",\"quantity\":1.0,\"currency-code\":\"BTC\"}\n");
+        AsyncFileWriter.appendDurable(log, "{\"seq\":5,\"timestamp\":0,\"ty");
+        fbm = new FrozenBalancesManager("testexchange", PAIR, folder);
+        assertEquals(5.5, fbm.getFrozenAmount().getAmount().getQuantity());
+
+        fbm.reset();
+        fbm = new FrozenBalancesManager("testexchange", PAIR, folder);
+        assertEquals(0.0, fbm.getFrozenAmount().getAmount().getQuantity());
+    }
+
+    @Test
+    public void testPeriodicSnapshot() throws Exception {
+        String folder = Files.createTempDirectory("frozen").toString();
+        FrozenBalancesManager fbm = new FrozenBalancesManager("testexchange", PAIR, folder);
+        for (int i = 0; i < Settings.FROZEN_SNAPSHOT_EVENTS; i++) {
+            fbm.updateFrozenBalance(new Amount(0.25, CurrencyList.BTC));
+        }
+        AsyncFileWriter.flush();
+        assertEquals(0, new File(folder + "/nbt_btc-testexchange-frozen.jsonl").length());
+        JSONObject state = (JSONObject) new JSONParser().parse(FilesystemUtils.readFromFile(folder + "/nbt_btc-testexchange-frozen.json"));
+        assertEquals(Settings.FROZEN_SNAPSHOT_EVENTS * 0.25, Double.parseDouble((String) state.get("frozen-quantity-total")));
+        assertFalse(new File(folder + "/nbt_btc-testexchange-frozen.json.tmp").exists());
+    }
+}
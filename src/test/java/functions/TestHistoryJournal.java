@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.backtest.BacktestQuote;
+import com.nubits.nubot.backtest.QuoteHistoryReader;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.utils.FilesystemUtils;
+import com.nubits.nubot.utils.HistoryJournal;
+import junit.framework.TestCase;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestHistoryJournal extends TestCase {
+
+    @Test
+    public void testAppendReadExport() throws Exception {
+        File folder = Files.createTempDirectory("journal").toFile();
+        HistoryJournal journal = new HistoryJournal(folder + "/" + Settings.WALLSHIFTS_FILENAME + HistoryJournal.EXTENSION);
+
+        for (int i = 1; i <= 3; i++) {
+            JSONObject shift = new JSONObject();
+            shift.put("timestamp", 1000L * i);
+            shift.put("feed", "feed" + i);
+            shift.put("price", 1.0 + i);
+            journal.append(shift);
+        }
+        //a record cut short by a crash
+        FilesystemUtils.writeToFile("{\"timestamp\":4000,\"fe", journal.getPath(), true);
+
+        final List<JSONObject> records = new ArrayList<>();
+        assertEquals(3, journal.read(new HistoryJournal.RecordHandler() {
+            @Override
+            public void record(JSONObject record) {
+                records.add(record);
+            }
+        }));
+        assertEquals("feed2", records.get(1).get("feed"));
+
+        HistoryJournal.exportSession(folder.getPath());
+        String legacyPath = folder + "/" + Settings.WALLSHIFTS_FILENAME + ".json";
+        JSONObject legacy = (JSONObject) new JSONParser().parse(FilesystemUtils.readFromFile(legacyPath));
+        JSONArray shifts = (JSONArray) legacy.get("wall_shifts");
+        assertEquals(3, shifts.size());
+        assertEquals(3000L, ((JSONObject) shifts.get(2)).get("timestamp"));
+
+        //both layouts replay the same quotes
+        List<BacktestQuote> fromJournal = QuoteHistoryReader.read(journal.getPath());
+        List<BacktestQuote> fromLegacy = QuoteHistoryReader.read(legacyPath);
+        assertEquals(3, fromJournal.size());
+        assertEquals(fromLegacy.size(), fromJournal.size());
+        assertEquals(4.0, fromJournal.get(2).getPrice());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.global.Constant;
+import com.nubits.nubot.models.CurrencyList;
+import com.nubits.nubot.models.CurrencyPair;
+import com.nubits.nubot.models.OrderToPlace;
+import com.nubits.nubot.trading.LiquidityDistribution.LiquidityDistributionModel;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class TestLadderCompression extends TestCase {
+
+    private static final CurrencyPair pair = CurrencyList.NBT_USD;
+
+    private static ArrayList<OrderToPlace> ladder(int levels) {
+        ArrayList<OrderToPlace> ladder = new ArrayList<>();
+        for (int i = 0; i < levels; i++) {
+            ladder.add(new OrderToPlace(Constant.SELL, pair, 10, 1.01 + i * 0.01));
+        }
+        return ladder;
+    }
+
+    @Test
+    public void testWithinTolerance() {
+        //20 levels of 10 : 10% of 200 lets each order absorb two more levels
+        ArrayList<OrderToPlace> compressed = LiquidityDistributionModel.compress(ladder(20), 20, 0.1);
+
+        assertEquals(7, compressed.size());
+        assertEquals(30.0, compressed.get(0).getSize());
+        assertEquals(1.01, compressed.get(0).getPrice());
+        assertEquals(1.04, compressed.get(1).getPrice(), 1e-9);
+        double total = 0;
+        for (OrderToPlace order : compressed) {
+            total += order.getSize();
+        }
+        assertEquals(200.0, total, 1e-9);
+    }
+
+    @Test
+    public void testOrderCountWins() {
+        ArrayList<OrderToPlace> compressed = LiquidityDistributionModel.compress(ladder(20), 4, 0.1);
+
+        assertEquals(4, compressed.size());
+        assertEquals(50.0, compressed.get(0).getSize());
+    }
+}
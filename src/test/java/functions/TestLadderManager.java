@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.bot.Global;
+import com.nubits.nubot.bot.SessionManager;
+import com.nubits.nubot.exchanges.Exchange;
+import com.nubits.nubot.global.Constant;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.Amount;
+import com.nubits.nubot.models.ApiError;
+import com.nubits.nubot.models.ApiResponse;
+import com.nubits.nubot.models.CurrencyList;
+import com.nubits.nubot.models.CurrencyPair;
+import com.nubits.nubot.models.Order;
+import com.nubits.nubot.models.OrderToPlace;
+import com.nubits.nubot.models.PairBalance;
+import com.nubits.nubot.options.NuBotOptionsDefault;
+import com.nubits.nubot.strategy.LadderManager;
+import com.nubits.nubot.strategy.OrderManager;
+import com.nubits.nubot.trading.wrappers.SimulationWrapper;
+import com.nubits.nubot.utils.FrozenBalancesManager;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+
+public class TestLadderManager extends TestCase {
+
+    private static final CurrencyPair pair = CurrencyList.NBT_USD;
+
+    private static Order order(String id, double amount, double price) {
+        return order(id, Constant.SELL, amount, price);
+    }
+
+    private static Order order(String id, String type, double amount, double price) {
+        return new Order(id, new Date(), type, pair, new Amount(amount, CurrencyList.NBT), new Amount(price, CurrencyList.USD));
+    }
+
+    /**
+     * an exchange keeping its book in memory, recording the requests it gets
+     */
+    private static class StubTrade extends SimulationWrapper {
+        final ArrayList<Order> book = new ArrayList<>();
+        final ArrayList<String> calls = new ArrayList<>();
+        final HashSet<String> refusedCancels = new HashSet<>();
+        int refusedPlacements; //the next placements refused
+        int placed;
+
+        StubTrade() {
+            super(null, null);
+        }
+
+        int count(String call) {
+            return Collections.frequency(calls, call);
+        }
+
+        @Override
+        public ApiResponse getTxFee(CurrencyPair pair) {
+            calls.add("fee");
+            return new ApiResponse(true, 0.2, null);
+        }
+
+        @Override
+        public ApiResponse getAvailableBalances(CurrencyPair pair) {
+            calls.add("balances");
+            double nbtOnOrder = 0;
+            double usdOnOrder = 0;
+            for (Order order : book) {
+                if (order.getType().equals(Constant.SELL)) {
+                    nbtOnOrder += order.getAmount().getQuantity();
+                } else {
+                    usdOnOrder += order.getAmount().getQuantity() * order.getPrice().getQuantity();
+                }
+            }
+            return new ApiResponse(true, new PairBalance(new Amount(1000 - usdOnOrder, CurrencyList.USD),
+                    new Amount(1000 - nbtOnOrder, CurrencyList.NBT), new Amount(usdOnOrder, CurrencyList.USD),
+                    new Amount(nbtOnOrder, CurrencyList.NBT)), null);
+        }
+
+        @Override
+        public ApiResponse getActiveOrders(CurrencyPair pair) {
+            calls.add("orders");
+            return new ApiResponse(true, new ArrayList<>(book), null);
+        }
+
+        @Override
+        public ApiResponse sell(CurrencyPair pair, double amount, double rate) {
+            return place(Constant.SELL, amount, rate);
+        }
+
+        @Override
+        public ApiResponse buy(CurrencyPair pair, double amount, double rate) {
+            return place(Constant.BUY, amount, rate);
+        }
+
+        private ApiResponse place(String type, double amount, double rate) {
+            calls.add(type);
+            if (refusedPlacements > 0) {
+                refusedPlacements--;
+                return new ApiResponse(false, null, new ApiError(1, "refused"));
+            }
+            String id = "o" + (++placed);
+            book.add(order(id, type, amount, rate));
+            return new ApiResponse(true, id, null);
+        }
+
+        @Override
+        public ApiResponse cancelOrder(String orderID, CurrencyPair pair) {
+            calls.add("cancel");
+            if (refusedCancels.contains(orderID)) {
+                return new ApiResponse(false, null, new ApiError(1, "refused"));
+            }
+            for (Order order : book) {
+                if (order.getId().equals(orderID)) {
+                    book.remove(order);
+                    return new ApiResponse(true, true, null);
+                }
+            }
+            return new ApiResponse(true, false, null);
+        }
+    }
+
+    private StubTrade trade;
+
+    @Override
+    protected void setUp() throws Exception {
+        Global.session().options = NuBotOptionsDefault.defaultFactory();
+        Global.session().options.pair = pair.toStringSep();
+        Global.session().options.executeOrders = true;
+        Global.session().options.dualSide = false;
+        Global.session().options.wallchangeThreshold = 0.5;
+        Global.session().swappedPair = false;
+        Global.session().orderManager = new OrderManager();
+        Global.session().frozenBalancesManager = new FrozenBalancesManager("stub", pair,
+                Files.createTempDirectory("frozen").toString());
+        trade = new StubTrade();
+        Global.session().exchange = new Exchange("stub");
+        Global.session().exchange.setTrade(trade);
+        SessionManager.setModeRunning();
+    }
+
+    @Override
+    protected void tearDown() {
+        SessionManager.setModeHalted();
+    }
+
+    @Test
+    public void testSyncReadsOncePerCycle() {
+        Global.session().options.dualSide = true;
+        LadderManager ladders = new LadderManager();
+
+        assertTrue(ladders.sync(1.0));
+        //both sides laid out with one read of the fee, the balances and the orders
+        assertEquals(1, trade.count("fee"));
+        assertEquals(1, trade.count("balances"));
+        assertEquals(1, trade.count("orders"));
+        assertEquals(0, trade.count("cancel"));
+        assertTrue(trade.count(Constant.SELL) > 1);
+        assertTrue(trade.count(Constant.BUY) > 1);
+        assertEquals(trade.count(Constant.SELL) + trade.count(Constant.BUY), trade.book.size());
+
+        //the ladders are in place : nothing to send
+        trade.calls.clear();
+        assertTrue(ladders.sync(1.0));
+        assertEquals(3, trade.calls.size());
+    }
+
+    @Test
+    public void testPartialFailure() {
+        LadderManager ladders = new LadderManager();
+        trade.book.add(order("stray", 10, 5.0));
+        trade.book.add(order("stuck", 10, 6.0));
+        trade.refusedCancels.add("stuck");
+        trade.refusedPlacements = 1;
+
+        //the refused requests do not stop the others
+        assertFalse(ladders.sync(1.0));
+        assertEquals(2, trade.count("cancel"));
+        int levels = trade.count(Constant.SELL);
+        assertTrue(levels > 1);
+        assertEquals(levels - 1 + 1, trade.book.size()); //the levels placed and the stuck order
+        assertEquals("stuck", trade.book.get(0).getId());
+
+        //the next cycle completes the ladder
+        trade.refusedCancels.clear();
+        trade.calls.clear();
+        assertTrue(ladders.sync(1.0));
+        assertEquals(1, trade.count("cancel"));
+        assertEquals(1, trade.count(Constant.SELL));
+        assertEquals(levels, trade.book.size());
+    }
+
+    @Test
+    public void testBatchStopsAfterConsecutiveErrors() {
+        trade.refusedPlacements = 100;
+
+        assertFalse(new LadderManager().sync(1.0));
+        assertEquals(Settings.ORDER_BATCH_MAX_ERRORS, trade.count(Constant.SELL));
+        assertTrue(trade.book.isEmpty());
+    }
+
+    @Test
+    public void testRefillsOnlyConsumedLevels() {
+        ArrayList<OrderToPlace> target = new ArrayList<>();
+        target.add(new OrderToPlace(Constant.SELL, pair, 100, 1.005));
+        target.add(new OrderToPlace(Constant.SELL, pair, 120, 1.025));
+        target.add(new OrderToPlace(Constant.SELL, pair, 140, 1.045));
+
+        ArrayList<Order> active = new ArrayList<>();
+        active.add(order("wall", 100, 1.005));    //untouched
+        active.add(order("level1", 20, 1.025));   //mostly traded
+        active.add(order("stray", 50, 1.2));      //no level there
+
+        ArrayList<Order> toCancel = new ArrayList<>();
+        ArrayList<OrderToPlace> toPlace = LadderManager.diff(target, active, toCancel);
+
+        assertEquals(2, toPlace.size());
+        assertEquals(1.025, toPlace.get(0).getPrice());
+        assertEquals(1.045, toPlace.get(1).getPrice());
+        assertEquals(2, toCancel.size());
+        assertEquals("level1", toCancel.get(0).getId());
+        assertEquals("stray", toCancel.get(1).getId());
+    }
+
+    @Test
+    public void testLadderInPlace() {
+        ArrayList<OrderToPlace> target = new ArrayList<>();
+        target.add(new OrderToPlace(Constant.SELL, pair, 100, 1.005));
+        ArrayList<Order> active = new ArrayList<>();
+        active.add(order("wall", 80, 1.0051));
+
+        ArrayList<Order> toCancel = new ArrayList<>();
+        assertTrue(LadderManager.diff(target, active, toCancel).isEmpty());
+        assertTrue(toCancel.isEmpty());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.global.Constant;
+import com.nubits.nubot.models.Amount;
+import com.nubits.nubot.models.CurrencyList;
+import com.nubits.nubot.models.CurrencyPair;
+import com.nubits.nubot.models.OrderToPlace;
+import com.nubits.nubot.trading.LiquidityDistribution.LiquidityCurve;
+import com.nubits.nubot.trading.LiquidityDistribution.LiquidityCurveLin;
+import com.nubits.nubot.trading.LiquidityDistribution.LiquidityDistributionModel;
+import com.nubits.nubot.trading.LiquidityDistribution.ModelParameters;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+public class TestLiquidityModelCache extends TestCase {
+
+    private static final CurrencyPair pair = CurrencyList.NBT_USD;
+
+    private static ArrayList<OrderToPlace> ladder(double funds) {
+        //a new curve each time : the cache goes by value
+        ModelParameters params = new ModelParameters(0.005, 100, 0.15, 0.02, new LiquidityCurveLin(LiquidityCurve.STEEPNESS_FLAT));
+        return new LiquidityDistributionModel(params, Constant.SELL)
+                .getOrdersToPlace(Constant.SELL, new Amount(funds, CurrencyList.NBT), 1, pair, 0.2);
+    }
+
+    @Test
+    public void testTruncatedByFunds() {
+        //flat curve : wall and tail levels of 100
+        ArrayList<OrderToPlace> full = ladder(1e6);
+        assertEquals(8, full.size());
+        assertEquals(1.007, full.get(0).getPrice(), 1e-8);
+        assertEquals(1.027, full.get(1).getPrice(), 1e-8);
+
+        //the wall and 2 tail levels fit strictly in 350
+        ArrayList<OrderToPlace> truncated = ladder(350);
+        assertEquals(3, truncated.size());
+        for (int i = 0; i < truncated.size(); i++) {
+            assertEquals(full.get(i).getPrice(), truncated.get(i).getPrice());
+            assertEquals(full.get(i).getSize(), truncated.get(i).getSize());
+        }
+
+        //not even the wall
+        ArrayList<OrderToPlace> wallOnly = ladder(50);
+        assertEquals(1, wallOnly.size());
+        assertEquals(49.0, wallOnly.get(0).getSize());
+    }
+
+    @Test
+    public void testHitRateWithJitter() {
+        LiquidityDistributionModel.clearShapes();
+        Random random = new Random(3);
+        double peg = 1.25;
+        for (int i = 0; i < 1000; i++) {
+            //a peg price moving by a few basis points at each check
+            peg *= 1 + random.nextGaussian() * 0.0005;
+            ModelParameters sell = new ModelParameters(0.005, 100, 0.15, 0.02, new LiquidityCurveLin(LiquidityCurve.STEEPNESS_MID));
+            ModelParameters buy = new ModelParameters(0.002, 100, 0.15, 0.02, new LiquidityCurveLin(LiquidityCurve.STEEPNESS_MID));
+            LiquidityDistributionModel model = new LiquidityDistributionModel(sell, buy);
+            ArrayList<OrderToPlace> sells = model.getSellOrdersToPlace(new Amount(1e6, CurrencyList.NBT), peg, pair, 0.2);
+            ArrayList<OrderToPlace> buys = model.getBuyOrdersToPlace(new Amount(1e6, CurrencyList.USD), peg, pair, 0.2);
+
+            //the prices still follow the peg exactly
+            assertEquals((1 + 0.005 + 0.002) / peg, sells.get(0).getPrice(), 1e-7);
+            assertEquals((1 + 0.005 + 0.002 + 0.02) / peg, sells.get(1).getPrice(), 1e-7);
+            assertEquals((1 - 0.002 - 0.002) / peg, buys.get(0).getPrice(), 1e-7);
+            assertEquals((1 - 0.002 - 0.002 - 0.02) / peg, buys.get(1).getPrice(), 1e-7);
+        }
+        //one ladder computed per side
+        assertEquals(1 - 2 / 2000.0, LiquidityDistributionModel.getShapeHitRate(), 1e-9);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.tasks.SubmitLiquidityinfoTask;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class TestLiquidityReporting extends TestCase {
+
+    @Test
+    public void testNeedsReport() {
+        long now = 1000 * 1000L;
+        long recent = now - 1000;
+        long old = now - Settings.SUBMIT_LIQUIDITY_SECONDS * 1000L;
+
+        //identical or nearly identical liquidity waits for the periodic submission
+        assertFalse(SubmitLiquidityinfoTask.needsReport(1000, 2000, recent, 1000, 2000, now));
+        assertFalse(SubmitLiquidityinfoTask.needsReport(1000, 2000, recent, 1005, 2010, now));
+        assertTrue(SubmitLiquidityinfoTask.needsReport(1000, 2000, old, 1000, 2000, now));
+
+        //a move on either side goes out at once
+        assertTrue(SubmitLiquidityinfoTask.needsReport(1000, 2000, recent, 1000, 1500, now));
+        assertTrue(SubmitLiquidityinfoTask.needsReport(1000, 2000, recent, 0, 2000, now));
+        assertTrue(SubmitLiquidityinfoTask.needsReport(0, 2000, recent, 5, 2000, now));
+        assertFalse(SubmitLiquidityinfoTask.needsReport(0, 2000, recent, 0.5, 2000, now));
+
+        //nothing reported yet
+        assertTrue(SubmitLiquidityinfoTask.needsReport(0, 0, 0, 0, 0, now));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.RPC.LiquiditySubmitter;
+import com.nubits.nubot.RPC.NuRPCClient;
+import com.nubits.nubot.models.CurrencyList;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.TestCase;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestLiquiditySubmitter extends TestCase {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch firstRequest = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    protected void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            JSONArray answers = new JSONArray();
+            try {
+                JSONArray batch = (JSONArray) new JSONParser().parse(
+                        new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+                for (Object o : batch) {
+                    JSONObject answer = new JSONObject();
+                    answer.put("id", ((JSONObject) o).get("id"));
+                    JSONObject info = new JSONObject();
+                    info.put("blocks", 42L);
+                    answer.put("result", "getinfo".equals(((JSONObject) o).get("method")) ? info : null);
+                    answers.add(answer);
+                }
+                //a slow nud : hold the first batch until the test released it
+                firstRequest.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                answers.clear();
+            }
+            byte[] body = answers.toJSONString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @Override
+    protected void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testCoalescing() throws Exception {
+        NuRPCClient client = new NuRPCClient("127.0.0.1", server.getAddress().getPort(), "user", "pass",
+                false, "address", CurrencyList.NBT_BTC, "test");
+        LiquiditySubmitter submitter = new LiquiditySubmitter(client);
+
+        submitter.offer(Arrays.asList(new NuRPCClient.LiquidityReport(1, 1, 1)));
+        assertTrue(firstRequest.await(5, TimeUnit.SECONDS));
+
+        //nud is busy with the first report : the next ones replace each other
+        for (int i = 2; i <= 5; i++) {
+            submitter.offer(Arrays.asList(new NuRPCClient.LiquidityReport(1, i, i),
+                    new NuRPCClient.LiquidityReport(2, i, i)));
+        }
+        release.countDown();
+
+        assertTrue(submitter.flush(5000));
+        submitter.stop();
+        client.close();
+
+        assertEquals(2, requests.get());
+        assertEquals(3, submitter.getSubmitted());
+        assertEquals(6, submitter.getCoalesced());
+        assertEquals(5.0, submitter.getLastSubmitted(1).getBuy());
+        assertEquals(5.0, submitter.getLastSubmitted(2).getSell());
+        //what the liquidity task compares with : only confirmed submissions
+        assertTrue(submitter.getLastSubmittedAt(1) > 0);
+        assertNull(submitter.getLastSubmitted(3));
+        assertEquals(0, submitter.getLastSubmittedAt(3));
+    }
+
+    @Test
+    public void testNothingSentOnceStopped() throws Exception {
+        NuRPCClient client = new NuRPCClient("127.0.0.1", server.getAddress().getPort(), "user", "pass",
+                false, "address", CurrencyList.NBT_BTC, "test");
+        LiquiditySubmitter submitter = new LiquiditySubmitter(client);
+        release.countDown();
+
+        //a liquidity check still running while the bot stops
+        submitter.stop();
+        submitter.offer(Arrays.asList(new NuRPCClient.LiquidityReport(1, 1, 1)));
+        assertTrue(submitter.flush(1000));
+        Thread.sleep(200);
+        client.close();
+
+        assertEquals(0, requests.get());
+        assertEquals(0, submitter.getSubmitted());
+    }
+}
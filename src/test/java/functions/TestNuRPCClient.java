@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.RPC.NuRPCClient;
+import com.nubits.nubot.models.CurrencyList;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.TestCase;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestNuRPCClient extends TestCase {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger unauthenticated = new AtomicInteger();
+
+    @Override
+    protected void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            if (exchange.getRequestHeaders().getFirst("Authorization") == null) {
+                unauthenticated.incrementAndGet();
+            }
+            JSONArray answers = new JSONArray();
+            try {
+                JSONArray batch = (JSONArray) new JSONParser().parse(
+                        new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+                //answer in reverse order : the client has to match answers by id
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    JSONObject call = (JSONObject) batch.get(i);
+                    assertEquals("2.0", call.get("jsonrpc"));
+                    JSONObject answer = new JSONObject();
+                    answer.put("jsonrpc", "2.0");
+                    answer.put("id", call.get("id"));
+                    if ("getinfo".equals(call.get("method"))) {
+                        JSONObject info = new JSONObject();
+                        info.put("blocks", 42L);
+                        answer.put("result", info);
+                    } else {
+                        answer.put("result", null);
+                    }
+                    answers.add(answer);
+                }
+            } catch (Exception e) {
+                fail(e.toString());
+            }
+            byte[] body = answers.toJSONString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @Override
+    protected void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testBatchSubmission() {
+        NuRPCClient client = new NuRPCClient("127.0.0.1", server.getAddress().getPort(), "user", "pass",
+                false, "address", CurrencyList.NBT_BTC, "test");
+        assertFalse(client.isConnected());
+
+        List<NuRPCClient.LiquidityReport> reports = new ArrayList<>();
+        reports.add(new NuRPCClient.LiquidityReport(1, 10, 20));
+        reports.add(new NuRPCClient.LiquidityReport(2, 30, 40));
+        Map<Integer, JSONObject> responses = client.submitLiquidityInfo(NuRPCClient.USDchar, reports, true);
+
+        assertEquals(2, responses.size());
+        assertEquals(true, responses.get(1).get("submitted"));
+        assertEquals(true, responses.get(2).get("submitted"));
+        assertTrue(client.isConnected());
+
+        client.submitLiquidityInfo(NuRPCClient.USDchar, reports, false);
+        client.close();
+
+        //one round trip per batch, with credentials sent up front
+        assertEquals(2, requests.get());
+        assertEquals(0, unauthenticated.get());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.RPC.NuRPCClient;
+import com.nubits.nubot.RPC.NudStandIn;
+import com.nubits.nubot.RPC.RPCLoadHarness;
+import com.nubits.nubot.models.CurrencyList;
+import junit.framework.TestCase;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+
+public class TestNudStandIn extends TestCase {
+
+    private NudStandIn nud;
+
+    @Override
+    protected void setUp() throws Exception {
+        nud = new NudStandIn("user", "pass", 7);
+        nud.start(0, 4);
+    }
+
+    @Override
+    protected void tearDown() {
+        nud.stop();
+    }
+
+    @Test
+    public void testLiquidityRoundTrip() {
+        NuRPCClient client = new NuRPCClient("127.0.0.1", nud.getPort(), "user", "pass",
+                false, "bAddress", CurrencyList.NBT_BTC, "test");
+        client.checkConnection();
+        assertTrue(client.isConnected());
+
+        Map<Integer, JSONObject> responses = client.submitLiquidityInfo(NuRPCClient.USDchar,
+                Arrays.asList(new NuRPCClient.LiquidityReport(1, 100, 200)), false);
+        assertEquals(true, responses.get(1).get("submitted"));
+        assertEquals(200.0, client.getLiquidityInfo(NuRPCClient.USDchar, "sell", "bAddress"));
+
+        //a locked wallet refuses the submission, it must not be taken for accepted
+        nud.setLocked(true);
+        JSONObject refused = client.submitLiquidityInfo(NuRPCClient.USDchar, 1, 1, 1);
+        assertEquals(NudStandIn.ERROR_WALLET_LOCKED, refused.get("code"));
+        client.close();
+
+        NuRPCClient intruder = new NuRPCClient("127.0.0.1", nud.getPort(), "user", "wrong",
+                false, "bAddress", CurrencyList.NBT_BTC, "test");
+        intruder.checkConnection();
+        assertFalse(intruder.isConnected());
+        intruder.close();
+    }
+
+    @Test
+    public void testLoadWithFaults() throws Exception {
+        nud.setLatency(1, 2);
+        nud.setErrorRate(0.1);
+        nud.setDropRate(0.05);
+
+        RPCLoadHarness.Result result = RPCLoadHarness.run("127.0.0.1", nud.getPort(), "user", "pass", 4, 25);
+
+        assertEquals(100, result.getBatches());
+        assertTrue(result.getFailures() > 0);
+        assertTrue(result.getFailures() < result.getBatches());
+        assertTrue(result.percentile(0.5) <= result.percentile(0.99));
+        assertTrue(result.getThroughput() > 0);
+    }
+
+    @Test
+    public void testDroppedConnections() throws Exception {
+        //nud closes the pooled connections of every client halfway : the clients must not send on them
+        RPCLoadHarness.Result result = RPCLoadHarness.run("127.0.0.1", nud.getPort(), "user", "pass", 4, 10,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            nud.dropConnections();
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+
+        assertEquals(40, result.getBatches());
+        assertEquals(0, result.getFailures());
+    }
+}
@@ -102,7 +102,7 @@ public class TestOptions extends TestCase {
 
         try {
             // System.out.println(System.getProperty("));
-            // Global.options =
+            // Global.session().options =
             JSONObject j = ParseOptions
                     .parseSingleJsonFile(testconfig);
 
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.models.Amount;
+import com.nubits.nubot.models.CurrencyList;
+import com.nubits.nubot.models.LastPrice;
+import com.nubits.nubot.pricefeeds.PriceConsensus;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class TestPriceConsensus extends TestCase {
+
+    private static ArrayList<LastPrice> prices(double... values) {
+        ArrayList<LastPrice> list = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            list.add(new LastPrice(false, "feed" + i, CurrencyList.BTC, new Amount(values[i], CurrencyList.USD)));
+        }
+        return list;
+    }
+
+    @Test
+    public void testMainFeedOutlier() {
+        PriceConsensus consensus = PriceConsensus.compute(prices(300, 250, 252, 249), 10, 0.2);
+        assertTrue(consensus.isReached());
+        assertEquals("feed1", consensus.getReferencePrice().getSource());
+        assertEquals(3, consensus.getAgreeing().size());
+        assertEquals(251.0, consensus.getMedian());
+    }
+
+    @Test
+    public void testNoAgreement() {
+        assertFalse(PriceConsensus.compute(prices(100, 150, 200), 10, 0.2).isReached());
+        assertFalse(PriceConsensus.compute(prices(100), 10, 0.2).isReached());
+        assertFalse(PriceConsensus.compute(prices(100, 115), 10, 0.2).isReached());
+        assertTrue(PriceConsensus.compute(prices(100, 105), 10, 0.2).isReached());
+    }
+}
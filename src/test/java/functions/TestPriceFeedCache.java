@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.models.Amount;
+import com.nubits.nubot.models.CurrencyList;
+import com.nubits.nubot.models.CurrencyPair;
+import com.nubits.nubot.models.LastPrice;
+import com.nubits.nubot.pricefeeds.PriceFeedCache;
+import com.nubits.nubot.pricefeeds.feedservices.AbstractPriceFeed;
+import com.nubits.nubot.pricefeeds.history.PriceTick;
+import com.nubits.nubot.pricefeeds.history.TickStore;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestPriceFeedCache extends TestCase {
+
+    private static class CountingFeed extends AbstractPriceFeed {
+        final AtomicInteger fetches = new AtomicInteger();
+
+        CountingFeed(long refreshMinTime) {
+            setRefreshMinTime(refreshMinTime);
+        }
+
+        @Override
+        public LastPrice fetchLastPrice(CurrencyPair pair) {
+            int n = fetches.incrementAndGet();
+            return new LastPrice(false, "counting", pair.getOrderCurrency(), new Amount(n, pair.getPaymentCurrency()));
+        }
+    }
+
+    private static class TableFeed extends CountingFeed {
+
+        TableFeed() {
+            super(60 * 1000);
+        }
+
+        @Override
+        public Map<String, LastPrice> fetchLastPrices(CurrencyPair pair) {
+            fetches.incrementAndGet();
+            Map<String, LastPrice> prices = new HashMap<>();
+            prices.put("eur_usd", new LastPrice(false, "table", CurrencyList.EUR, new Amount(1.25, CurrencyList.USD)));
+            prices.put("btc_usd", new LastPrice(false, "table", CurrencyList.BTC, new Amount(250, CurrencyList.USD)));
+            return prices;
+        }
+    }
+
+    @Override
+    protected void setUp() {
+        PriceFeedCache.clear();
+    }
+
+    @Test
+    public void testKeyedByPair() {
+        CountingFeed feed = new CountingFeed(60 * 1000);
+        CurrencyPair btc = new CurrencyPair(CurrencyList.BTC, CurrencyList.USD);
+        CurrencyPair ppc = new CurrencyPair(CurrencyList.PPC, CurrencyList.USD);
+
+        assertEquals(1.0, feed.getLastPrice(btc).getPrice().getQuantity());
+        assertEquals(2.0, feed.getLastPrice(ppc).getPrice().getQuantity());
+        assertEquals(1.0, feed.getLastPrice(btc).getPrice().getQuantity());
+        assertEquals(2, feed.fetches.get());
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws InterruptedException {
+        CountingFeed feed = new CountingFeed(50);
+        CurrencyPair btc = new CurrencyPair(CurrencyList.BTC, CurrencyList.USD);
+
+        assertEquals(1.0, feed.getLastPrice(btc).getPrice().getQuantity());
+        Thread.sleep(100);
+        //stale : served immediately, refreshed in background
+        assertEquals(1.0, feed.getLastPrice(btc).getPrice().getQuantity());
+        for (int i = 0; i < 50 && feed.fetches.get() < 2; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(2.0, feed.getLastPrice(btc).getPrice().getQuantity());
+    }
+
+    @Test
+    public void testBatchAndCrossRates() {
+        TableFeed feed = new TableFeed();
+
+        assertEquals(1.25, feed.getLastPrice(new CurrencyPair(CurrencyList.EUR, CurrencyList.USD)).getPrice().getQuantity());
+        //the rest of the answer is cached
+        assertEquals(250.0, feed.getLastPrice(new CurrencyPair(CurrencyList.BTC, CurrencyList.USD)).getPrice().getQuantity());
+        //btc_eur = btc_usd * usd_eur, from the cached quotes
+        LastPrice btcEur = feed.getLastPrice(new CurrencyPair(CurrencyList.BTC, CurrencyList.EUR));
+        assertFalse(btcEur.isError());
+        assertEquals(200.0, btcEur.getPrice().getQuantity(), 1e-8);
+        assertEquals(1, feed.fetches.get());
+    }
+
+    @Test
+    public void testTicksRecordedOncePerFetch() throws Exception {
+        CountingFeed feed = new CountingFeed(60 * 1000);
+        CurrencyPair btc = new CurrencyPair(CurrencyList.BTC, CurrencyList.USD);
+        TickStore store = new TickStore(Files.createTempDirectory("ticks") + "/quotes.ticks");
+        PriceFeedCache.recordTicks(btc, store);
+        try {
+            long before = System.currentTimeMillis();
+            feed.getLastPrice(btc);
+            long fetched = System.currentTimeMillis();
+            Thread.sleep(20);
+            //served from the cache : nothing new to record
+            feed.getLastPrice(btc);
+            PriceFeedCache.getFresh(feed, btc, 60 * 1000);
+            assertEquals(1, store.count());
+            PriceTick tick = store.first();
+            assertTrue(tick.getTimestamp() >= before && tick.getTimestamp() <= fetched);
+            assertEquals("counting", tick.getFeed());
+
+            //a poll asking for a fresher quote fetches, and records it
+            PriceFeedCache.getFresh(feed, btc, 10);
+            assertEquals(2, store.count());
+            assertEquals(2.0, store.range(fetched + 1, Long.MAX_VALUE, "counting", btc.toStringSep()).get(0).getPrice());
+        } finally {
+            PriceFeedCache.stopRecording(btc, store);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package functions;
+
+import com.nubits.nubot.tasks.PriceMonitorTriggerTask;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class TestPriceRetries extends TestCase {
+
+    @Test
+    public void testDelaySequence() {
+        PriceMonitorTriggerTask.RetryBackoff retries = new PriceMonitorTriggerTask.RetryBackoff(5);
+
+        //a periodic update fails : first retry a minute later
+        assertEquals(60, retries.failed(false));
+        //periodic updates failing meanwhile leave the pending retry alone
+        assertEquals(0, retries.failed(false));
+        assertEquals(0, retries.failed(false));
+        assertEquals(1, retries.getFailedAttempts());
+
+        //each failed retry waits one more minute
+        assertEquals(120, retries.failed(true));
+        assertEquals(0, retries.failed(false));
+        assertEquals(180, retries.failed(true));
+        assertEquals(240, retries.failed(true));
+        assertEquals(300, retries.failed(true));
+        assertEquals(5, retries.getFailedAttempts());
+
+        //then it gives up, and starts over
+        assertEquals(-1, retries.failed(true));
+        assertEquals(0, retries.getFailedAttempts());
+        assertEquals(60, retries.failed(false));
+
+        //a successful update starts over too
+        retries.reset();
+        assertEquals(60, retries.failed(false));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.utils.RollingStats;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class TestRollingStats extends TestCase {
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void testMatchesFullRecomputation() {
+        int[] windows = {5, 12, 30};
+        RollingStats stats = new RollingStats(0.1, windows);
+        Random random = new Random(42);
+        double[] series = new double[200];
+
+        for (int i = 0; i < series.length; i++) {
+            series[i] = 100 + random.nextGaussian() * 5;
+            stats.add(series[i]);
+
+            for (int window : windows) {
+                int from = Math.max(0, i + 1 - window);
+                int n = i + 1 - from;
+                double sum = 0, min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+                for (int j = from; j <= i; j++) {
+                    sum += series[j];
+                    min = Math.min(min, series[j]);
+                    max = Math.max(max, series[j]);
+                }
+                double mean = sum / n;
+                double var = 0;
+                for (int j = from; j <= i; j++) {
+                    var += (series[j] - mean) * (series[j] - mean);
+                }
+                assertEquals(n, stats.size(window));
+                assertEquals(mean, stats.mean(window), DELTA);
+                assertEquals(var / n, stats.variance(window), DELTA);
+                assertEquals(min, stats.min(window), DELTA);
+                assertEquals(max, stats.max(window), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void testFillAndEwma() {
+        RollingStats stats = new RollingStats(0.5, 4);
+        stats.fill(10);
+        assertEquals(4, stats.size(4));
+        assertEquals(10.0, stats.mean(4), DELTA);
+        assertEquals(0.0, stats.variance(4), DELTA);
+
+        stats.add(20);
+        assertEquals(12.5, stats.mean(4), DELTA);
+        assertEquals(15.0, stats.getEwma(), DELTA);
+        assertEquals(10.0, stats.min(4), DELTA);
+        assertEquals(20.0, stats.max(4), DELTA);
+
+        stats.clear();
+        assertEquals(0, stats.size(4));
+    }
+}
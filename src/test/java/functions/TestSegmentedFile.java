@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.utils.AsyncFileWriter;
+import com.nubits.nubot.utils.HistoryJournal;
+import com.nubits.nubot.utils.LogRetention;
+import com.nubits.nubot.utils.SegmentedFile;
+import junit.framework.TestCase;
+import org.json.simple.JSONObject;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestSegmentedFile extends TestCase {
+
+    @Test
+    public void testReadAcrossSegments() throws Exception {
+        File folder = Files.createTempDirectory("segments").toFile();
+        HistoryJournal journal = new HistoryJournal(folder + "/" + Settings.ORDERS_FILENAME + HistoryJournal.EXTENSION);
+
+        for (int i = 0; i < 6; i++) {
+            JSONObject record = new JSONObject();
+            record.put("n", (long) i);
+            journal.append(record);
+            if (i % 2 == 1) {
+                AsyncFileWriter.close(journal.getPath());
+                assertNotNull(SegmentedFile.rotate(journal.getPath()));
+            }
+        }
+        JSONObject last = new JSONObject();
+        last.put("n", 6L);
+        journal.append(last);
+        AsyncFileWriter.flush();
+
+        //3 closed segments, then the active file
+        List<File> segments = SegmentedFile.segments(journal.getPath());
+        assertEquals(4, segments.size());
+        assertEquals(journal.getPath(), segments.get(3).getPath());
+
+        final List<Long> read = new ArrayList<>();
+        assertEquals(7, journal.read(new HistoryJournal.RecordHandler() {
+            @Override
+            public void record(JSONObject record) {
+                read.add((Long) record.get("n"));
+            }
+        }));
+        for (int i = 0; i < 7; i++) {
+            assertEquals(i, read.get(i).longValue());
+        }
+
+        //once compressed the segments read the same
+        SegmentedFile.compress(new File(folder, "unused")).get(); //queued after the rotations
+        for (File segment : SegmentedFile.segments(journal.getPath()).subList(0, 3)) {
+            assertTrue(segment.getName().endsWith(SegmentedFile.COMPRESSED));
+        }
+        String tail = SegmentedFile.tail(journal.getPath(), 20);
+        assertEquals(20, tail.length());
+        assertTrue(tail.trim().endsWith("{\"n\":6}"));
+        assertTrue(SegmentedFile.tail(journal.getPath(), 1000).startsWith("{\"n\":0}"));
+    }
+
+    @Test
+    public void testIsDue() {
+        assertFalse(SegmentedFile.isDue(100, 0, 1000));
+        assertTrue(SegmentedFile.isDue(Settings.SEGMENT_MAX_BYTES, 1000, 1000));
+        assertTrue(SegmentedFile.isDue(100, 0, Settings.SEGMENT_MAX_AGE));
+        assertFalse(SegmentedFile.isDue(0, 0, Settings.SEGMENT_MAX_AGE)); //nothing to rotate
+    }
+
+    @Test
+    public void testRetention() throws Exception {
+        File logs = Files.createTempDirectory("logs").toFile();
+        long now = System.currentTimeMillis();
+        long day = 24 * 60 * 60 * 1000L;
+
+        File old = session(logs, "1", now - (Settings.SESSION_RETENTION_DAYS + 1) * day);
+        File recent = session(logs, "2", now - day);
+        File current = session(logs, "3", now - (Settings.SESSION_RETENTION_DAYS + 2) * day);
+        File other = new File(logs, "tests");
+        other.mkdirs();
+        other.setLastModified(now - 100 * day);
+        //long running session of another process : its folder is old, its logs are being appended to
+        File live = session(logs, "4", now - (Settings.SESSION_RETENTION_DAYS + 3) * day);
+        new File(live, "standard.log").setLastModified(now - 60 * 1000);
+
+        assertEquals(1, LogRetention.prune(logs.getPath(), current.getPath(), now));
+        assertFalse(old.exists());
+        assertTrue(recent.exists());
+        assertTrue(live.exists());
+        assertTrue(current.exists()); //the running session is kept whatever its age
+        assertTrue(other.exists()); //not a session folder
+    }
+
+    private File session(File logs, String id, long lastModified) throws Exception {
+        File folder = new File(logs, Settings.SESSION_LOG + id);
+        folder.mkdirs();
+        File log = new File(folder, "standard.log");
+        Files.write(log.toPath(), "line\n".getBytes());
+        log.setLastModified(lastModified);
+        folder.setLastModified(lastModified);
+        return folder;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+package functions;
+
+import com.nubits.nubot.NTP.SlotScheduler;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+public class TestSlotScheduler extends TestCase {
+
+    @Test
+    public void testSlotIsStable() {
+        int slot = SlotScheduler.slotOf("BNdNRTbmGhnzuZBYwmPAcwPvdPD3bWwDgR", 6);
+        assertTrue(slot >= 0 && slot < 6);
+        assertEquals(slot, SlotScheduler.slotOf("BNdNRTbmGhnzuZBYwmPAcwPvdPD3bWwDgR", 6));
+    }
+
+    @Test
+    public void testNextSlot() {
+        SlotScheduler scheduler = new SlotScheduler("custodian", 180, 6);
+        long slotStart = scheduler.getSlot() * 30 * 1000L;
+        long window = 180 * 1000L;
+        long base = 1000 * window; //aligned on a window
+
+        assertEquals(0, scheduler.millisToNextSlot(base + slotStart));
+        assertTrue(scheduler.isInSlot(base + slotStart));
+        assertTrue(scheduler.isInSlot(base + slotStart + 29999));
+        assertFalse(scheduler.isInSlot(base + slotStart + 30000));
+        assertEquals(window - 1000, scheduler.millisToNextSlot(base + slotStart + 1000));
+        assertEquals(window - 30000, scheduler.millisToNextSlot(base + slotStart + 30000));
+    }
+}
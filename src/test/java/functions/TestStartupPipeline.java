@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.bot.BotSession;
+import com.nubits.nubot.bot.Global;
+import com.nubits.nubot.bot.NuBotRunException;
+import com.nubits.nubot.bot.StartupPipeline;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestStartupPipeline extends TestCase {
+
+    private static Callable<Long> sleep(final long ms) {
+        return new Callable<Long>() {
+            @Override
+            public Long call() throws InterruptedException {
+                Thread.sleep(ms);
+                return System.currentTimeMillis();
+            }
+        };
+    }
+
+    @Test
+    public void testStepsRunConcurrently() throws Exception {
+        final BotSession session = Global.getOrCreateSession("startup-test");
+        StartupPipeline pipeline = new StartupPipeline(session);
+
+        //first and second only pass the barrier if they run at the same time,
+        //second then only completes once dependent has started
+        final CyclicBarrier together = new CyclicBarrier(2);
+        final CountDownLatch dependentStarted = new CountDownLatch(1);
+        final AtomicBoolean firstDone = new AtomicBoolean();
+        Future<Void> first = pipeline.start("first", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                together.await(5, TimeUnit.SECONDS);
+                firstDone.set(true);
+                return null;
+            }
+        });
+        Future<Boolean> second = pipeline.start("second", new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                together.await(5, TimeUnit.SECONDS);
+                return dependentStarted.await(5, TimeUnit.SECONDS);
+            }
+        });
+        Future<Boolean> dependent = pipeline.after(first, "dependent", new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                dependentStarted.countDown();
+                return firstDone.get();
+            }
+        });
+        Future<BotSession> bound = pipeline.start("session", new Callable<BotSession>() {
+            @Override
+            public BotSession call() {
+                return Global.session();
+            }
+        });
+
+        assertTrue(pipeline.await(second)); //dependent ran while second was still running
+        assertTrue(pipeline.await(dependent)); //dependent waited for first to complete
+        assertSame(session, pipeline.await(bound));
+    }
+
+    @Test
+    public void testFailurePropagates() throws Exception {
+        StartupPipeline pipeline = new StartupPipeline(Global.session());
+        Future<Void> failing = pipeline.start("failing", new Callable<Void>() {
+            @Override
+            public Void call() throws NuBotRunException {
+                throw new NuBotRunException("could not query exchange");
+            }
+        });
+        Future<Long> dependent = pipeline.after(failing, "dependent", sleep(0));
+        try {
+            pipeline.await(dependent);
+            fail();
+        } catch (NuBotRunException e) {
+            assertEquals("could not query exchange", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.bot.Global;
+import com.nubits.nubot.bot.SessionManager;
+import com.nubits.nubot.exchanges.Exchange;
+import com.nubits.nubot.global.Constant;
+import com.nubits.nubot.global.Settings;
+import com.nubits.nubot.models.Amount;
+import com.nubits.nubot.models.ApiResponse;
+import com.nubits.nubot.models.CurrencyPair;
+import com.nubits.nubot.models.Order;
+import com.nubits.nubot.options.NuBotOptionsDefault;
+import com.nubits.nubot.strategy.OrderManager;
+import com.nubits.nubot.strategy.StrategyCheckpoint;
+import com.nubits.nubot.trading.wrappers.SimulationWrapper;
+import com.nubits.nubot.utils.RollingStats;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+public class TestStrategyCheckpoint extends TestCase {
+
+    private static final CurrencyPair PAIR = CurrencyPair.getCurrencyPairFromString("nbt_btc");
+
+    private static Order order(String id, String type, double price) {
+        return new Order(id, new Date(), type, PAIR, new Amount(100, PAIR.getOrderCurrency()), new Amount(price, PAIR.getPaymentCurrency()));
+    }
+
+    @Test
+    public void testReconcile() {
+        ArrayList<Order> ledger = new ArrayList<>(Arrays.asList(
+                order("s1", Constant.SELL, 0.0040), order("s2", Constant.SELL, 0.0040),
+                order("b1", Constant.BUY, 0.0039), order("b2", Constant.BUY, 0.0039)));
+        StrategyCheckpoint checkpoint = new StrategyCheckpoint(0, 0.0040, 0.0039, 250, new double[0], 1.5, ledger);
+
+        //b2 was filled meanwhile, b1 was reported on the wrong side, x1 is not ours
+        ArrayList<Order> active = new ArrayList<>(Arrays.asList(
+                order("s1", Constant.SELL, 0.0040), order("s2", Constant.SELL, 0.0040),
+                order("b1", Constant.SELL, 0.0039), order("x1", Constant.BUY, 0.0039)));
+        StrategyCheckpoint.Reconciliation reconciliation = checkpoint.reconcile(active, 0.0040, 0.0039);
+        assertEquals(2, reconciliation.countAdopted(Constant.SELL));
+        assertEquals(0, reconciliation.countAdopted(Constant.BUY));
+        assertEquals(2, reconciliation.getToCancel().size());
+        assertEquals(2, reconciliation.getMissing().size());
+
+        //the peg moved : the sells no longer sit at the sell price
+        reconciliation = checkpoint.reconcile(active, 0.0041, 0.0039);
+        assertEquals(0, reconciliation.getAdopted().size());
+        //no price to compare with (ladders)
+        reconciliation = checkpoint.reconcile(active, 0, 0);
+        assertEquals(2, reconciliation.getAdopted().size());
+    }
+
+    @Test
+    public void testCaptureAndState() {
+        //nothing fetched yet
+        Global.session().orderManager = new OrderManager();
+        StrategyCheckpoint empty = StrategyCheckpoint.capture(0.0040, 0.0039);
+        assertTrue(empty.getOrders().isEmpty());
+
+        ArrayList<Order> ledger = new ArrayList<>(Arrays.asList(order("s1", Constant.SELL, 0.0040), order("s2", Constant.SELL, 0.0040)));
+        StrategyCheckpoint first = new StrategyCheckpoint(0, 0.0040, 0.0039, 250, new double[]{250}, 1.5, ledger);
+        //later, the moving average moved : nothing to write
+        Collections.reverse(ledger);
+        StrategyCheckpoint later = new StrategyCheckpoint(60000, 0.0040, 0.0039, 250, new double[]{250, 251}, 1.5, ledger);
+        assertEquals(first.state(), later.state());
+        //an order was replaced
+        ledger.set(0, order("s3", Constant.SELL, 0.0040));
+        StrategyCheckpoint replaced = new StrategyCheckpoint(60000, 0.0040, 0.0039, 250, new double[]{250, 251}, 1.5, ledger);
+        assertFalse(first.state().equals(replaced.state()));
+    }
+
+    @Test
+    public void testSaveLoad() throws Exception {
+        String path = Files.createTempDirectory("checkpoint").toString() + "/checkpoint.json";
+        RollingStats stats = new RollingStats(0.1, new int[]{3});
+        for (double price : new double[]{250, 251, 252, 253, 254}) {
+            stats.add(price);
+        }
+        assertTrue(Arrays.equals(new double[]{252, 253, 254}, stats.values()));
+
+        long now = System.currentTimeMillis();
+        StrategyCheckpoint saved = new StrategyCheckpoint(now, 0.0040, 0.0039, 253.5, stats.values(), 1.5,
+                Arrays.asList(order("s1", Constant.SELL, 0.0040)));
+        assertTrue(saved.save(path));
+
+        StrategyCheckpoint loaded = StrategyCheckpoint.load(path, PAIR, now + 1000);
+        assertNotNull(loaded);
+        assertEquals(now, loaded.getTimestamp());
+        assertEquals(253.5, loaded.getConversion());
+        assertEquals(1.5, loaded.getAmountAlreadyThere());
+        assertTrue(Arrays.equals(stats.values(), loaded.getPriceWindow()));
+        assertEquals("s1", loaded.getOrders().get(0).getId());
+        assertEquals(0.0040, loaded.getOrders().get(0).getPrice().getQuantity());
+
+        assertNull(StrategyCheckpoint.load(path, PAIR, now + Settings.WARM_RESTART_MAX_AGE + 1));
+        StrategyCheckpoint.discard(path);
+        assertNull(StrategyCheckpoint.load(path, PAIR, now));
+    }
+
+    @Test
+    public void testRecordReusesCycleOrders() {
+        final ArrayList<Order> book = new ArrayList<>(Arrays.asList(order("s1", Constant.SELL, 0.0040)));
+        final int[] fetches = {0};
+        Global.session().options = NuBotOptionsDefault.defaultFactory();
+        Global.session().options.pair = PAIR.toStringSep();
+        Global.session().options.exchangeName = "stub";
+        Global.session().options.warmRestart = true;
+        Global.session().exchange = new Exchange("stub");
+        Global.session().exchange.setTrade(new SimulationWrapper(null, null) {
+            @Override
+            public ApiResponse getActiveOrders(CurrencyPair pair) {
+                fetches[0]++;
+                return new ApiResponse(true, new ArrayList<>(book), null);
+            }
+        });
+        Global.session().orderManager = new OrderManager();
+        Global.session().frozenBalancesManager = null;
+        String path = StrategyCheckpoint.path("stub", PAIR);
+        SessionManager.setModeRunning();
+        try {
+            //the strategy cycle read the orders : the checkpoint takes them as they are
+            Global.session().orderManager.fetchOrders();
+            StrategyCheckpoint.record(0.0040, 0.0039);
+            StrategyCheckpoint.record(0.0040, 0.0039);
+            assertEquals(1, fetches[0]);
+            assertEquals("s1", StrategyCheckpoint.load(path, PAIR, System.currentTimeMillis()).getOrders().get(0).getId());
+        } finally {
+            SessionManager.setModeHalted();
+            StrategyCheckpoint.discard(path);
+            new File(Settings.CHECKPOINT_PATH).delete(); //if left empty
+        }
+    }
+}
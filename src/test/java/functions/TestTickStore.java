@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2015 Nu Development Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA  02111-1307, USA.
+ */
+
+
+package functions;
+
+import com.nubits.nubot.pricefeeds.history.PriceBar;
+import com.nubits.nubot.pricefeeds.history.PriceTick;
+import com.nubits.nubot.pricefeeds.history.TickStore;
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+
+public class TestTickStore extends TestCase {
+
+    @Test
+    public void testRangeAndDownsample() throws Exception {
+        File file = File.createTempFile("nubot", ".ticks");
+        file.delete();
+        file.deleteOnExit();
+        TickStore store = new TickStore(file.getAbsolutePath());
+
+        ArrayList<PriceTick> ticks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ticks.add(new PriceTick(i * 1000L, "bitfinex", "btc_usd", 200 + i));
+            ticks.add(new PriceTick(i * 1000L, "coinbase", "btc_usd", 300 + i));
+        }
+        store.append(ticks.subList(0, 50));
+        store.append(ticks.subList(50, ticks.size()));
+        assertEquals(200, store.count());
+        assertEquals("bitfinex", store.first().getFeed());
+
+        ArrayList<PriceTick> range = store.range(10000, 19000, "coinbase", null);
+        assertEquals(10, range.size());
+        assertEquals(310.0, range.get(0).getPrice());
+        assertEquals("btc_usd", range.get(0).getPair());
+        assertEquals(20, store.range(10000, 19000, null, "btc_usd").size());
+
+        ArrayList<PriceBar> bars = store.downsample(0, 99000, 10000, "bitfinex", null);
+        assertEquals(10, bars.size());
+        assertEquals(20000L, bars.get(2).getTimestamp());
+        assertEquals(220.0, bars.get(2).getOpen());
+        assertEquals(229.0, bars.get(2).getHigh());
+        assertEquals(10, bars.get(2).getCount());
+    }
+}
@@ -33,9 +33,9 @@ public class TestTasksConnectivity extends TestCase {
     @Test
     public void test() {
 
-        Global.exchange = new Exchange(ExchangeFacade.BTCE);
-        TradeInterface ti = ExchangeFacade.getInterfaceByName(ExchangeFacade.BTCE, null, Global.exchange);
-        Global.exchange.getLiveData().setUrlConnectionCheck(ti.getUrlConnectionCheck());
+        Global.session().exchange = new Exchange(ExchangeFacade.BTCE);
+        TradeInterface ti = ExchangeFacade.getInterfaceByName(ExchangeFacade.BTCE, null, Global.session().exchange);
+        Global.session().exchange.getLiveData().setUrlConnectionCheck(ti.getUrlConnectionCheck());
 
         BotTask checkConnectionTask = new BotTask(
                 new CheckConnectionTask(), 127, "checkConnection");
@@ -84,13 +84,13 @@ public class TestExchangeAlts extends TestCase {
             LOG.info("using opt " + opt);
             LOG.info("key: " + opt.apiKey);
             LOG.info("secret: " + opt.apiSecret);
-            Global.options = opt;
+            Global.session().options = opt;
         } catch (NuBotConfigException e) {
             e.printStackTrace();
         }
 
 
-        Global.options = opt;
+        Global.session().options = opt;
 
         CurrencyPair testPair = CurrencyList.NBT_BTC;
 
@@ -100,7 +100,7 @@ public class TestExchangeAlts extends TestCase {
 
         }
 
-        ApiResponse balancesResponse = Global.exchange.getTrade().getAvailableBalances(testPair);
+        ApiResponse balancesResponse = Global.session().exchange.getTrade().getAvailableBalances(testPair);
 
 
         if (balancesResponse.isPositive()) {
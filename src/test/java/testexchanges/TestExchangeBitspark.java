@@ -82,7 +82,7 @@ public class TestExchangeBitspark extends TestCase {
             LOG.info("using opt " + opt);
             LOG.info("key: " + opt.apiKey);
             LOG.info("secret: " + opt.apiSecret);
-            Global.options = opt;
+            Global.session().options = opt;
         } catch (NuBotConfigException e) {
             e.printStackTrace();
         }
@@ -93,15 +93,15 @@ public class TestExchangeBitspark extends TestCase {
 
         }
 
-        //ti = ExchangeFacade.exchangeInterfaceSetup(Global.options);
-        ti = Global.exchange.getTradeInterface();
-        ti.setExchange(Global.exchange);
+        //ti = ExchangeFacade.exchangeInterfaceSetup(Global.session().options);
+        ti = Global.session().exchange.getTradeInterface();
+        ti.setExchange(Global.session().exchange);
 
         assertTrue(ti != null);
 
         Currency btc = CurrencyList.BTC;
-        Global.exchange.getLiveData().setConnected(true);
-        ExchangeLiveData ld = Global.exchange.getLiveData();
+        Global.session().exchange.getLiveData().setConnected(true);
+        ExchangeLiveData ld = Global.session().exchange.getLiveData();
 
         assertTrue(ld != null);
         long start = System.currentTimeMillis();
@@ -142,7 +142,7 @@ public class TestExchangeBitspark extends TestCase {
             LOG.info("using opt " + opt);
             LOG.info("key: " + opt.apiKey);
             LOG.info("secret: " + opt.apiSecret);
-            Global.options = opt;
+            Global.session().options = opt;
         } catch (NuBotConfigException e) {
             e.printStackTrace();
         }
@@ -153,15 +153,15 @@ public class TestExchangeBitspark extends TestCase {
 
         }
 
-        ti = Global.exchange.getTradeInterface();
-        ti.setExchange(Global.exchange);
+        ti = Global.session().exchange.getTradeInterface();
+        ti.setExchange(Global.session().exchange);
 
         assertTrue(ti != null);
 
 
         CurrencyPair pair = new CurrencyPair(CurrencyList.NBT, CurrencyList.BTC);
-        Global.exchange.getLiveData().setConnected(true);
-        ExchangeLiveData ld = Global.exchange.getLiveData();
+        Global.session().exchange.getLiveData().setConnected(true);
+        ExchangeLiveData ld = Global.session().exchange.getLiveData();
 
         assertTrue(ld != null);
 
@@ -193,7 +193,7 @@ public class TestExchangeBitspark extends TestCase {
             LOG.info("using opt " + opt);
             LOG.info("key: " + opt.apiKey);
             LOG.info("secret: " + opt.apiSecret);
-            Global.options = opt;
+            Global.session().options = opt;
         } catch (NuBotConfigException e) {
             e.printStackTrace();
         }
@@ -205,10 +205,10 @@ public class TestExchangeBitspark extends TestCase {
 
         }
 
-        //ti = ExchangeFacade.exchangeInterfaceSetup(Global.options);
-        ti = Global.exchange.getTradeInterface();
+        //ti = ExchangeFacade.exchangeInterfaceSetup(Global.session().options);
+        ti = Global.session().exchange.getTradeInterface();
         //Bug
-        ti.setExchange(Global.exchange);
+        ti.setExchange(Global.session().exchange);
 
         assertTrue(ti != null);
 
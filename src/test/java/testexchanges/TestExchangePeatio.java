@@ -48,7 +48,7 @@ public class TestExchangePeatio extends TestCase {
 
         TradeInterface ti = setupTI();
 
-        Global.exchange.getLiveData().setConnected(true);
+        Global.session().exchange.getLiveData().setConnected(true);
 
         ApiResponse balancesResponse = ti.getAvailableBalances(testPair);
 
@@ -82,7 +82,7 @@ public class TestExchangePeatio extends TestCase {
         //Load keystore
         InitTests.loadKeystore(true);
 
-        Global.options = opt;
+        Global.session().options = opt;
 
 
         try {
@@ -91,15 +91,15 @@ public class TestExchangePeatio extends TestCase {
 
         }
 
-        TradeInterface ti;// = ExchangeFacade.exchangeInterfaceSetup(Global.options);
-        ti = Global.exchange.getTradeInterface();
+        TradeInterface ti;// = ExchangeFacade.exchangeInterfaceSetup(Global.session().options);
+        ti = Global.session().exchange.getTradeInterface();
         //Bug
-        ti.setExchange(Global.exchange);
+        ti.setExchange(Global.session().exchange);
 
         assertTrue(ti != null);
 
         Currency btc = CurrencyList.BTC;
-        Global.exchange.getLiveData().setConnected(true);
+        Global.session().exchange.getLiveData().setConnected(true);
         return ti;
     }
 
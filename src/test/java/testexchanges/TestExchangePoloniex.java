@@ -75,12 +75,12 @@ public class TestExchangePoloniex extends TestCase {
         try {
             opt = ParseOptions
                     .parseOptionsSingle(testconfig, false);
-            Global.options = opt;
+            Global.session().options = opt;
         } catch (NuBotConfigException e) {
             e.printStackTrace();
         }
 
-        ti = ExchangeFacade.exchangeInterfaceSetup(Global.options);
+        ti = ExchangeFacade.exchangeInterfaceSetup(Global.session().options);
 
         Currency btc = CurrencyList.BTC;
         assertTrue(btc != null);
@@ -113,12 +113,12 @@ public class TestExchangePoloniex extends TestCase {
         try {
             opt = ParseOptions
                     .parseOptionsSingle(testconfig, false);
-            Global.options = opt;
+            Global.session().options = opt;
         } catch (NuBotConfigException e) {
             e.printStackTrace();
         }
 
-        ti = ExchangeFacade.exchangeInterfaceSetup(Global.options);
+        ti = ExchangeFacade.exchangeInterfaceSetup(Global.session().options);
 
         CurrencyPair pair = new CurrencyPair(CurrencyList.NBT, CurrencyList.BTC);
         ApiResponse priceResponse = ti.getLastPrice(pair);